@@ -0,0 +1,430 @@
+package com.mee.source.audit;
+
+import com.mee.source.c1.ArrayList;
+import com.mee.source.c2.HashMap;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An opt-in registry of {@link ArrayList}s and {@link HashMap}s that
+ * reports their <i>slack</i>, the memory held by unused capacity, per
+ * creation site, and that can give it back by trimming idle instances,
+ * on demand or when the heap runs short.
+ * 可选的 ArrayList/HashMap 登记处：按创建位置统计未使用的容量(slack)所占的内存，
+ * 并且可以在需要时或堆内存紧张时对空闲的实例执行缩容
+ *
+ * <p>Slack is {@code capacity() - size()} unused slots of an
+ * {@code ArrayList}, and for a {@code HashMap} the buckets beyond the
+ * smallest table that would hold its mappings, which only
+ * {@link HashMap#trimToSize()} gives back.  Both are counted at the size
+ * of a reference.
+ * 笔记：ArrayList 的 slack 是 capacity() - size() 个空闲槽位；HashMap 的 slack 是超出“容纳现有映射所需最小 table”的桶，
+ *      只有 HashMap.trimToSize() 能回收；二者都按一个引用的大小计算字节数
+ *
+ * <p>Instances are tracked through weak references and never kept alive
+ * by the auditor.  The creation site is the caller of {@link #track}
+ * unless one is given; recording it takes a stack walk, so tracking is
+ * meant for the long-lived instances under suspicion, not for every
+ * temporary list.
+ * 笔记：实例通过弱引用跟踪，不会因为登记而无法回收；创建位置默认是 track 的调用者，
+ *      获取它需要遍历调用栈，所以只适合登记可疑的长生命周期实例，而不是每一个临时列表
+ *
+ * <p>An instance is <i>idle</i> if its size did not change between two
+ * observations at least {@code idleNanos} apart; observations are taken
+ * when it is tracked, by {@link #report()} and by every trim pass.
+ * {@link #trimIdle(long)} trims the idle instances with slack until its
+ * time budget runs out.  {@link #startMemoryListener(double)} sets a
+ * collection usage threshold on the heap memory pools and runs such a
+ * pass, with the configured budget, whenever one of them is still above
+ * the threshold after a garbage collection.
+ * 笔记：两次观察(登记时、report() 时、每次缩容时)间隔至少 idleNanos 且 size 没有变化的实例视为空闲；
+ *      trimIdle 在时间预算内对有 slack 的空闲实例缩容；startMemoryListener 为堆内存池设置 GC 后使用量阈值，
+ *      GC 之后仍然超过阈值时用配置的时间预算执行一次缩容
+ *
+ * <p><strong>Trimming modifies the instances from the thread that runs
+ * the pass</strong>, the JMX notification thread in the case of the memory
+ * listener.  As neither {@code ArrayList} nor {@code HashMap} is
+ * synchronized, automatic trimming is only safe for instances that are
+ * not being accessed concurrently when it happens, typically caches that
+ * are built once and then only read under a lock of the application, or
+ * not at all.
+ * 注意：缩容是在执行它的线程中修改实例(内存监听器的情况下是 JMX 通知线程)，而 ArrayList/HashMap 都不是线程安全的，
+ *      所以自动缩容只适用于缩容时不会被并发访问的实例
+ *
+ * @see ArrayList#trimToSize()
+ * @see HashMap#trimToSize()
+ */
+public class SlackAuditor {
+
+    /** Default time budget of a trim pass run by the memory listener. */
+    static final long DEFAULT_TRIM_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    /** Default time an instance must stay unchanged to count as idle. */
+    static final long DEFAULT_IDLE_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    /** Size of a reference, assuming compressed oops below a 32 GiB heap. */
+    static final int REFERENCE_SIZE = Runtime.getRuntime().maxMemory() < (32L << 30) ? 4 : 8;
+
+    private final long trimBudgetNanos;
+    private final long idleNanos;
+
+    private final Set<Tracked> tracked = ConcurrentHashMap.newKeySet();
+    private final ReferenceQueue<Object> collected = new ReferenceQueue<>();
+
+    /** The pools whose threshold we set, and their previous thresholds. */
+    private MemoryPoolMXBean[] pools;
+    private long[] previousThresholds;
+    private NotificationListener listener;
+
+    /**
+     * Creates an auditor whose memory listener trims for at most 50 ms,
+     * and that considers an instance idle after 10 seconds unchanged.
+     */
+    public SlackAuditor() {
+        this(DEFAULT_TRIM_BUDGET_NANOS, DEFAULT_IDLE_NANOS);
+    }
+
+    /**
+     * Creates an auditor.
+     *
+     * @param trimBudgetNanos the time budget of a trim pass run by the
+     *        memory listener
+     * @param idleNanos how long an instance must keep its size to count
+     *        as idle, {@code 0} to trim any instance
+     * @throws IllegalArgumentException if the budget is not positive or
+     *         {@code idleNanos} is negative
+     */
+    public SlackAuditor(long trimBudgetNanos, long idleNanos) {
+        if (trimBudgetNanos <= 0)
+            throw new IllegalArgumentException("Illegal trim budget: " + trimBudgetNanos);
+        if (idleNanos < 0)
+            throw new IllegalArgumentException("Illegal idle time: " + idleNanos);
+        this.trimBudgetNanos = trimBudgetNanos;
+        this.idleNanos = idleNanos;
+    }
+
+    /**
+     * Tracks a list, under the site of the caller.
+     *
+     * @param list the list to track
+     * @param <L> the type of the list
+     * @return {@code list}
+     */
+    public <L extends ArrayList<?>> L track(L list) {
+        add(list, callerSite());
+        return list;
+    }
+
+    /**
+     * Tracks a map, under the site of the caller.
+     *
+     * @param map the map to track
+     * @param <M> the type of the map
+     * @return {@code map}
+     */
+    public <M extends HashMap<?,?>> M track(M map) {
+        add(map, callerSite());
+        return map;
+    }
+
+    /**
+     * Tracks a list under the given site name.
+     *
+     * @param list the list to track
+     * @param site the name to report the list under
+     * @param <L> the type of the list
+     * @return {@code list}
+     */
+    public <L extends ArrayList<?>> L track(L list, String site) {
+        add(list, site);
+        return list;
+    }
+
+    /**
+     * Tracks a map under the given site name.
+     *
+     * @param map the map to track
+     * @param site the name to report the map under
+     * @param <M> the type of the map
+     * @return {@code map}
+     */
+    public <M extends HashMap<?,?>> M track(M map, String site) {
+        add(map, site);
+        return map;
+    }
+
+    private void add(Object instance, String site) {
+        if (instance == null || site == null)
+            throw new NullPointerException();
+        expunge();
+        tracked.add(new Tracked(instance, site, collected));
+    }
+
+    private static String callerSite() {
+        // [0] callerSite, [1] track, [2] the caller
+        StackTraceElement[] stack = new Throwable().getStackTrace();
+        return stack.length > 2 ? stack[2].toString() : "unknown";
+    }
+
+    /** Drops the trackers of collected instances. */
+    private void expunge() {
+        Object t;
+        while ((t = collected.poll()) != null)
+            tracked.remove(t);
+    }
+
+    /**
+     * Returns the number of tracked instances that are still alive.
+     */
+    public int trackedCount() {
+        expunge();
+        return tracked.size();
+    }
+
+    /**
+     * Returns the slack of the tracked instances, summed per creation site,
+     * the sites with the most slack first.
+     * 按创建位置汇总 slack，slack 最多的在前
+     *
+     * @return one entry per site that has live instances
+     */
+    public synchronized List<SiteSlack> report() {
+        expunge();
+        long now = System.nanoTime();
+        HashMap<String, SiteSlack> sites = new HashMap<>();
+        for (Tracked t : tracked) {
+            Object o = t.get();
+            if (o == null)
+                continue;
+            t.observe(o, now);
+            SiteSlack s = sites.get(t.site);
+            if (s == null)
+                sites.put(t.site, s = new SiteSlack(t.site));
+            s.instances++;
+            s.slackBytes += (long) slack(o) * REFERENCE_SIZE;
+        }
+        ArrayList<SiteSlack> result = new ArrayList<>(sites.values());
+        result.sort(Comparator.comparingLong((SiteSlack s) -> s.slackBytes).reversed());
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Returns the total slack of the tracked instances, in bytes.
+     */
+    public long totalSlackBytes() {
+        long total = 0;
+        for (SiteSlack s : report())
+            total += s.slackBytes;
+        return total;
+    }
+
+    /**
+     * Trims the idle tracked instances that have slack, until the time
+     * budget runs out.  Immutable instances are skipped: they are
+     * typically shared for concurrent reads without locking, and a trim,
+     * run from the thread calling this method, is not safe against such
+     * readers.  Their slack is still reported.
+     * 在时间预算内对有 slack 的空闲实例执行缩容；不可变的实例跳过(它们通常被多个线程不加锁地读取，缩容对这些读者不安全)，
+     * 但仍然会出现在报告中
+     *
+     * @param budgetNanos the time budget of this pass
+     * @return the number of bytes given back
+     */
+    public synchronized long trimIdle(long budgetNanos) {
+        expunge();
+        long start = System.nanoTime();
+        long freed = 0;
+        for (Tracked t : tracked) {
+            long now = System.nanoTime();
+            if (now - start >= budgetNanos)
+                break;
+            Object o = t.get();
+            if (o == null)
+                continue;
+            boolean idle = t.isIdle(o, now, idleNanos);
+            t.observe(o, now);
+            if (!idle)
+                continue;
+            if (immutable(o))
+                continue;
+            int slack = slack(o);
+            if (slack == 0)
+                continue;
+            if (o instanceof ArrayList)
+                ((ArrayList<?>) o).trimToSize();
+            else
+                ((HashMap<?,?>) o).trimToSize();
+            freed += (long) (slack - slack(o)) * REFERENCE_SIZE;
+        }
+        return freed;
+    }
+
+    /**
+     * Starts trimming idle instances, for the configured time budget,
+     * whenever a heap memory pool is still above {@code usageFraction} of
+     * its maximum after a garbage collection.  Sets the collection usage
+     * threshold of the heap pools that support one; the previous
+     * thresholds are restored by {@link #stopMemoryListener()}.
+     * 开始监听：为支持的堆内存池设置 GC 后使用量阈值(最大值的 usageFraction)，超过时执行一次缩容
+     *
+     * @param usageFraction the threshold, as a fraction of the maximum
+     *        size of each pool, in {@code (0, 1)}
+     * @throws IllegalArgumentException if the fraction is out of range
+     * @throws IllegalStateException if the listener is already started
+     */
+    public synchronized void startMemoryListener(double usageFraction) {
+        if (!(usageFraction > 0 && usageFraction < 1))
+            throw new IllegalArgumentException("Illegal usage fraction: " + usageFraction);
+        if (listener != null)
+            throw new IllegalStateException("Memory listener already started");
+        List<MemoryPoolMXBean> all = ManagementFactory.getMemoryPoolMXBeans();
+        MemoryPoolMXBean[] ps = new MemoryPoolMXBean[all.size()];
+        long[] previous = new long[ps.length];
+        int n = 0;
+        for (MemoryPoolMXBean p : all) {
+            long max = p.getUsage().getMax();
+            if (p.getType() == MemoryType.HEAP && p.isCollectionUsageThresholdSupported() && max > 0) {
+                previous[n] = p.getCollectionUsageThreshold();
+                p.setCollectionUsageThreshold((long) (max * usageFraction));
+                ps[n++] = p;
+            }
+        }
+        pools = java.util.Arrays.copyOf(ps, n);
+        previousThresholds = java.util.Arrays.copyOf(previous, n);
+        listener = new NotificationListener() {
+            public void handleNotification(Notification notification, Object handback) {
+                if (MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(notification.getType()))
+                    trimIdle(trimBudgetNanos);
+            }
+        };
+        ((NotificationEmitter) ManagementFactory.getMemoryMXBean()).addNotificationListener(listener, null, null);
+    }
+
+    /**
+     * Stops the memory listener, if started, and restores the thresholds
+     * it replaced.
+     */
+    public synchronized void stopMemoryListener() {
+        if (listener == null)
+            return;
+        try {
+            ((NotificationEmitter) ManagementFactory.getMemoryMXBean()).removeNotificationListener(listener);
+        } catch (ListenerNotFoundException e) {
+            // already gone
+        }
+        for (int i = 0; i < pools.length; i++)
+            pools[i].setCollectionUsageThreshold(previousThresholds[i]);
+        listener = null;
+        pools = null;
+        previousThresholds = null;
+    }
+
+    /**
+     * Returns whether a tracked instance was made immutable.
+     */
+    static boolean immutable(Object o) {
+        return (o instanceof ArrayList) ? ((ArrayList<?>) o).isImmutable() : ((HashMap<?,?>) o).isImmutable();
+    }
+
+    /**
+     * Returns the unused slots of a tracked instance.
+     */
+    static int slack(Object o) {
+        if (o instanceof ArrayList) {
+            ArrayList<?> list = (ArrayList<?>) o;
+            return list.capacity() - list.size();
+        }
+        HashMap<?,?> map = (HashMap<?,?>) o;
+        int buckets = map.bucketCount();
+        if (buckets == 0)
+            return 0;
+        int size = map.size();
+        if (size == 0)
+            return buckets;
+        // the table HashMap.trimToSize() would shrink to
+        float ft = ((float) size / map.loadFactor()) + 1.0F;
+        int c = ft >= (float) (1 << 30) ? 1 << 30 : (int) ft;
+        int needed = c <= 1 ? 1 : Integer.highestOneBit(c - 1) << 1;
+        return Math.max(0, buckets - needed);
+    }
+
+    /**
+     * The slack of the instances created at one site.
+     */
+    public static final class SiteSlack {
+        final String site;
+        int instances;
+        long slackBytes;
+
+        SiteSlack(String site) {
+            this.site = site;
+        }
+
+        /** Returns the creation site. */
+        public String site() {
+            return site;
+        }
+
+        /** Returns the number of live instances from this site. */
+        public int instances() {
+            return instances;
+        }
+
+        /** Returns the unused capacity of these instances, in bytes. */
+        public long slackBytes() {
+            return slackBytes;
+        }
+
+        public String toString() {
+            return site + ": " + instances + " instances, " + slackBytes + " bytes of slack";
+        }
+    }
+
+    /**
+     * Weak reference to a tracked instance, with its site and the last
+     * observation of its size.
+     */
+    private static final class Tracked extends WeakReference<Object> {
+        final String site;
+        int lastSize;
+        long lastSeen;
+
+        Tracked(Object instance, String site, ReferenceQueue<Object> queue) {
+            super(instance, queue);
+            this.site = site;
+            this.lastSize = size(instance);
+            this.lastSeen = System.nanoTime();
+        }
+
+        void observe(Object o, long now) {
+            int size = size(o);
+            if (size != lastSize) {
+                lastSize = size;
+                lastSeen = now;
+            }
+        }
+
+        boolean isIdle(Object o, long now, long idleNanos) {
+            return idleNanos == 0 || (size(o) == lastSize && now - lastSeen >= idleNanos);
+        }
+
+        static int size(Object o) {
+            return (o instanceof ArrayList) ? ((ArrayList<?>) o).size() : ((HashMap<?,?>) o).size();
+        }
+    }
+}
@@ -488,6 +488,22 @@ public abstract class AbstractList<E> extends AbstractCollection<E> implements L
                 new SubList<>(this, fromIndex, toIndex));
     }
 
+    /**
+     * Returns a random-access view of {@code list[fromIndex, toIndex)}
+     * whose every access goes through the methods of {@code list}, for
+     * subclasses that inherit a faster {@code subList} (such as the one of
+     * {@link ArrayList}) but need their own methods to see each change.
+     * 返回一个所有操作都经过 list 自身方法的子列表，供继承了 ArrayList 等更快的 subList、但需要感知每次修改的子类使用
+     *
+     * @throws IndexOutOfBoundsException if an endpoint index value is out of range
+     *         {@code (fromIndex < 0 || toIndex > size)}
+     * @throws IllegalArgumentException if the endpoint indices are out of order
+     *         {@code (fromIndex > toIndex)}
+     */
+    static <E> List<E> randomAccessSubList(AbstractList<E> list, int fromIndex, int toIndex) {
+        return new RandomAccessSubList<>(list, fromIndex, toIndex);
+    }
+
     // Comparison and hashing
 
     /**
@@ -619,35 +635,67 @@ public abstract class AbstractList<E> extends AbstractCollection<E> implements L
     }
 }
 
+/**
+ * A view of {@code root[offset, offset + size)}.  A subList of a subList
+ * does not wrap its parent: it holds the same {@code root} and an absolute
+ * {@code offset}, so every access is a single call on the root list however
+ * deeply the views are nested.  Structural modifications are applied to the
+ * root and then recorded, by {@link #updateSizeAndModCount}, in this view
+ * and each view it was taken from.
+ * 嵌套的 subList 不再层层包装 parent，而是直接持有 root 和绝对偏移量 offset，无论嵌套多少层每次访问都只调用一次 root；
+ * 结构修改作用于 root 之后，再沿 parent 链更新各层的 size 和 modCount
+ */
 class SubList<E> extends AbstractList<E> {
-    private final AbstractList<E> l;
-    private final int offset;
+    private final AbstractList<E> root;
+    private final SubList<E> parent; // null for a subList of the root itself
+    private final int offset;        // absolute, into root
     private int size;
 
-    SubList(AbstractList<E> list, int fromIndex, int toIndex) {
+    /**
+     * Constructs a subList of an arbitrary AbstractList, which is not a
+     * SubList itself.
+     */
+    SubList(AbstractList<E> root, int fromIndex, int toIndex) {
+        rangeCheck(fromIndex, toIndex, root.size());
+        this.root = root;
+        this.parent = null;
+        this.offset = fromIndex;
+        this.size = toIndex - fromIndex;
+        this.modCount = root.modCount;
+    }
+
+    /**
+     * Constructs a subList of another SubList.
+     */
+    SubList(SubList<E> parent, int fromIndex, int toIndex) {
+        rangeCheck(fromIndex, toIndex, parent.size());
+        this.root = parent.root;
+        this.parent = parent;
+        this.offset = parent.offset + fromIndex;
+        this.size = toIndex - fromIndex;
+        this.modCount = root.modCount;
+    }
+
+    private static void rangeCheck(int fromIndex, int toIndex, int size) {
         if (fromIndex < 0)
             throw new IndexOutOfBoundsException("fromIndex = " + fromIndex);
-        if (toIndex > list.size())
+        if (toIndex > size)
             throw new IndexOutOfBoundsException("toIndex = " + toIndex);
         if (fromIndex > toIndex)
             throw new IllegalArgumentException("fromIndex(" + fromIndex +
                     ") > toIndex(" + toIndex + ")");
-        l = list;
-        offset = fromIndex;
-        size = toIndex - fromIndex;
-        this.modCount = l.modCount;
     }
 
     public E set(int index, E element) {
         rangeCheck(index);
         checkForComodification();
-        return l.set(index+offset, element);
+        return root.set(index+offset, element);
     }
 
     public E get(int index) {
         rangeCheck(index);
         checkForComodification();
-        return l.get(index+offset);
+        return root.get(index+offset);
     }
 
     public int size() {
@@ -658,25 +706,22 @@ class SubList<E> extends AbstractList<E> {
     public void add(int index, E element) {
         rangeCheckForAdd(index);
         checkForComodification();
-        l.add(index+offset, element);
-        this.modCount = l.modCount;
-        size++;
+        root.add(index+offset, element);
+        updateSizeAndModCount(1);
     }
 
     public E remove(int index) {
         rangeCheck(index);
         checkForComodification();
-        E result = l.remove(index+offset);
-        this.modCount = l.modCount;
-        size--;
+        E result = root.remove(index+offset);
+        updateSizeAndModCount(-1);
         return result;
     }
 
     protected void removeRange(int fromIndex, int toIndex) {
         checkForComodification();
-        l.removeRange(fromIndex+offset, toIndex+offset);
-        this.modCount = l.modCount;
-        size -= (toIndex-fromIndex);
+        root.removeRange(fromIndex+offset, toIndex+offset);
+        updateSizeAndModCount(fromIndex-toIndex);
     }
 
     public boolean addAll(Collection<? extends E> c) {
@@ -690,9 +735,8 @@ class SubList<E> extends AbstractList<E> {
             return false;
 
         checkForComodification();
-        l.addAll(offset+index, c);
-        this.modCount = l.modCount;
-        size += cSize;
+        root.addAll(offset+index, c);
+        updateSizeAndModCount(cSize);
         return true;
     }
 
@@ -705,7 +749,7 @@ class SubList<E> extends AbstractList<E> {
         rangeCheckForAdd(index);
 
         return new ListIterator<E>() {
-            private final ListIterator<E> i = l.listIterator(index+offset);
+            private final ListIterator<E> i = root.listIterator(index+offset);
 
             public boolean hasNext() {
                 return nextIndex() < size;
@@ -739,8 +783,7 @@ class SubList<E> extends AbstractList<E> {
 
             public void remove() {
                 i.remove();
-                SubList.this.modCount = l.modCount;
-                size--;
+                updateSizeAndModCount(-1);
             }
 
             public void set(E e) {
@@ -749,8 +792,7 @@ class SubList<E> extends AbstractList<E> {
 
             public void add(E e) {
                 i.add(e);
-                SubList.this.modCount = l.modCount;
-                size++;
+                updateSizeAndModCount(1);
             }
         };
     }
@@ -774,14 +816,32 @@ class SubList<E> extends AbstractList<E> {
     }
 
     private void checkForComodification() {
-        if (this.modCount != l.modCount)
+        if (this.modCount != root.modCount)
             throw new ConcurrentModificationException();
     }
+
+    /**
+     * Records a structural modification of {@code sizeChange} elements,
+     * already applied to the root, in this view and every view it was
+     * taken from.
+     */
+    private void updateSizeAndModCount(int sizeChange) {
+        SubList<E> slist = this;
+        do {
+            slist.size += sizeChange;
+            slist.modCount = root.modCount;
+            slist = slist.parent;
+        } while (slist != null);
+    }
 }
 
 class RandomAccessSubList<E> extends SubList<E> implements RandomAccess {
-    RandomAccessSubList(AbstractList<E> list, int fromIndex, int toIndex) {
-        super(list, fromIndex, toIndex);
+    RandomAccessSubList(AbstractList<E> root, int fromIndex, int toIndex) {
+        super(root, fromIndex, toIndex);
+    }
+
+    RandomAccessSubList(RandomAccessSubList<E> parent, int fromIndex, int toIndex) {
+        super(parent, fromIndex, toIndex);
     }
 
     public List<E> subList(int fromIndex, int toIndex) {
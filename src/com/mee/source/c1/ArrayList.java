@@ -137,7 +137,7 @@ public class ArrayList<E> extends AbstractList<E>
      * Default initial capacity.
      * 默认的初始化容量大小
      */
-    private static final int DEFAULT_CAPACITY = 10;
+    static final int DEFAULT_CAPACITY = 10;
 
     /**
      * Shared empty array instance used for empty instances.
@@ -173,6 +173,38 @@ public class ArrayList<E> extends AbstractList<E>
      */
     private int size;
 
+    /**
+     * The policy deciding the first allocation and the growth of
+     * {@code elementData}.  Not serialized: a deserialized list uses
+     * {@link GrowthPolicy#ONE_AND_HALF}.
+     * 扩容策略，决定第一次分配的容量以及 grow 时的新容量(不参与序列化，反序列化后为默认策略)
+     */
+    private transient GrowthPolicy growthPolicy = GrowthPolicy.ONE_AND_HALF;
+
+    /**
+     * Number of times {@code grow} reallocated {@code elementData}.
+     * 扩容(grow)的次数
+     */
+    private transient long growCount;
+
+    /**
+     * Total number of array slots copied by {@code grow}.
+     * 扩容过程中累计拷贝的数组槽位数
+     */
+    private transient long copiedElementCount;
+
+    /**
+     * Set by {@link #makeImmutable()}.  Not serialized: a deserialized list
+     * is mutable.
+     * 是否已经变为不可变(不参与序列化，反序列化后是可变的)
+     */
+    private transient boolean immutable;
+
+    /**
+     * Cached hash code of an immutable list, {@code 0} if not computed yet.
+     */
+    private transient int cachedHash;
+
     /**
      * Constructs an empty list with the specified initial capacity.
      * 构造一个给定初始容量的空数组(列表)
@@ -201,6 +233,37 @@ public class ArrayList<E> extends AbstractList<E>
         this.elementData = DEFAULTCAPACITY_EMPTY_ELEMENTDATA;
     }
 
+    /**
+     * Constructs an empty list that allocates and grows its backing array
+     * according to the specified policy.  No array is allocated until the
+     * first element is added; its size is then
+     * {@link GrowthPolicy#initialCapacity}.
+     * 构造一个使用指定扩容策略的空列表
+     *
+     * @param  growthPolicy the growth policy of the list
+     * @throws NullPointerException if the specified policy is null
+     */
+    public ArrayList(GrowthPolicy growthPolicy) {
+        this.growthPolicy = Objects.requireNonNull(growthPolicy);
+        this.elementData = DEFAULTCAPACITY_EMPTY_ELEMENTDATA;
+    }
+
+    /**
+     * Constructs an empty list with the specified initial capacity that
+     * grows its backing array according to the specified policy.
+     * 构造一个给定初始容量、使用指定扩容策略的空列表
+     *
+     * @param  initialCapacity  the initial capacity of the list
+     * @param  growthPolicy the growth policy of the list
+     * @throws IllegalArgumentException if the specified initial capacity
+     *         is negative
+     * @throws NullPointerException if the specified policy is null
+     */
+    public ArrayList(int initialCapacity, GrowthPolicy growthPolicy) {
+        this(initialCapacity);
+        this.growthPolicy = Objects.requireNonNull(growthPolicy);
+    }
+
     /**
      * Constructs a list containing the elements of the specified
      * collection, in the order they are returned by the collection's
@@ -258,6 +321,17 @@ public class ArrayList<E> extends AbstractList<E>
         }
     }
 
+    /**
+     * Returns the capacity of this <tt>ArrayList</tt> instance, the length
+     * of its backing array; {@code capacity() - size()} slots are unused.
+     * 返回当前容量，即底层数组的长度；capacity() - size() 个槽位是空闲的
+     *
+     * @return the capacity of this list
+     */
+    public int capacity() {
+        return elementData.length;
+    }
+
     /**
      * Increases the capacity of this <tt>ArrayList</tt> instance, if
      * necessary, to ensure that it can hold at least the number of elements
@@ -274,7 +348,7 @@ public class ArrayList<E> extends AbstractList<E>
                 ? 0
                 // larger than default for default empty table. It's already
                 // supposed to be at default size.
-                : DEFAULT_CAPACITY;
+                : growthPolicy.initialCapacity(0);
         // 这是当前数组有元素的时候扩，或者当前数组为默认数组且>容量(空数组容量为10) 的时候扩
         // 也就是空数组(他的默认容量就是10) 且需扩容的大小 < 10 的时候 不用扩，空数组扩无意义
         if (minCapacity > minExpand) {
@@ -284,13 +358,14 @@ public class ArrayList<E> extends AbstractList<E>
     }
 
     // 计算容量
-    private static int calculateCapacity(Object[] elementData, int minCapacity) {
+    private static int calculateCapacity(Object[] elementData, int minCapacity, GrowthPolicy growthPolicy) {
         // 如果当前数组(elementData)为完全的空(无元素且容量为0) 计算出来的元素最小为10
         // 当然如果走的是addAll，minCapacity=size+size(addAll(..))
         // 如果走的是add函数，minCapacity=size+1
         // 总之就是 当前数组为空的时候 要一次性保证容量一次性能容纳add进来的元素，主要保证了 空数组+addAll的场景下 一次就能放得下
+        // 第一次分配多大现在由扩容策略决定，默认策略(GrowthPolicy.ONE_AND_HALF)依然是 Math.max(DEFAULT_CAPACITY, minCapacity)
         if (elementData == DEFAULTCAPACITY_EMPTY_ELEMENTDATA) {
-            return Math.max(DEFAULT_CAPACITY, minCapacity);
+            return Math.max(growthPolicy.initialCapacity(minCapacity), minCapacity);
         }
         return minCapacity;
     }
@@ -298,7 +373,7 @@ public class ArrayList<E> extends AbstractList<E>
     // 确保容纳的能力
     private void ensureCapacityInternal(int minCapacity) {
         // calculateCapacity计算出来的容量大小最低为10
-        ensureExplicitCapacity(calculateCapacity(elementData, minCapacity));
+        ensureExplicitCapacity(calculateCapacity(elementData, minCapacity, growthPolicy));
     }
 
     // 確保顯式容量
@@ -336,7 +411,8 @@ public class ArrayList<E> extends AbstractList<E>
         int oldCapacity = elementData.length;
         // 这里的增长策略是 oldCapacity=10 -> newCapacity=15 oldCapacity=9 -> newCapacity=14
         // 即 每一次增长的为上一次的一半
-        int newCapacity = oldCapacity + (oldCapacity >> 1);
+        // 现在具体增长多少交给扩容策略(growthPolicy)决定，默认的 GrowthPolicy.ONE_AND_HALF 就是 oldCapacity + (oldCapacity >> 1)
+        int newCapacity = growthPolicy.newCapacity(oldCapacity, minCapacity);
         // 这里个人觉得只是一个保险，对于类似addAll这样的操作 newCapacity 可能小于一次add的数量
         // 比如当前容量是10[oldCapacity:10->newCapacity:15],addAll(100)后所需的容量还是不够 这时就会出现[newCapacity:100]
         if (newCapacity - minCapacity < 0)
@@ -351,9 +427,51 @@ public class ArrayList<E> extends AbstractList<E>
         //  複製指定的數組，截斷或填充空值（如有必要），使副本具有指定的長度。對於在原始數組和副本中都有效的所有索引，
         //  這兩個數組將包含相同的值。對於在副本中有效但在原始副本中無效的任何索引，副本將包含 null。
         //  當且僅當指定長度大於原始數組的長度時，此類索引才會存在。結果數組與原始數組的類完全相同。
+        growCount++;
+        copiedElementCount += oldCapacity;
         elementData = Arrays.copyOf(elementData, newCapacity);
     }
 
+    /**
+     * Returns the growth policy of this list.
+     *
+     * @return the growth policy of this list
+     */
+    public GrowthPolicy growthPolicy() {
+        return growthPolicy;
+    }
+
+    /**
+     * Returns the number of times this list reallocated its backing array
+     * to make room for more elements.
+     * 返回扩容(grow)的次数
+     *
+     * @return the number of grow calls
+     */
+    public long growCount() {
+        return growCount;
+    }
+
+    /**
+     * Returns the total number of array slots copied while growing the
+     * backing array, i.e. the sum of the old capacities of all grow calls.
+     * 返回扩容过程中累计拷贝的数组槽位数(每次 grow 时的旧容量之和)
+     *
+     * @return the number of array slots copied by grow calls
+     */
+    public long copiedElementCount() {
+        return copiedElementCount;
+    }
+
+    /**
+     * Resets the {@link #growCount()} and {@link #copiedElementCount()}
+     * counters to zero.
+     */
+    public void resetGrowthStats() {
+        growCount = 0;
+        copiedElementCount = 0;
+    }
+
     // 大容量
     private static int hugeCapacity(int minCapacity) {
         // 这个新增的大小不能为负,防止向负索引，其实应该是保证内存安全而存在的
@@ -492,6 +610,9 @@ public class ArrayList<E> extends AbstractList<E>
             ArrayList<?> v = (ArrayList<?>) super.clone();
             v.elementData = Arrays.copyOf(elementData, size);// 内部元素建立的是引用关系
             v.modCount = 0;
+            v.resetGrowthStats();
+            v.immutable = false;
+            v.cachedHash = 0;
             return v;
         } catch (CloneNotSupportedException e) {
             // this shouldn't happen, since we are Cloneable
@@ -500,6 +621,197 @@ public class ArrayList<E> extends AbstractList<E>
         }
     }
 
+    /**
+     * Makes this list immutable, for lists that are used as cache keys or
+     * dedup keys and hashed or compared over and over.  From then on every
+     * modifying operation, through the list, its iterators, cursors and
+     * subLists, throws {@code UnsupportedOperationException}; the hash code
+     * is computed once (in parallel for large lists) and cached, and
+     * {@link #equals} returns {@code false} right away when the sizes
+     * differ or when two immutable lists have different cached hash codes.
+     * There is no way back; {@link #clone()} returns a mutable copy.
+     * 把列表变为不可变的(用作缓存 key、去重 key 时会被反复 hash 和比较)：之后所有修改操作都抛出
+     * UnsupportedOperationException；hashCode 只计算一次(大列表并行计算)并缓存；
+     * equals 在 size 不同或两个不可变列表缓存的 hashCode 不同时直接返回 false。无法恢复可变，clone() 返回可变的副本
+     *
+     * <p>The elements themselves should not change their hash codes
+     * afterwards, as with the keys of any hash-based collection.
+     *
+     * @return this list
+     */
+    public ArrayList<E> makeImmutable() {
+        immutable = true;
+        return this;
+    }
+
+    /**
+     * Returns an immutable copy of this list in the most compact form: a
+     * shared empty list, dedicated classes holding one or two elements in
+     * fields, or an array of exactly {@code size()} elements.  Unlike
+     * {@link #makeImmutable()}, the copy carries none of the growable
+     * array's slack, no {@code modCount} and no fail-fast checks, so it is
+     * the better choice for lists that are built once and then only read;
+     * this list stays mutable and can be dropped or reused.
+     * 返回一个紧凑的不可变副本：空列表共享同一个实例，1/2 个元素的列表用字段保存，其余为长度恰好的数组；
+     * 与 makeImmutable() 不同，副本没有可增长数组的空闲空间、没有 modCount 也没有快速失败检查，
+     * 适合构建一次之后只读的列表；当前列表仍然可变
+     *
+     * <p>The returned list allows {@code null} elements, and every mutator
+     * of it throws {@code UnsupportedOperationException}.
+     *
+     * @return an immutable list of the elements of this list, in order
+     */
+    public List<E> freeze() {
+        Object[] es = elementData;
+        int size = this.size;
+        return FrozenList.of(size > 2 ? Arrays.copyOf(es, size, Object[].class) : es, 0, size, true);
+    }
+
+    /**
+     * Returns whether {@link #makeImmutable()} was called on this list.
+     */
+    public boolean isImmutable() {
+        return immutable;
+    }
+
+    /**
+     * Throws {@code UnsupportedOperationException} if this list is
+     * immutable.  Called first by every modifying operation.
+     */
+    final void checkMutable() {
+        if (immutable)
+            throw new UnsupportedOperationException("Immutable list");
+    }
+
+    /**
+     * Returns the hash code value for this list, as defined by
+     * {@link List#hashCode()}.  Computed over the backing array; cached if
+     * the list is {@link #makeImmutable() immutable}.
+     * 直接遍历底层数组计算 hashCode；不可变列表会缓存结果(与 String 一样用 0 表示尚未计算)
+     *
+     * @return the hash code value for this list
+     */
+    public int hashCode() {
+        if (!immutable)
+            return hashRange(elementData, 0, size, 1);
+        int h = cachedHash;
+        if (h == 0)
+            cachedHash = h = parallelHashCode();
+        return h;
+    }
+
+    /**
+     * Continues the {@link List#hashCode()} recurrence from {@code h} over
+     * {@code a[from, to)}.
+     */
+    static int hashRange(Object[] a, int from, int to, int h) {
+        for (int i = from; i < to; i++) {
+            Object e = a[i];
+            h = 31 * h + (e == null ? 0 : e.hashCode());
+        }
+        return h;
+    }
+
+    /**
+     * Computes the {@link List#hashCode()} of this list on the common
+     * {@link java.util.concurrent.ForkJoinPool}, for very large lists.
+     * The recurrence {@code h = 31 * h + e} splits into
+     * {@code hash(a + b) = hash(a) * 31^|b| + hash(b)}, so every chunk is
+     * hashed on its own and the results are combined.  Lists smaller than
+     * an internal threshold are hashed sequentially.
+     * 并行计算 hashCode：h = 31 * h + e 可以拆分为 hash(a + b) = hash(a) * 31^|b| + hash(b)，
+     * 各个块分别计算再合并
+     *
+     * @return the hash code value for this list
+     * @throws ConcurrentModificationException if this list is structurally
+     *         modified meanwhile
+     */
+    public int parallelHashCode() {
+        if (!ParallelBulkOps.worthParallel(size))
+            return hashRange(elementData, 0, size, 1);
+        final int expectedModCount = modCount;
+        int h = ParallelBulkOps.hash(elementData, size);
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+        return h;
+    }
+
+    /**
+     * Compares the specified object with this list for equality, as defined
+     * by {@link List#equals(Object)}.  Returns {@code false} without looking
+     * at the elements if the other list has a different size, or if both
+     * lists are immutable and their cached hash codes differ.  Another
+     * {@code ArrayList} is compared array to array.
+     * 比较是否相等：size 不同、或者两个不可变列表缓存的 hashCode 不同时直接返回 false；另一个 ArrayList 直接逐个比较数组元素
+     *
+     * @param o the object to be compared for equality with this list
+     * @return {@code true} if the specified object is equal to this list
+     */
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof List))
+            return false;
+        if (((List<?>) o).size() != size)
+            return false;
+        if (!(o instanceof ArrayList))
+            return super.equals(o);
+        ArrayList<?> other = (ArrayList<?>) o;
+        if (immutable && other.immutable && cachedHash != 0 && other.cachedHash != 0 && cachedHash != other.cachedHash)
+            return false;
+        final int expectedModCount = modCount;
+        boolean equal = equalRange(elementData, other.elementData, 0, size);
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+        return equal;
+    }
+
+    /**
+     * Returns whether {@code a[from, to)} and {@code b[from, to)} hold
+     * equal elements.
+     */
+    static boolean equalRange(Object[] a, Object[] b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            Object x = a[i], y = b[i];
+            if (!(x == null ? y == null : x.equals(y)))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Parallel version of {@link #equals(Object)} for very large lists: when
+     * the other object is an {@code ArrayList} of the same size, chunks of
+     * the two arrays are compared on the common
+     * {@link java.util.concurrent.ForkJoinPool}, and the first mismatch
+     * found stops the chunks that have not started yet.  Otherwise, and for
+     * lists smaller than an internal threshold, this is {@code equals}.
+     * 并行版本的 equals：另一个对象是 size 相同的 ArrayList 时，并行地按块比较两个数组，
+     * 发现不相等之后尚未开始的块不再比较
+     *
+     * <p>{@code equals} of the elements may be called from several threads
+     * at once and in no particular order.
+     *
+     * @param o the object to be compared for equality with this list
+     * @return {@code true} if the specified object is equal to this list
+     */
+    public boolean parallelEquals(Object o) {
+        if (!(o instanceof ArrayList) || o == this || ((ArrayList<?>) o).size != size
+                || !ParallelBulkOps.worthParallel(size))
+            return equals(o);
+        ArrayList<?> other = (ArrayList<?>) o;
+        if (immutable && other.immutable && cachedHash != 0 && other.cachedHash != 0 && cachedHash != other.cachedHash)
+            return false;
+        final int expectedModCount = modCount;
+        boolean equal = ParallelBulkOps.equal(elementData, other.elementData, size);
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+        return equal;
+    }
+
     /**
      * Returns an array containing all of the elements in this list
      * in proper sequence (from first to last element).
@@ -625,6 +937,7 @@ public class ArrayList<E> extends AbstractList<E>
      * @throws IndexOutOfBoundsException {@inheritDoc}
      */
     public E set(int index, E element) {
+        checkMutable();
         // 跟以上get方法一样，它只保证 index < size
         rangeCheck(index);
         // 由于检查不彻底，这里同样有索引越界的问题
@@ -642,6 +955,7 @@ public class ArrayList<E> extends AbstractList<E>
      * @return <tt>true</tt> (as specified by {@link Collection#add})
      */
     public boolean add(E e) {
+        checkMutable();
         // 这个顾名思义，由于当前数组的容量不可能无限大，只能递增的增长，所以需要再每次添加元素的时候检查一下数组是否能容纳下，容量不够先扩容...
         ensureCapacityInternal(size + 1);  // Increments modCount!!   递增 modCount
         elementData[size++] = e; // 索引自增一，把元素放到这个位置
@@ -661,6 +975,7 @@ public class ArrayList<E> extends AbstractList<E>
      * @throws IndexOutOfBoundsException {@inheritDoc}
      */
     public void add(int index, E element) {
+        checkMutable();
         // 指定位置插入元素时只能这个位置(index)只能 (0~size) ，请注意这个范围只在当前数组有效元素的索引范围内
         rangeCheckForAdd(index);
         // 可以看到这个函数在add(.)方法内也有出现，
@@ -702,6 +1017,7 @@ public class ArrayList<E> extends AbstractList<E>
      * @throws IndexOutOfBoundsException {@inheritDoc}
      */
     public E remove(int index) {
+        checkMutable();
         // 检查索引位置是否>=size，如果这里index<0 也一样检查通过
         rangeCheck(index);
         // 统计一下修改次数
@@ -741,6 +1057,7 @@ public class ArrayList<E> extends AbstractList<E>
      *          如果此列表包含指定的元素 (其实也就是返回是否删除这个状态)
      */
     public boolean remove(Object o) {
+        checkMutable();
         // 从elementData中 移除 o 这个元素，因为如果 elementData 中存在null元素，则不能使用 null.equals(null) (会抛错)
         // 故由此对null与非null的o元素采用不同的处理方式～，这个是重点
         if (o == null) {
@@ -788,6 +1105,7 @@ public class ArrayList<E> extends AbstractList<E>
      * 从此列表中删除所有元素。此调用返回后，列表将为空。
      */
     public void clear() {
+        checkMutable();
         // 清空当前数组(elementData)中所有元素
         // 一句话可以概括同时代码也很简单的其实 里面包含了一个重大的秘密
         // 1.当前数组每个元素位置被置为null使之能够gc掉
@@ -821,10 +1139,21 @@ public class ArrayList<E> extends AbstractList<E>
      *          如果指定的集合为null
      */
     public boolean addAll(Collection<? extends E> c) {
+        checkMutable();
         // 功能即为合并两个集合
         // 首先需要说的是传入的c集合不可以是null，否则下面这行就会抛出 NullPointerException 异常，这也是官方注释里面说了的
-        Object[] a = c.toArray();
-        int numNew = a.length;
+        // c 也是 ArrayList 时直接从它的 elementData 拷贝，省去 toArray 的那一次完整拷贝
+        // (c 就是自身时也没问题：扩容前的旧数组 a 中 [0, numNew) 的内容不会被改动)
+        Object[] a;
+        int numNew;
+        if (c instanceof ArrayList) {
+            ArrayList<?> src = (ArrayList<?>) c;
+            a = src.elementData;
+            numNew = src.size;
+        } else {
+            a = c.toArray();
+            numNew = a.length;
+        }
         // 当前数组需要与传入的c(也即是a)这个数组合并，首先要确保当前数组的容量是够的，所以可能涉及到扩容
         // 这个最小容量就是 size + numNew ，下面这个方法即确保容量大小，如果容量够那就直接追加到当前数组末尾
         // 如果容量不够自然就是按 size+size/2 扩容一次，这个在add(E)方法内有过探讨～
@@ -836,6 +1165,87 @@ public class ArrayList<E> extends AbstractList<E>
         return numNew != 0;
     }
 
+    /**
+     * Appends all of the remaining elements of the specified spliterator to
+     * the end of this list, in encounter order, writing them straight into
+     * {@code elementData}.  When the spliterator knows its
+     * {@link Spliterator#getExactSizeIfKnown() exact size} the backing
+     * array is sized once up front; otherwise it grows as elements arrive.
+     * {@link Spliterator#estimateSize()} is not used for presizing: for a
+     * filtered or flat-mapped stream it is only an upper bound, possibly far
+     * above the real count, and the list would keep the unused capacity.
+     * Unlike {@link #addAll(Collection)} no intermediate array is created.
+     * A {@code Stream} can be appended through its
+     * {@link java.util.stream.BaseStream#spliterator() spliterator}.
+     * 把 spliterator 剩余的元素直接写入 elementData 的末尾：已知确切大小(getExactSizeIfKnown)时一次性扩容到位，
+     * 否则边添加边扩容；不像 addAll(Collection) 那样需要一个中间数组
+     * 笔记：不按 estimateSize 预分配，filter/flatMap 之后的流的估计值只是上限，可能远大于实际个数，多出的容量会一直留在列表里
+     *
+     * @param s spliterator over the elements to be added to this list
+     * @return <tt>true</tt> if this list changed as a result of the call
+     * @throws NullPointerException if the specified spliterator is null
+     */
+    public boolean addAll(Spliterator<? extends E> s) {
+        checkMutable();
+        long expected = s.getExactSizeIfKnown();
+        int oldSize = size;
+        ensureCapacityInternal(expected > 0 && expected < MAX_ARRAY_SIZE - oldSize ? oldSize + (int) expected : oldSize);  // Increments modCount
+        s.forEachRemaining(this::append);
+        return size != oldSize;
+    }
+
+    /**
+     * Appends all of the remaining elements of the specified iterator to
+     * the end of this list, in order, writing them straight into
+     * {@code elementData}.  The backing array is sized once up front for
+     * {@code sizeHint} more elements and only grows again if the iterator
+     * returns more.
+     * 把迭代器剩余的元素直接写入 elementData 的末尾，先按 sizeHint 一次性扩容
+     *
+     * @param it iterator over the elements to be added to this list
+     * @param sizeHint the expected number of elements; a negative hint is
+     *        treated as zero
+     * @return <tt>true</tt> if this list changed as a result of the call
+     * @throws NullPointerException if the specified iterator is null
+     */
+    public boolean addAll(Iterator<? extends E> it, int sizeHint) {
+        checkMutable();
+        Objects.requireNonNull(it);
+        int oldSize = size;
+        ensureCapacityInternal(sizeHint > 0 && sizeHint < MAX_ARRAY_SIZE - oldSize ? oldSize + sizeHint : oldSize);  // Increments modCount
+        while (it.hasNext())
+            append(it.next());
+        return size != oldSize;
+    }
+
+    /**
+     * Appends one element of a bulk add: grows like {@code add} but leaves
+     * {@code modCount} alone, which the bulk operation has already
+     * incremented once.
+     */
+    private void append(E e) {
+        if (size == elementData.length)
+            grow(calculateCapacity(elementData, size + 1, growthPolicy));
+        elementData[size++] = e;
+    }
+
+    /**
+     * Returns a {@code Collector} that accumulates the input elements into
+     * a new {@code ArrayList}.  Elements are appended with {@link #add}, and
+     * the partial lists of a parallel stream are merged with
+     * {@link #addAll(Collection)}, which copies straight from the backing
+     * array of the other list.
+     * 把元素收集到一个新的 ArrayList 中；并行流的部分结果合并时直接从另一个列表的 elementData 拷贝
+     *
+     * @param <T> the type of the input elements
+     * @return a {@code Collector} collecting into a new {@code ArrayList}
+     */
+    public static <T> java.util.stream.Collector<T, ?, ArrayList<T>> collector() {
+        return java.util.stream.Collector.of(ArrayList<T>::new, ArrayList::add,
+                (left, right) -> { left.addAll(right); return left; },
+                java.util.stream.Collector.Characteristics.IDENTITY_FINISH);
+    }
+
     /**
      * Inserts all of the elements in the specified collection into this
      * list, starting at the specified position.  Shifts the element
@@ -854,6 +1264,7 @@ public class ArrayList<E> extends AbstractList<E>
      * @throws NullPointerException if the specified collection is null
      */
     public boolean addAll(int index, Collection<? extends E> c) {
+        checkMutable();
         // 功能：是将c中的所有元素插入到当前数组 index 开始的位置，index开始的原元素则统一往右移动
         // 简单说这个对index的检查还是到位的：index > size || index < 0
         rangeCheckForAdd(index);
@@ -895,6 +1306,7 @@ public class ArrayList<E> extends AbstractList<E>
      *          toIndex < fromIndex})
      */
     protected void removeRange(int fromIndex, int toIndex) {
+        checkMutable();
         // 移除指定范围的元素 ，这个范围为： fromIndex<=被移除元素所在索引位置<toIndex
         // 因为其他函数一般会在 ensureCapacityInternal 内做一次更改次数 modCount，这里直接挪出来
         // 本人以为这样做其实是不妥的：如果能先检查下 fromIndex toIndex的范围才是，同时，当前方法是protected修饰的
@@ -956,6 +1368,19 @@ public class ArrayList<E> extends AbstractList<E>
      * specified collection.
      * 从此列表中删除包含在指定集合中的所有元素。
      *
+     * <p>When both this list and {@code c} have at least 32 elements and
+     * {@code c} is a {@code java.util.ArrayList}, {@code LinkedList},
+     * {@code ArrayDeque}, {@code Arrays.asList} list or this class itself,
+     * not a subclass (types whose {@code contains} is a linear
+     * {@code equals} scan),
+     * {@code c} is first copied into a hash table, which makes the call
+     * {@code O(n + m)} instead of {@code O(n * m)}.  Its elements must then
+     * have a {@code hashCode} consistent with {@code equals}.  Any other
+     * collection, {@code Set}s included, is queried through its own
+     * {@code contains}.
+     * 笔记：两边都至少有 32 个元素，并且 c 是 contains 为线性 equals 扫描的列表类型时，先把 c 拷贝到哈希表中，
+     *      整体从 O(n*m) 降为 O(n+m)，此时要求元素的 hashCode 与 equals 一致；其他集合(包括 Set)仍然调用自己的 contains
+     *
      * @param c collection containing elements to be removed from this list
      * @return {@code true} if this list changed as a result of the call
      * @throws ClassCastException if the class of an element of this list
@@ -968,6 +1393,7 @@ public class ArrayList<E> extends AbstractList<E>
      * @see Collection#contains(Object)
      */
     public boolean removeAll(Collection<?> c) {
+        checkMutable();
         // 从当前数组内移除所有包含c中数组元素的元素
         // 首先第一步要检查这个c是否是null哈～
         Objects.requireNonNull(c);
@@ -982,6 +1408,10 @@ public class ArrayList<E> extends AbstractList<E>
      * of its elements that are not contained in the specified collection.
      * 仅保留此列表中包含在指定集合中的元素。换句话说，从这个列表中删除所有不包含在指定集合中的元素。
      *
+     * <p>Large arguments of the list types listed in
+     * {@link #removeAll(Collection)} are first copied into a hash table.
+     * 笔记：与 removeAll 一样，较大的列表类型参数会先拷贝到哈希表中
+     *
      * @param c collection containing elements to be retained in this list
      * @return {@code true} if this list changed as a result of the call
      * @throws ClassCastException if the class of an element of this list
@@ -994,6 +1424,7 @@ public class ArrayList<E> extends AbstractList<E>
      * @see Collection#contains(Object)
      */
     public boolean retainAll(Collection<?> c) {
+        checkMutable();
         // 保留当前数组内所有元素与c内元素一样的元素，换言之也就是从当前数组移除与c内不一样的元素
         // 一样的需要检查c是否是null
         Objects.requireNonNull(c);
@@ -1001,7 +1432,65 @@ public class ArrayList<E> extends AbstractList<E>
         return batchRemove(c, true);
     }
 
+    /**
+     * Minimum size of both this list and an {@linkplain #indexable indexable}
+     * argument of {@code removeAll}/{@code retainAll} for which
+     * {@code batchRemove} first builds a hash index of the argument.  With
+     * {@code Integer} elements, a linear {@code contains} over the argument
+     * and a hashed one break even at 8 to 16 elements, and at 32 the hashed
+     * one is already about three times faster (see
+     * {@code ArrayList_batchRemoveIndex_Test}); 32 leaves a margin for
+     * elements with a costlier {@code hashCode}.
+     * 建立哈希索引的最小大小：Integer 元素时线性 contains 与哈希 contains 在 8~16 个元素时持平，
+     * 32 个元素时哈希已快约 3 倍，取 32 为 hashCode 更慢的元素留出余量
+     */
+    private static final int BATCH_REMOVE_INDEX_THRESHOLD = 32;
+
+    /** The class of the lists returned by {@link Arrays#asList}. */
+    private static final Class<?> ARRAYS_AS_LIST = Arrays.asList().getClass();
+
+    /**
+     * Returns whether {@code c} is of a type whose {@code contains} is
+     * known to be a linear {@code equals} scan that accepts {@code null},
+     * so that a hash index gives the same answers: {@code java.util}'s
+     * {@code ArrayList}, {@code LinkedList}, {@code ArrayDeque} and
+     * {@code Arrays.asList}, and this {@code ArrayList} itself (not its
+     * subclasses, such as {@code SortedArrayList}, whose {@code contains}
+     * may use a comparator).  Other collections, such as
+     * {@code IdentityHashMap.values()} or a null-hostile collection, keep
+     * their own {@code contains}.
+     * 只对 contains 已知是基于 equals 的线性扫描(并且允许 null)的类型建立哈希索引，结果才与原来相同；
+     * 其他集合(按引用比较、比较器比较、不允许 null 的集合等)仍然调用它们自己的 contains
+     */
+    private static boolean indexable(Collection<?> c) {
+        Class<?> type = c.getClass();
+        return type == ArrayList.class || type == java.util.ArrayList.class
+                || type == java.util.LinkedList.class || type == java.util.ArrayDeque.class
+                || type == ARRAYS_AS_LIST;
+    }
+
+    /**
+     * Returns a hash-based view of the elements of {@code c} whose
+     * {@code contains} runs in expected constant time.  The index is a
+     * {@link com.mee.source.c2.HashMap}, so membership is decided by
+     * {@code hashCode}/{@code equals}; only used for
+     * {@linkplain #indexable indexable} arguments.
+     * 对 c 建立哈希索引(基于 c2.HashMap)，contains 变为期望 O(1)
+     */
+    private static Collection<?> hashIndex(Collection<?> c) {
+        com.mee.source.c2.HashMap<Object,Boolean> index =
+                new com.mee.source.c2.HashMap<>((int) (c.size() / 0.75f) + 1);
+        for (Object o : c)
+            index.put(o, Boolean.TRUE);
+        return index.keySet();
+    }
+
     private boolean batchRemove(Collection<?> c, boolean complement) {
+        // c 不是 Set 时 c.contains 一般是线性扫描，整个 removeAll/retainAll 就是 O(n*m)
+        // 两边都比较大时先给 c 建一个哈希索引，降为 O(n+m)
+        if (size >= BATCH_REMOVE_INDEX_THRESHOLD && c.size() >= BATCH_REMOVE_INDEX_THRESHOLD
+                && indexable(c))
+            c = hashIndex(c);
         final Object[] elementData = this.elementData;
         int r = 0, w = 0;
         boolean modified = false;
@@ -1040,6 +1529,85 @@ public class ArrayList<E> extends AbstractList<E>
         return modified;
     }
 
+    /**
+     * Parallel version of {@link #removeAll(Collection)} for large lists.
+     * The membership tests run on the common {@link
+     * java.util.concurrent.ForkJoinPool}, one chunk of {@code elementData}
+     * per task, then the survivors are compacted.  Lists smaller than an
+     * internal threshold take the sequential path.
+     * 并行版本的 removeAll：在 ForkJoinPool 中按块并行判断元素是否需要删除，再统一压缩
+     *
+     * <p>Unlike the sequential version, nothing is modified if
+     * {@code c.contains} throws.  {@code c.contains} may be called from
+     * several threads at once: pass a collection that tolerates concurrent
+     * reads.  Large arguments of the list types listed in
+     * {@link #removeAll(Collection)} are indexed into a private hash table
+     * first and not read concurrently.
+     *
+     * @param c collection containing elements to be removed from this list
+     * @return {@code true} if this list changed as a result of the call
+     * @throws NullPointerException if the specified collection is null
+     * @throws ConcurrentModificationException if this list is structurally
+     *         modified while the matches are computed
+     */
+    public boolean parallelRemoveAll(Collection<?> c) {
+        checkMutable();
+        Objects.requireNonNull(c);
+        return parallelBatchRemove(c, false);
+    }
+
+    /**
+     * Parallel version of {@link #retainAll(Collection)} for large lists;
+     * see {@link #parallelRemoveAll(Collection)}.
+     * 并行版本的 retainAll
+     *
+     * @param c collection containing elements to be retained in this list
+     * @return {@code true} if this list changed as a result of the call
+     * @throws NullPointerException if the specified collection is null
+     * @throws ConcurrentModificationException if this list is structurally
+     *         modified while the matches are computed
+     */
+    public boolean parallelRetainAll(Collection<?> c) {
+        checkMutable();
+        Objects.requireNonNull(c);
+        return parallelBatchRemove(c, true);
+    }
+
+    private boolean parallelBatchRemove(Collection<?> c, final boolean complement) {
+        if (!ParallelBulkOps.worthParallel(size))
+            return batchRemove(c, complement);
+        final Collection<?> probe = (c.size() >= BATCH_REMOVE_INDEX_THRESHOLD && indexable(c))
+                ? hashIndex(c) : c;
+        final int expectedModCount = modCount;
+        final int size = this.size;
+        // 第一步并行标记需要删除的元素，这一步抛出异常的话列表不会被修改
+        long[] removeSet = ParallelBulkOps.mark(elementData, size,
+                e -> probe.contains(e) != complement);
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+        int removed = parallelCompact(removeSet);
+        modCount += removed;
+        return removed > 0;
+    }
+
+    /**
+     * Removes the elements whose bit is set in {@code removeSet} and returns
+     * their number.  The survivors are compacted in parallel into a new
+     * backing array of the same capacity, which replaces the old one.
+     * 删除位图中标记的元素，并行压缩到一个同样容量的新数组中，返回删除的个数
+     */
+    private int parallelCompact(long[] removeSet) {
+        final int size = this.size;
+        Object[] dest = new Object[elementData.length];
+        int newSize = ParallelBulkOps.compact(elementData, size, removeSet, dest);
+        if (newSize == size)
+            return 0;
+        elementData = dest;
+        this.size = newSize;
+        return size - newSize;
+    }
+
     /**
      * Save the state of the <tt>ArrayList</tt> instance to a stream (that
      * is, serialize it).
@@ -1080,6 +1648,7 @@ public class ArrayList<E> extends AbstractList<E>
     private void readObject(java.io.ObjectInputStream s) throws java.io.IOException, ClassNotFoundException {
         // 这是以上writeObject方法的反向操作，从输入流反序列化到当前数组
         elementData = EMPTY_ELEMENTDATA;
+        growthPolicy = GrowthPolicy.ONE_AND_HALF;
 
         // Read in size, and any hidden stuff
         // 读取大小和任何隐藏的东西
@@ -1093,7 +1662,7 @@ public class ArrayList<E> extends AbstractList<E>
             // be like clone(), allocate array based upon size not capacity
             // 就像 clone()，根据大小而不是容量分配数组
             // 计算一个容量（这个容量最低为10）
-            int capacity = calculateCapacity(elementData, size);
+            int capacity = calculateCapacity(elementData, size, growthPolicy);
             // 检查这个流以及数组是否有读写权限 获取 Java OIS 访问权限
             SharedSecrets.getJavaOISAccess().checkArray(s, Object[].class, capacity);
             ensureCapacityInternal(size);// 确保容量
@@ -1362,6 +1931,156 @@ public class ArrayList<E> extends AbstractList<E>
         }
     }
 
+    /**
+     * Returns a new cursor over this list, positioned before the first
+     * element.  Unlike {@link #iterator()}, one cursor can be
+     * {@link ListCursor#reset() reset} and reused for any number of
+     * traversals, so a hot loop allocates nothing even where escape
+     * analysis cannot remove the iterator.
+     * 返回一个可复用的游标：与 iterator() 不同，同一个游标可以 reset 后反复遍历，
+     * 在逃逸分析无法消除迭代器对象的热点循环中不产生垃圾
+     *
+     * <pre>
+     *     ArrayList&lt;Order&gt;.ListCursor c = orders.cursor(); // once
+     *     ...
+     *     for (c.reset(); c.advance(); ) {
+     *         total += c.get().amount;
+     *     }
+     * </pre>
+     *
+     * @return a cursor over this list
+     */
+    public ListCursor cursor() {
+        return new ListCursor();
+    }
+
+    /**
+     * A resettable, <a href="#fail-fast"><i>fail-fast</i></a> cursor over
+     * an {@code ArrayList}, obtained from {@link ArrayList#cursor()}.
+     * {@link #advance()} moves to the next element and {@link #get()},
+     * {@link #set}, {@link #remove()} act on the current one, like
+     * {@code Iterator.next()}, {@code ListIterator.set} and
+     * {@code Iterator.remove()}.  {@link #reset()} starts a new traversal
+     * and re-reads the list's modification count, so a cursor may be kept
+     * across modifications of the list that happen between traversals.
+     * 可复用的游标：advance() 移动到下一个元素，get/set/remove 作用于当前元素；
+     * reset() 开始新一轮遍历并重新读取 modCount，所以两次遍历之间修改列表是允许的
+     */
+    public final class ListCursor {
+        int next;          // index of next element
+        int current = -1;  // index of current element; -1 if no such
+        int expectedModCount = modCount;
+
+        ListCursor() {}
+
+        /**
+         * Positions this cursor before the first element.
+         */
+        public void reset() {
+            reset(0);
+        }
+
+        /**
+         * Positions this cursor before the element at {@code index}.
+         *
+         * @param index index of the first element {@link #advance()} moves to
+         * @throws IndexOutOfBoundsException if the index is out of range
+         *         ({@code index < 0 || index > size()})
+         */
+        public void reset(int index) {
+            if (index < 0 || index > size)
+                throw new IndexOutOfBoundsException("Index: "+index);
+            next = index;
+            current = -1;
+            expectedModCount = modCount;
+        }
+
+        /**
+         * Moves to the next element.
+         *
+         * @return {@code true} if there was one, {@code false} at the end
+         *         of the list
+         * @throws ConcurrentModificationException if the list was
+         *         structurally modified other than through this cursor
+         */
+        public boolean advance() {
+            checkForComodification();
+            int i = next;
+            if (i >= size) {
+                current = -1;
+                return false;
+            }
+            current = i;
+            next = i + 1;
+            return true;
+        }
+
+        /**
+         * Returns the index of the current element.
+         *
+         * @throws IllegalStateException if there is no current element
+         */
+        public int index() {
+            if (current < 0)
+                throw new IllegalStateException();
+            return current;
+        }
+
+        /**
+         * Returns the current element.
+         *
+         * @throws IllegalStateException if there is no current element
+         * @throws ConcurrentModificationException if the list was
+         *         structurally modified other than through this cursor
+         */
+        @SuppressWarnings("unchecked")
+        public E get() {
+            if (current < 0)
+                throw new IllegalStateException();
+            checkForComodification();
+            return (E) elementData[current];
+        }
+
+        /**
+         * Replaces the current element, through {@link ArrayList#set}.
+         *
+         * @param e the new element
+         * @return the element previously at this position
+         * @throws IllegalStateException if there is no current element
+         * @throws ConcurrentModificationException if the list was
+         *         structurally modified other than through this cursor
+         */
+        public E set(E e) {
+            if (current < 0)
+                throw new IllegalStateException();
+            checkForComodification();
+            return ArrayList.this.set(current, e);
+        }
+
+        /**
+         * Removes the current element, through {@link ArrayList#remove(int)};
+         * the next {@link #advance()} moves to the element that followed it.
+         *
+         * @throws IllegalStateException if there is no current element
+         * @throws ConcurrentModificationException if the list was
+         *         structurally modified other than through this cursor
+         */
+        public void remove() {
+            if (current < 0)
+                throw new IllegalStateException();
+            checkForComodification();
+            ArrayList.this.remove(current);
+            next = current;
+            current = -1;
+            expectedModCount = modCount;
+        }
+
+        final void checkForComodification() {
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+        }
+    }
+
     /**
      * Returns a view of the portion of this list between the specified
      * {@code fromIndex}, inclusive, and {@code toIndex}, exclusive.  (If
@@ -1403,7 +2122,7 @@ public class ArrayList<E> extends AbstractList<E>
         // 先检查参数及数组范围避免后续错误
         subListRangeCheck(fromIndex, toIndex, size);
         // 对本方法的一个封装，后续会在类SubList中有说
-        return new SubList(this, 0, fromIndex, toIndex);
+        return new SubList(fromIndex, toIndex);
     }
 
     static void subListRangeCheck(int fromIndex, int toIndex, int size) {
@@ -1417,24 +2136,47 @@ public class ArrayList<E> extends AbstractList<E>
                     ") > toIndex(" + toIndex + ")");
     }
 
-    // 数组截取类
+    /**
+     * A view of {@code elementData[offset, offset + size)}.  However deeply
+     * subLists are nested, each one holds the absolute {@code offset} into
+     * the root list and checks the root's {@code modCount}, so {@code get}
+     * and {@code set} cost the same at any depth and a structural
+     * modification is applied to the root in a single call; only the sizes
+     * and {@code modCount}s of the enclosing subLists are then updated, by
+     * {@link #updateSizeAndModCount}.
+     * 数组截取类：无论嵌套多少层，每个 SubList 都直接持有在 ArrayList 中的绝对偏移量 offset，并检查 ArrayList 的 modCount，
+     * 所以 get/set 与嵌套深度无关；结构修改只对 ArrayList 调用一次，之后沿 parent 链更新各层的 size 和 modCount
+     */
     private class SubList extends AbstractList<E> implements RandomAccess {
-        private final AbstractList<E> parent;
-        private final int parentOffset;
-        private final int offset;
+        private final SubList parent; // null for a subList of the ArrayList itself
+        private final int offset;     // absolute, into elementData
         int size;
 
         // 返回的应该是个ArrayList，但是这里却是SubList 同 ArrayList一样，继承AbstractList并实现RandomAccess
-        SubList(AbstractList<E> parent, int offset, int fromIndex, int toIndex) {
-            // 从offset开始截取size个元素
+        /**
+         * Constructs a subList of the ArrayList itself.
+         */
+        SubList(int fromIndex, int toIndex) {
+            // 从fromIndex开始截取size个元素
+            this.parent = null;
+            this.offset = fromIndex;
+            this.size = toIndex - fromIndex;
+            this.modCount = ArrayList.this.modCount;
+        }
+
+        /**
+         * Constructs a subList of another subList.
+         */
+        SubList(SubList parent, int fromIndex, int toIndex) {
+            // 偏移量直接换算为在 ArrayList 中的绝对位置，不再经过 parent
             this.parent = parent;
-            this.parentOffset = fromIndex;
-            this.offset = offset + fromIndex;
+            this.offset = parent.offset + fromIndex;
             this.size = toIndex - fromIndex;
             this.modCount = ArrayList.this.modCount;
         }
 
         public E set(int index, E e) {
+            checkMutable();
             // 指定位置set一个元素,具体操作过程可以参照以下代码
             /*
                     ArrayList arr = new ArrayList();
@@ -1478,30 +2220,27 @@ public class ArrayList<E> extends AbstractList<E>
             // 因为ArrayList、SubList维护的是同一个数组，所以在SubList内操作的时候一定要注意偏移值，一般都是要加的
             rangeCheckForAdd(index);
             checkForComodification();
-            parent.add(parentOffset + index, e);
-            this.modCount = parent.modCount;
-            this.size++;
+            ArrayList.this.add(offset + index, e);
+            updateSizeAndModCount(1);
         }
 
         public E remove(int index) {
             // 同add操作一样，不再赘述~
             rangeCheck(index);
             checkForComodification();
-            E result = parent.remove(parentOffset + index);
-            this.modCount = parent.modCount;
-            this.size--;
+            E result = ArrayList.this.remove(offset + index);
+            updateSizeAndModCount(-1);
             return result;
         }
 
         // 范围删除
         protected void removeRange(int fromIndex, int toIndex) {
             checkForComodification();
-            parent.removeRange(parentOffset + fromIndex,
-                    parentOffset + toIndex);
-            this.modCount = parent.modCount;
+            ArrayList.this.removeRange(offset + fromIndex,
+                    offset + toIndex);
             // 这里特别需要注意的是ArrayList做范围删除后SubList维护的size也要缩一些，因为这个size(fromIndex~toIndex)是ArrayList的size的子集
             // 所以这里一般是没有抛错的可能~
-            this.size -= toIndex - fromIndex;
+            updateSizeAndModCount(fromIndex - toIndex);
         }
 
         public boolean addAll(Collection<? extends E> c) {
@@ -1518,10 +2257,9 @@ public class ArrayList<E> extends AbstractList<E>
             // 版本检查
             checkForComodification();
             // 这里与ArrayList的addAll不同的是 这里需要加偏移量
-            parent.addAll(parentOffset + index, c);
+            ArrayList.this.addAll(offset + index, c);
             // 版本同步，size同步
-            this.modCount = parent.modCount;
-            this.size += cSize;
+            updateSizeAndModCount(cSize);
             return true;
         }
 
@@ -1629,7 +2367,7 @@ public class ArrayList<E> extends AbstractList<E>
                     checkForComodification();
 
                     try {
-                        // 一层层套娃 : SubList.this.remove(lastRet) -> ArrayList.this.remove(lastRet)
+                        // SubList.this.remove(lastRet) -> ArrayList.this.remove(offset + lastRet)
                         SubList.this.remove(lastRet);
                         cursor = lastRet;
                         // 因为每一次调用remove()后都将lastRet还原，则下一次必须是next的调用
@@ -1679,9 +2417,25 @@ public class ArrayList<E> extends AbstractList<E>
         }
 
         public List<E> subList(int fromIndex, int toIndex) {
-            // 当前方法其实也是套娃调用，sublist调用后的索引范围只是当前SubList范围的一个子集,维护的也是同一个ArrayList内的数组.
+            // sublist调用后的索引范围只是当前SubList范围的一个子集,维护的也是同一个ArrayList内的数组.
+            // 新的SubList直接持有绝对偏移量，所以无论嵌套多少层 get/set 都不需要经过 parent
             subListRangeCheck(fromIndex, toIndex, size);
-            return new SubList(this, offset, fromIndex, toIndex);
+            return new SubList(this, fromIndex, toIndex);
+        }
+
+        /**
+         * Records a structural modification of {@code sizeChange} elements,
+         * already applied to the ArrayList, in this subList and every
+         * subList it was taken from.
+         * 结构修改已经作用于 ArrayList，这里沿 parent 链更新本层及所有外层 SubList 的 size 和 modCount
+         */
+        private void updateSizeAndModCount(int sizeChange) {
+            SubList slist = this;
+            do {
+                slist.size += sizeChange;
+                slist.modCount = ArrayList.this.modCount;
+                slist = slist.parent;
+            } while (slist != null);
         }
 
         // 索引范围检查
@@ -1735,6 +2489,65 @@ public class ArrayList<E> extends AbstractList<E>
         }
     }
 
+    /**
+     * Hands the whole content of this list to {@code action} as a single
+     * slice {@code (elementData, 0, size)} of the live backing array,
+     * without copying it like {@link #toArray()} does.  The slice must be
+     * treated as read-only, see {@link SliceConsumer}.
+     * 把整个列表作为底层数组的一个片段 (elementData, 0, size) 交给 action，不像 toArray 那样拷贝数组；
+     * action 只能读取这个片段
+     *
+     * @param action the consumer of the slice
+     * @throws NullPointerException if the specified action is null
+     * @throws ConcurrentModificationException if the list is structurally
+     *         modified while {@code action} runs
+     */
+    public void readSlice(SliceConsumer action) {
+        Objects.requireNonNull(action);
+        final int expectedModCount = modCount;
+        action.accept(elementData, 0, size);
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * Hands the content of this list to {@code action} as consecutive
+     * slices of the live backing array of at most {@code chunkSize}
+     * elements each, in order.  One call per chunk replaces the per-element
+     * call of {@link #forEach}, and the consumer runs its own tight loop
+     * over the slice.  The slices must be treated as read-only, see
+     * {@link SliceConsumer}.
+     * 按顺序把列表分成最多 chunkSize 个元素的片段交给 action：每个块只调用一次 action，
+     * 代替 forEach 中每个元素一次的调用，由 action 自己在片段上循环
+     *
+     * <p>The list is checked for structural modification after every
+     * chunk, as {@code forEach} does after every element.
+     *
+     * @param chunkSize the maximum number of elements per slice
+     * @param action the consumer of the slices
+     * @throws IllegalArgumentException if {@code chunkSize} is not positive
+     * @throws NullPointerException if the specified action is null
+     * @throws ConcurrentModificationException if the list is structurally
+     *         modified while {@code action} runs
+     */
+    public void forEachChunk(int chunkSize, SliceConsumer action) {
+        if (chunkSize <= 0)
+            throw new IllegalArgumentException("Illegal chunk size: " + chunkSize);
+        Objects.requireNonNull(action);
+        final int expectedModCount = modCount;
+        final Object[] elementData = this.elementData;
+        final int size = this.size;
+        for (int from = 0; modCount == expectedModCount && from < size; ) {
+            int to = (size - from > chunkSize) ? from + chunkSize : size;
+            action.accept(elementData, from, to);
+            from = to;
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
     /**
      * Creates a <em><a href="Spliterator.html#binding">late-binding</a></em>
      * and <em>fail-fast</em> {@link Spliterator} over the elements in this
@@ -1903,6 +2716,7 @@ public class ArrayList<E> extends AbstractList<E>
     // TODO 删除符合filter条件的元素
     @Override
     public boolean removeIf(Predicate<? super E> filter) {
+        checkMutable();
         Objects.requireNonNull(filter);
         // figure out which elements are to be removed
         // any exception thrown from the filter predicate at this stage
@@ -1949,6 +2763,7 @@ public class ArrayList<E> extends AbstractList<E>
     @Override
     @SuppressWarnings("unchecked")
     public void replaceAll(UnaryOperator<E> operator) {
+        checkMutable();
         Objects.requireNonNull(operator);
         final int expectedModCount = modCount;
         final int size = this.size;
@@ -1962,13 +2777,118 @@ public class ArrayList<E> extends AbstractList<E>
         modCount++;
     }
 
+    /**
+     * Parallel version of {@link #removeIf(Predicate)} for large lists with
+     * expensive predicates.  The predicate is evaluated on the common
+     * {@link java.util.concurrent.ForkJoinPool}, every chunk of
+     * {@code elementData} into its own words of a match bitmap; a prefix sum
+     * over the per-chunk survivor counts then lets the chunks be compacted
+     * in parallel as well.  Lists smaller than an internal threshold take the
+     * sequential path.
+     * 并行版本的 removeIf：各个块并行执行 filter 得到各自的位图，再按前缀和并行压缩
+     *
+     * <p>The predicate may be called from several threads at once and in
+     * no particular order.  As with {@code removeIf}, an exception thrown
+     * by the predicate leaves the list unmodified.
+     *
+     * @param filter a predicate which returns {@code true} for elements to be
+     *        removed
+     * @return {@code true} if any elements were removed
+     * @throws NullPointerException if the specified filter is null
+     * @throws ConcurrentModificationException if this list is structurally
+     *         modified while the predicate is evaluated
+     */
+    public boolean parallelRemoveIf(Predicate<? super E> filter) {
+        checkMutable();
+        Objects.requireNonNull(filter);
+        if (!ParallelBulkOps.worthParallel(size))
+            return removeIf(filter);
+        final int expectedModCount = modCount;
+        long[] removeSet = ParallelBulkOps.mark(elementData, size, filter);
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+        // 与 removeIf 一样，有元素被删除时 modCount 只加一次
+        if (parallelCompact(removeSet) == 0)
+            return false;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Parallel version of {@link #replaceAll(UnaryOperator)} for large lists
+     * with expensive operators.  The operator is applied chunk by chunk on
+     * the common {@link java.util.concurrent.ForkJoinPool}, from several
+     * threads at once and in no particular order.  Lists smaller than an
+     * internal threshold take the sequential path.
+     * 并行版本的 replaceAll
+     *
+     * @param operator the operator to apply to each element
+     * @throws NullPointerException if the specified operator is null
+     * @throws ConcurrentModificationException if this list is structurally
+     *         modified while the operator is applied
+     */
+    public void parallelReplaceAll(UnaryOperator<E> operator) {
+        checkMutable();
+        Objects.requireNonNull(operator);
+        if (!ParallelBulkOps.worthParallel(size)) {
+            replaceAll(operator);
+            return;
+        }
+        final int expectedModCount = modCount;
+        ParallelBulkOps.replace(elementData, size, operator);
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+        modCount++;
+    }
+
     // TODO 排序
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The sort always runs on the calling thread, so the comparator need
+     * not be thread-safe; use {@link #parallelSort(Comparator)} to sort a
+     * large list on the common {@link java.util.concurrent.ForkJoinPool}.
+     * 笔记：总是在调用线程中顺序排序，比较器不需要是线程安全的；大列表需要并行排序时显式调用 parallelSort
+     */
     @Override
-    @SuppressWarnings("unchecked")
     public void sort(Comparator<? super E> c) {
+        checkMutable();
+        sortRange(c, false);
+    }
+
+    /**
+     * Sorts this list according to the order induced by the specified
+     * {@link Comparator}, using the parallel sort-merge of
+     * {@link Arrays#parallelSort(Object[], int, int, Comparator)} on the
+     * backing array.  The sort is stable.  Sub-arrays below the granularity
+     * of {@code Arrays.parallelSort} are sorted sequentially, so small lists
+     * pay almost nothing extra.
+     * 使用 Arrays.parallelSort 对底层数组并行排序(稳定排序)
+     *
+     * @param c the {@code Comparator} used to compare list elements,
+     *          may be called from several threads at once.
+     *          A {@code null} value indicates that the elements'
+     *          {@linkplain Comparable natural ordering} should be used
+     * @throws ClassCastException if the list contains elements that are not
+     *         <i>mutually comparable</i> using the specified comparator
+     * @throws ConcurrentModificationException if this list is structurally
+     *         modified while it is sorted
+     */
+    public void parallelSort(Comparator<? super E> c) {
+        checkMutable();
+        sortRange(c, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void sortRange(Comparator<? super E> c, boolean parallel) {
         final int expectedModCount = modCount;
         // 这里底层采用修改的归并排序算法（ mergesort ),其内部相同的元素不会重新排序
-        Arrays.sort((E[]) elementData, 0, size, c);
+        if (parallel)
+            Arrays.parallelSort((E[]) elementData, 0, size, c);
+        else
+            Arrays.sort((E[]) elementData, 0, size, c);
         if (modCount != expectedModCount) {
             throw new ConcurrentModificationException();
         }
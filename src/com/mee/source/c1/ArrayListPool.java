@@ -0,0 +1,288 @@
+package com.mee.source.c1;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * A pool of scratch {@link ArrayList}s, so that code which needs a few
+ * temporary lists per request neither allocates them nor grows them from
+ * scratch every time.  {@link #acquire()} hands out an empty list that
+ * keeps the capacity it had when it was {@link #release released}.
+ * ArrayList 对象池：每个请求都要用到几个临时列表时，避免每次都重新分配以及从头开始扩容；
+ * acquire() 返回的是一个空列表，但保留了它上一次被 release 时的容量
+ *
+ * <p>Free lists are kept per thread (at most {@code maxPerThread} of them),
+ * so acquiring and releasing on one thread takes no lock and involves no
+ * contention; a list released on another thread simply joins that
+ * thread's free lists.
+ * 笔记：空闲列表按线程保存(每个线程最多 maxPerThread 个)，同一个线程中 acquire/release 无锁、无竞争；
+ *      在别的线程 release 的列表会进入那个线程的空闲列表
+ *
+ * <p>Trim policy: a list whose capacity grew beyond
+ * {@code maxRetainedCapacity} while it was in use (one huge request) is
+ * cut back to that capacity on release, so a single outlier does not pin
+ * a huge array in the pool for the lifetime of the thread.
+ * 笔记：使用过程中容量超过 maxRetainedCapacity 的列表(偶尔的超大请求)在 release 时缩回到这个容量，
+ *      避免一次异常请求让一个超大数组一直留在池中
+ *
+ * <p>Leak detection: one in {@code leakSampleInterval} acquired lists
+ * (none if it is {@code 0}) is tracked by a weak reference that records
+ * where it was acquired.  If such a list is garbage collected without
+ * having been released, it is counted by {@link #leakCount()} and the
+ * acquisition site is passed to the leak listener, if any.  Leaks are
+ * noticed on later calls to {@link #acquire()}.
+ * 笔记：每 leakSampleInterval 次 acquire 抽样一次(0 表示不检测)，用弱引用跟踪这个列表并记录获取时的调用栈；
+ *      如果它没有被 release 就被垃圾回收了，leakCount() 加一，并把获取时的调用栈交给 leakListener
+ *
+ * <p>A released list must not be used any more.  Lists handed out by a
+ * pool are ordinary {@code ArrayList}s in every other respect; their
+ * {@code clone} is a plain {@code ArrayList} that does not belong to the
+ * pool.
+ *
+ * @see ArrayList
+ */
+public class ArrayListPool {
+
+    /** Default capacity of a newly created list. */
+    static final int DEFAULT_INITIAL_CAPACITY = 16;
+
+    /** Default capacity above which a released list is trimmed. */
+    static final int DEFAULT_MAX_RETAINED_CAPACITY = 1 << 12;
+
+    /** Default number of free lists kept per thread. */
+    static final int DEFAULT_MAX_PER_THREAD = 16;
+
+    /** By default one in 128 acquired lists is tracked for leaks. */
+    static final int DEFAULT_LEAK_SAMPLE_INTERVAL = 128;
+
+    private final int initialCapacity;
+    private final int maxRetainedCapacity;
+    private final int maxPerThread;
+    private final int leakSampleInterval;
+    private final Consumer<? super Throwable> leakListener;
+
+    private final ThreadLocal<FreeLists> freeLists = ThreadLocal.withInitial(FreeLists::new);
+
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder reused = new LongAdder();
+    private final LongAdder released = new LongAdder();
+    private final LongAdder trimmed = new LongAdder();
+    private final LongAdder leaked = new LongAdder();
+
+    /** Trackers of the sampled lists that have not been released yet. */
+    private final Set<LeakTracker> tracked = ConcurrentHashMap.newKeySet();
+    private final ReferenceQueue<Object> collected = new ReferenceQueue<>();
+
+    /**
+     * Creates a pool with the default settings: new lists of capacity 16,
+     * trimmed back to 4096 on release, at most 16 free lists per thread,
+     * and one in 128 lists tracked for leaks.
+     */
+    public ArrayListPool() {
+        this(DEFAULT_INITIAL_CAPACITY, DEFAULT_MAX_RETAINED_CAPACITY,
+                DEFAULT_MAX_PER_THREAD, DEFAULT_LEAK_SAMPLE_INTERVAL, null);
+    }
+
+    /**
+     * Creates a pool.
+     *
+     * @param initialCapacity the capacity of a newly created list
+     * @param maxRetainedCapacity the capacity a released list is trimmed
+     *        back to if it grew beyond it
+     * @param maxPerThread the number of free lists kept per thread; lists
+     *        released beyond it are dropped
+     * @param leakSampleInterval track one in this many acquired lists for
+     *        leaks, or {@code 0} to disable leak detection
+     * @param leakListener receives the acquisition site of every leaked
+     *        list that was tracked, may be {@code null}
+     * @throws IllegalArgumentException if a capacity or
+     *         {@code leakSampleInterval} is negative,
+     *         {@code maxRetainedCapacity < initialCapacity}, or
+     *         {@code maxPerThread} is not positive
+     */
+    public ArrayListPool(int initialCapacity, int maxRetainedCapacity, int maxPerThread,
+                         int leakSampleInterval, Consumer<? super Throwable> leakListener) {
+        if (initialCapacity < 0 || maxRetainedCapacity < initialCapacity)
+            throw new IllegalArgumentException("Illegal capacities: " +
+                    initialCapacity + ", " + maxRetainedCapacity);
+        if (maxPerThread <= 0)
+            throw new IllegalArgumentException("Illegal maxPerThread: " + maxPerThread);
+        if (leakSampleInterval < 0)
+            throw new IllegalArgumentException("Illegal leakSampleInterval: " + leakSampleInterval);
+        this.initialCapacity = initialCapacity;
+        this.maxRetainedCapacity = maxRetainedCapacity;
+        this.maxPerThread = maxPerThread;
+        this.leakSampleInterval = leakSampleInterval;
+        this.leakListener = leakListener;
+    }
+
+    /**
+     * Returns an empty list, reusing a free list of this thread if there
+     * is one.  The list must be given back with {@link #release}.
+     * 获取一个空列表，优先复用当前线程的空闲列表
+     *
+     * @param <E> the element type of the list
+     * @return an empty list
+     */
+    @SuppressWarnings("unchecked")
+    public <E> ArrayList<E> acquire() {
+        acquired.increment();
+        FreeLists free = freeLists.get();
+        PooledList<E> list;
+        int n = free.count;
+        if (n > 0) {
+            list = (PooledList<E>) free.lists[--n];
+            free.lists[n] = null;
+            free.count = n;
+            reused.increment();
+        } else {
+            list = new PooledList<>(this, initialCapacity);
+        }
+        list.inPool = false;
+        if (leakSampleInterval > 0) {
+            pollLeaks();
+            if (++free.sample >= leakSampleInterval) {
+                free.sample = 0;
+                LeakTracker t = new LeakTracker(list, collected);
+                tracked.add(t);
+                list.tracker = t;
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Gives a list obtained from {@link #acquire()} back to the pool.  It
+     * is cleared, trimmed to {@code maxRetainedCapacity} if it grew beyond
+     * it, and kept for reuse by the current thread if this thread has
+     * fewer than {@code maxPerThread} free lists.
+     * 归还列表：清空，超出 maxRetainedCapacity 时缩容，然后放入当前线程的空闲列表
+     *
+     * @param list the list to release
+     * @throws IllegalArgumentException if {@code list} was not acquired
+     *         from this pool
+     * @throws IllegalStateException if {@code list} was already released
+     */
+    public void release(ArrayList<?> list) {
+        if (!(list instanceof PooledList) || ((PooledList<?>) list).pool != this)
+            throw new IllegalArgumentException("List was not acquired from this pool");
+        PooledList<?> pl = (PooledList<?>) list;
+        if (pl.inPool)
+            throw new IllegalStateException("List already released");
+        pl.inPool = true;
+        released.increment();
+        LeakTracker t = pl.tracker;
+        if (t != null) {
+            pl.tracker = null;
+            tracked.remove(t);
+            t.clear();
+        }
+        pl.clear();
+        if (pl.elementData.length > maxRetainedCapacity) {
+            pl.elementData = new Object[maxRetainedCapacity];
+            trimmed.increment();
+        }
+        FreeLists free = freeLists.get();
+        int n = free.count;
+        if (n < maxPerThread) {
+            if (n == free.lists.length)
+                free.lists = Arrays.copyOf(free.lists, Math.min(maxPerThread, n == 0 ? 4 : n << 1));
+            free.lists[n] = pl;
+            free.count = n + 1;
+        }
+    }
+
+    /**
+     * Reports the tracked lists that were collected without being released.
+     */
+    private void pollLeaks() {
+        LeakTracker t;
+        while ((t = (LeakTracker) collected.poll()) != null) {
+            // released lists are removed from tracked and cleared, so they are never enqueued
+            if (tracked.remove(t)) {
+                leaked.increment();
+                if (leakListener != null)
+                    leakListener.accept(t.site);
+            }
+        }
+    }
+
+    /** Returns the number of {@link #acquire()} calls. */
+    public long acquireCount() {
+        return acquired.sum();
+    }
+
+    /** Returns the number of acquisitions served by a free list. */
+    public long reuseCount() {
+        return reused.sum();
+    }
+
+    /** Returns the number of {@link #release} calls. */
+    public long releaseCount() {
+        return released.sum();
+    }
+
+    /** Returns the number of released lists that were trimmed. */
+    public long trimCount() {
+        return trimmed.sum();
+    }
+
+    /**
+     * Returns the number of tracked lists that were garbage collected
+     * without being released.  As only a sample of the lists is tracked,
+     * this is a lower bound; {@code acquireCount() - releaseCount()} counts
+     * every list that is in use or leaked.
+     */
+    public long leakCount() {
+        if (leakSampleInterval > 0)
+            pollLeaks();
+        return leaked.sum();
+    }
+
+    /** The free lists of one thread, a simple stack. */
+    private static final class FreeLists {
+        ArrayList<?>[] lists = new ArrayList<?>[0];
+        int count;
+        int sample; // acquisitions since the last tracked one
+    }
+
+    /**
+     * Weak reference to a tracked list, holding where it was acquired.
+     */
+    private static final class LeakTracker extends WeakReference<Object> {
+        final Throwable site = new Throwable("ArrayList acquired here was never released");
+
+        LeakTracker(Object list, ReferenceQueue<Object> queue) {
+            super(list, queue);
+        }
+    }
+
+    /**
+     * The lists handed out by a pool, remembering the pool and their state.
+     */
+    static final class PooledList<E> extends ArrayList<E> {
+        private static final long serialVersionUID = -5103945367921407128L;
+
+        final transient ArrayListPool pool;
+        transient boolean inPool;
+        transient LeakTracker tracker;
+
+        PooledList(ArrayListPool pool, int initialCapacity) {
+            super(initialCapacity);
+            this.pool = pool;
+        }
+
+        /**
+         * Returns a plain {@code ArrayList} copy that does not belong to
+         * the pool.
+         */
+        public Object clone() {
+            return new ArrayList<>(this);
+        }
+    }
+}
@@ -0,0 +1,741 @@
+package com.mee.source.c1;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Segmented implementation of the <tt>List</tt> interface for very large
+ * lists.  The elements live in fixed-size, power-of-two <i>segments</i>
+ * referenced from a small segment directory, so growing the list only
+ * allocates one new segment: existing elements are never copied, no second
+ * full-size array is alive during growth, and the segments stay well below
+ * the size at which G1 treats an array as a humongous object.
+ * 分段(分块)实现的列表，元素存放在固定大小(2的幂)的段中，扩容时只需要分配新的段，
+ * 已有元素不会被拷贝，也不会出现 ArrayList.grow 那样新旧两个大数组同时存活的情况。
+ *
+ * <p>{@code get}/{@code set} stay O(1): an index is split into a segment
+ * number ({@code index >>> segmentShift}) and an offset within the segment
+ * ({@code index & segmentMask}).  Indices are {@code long}, so the list is
+ * not limited to {@code Integer.MAX_VALUE - 8} elements like
+ * {@link ArrayList}; the {@code long} accessors ({@link #get(long)},
+ * {@link #set(long, Object)}, {@link #size64()}, ...) must be used past
+ * 2^31 elements, where {@link #size()} saturates at
+ * {@code Integer.MAX_VALUE} as required by {@link Collection#size()}.
+ * 笔记：get/set 通过 移位(>>>) 和 掩码(&) 定位到 段 + 段内偏移，依然是 O(1)；
+ *      索引是 long 类型，所以不再受 ArrayList.hugeCapacity 的 Integer.MAX_VALUE - 8 限制
+ *
+ * <p>Inserting or removing in the middle shifts the tail across segments
+ * (segment-wise {@code System.arraycopy}), so, like {@link ArrayList},
+ * those operations run in linear time.
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ * The iterators and spliterators are <i>fail-fast</i> in the same way as
+ * those of {@link ArrayList}.
+ *
+ * @param <E> the type of elements in this list
+ * @see ArrayList
+ */
+public class BigArrayList<E> extends AbstractList<E>
+        implements RandomAccess, java.io.Serializable
+{
+    private static final long serialVersionUID = 2471907325480313062L;
+
+    /**
+     * Default segment shift: 2^14 = 16384 elements per segment, i.e. 64KB of
+     * references with compressed oops.
+     * 默认每段 2^14 个元素
+     */
+    static final int DEFAULT_SEGMENT_SHIFT = 14;
+
+    /** Smallest and largest accepted segment shift. */
+    static final int MIN_SEGMENT_SHIFT = 4;
+    static final int MAX_SEGMENT_SHIFT = 30;
+
+    /**
+     * Initial length of the segment directory.
+     */
+    private static final int DEFAULT_DIRECTORY_LENGTH = 8;
+
+    private static final Object[][] EMPTY_DIRECTORY = {};
+
+    /**
+     * log2 of the number of elements per segment.
+     *
+     * @serial
+     */
+    private final int segmentShift;
+
+    /** {@code (1 << segmentShift) - 1} */
+    private transient int segmentMask;
+
+    /**
+     * The segment directory.  Only the first {@code segmentCount} entries
+     * are allocated; the capacity of the list is
+     * {@code segmentCount << segmentShift}.
+     * 段目录，只有前 segmentCount 个段是已分配的
+     */
+    transient Object[][] segments; // non-private to simplify nested class access
+
+    /** Number of allocated segments. */
+    private transient int segmentCount;
+
+    /**
+     * The number of elements in this list.
+     *
+     * @serial
+     */
+    private long size;
+
+    /**
+     * Constructs an empty list with the default segment size (2^14
+     * elements).
+     */
+    public BigArrayList() {
+        this(DEFAULT_SEGMENT_SHIFT);
+    }
+
+    /**
+     * Constructs an empty list whose segments hold {@code 1 << segmentShift}
+     * elements each.
+     *
+     * @param segmentShift log2 of the segment size
+     * @throws IllegalArgumentException if {@code segmentShift} is not
+     *         between 4 and 30
+     */
+    public BigArrayList(int segmentShift) {
+        if (segmentShift < MIN_SEGMENT_SHIFT || segmentShift > MAX_SEGMENT_SHIFT)
+            throw new IllegalArgumentException("Illegal segment shift: " +
+                    segmentShift);
+        this.segmentShift = segmentShift;
+        this.segmentMask = (1 << segmentShift) - 1;
+        this.segments = EMPTY_DIRECTORY;
+    }
+
+    /**
+     * Constructs a list containing the elements of the specified
+     * collection, in the order they are returned by the collection's
+     * iterator.
+     *
+     * @param c the collection whose elements are to be placed into this list
+     * @throws NullPointerException if the specified collection is null
+     */
+    public BigArrayList(Collection<? extends E> c) {
+        this(DEFAULT_SEGMENT_SHIFT);
+        addAll(c);
+    }
+
+    /**
+     * Returns the number of elements held by each segment.
+     *
+     * @return the segment size
+     */
+    public int segmentSize() {
+        return 1 << segmentShift;
+    }
+
+    /**
+     * Returns the current capacity, i.e. the number of elements the
+     * allocated segments can hold.
+     *
+     * @return the capacity of this list
+     */
+    public long capacity() {
+        return (long) segmentCount << segmentShift;
+    }
+
+    /**
+     * Increases the capacity of this list, if necessary, to ensure that it
+     * can hold at least the number of elements specified by the minimum
+     * capacity argument.  Only new segments are allocated; existing
+     * elements are never copied.
+     * 确保容量，只会分配新的段(以及偶尔扩大很小的段目录)，不会拷贝已有元素
+     *
+     * @param minCapacity the desired minimum capacity
+     */
+    public void ensureCapacity(long minCapacity) {
+        if (minCapacity > capacity()) {
+            modCount++;
+            grow(minCapacity);
+        }
+    }
+
+    /**
+     * Allocates segments until the capacity is at least minCapacity.
+     */
+    private void grow(long minCapacity) {
+        if (minCapacity < 0)
+            throw new OutOfMemoryError(); // overflow
+        long needed = (minCapacity + segmentMask) >>> segmentShift;
+        if (needed > Integer.MAX_VALUE - 8)
+            throw new OutOfMemoryError("Required segment count too large: " + needed);
+        int newCount = (int) needed;
+        Object[][] dir = segments;
+        if (newCount > dir.length) {
+            // 只有段目录(存的只是段的引用)需要拷贝，它很小
+            int newLength = Math.max(dir.length + (dir.length >> 1), DEFAULT_DIRECTORY_LENGTH);
+            if (newLength - newCount < 0 || newLength < 0)
+                newLength = newCount;
+            segments = dir = Arrays.copyOf(dir, newLength);
+        }
+        final int segmentSize = 1 << segmentShift;
+        for (int s = segmentCount; s < newCount; s++)
+            dir[s] = new Object[segmentSize];
+        segmentCount = newCount;
+    }
+
+    /**
+     * Releases the segments that are not needed to hold the current
+     * elements.  The capacity is rounded up to whole segments.
+     * 释放多余的段，容量按整段取整
+     */
+    public void trimToSize() {
+        modCount++;
+        int used = (int) ((size + segmentMask) >>> segmentShift);
+        if (used < segmentCount) {
+            for (int s = used; s < segmentCount; s++)
+                segments[s] = null;
+            segmentCount = used;
+        }
+        if (segments.length > used) {
+            segments = (used == 0) ? EMPTY_DIRECTORY : Arrays.copyOf(segments, used);
+        }
+    }
+
+    /**
+     * Returns the number of elements in this list as a {@code long}.
+     *
+     * @return the number of elements in this list
+     */
+    public long size64() {
+        return size;
+    }
+
+    /**
+     * Returns the number of elements in this list.  If the list contains
+     * more than {@code Integer.MAX_VALUE} elements, returns
+     * {@code Integer.MAX_VALUE}; use {@link #size64()} instead.
+     *
+     * @return the number of elements in this list
+     */
+    public int size() {
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(Object o) {
+        return indexOf64(o) >= 0;
+    }
+
+    /**
+     * Returns the index of the first occurrence of the specified element,
+     * or -1 if this list does not contain the element.
+     *
+     * @param o element to search for
+     * @return the index of the first occurrence, or -1
+     */
+    public long indexOf64(Object o) {
+        final Object[][] dir = segments;
+        final int segmentSize = 1 << segmentShift;
+        long base = 0;
+        for (int s = 0; base < size; s++, base += segmentSize) {
+            Object[] seg = dir[s];
+            int n = (int) Math.min(segmentSize, size - base);
+            if (o == null) {
+                for (int i = 0; i < n; i++)
+                    if (seg[i] == null)
+                        return base + i;
+            } else {
+                for (int i = 0; i < n; i++)
+                    if (o.equals(seg[i]))
+                        return base + i;
+            }
+        }
+        return -1;
+    }
+
+    public int indexOf(Object o) {
+        long i = indexOf64(o);
+        return (i > Integer.MAX_VALUE) ? -1 : (int) i;
+    }
+
+    /**
+     * Returns the index of the last occurrence of the specified element,
+     * or -1 if this list does not contain the element.
+     *
+     * @param o element to search for
+     * @return the index of the last occurrence, or -1
+     */
+    public long lastIndexOf64(Object o) {
+        for (long i = size - 1; i >= 0; i--) {
+            Object e = elementAt(i);
+            if (o == null ? e == null : o.equals(e))
+                return i;
+        }
+        return -1;
+    }
+
+    public int lastIndexOf(Object o) {
+        // 有可能最后一次出现的位置超出了 int 范围，这时只能从 int 范围内找
+        long last = Math.min(size, Integer.MAX_VALUE) - 1;
+        for (long i = last; i >= 0; i--) {
+            Object e = elementAt(i);
+            if (o == null ? e == null : o.equals(e))
+                return (int) i;
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    final E elementAt(long index) {
+        return (E) segments[(int) (index >>> segmentShift)][(int) index & segmentMask];
+    }
+
+    /**
+     * Returns the element at the specified position in this list.
+     *
+     * @param index index of the element to return
+     * @return the element at the specified position in this list
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public E get(long index) {
+        rangeCheck(index);
+        return elementAt(index);
+    }
+
+    public E get(int index) {
+        return get((long) index);
+    }
+
+    /**
+     * Replaces the element at the specified position in this list with
+     * the specified element.
+     *
+     * @param index index of the element to replace
+     * @param element element to be stored at the specified position
+     * @return the element previously at the specified position
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public E set(long index, E element) {
+        rangeCheck(index);
+        Object[] seg = segments[(int) (index >>> segmentShift)];
+        int i = (int) index & segmentMask;
+        @SuppressWarnings("unchecked") E oldValue = (E) seg[i];
+        seg[i] = element;
+        return oldValue;
+    }
+
+    public E set(int index, E element) {
+        return set((long) index, element);
+    }
+
+    /**
+     * Appends the specified element to the end of this list.
+     *
+     * @param e element to be appended to this list
+     * @return <tt>true</tt> (as specified by {@link Collection#add})
+     */
+    public boolean add(E e) {
+        modCount++;
+        long s = size;
+        if (s == capacity())
+            grow(s + 1);
+        segments[(int) (s >>> segmentShift)][(int) s & segmentMask] = e;
+        size = s + 1;
+        return true;
+    }
+
+    /**
+     * Inserts the specified element at the specified position in this
+     * list, shifting the tail to the right across segments.
+     *
+     * @param index index at which the specified element is to be inserted
+     * @param element element to be inserted
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public void add(long index, E element) {
+        rangeCheckForAdd(index);
+        modCount++;
+        long s = size;
+        if (s == capacity())
+            grow(s + 1);
+        moveRange(index, index + 1, s - index);
+        segments[(int) (index >>> segmentShift)][(int) index & segmentMask] = element;
+        size = s + 1;
+    }
+
+    public void add(int index, E element) {
+        add((long) index, element);
+    }
+
+    /**
+     * Removes the element at the specified position in this list,
+     * shifting the tail to the left across segments.
+     *
+     * @param index the index of the element to be removed
+     * @return the element that was removed from the list
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public E remove(long index) {
+        rangeCheck(index);
+        modCount++;
+        E oldValue = elementAt(index);
+        long s = size - 1;
+        moveRange(index + 1, index, s - index);
+        segments[(int) (s >>> segmentShift)][(int) s & segmentMask] = null; // clear to let GC do its work
+        size = s;
+        return oldValue;
+    }
+
+    public E remove(int index) {
+        return remove((long) index);
+    }
+
+    /**
+     * Removes and returns the last element of this list in constant time.
+     * 删除并返回最后一个元素，O(1)
+     *
+     * @return the removed element
+     * @throws NoSuchElementException if this list is empty
+     */
+    public E removeLast() {
+        if (size == 0)
+            throw new NoSuchElementException();
+        return remove(size - 1);
+    }
+
+    public boolean remove(Object o) {
+        long index = indexOf64(o);
+        if (index < 0)
+            return false;
+        remove(index);
+        return true;
+    }
+
+    /**
+     * Removes all of the elements from this list.  The allocated segments
+     * are kept (see {@link #trimToSize()} to release them).
+     */
+    public void clear() {
+        modCount++;
+        final int segmentSize = 1 << segmentShift;
+        long base = 0;
+        for (int s = 0; base < size; s++, base += segmentSize)
+            Arrays.fill(segments[s], 0, (int) Math.min(segmentSize, size - base), null);
+        size = 0;
+    }
+
+    public boolean addAll(Collection<? extends E> c) {
+        Object[] a = c.toArray();
+        int numNew = a.length;
+        ensureCapacity(size + numNew);  // Increments modCount
+        copyIn(a, size, numNew);
+        size += numNew;
+        modCount++;
+        return numNew != 0;
+    }
+
+    public boolean addAll(int index, Collection<? extends E> c) {
+        rangeCheckForAdd(index);
+        Object[] a = c.toArray();
+        int numNew = a.length;
+        ensureCapacity(size + numNew);
+        moveRange(index, index + numNew, size - index);
+        copyIn(a, index, numNew);
+        size += numNew;
+        modCount++;
+        return numNew != 0;
+    }
+
+    /**
+     * Removes the elements in {@code [fromIndex, toIndex)}.
+     */
+    public void removeRange(long fromIndex, long toIndex) {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex)
+            throw new IndexOutOfBoundsException("fromIndex: " + fromIndex +
+                    ", toIndex: " + toIndex + ", Size: " + size);
+        modCount++;
+        moveRange(toIndex, fromIndex, size - toIndex);
+        long newSize = size - (toIndex - fromIndex);
+        for (long i = newSize; i < size; i++)
+            segments[(int) (i >>> segmentShift)][(int) i & segmentMask] = null;
+        size = newSize;
+    }
+
+    protected void removeRange(int fromIndex, int toIndex) {
+        removeRange((long) fromIndex, (long) toIndex);
+    }
+
+    /**
+     * Copies len elements of a into this list starting at dst.
+     */
+    private void copyIn(Object[] a, long dst, int len) {
+        int src = 0;
+        while (len > 0) {
+            int off = (int) dst & segmentMask;
+            int n = Math.min(len, (segmentMask + 1) - off);
+            System.arraycopy(a, src, segments[(int) (dst >>> segmentShift)], off, n);
+            src += n; dst += n; len -= n;
+        }
+    }
+
+    /**
+     * Moves {@code len} elements from {@code src} to {@code dst}, one
+     * segment-bounded {@code System.arraycopy} at a time.  Overlapping
+     * ranges are handled by copying forwards when moving left and
+     * backwards when moving right.
+     * 跨段移动元素，向左移时从前往后拷，向右移时从后往前拷，避免覆盖
+     */
+    private void moveRange(long src, long dst, long len) {
+        if (len <= 0 || src == dst)
+            return;
+        final Object[][] dir = segments;
+        final int shift = segmentShift, mask = segmentMask, segmentSize = mask + 1;
+        if (dst < src) {
+            while (len > 0) {
+                int so = (int) src & mask, doff = (int) dst & mask;
+                int n = (int) Math.min(len, Math.min(segmentSize - so, segmentSize - doff));
+                System.arraycopy(dir[(int) (src >>> shift)], so,
+                        dir[(int) (dst >>> shift)], doff, n);
+                src += n; dst += n; len -= n;
+            }
+        } else {
+            long sEnd = src + len, dEnd = dst + len;
+            while (len > 0) {
+                // number of elements of the current segment that end at sEnd / dEnd
+                int sAvail = ((int) (sEnd - 1) & mask) + 1;
+                int dAvail = ((int) (dEnd - 1) & mask) + 1;
+                int n = (int) Math.min(len, Math.min(sAvail, dAvail));
+                System.arraycopy(dir[(int) ((sEnd - 1) >>> shift)], sAvail - n,
+                        dir[(int) ((dEnd - 1) >>> shift)], dAvail - n, n);
+                sEnd -= n; dEnd -= n; len -= n;
+            }
+        }
+    }
+
+    private void rangeCheck(long index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException(outOfBoundsMsg(index));
+    }
+
+    private void rangeCheckForAdd(long index) {
+        if (index > size || index < 0)
+            throw new IndexOutOfBoundsException(outOfBoundsMsg(index));
+    }
+
+    private String outOfBoundsMsg(long index) {
+        return "Index: "+index+", Size: "+size;
+    }
+
+    @Override
+    public void forEach(Consumer<? super E> action) {
+        Objects.requireNonNull(action);
+        final int expectedModCount = modCount;
+        final Object[][] dir = segments;
+        final long size = this.size;
+        final int segmentSize = 1 << segmentShift;
+        long base = 0;
+        for (int s = 0; base < size && modCount == expectedModCount; s++, base += segmentSize) {
+            Object[] seg = dir[s];
+            int n = (int) Math.min(segmentSize, size - base);
+            for (int i = 0; i < n; i++) {
+                @SuppressWarnings("unchecked") E e = (E) seg[i];
+                action.accept(e);
+            }
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * Returns an iterator over the elements in this list in proper sequence.
+     * Unlike the index-based iterator of {@code AbstractList} it keeps a
+     * {@code long} cursor, so it can traverse more than 2^31 elements.
+     *
+     * @return an iterator over the elements in this list
+     */
+    public Iterator<E> iterator() {
+        return new Itr();
+    }
+
+    private class Itr implements Iterator<E> {
+        long cursor;       // index of next element to return
+        long lastRet = -1; // index of last element returned; -1 if no such
+        int expectedModCount = modCount;
+
+        public boolean hasNext() {
+            return cursor != size;
+        }
+
+        public E next() {
+            checkForComodification();
+            long i = cursor;
+            if (i >= size)
+                throw new NoSuchElementException();
+            cursor = i + 1;
+            return elementAt(lastRet = i);
+        }
+
+        public void remove() {
+            if (lastRet < 0)
+                throw new IllegalStateException();
+            checkForComodification();
+            BigArrayList.this.remove(lastRet);
+            cursor = lastRet;
+            lastRet = -1;
+            expectedModCount = modCount;
+        }
+
+        final void checkForComodification() {
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * Creates a <em>late-binding</em> and <em>fail-fast</em>
+     * {@link Spliterator} over the elements in this list.  Splits are made
+     * on segment boundaries, so every half covers whole segments (only a
+     * range inside a single segment is split by halving).
+     * 按段的边界拆分的拆分器，每一份都覆盖完整的段
+     *
+     * <p>The {@code Spliterator} reports {@link Spliterator#SIZED},
+     * {@link Spliterator#SUBSIZED}, and {@link Spliterator#ORDERED}.
+     *
+     * @return a {@code Spliterator} over the elements in this list
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return new SegmentSpliterator<>(this, 0, -1, 0);
+    }
+
+    static final class SegmentSpliterator<E> implements Spliterator<E> {
+        private final BigArrayList<E> list;
+        private long index; // current index, modified on advance/split
+        private long fence; // -1 until used; then one past last index
+        private int expectedModCount; // initialized when fence set
+
+        SegmentSpliterator(BigArrayList<E> list, long origin, long fence,
+                           int expectedModCount) {
+            this.list = list;
+            this.index = origin;
+            this.fence = fence;
+            this.expectedModCount = expectedModCount;
+        }
+
+        private long getFence() { // initialize fence to size on first use
+            long hi;
+            if ((hi = fence) < 0) {
+                expectedModCount = list.modCount;
+                hi = fence = list.size;
+            }
+            return hi;
+        }
+
+        public SegmentSpliterator<E> trySplit() {
+            long hi = getFence(), lo = index;
+            int shift = list.segmentShift;
+            long mid;
+            if ((lo >>> shift) != ((hi - 1) >>> shift)) {
+                // spans more than one segment: cut at the segment boundary
+                // closest to the middle, but never at lo itself
+                long loSeg = (lo >>> shift) + 1, hiSeg = (hi - 1) >>> shift;
+                mid = ((loSeg + hiSeg + 1) >>> 1) << shift;
+                if (mid <= lo || mid >= hi)
+                    mid = loSeg << shift;
+            } else {
+                mid = (lo + hi) >>> 1;
+            }
+            return (lo >= mid || mid >= hi) ? null :
+                    new SegmentSpliterator<>(list, lo, index = mid, expectedModCount);
+        }
+
+        public boolean tryAdvance(Consumer<? super E> action) {
+            if (action == null)
+                throw new NullPointerException();
+            long hi = getFence(), i = index;
+            if (i < hi) {
+                index = i + 1;
+                action.accept(list.elementAt(i));
+                if (list.modCount != expectedModCount)
+                    throw new ConcurrentModificationException();
+                return true;
+            }
+            return false;
+        }
+
+        public void forEachRemaining(Consumer<? super E> action) {
+            if (action == null)
+                throw new NullPointerException();
+            long hi = getFence(), i = index;
+            index = hi;
+            final BigArrayList<E> lst = list;
+            final Object[][] dir = lst.segments;
+            final int shift = lst.segmentShift, mask = lst.segmentMask;
+            if (hi > (long) lst.segmentCount << shift)
+                throw new ConcurrentModificationException();
+            // walk one segment at a time, hoisting the directory lookup out of the inner loop
+            while (i < hi) {
+                Object[] seg = dir[(int) (i >>> shift)];
+                int from = (int) i & mask;
+                int to = (int) Math.min(mask + 1, from + (hi - i));
+                for (int k = from; k < to; k++) {
+                    @SuppressWarnings("unchecked") E e = (E) seg[k];
+                    action.accept(e);
+                }
+                i += to - from;
+            }
+            if (lst.modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+        }
+
+        public long estimateSize() {
+            return getFence() - index;
+        }
+
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+    }
+
+    /**
+     * Save the state of the <tt>BigArrayList</tt> instance to a stream.
+     *
+     * @serialData The segment shift and the size are emitted by
+     *             {@code defaultWriteObject}, followed by all of the
+     *             elements (each an <tt>Object</tt>) in the proper order.
+     */
+    private void writeObject(java.io.ObjectOutputStream s) throws java.io.IOException {
+        int expectedModCount = modCount;
+        s.defaultWriteObject();
+        for (long i = 0; i < size; i++) {
+            s.writeObject(elementAt(i));
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * Reconstitute the <tt>BigArrayList</tt> instance from a stream.
+     */
+    private void readObject(java.io.ObjectInputStream s) throws java.io.IOException, ClassNotFoundException {
+        s.defaultReadObject();
+        if (segmentShift < MIN_SEGMENT_SHIFT || segmentShift > MAX_SEGMENT_SHIFT)
+            throw new java.io.InvalidObjectException("Illegal segment shift: " + segmentShift);
+        if (size < 0)
+            throw new java.io.InvalidObjectException("Illegal size: " + size);
+        segmentMask = (1 << segmentShift) - 1;
+        segments = EMPTY_DIRECTORY;
+        segmentCount = 0;
+        long n = size;
+        size = 0;
+        for (long i = 0; i < n; i++) {
+            @SuppressWarnings("unchecked") E e = (E) s.readObject();
+            add(e);
+        }
+    }
+}
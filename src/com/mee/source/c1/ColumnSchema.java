@@ -0,0 +1,172 @@
+package com.mee.source.c1;
+
+import java.util.Arrays;
+
+/**
+ * The columns of a {@link ColumnarList}: an ordered list of named,
+ * primitive-typed fields.  Columns are addressed by their position, which
+ * {@link #column(String)} looks up by name once, outside of any loop.
+ * ColumnarList 的列定义：有序的、带名字的基本类型字段；列通过位置访问，名字只在循环之外查一次
+ *
+ * <pre>
+ *     ColumnSchema schema = new ColumnSchema.Builder()
+ *             .longColumn("id")
+ *             .doubleColumn("price")
+ *             .intColumn("quantity")
+ *             .build();
+ * </pre>
+ *
+ * @see ColumnarList
+ */
+public final class ColumnSchema {
+
+    /**
+     * The type of a column.
+     */
+    public enum Type {
+        INT, LONG, DOUBLE
+    }
+
+    private final String[] names;
+    private final Type[] types;
+
+    /**
+     * Index of each column among the columns of its type, i.e. into the
+     * {@code int[][]}, {@code long[][]} or {@code double[][]} of a
+     * {@link ColumnarList}.
+     * 每一列在同类型的列中的序号，也就是在 ColumnarList 的 int[][]/long[][]/double[][] 中的下标
+     */
+    final int[] slots;
+    final int intColumns, longColumns, doubleColumns;
+
+    private ColumnSchema(String[] names, Type[] types) {
+        this.names = names;
+        this.types = types;
+        this.slots = new int[types.length];
+        int ni = 0, nl = 0, nd = 0;
+        for (int c = 0; c < types.length; c++) {
+            switch (types[c]) {
+                case INT:    slots[c] = ni++; break;
+                case LONG:   slots[c] = nl++; break;
+                default:     slots[c] = nd++; break;
+            }
+        }
+        this.intColumns = ni;
+        this.longColumns = nl;
+        this.doubleColumns = nd;
+    }
+
+    /**
+     * Returns the number of columns.
+     *
+     * @return the number of columns
+     */
+    public int columnCount() {
+        return names.length;
+    }
+
+    /**
+     * Returns the name of a column.
+     *
+     * @param column the position of the column
+     * @return the name of the column
+     * @throws IndexOutOfBoundsException if there is no such column
+     */
+    public String name(int column) {
+        return names[column];
+    }
+
+    /**
+     * Returns the type of a column.
+     *
+     * @param column the position of the column
+     * @return the type of the column
+     * @throws IndexOutOfBoundsException if there is no such column
+     */
+    public Type type(int column) {
+        return types[column];
+    }
+
+    /**
+     * Returns the position of the column with the given name.
+     *
+     * @param name the name of the column
+     * @return the position of the column
+     * @throws IllegalArgumentException if there is no such column
+     */
+    public int column(String name) {
+        for (int c = 0; c < names.length; c++) {
+            if (names[c].equals(name))
+                return c;
+        }
+        throw new IllegalArgumentException("No column " + name);
+    }
+
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int c = 0; c < names.length; c++) {
+            if (c > 0)
+                sb.append(", ");
+            sb.append(names[c]).append(' ').append(types[c]);
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * Builds a {@link ColumnSchema}, one column at a time.
+     */
+    public static final class Builder {
+        private String[] names = new String[8];
+        private Type[] types = new Type[8];
+        private int count;
+
+        public Builder intColumn(String name) {
+            return add(name, Type.INT);
+        }
+
+        public Builder longColumn(String name) {
+            return add(name, Type.LONG);
+        }
+
+        public Builder doubleColumn(String name) {
+            return add(name, Type.DOUBLE);
+        }
+
+        /**
+         * Adds a column after the ones added so far.
+         *
+         * @param name the name of the column
+         * @param type the type of the column
+         * @return this builder
+         * @throws IllegalArgumentException if a column with this name was
+         *         already added
+         */
+        public Builder add(String name, Type type) {
+            if (name == null || type == null)
+                throw new NullPointerException();
+            for (int c = 0; c < count; c++) {
+                if (names[c].equals(name))
+                    throw new IllegalArgumentException("Duplicate column " + name);
+            }
+            if (count == names.length) {
+                names = Arrays.copyOf(names, count << 1);
+                types = Arrays.copyOf(types, count << 1);
+            }
+            names[count] = name;
+            types[count++] = type;
+            return this;
+        }
+
+        /**
+         * Returns the schema of the columns added so far.
+         *
+         * @return the schema
+         * @throws IllegalStateException if no column was added
+         */
+        public ColumnSchema build() {
+            if (count == 0)
+                throw new IllegalStateException("No columns");
+            return new ColumnSchema(Arrays.copyOf(names, count), Arrays.copyOf(types, count));
+        }
+    }
+}
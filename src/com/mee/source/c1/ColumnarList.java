@@ -0,0 +1,758 @@
+package com.mee.source.c1;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * A list of records stored column by column ("struct of arrays"): every
+ * column of the {@link ColumnSchema} is a primitive array of its own, and
+ * row {@code i} is the {@code i}-th slot of every column.  Compared with an
+ * {@code ArrayList} of small record objects there is no object header and
+ * no reference per row, and a scan over one field reads one dense array
+ * instead of chasing a pointer per row.
+ * 按列存储的记录列表(结构体数组 -> 数组结构体)：schema 中的每一列都是一个独立的基本类型数组，
+ * 第 i 行就是每一列的第 i 个槽位；和保存小对象的 ArrayList 相比，每行没有对象头也没有引用，
+ * 扫描某一个字段只需要顺序读取一个紧凑的数组，而不是每行都跳转一次指针
+ *
+ * <p>Rows are never materialized as objects.  {@link #get(int)} returns a
+ * {@link Row}, a flyweight cursor that reads and writes the columns at its
+ * current index; {@link Row#moveTo} repositions it, so a loop needs only
+ * one.  {@link #intColumn}, {@link #longColumn} and {@link #doubleColumn}
+ * give column views with scans and aggregates ({@code sum}, {@code min},
+ * {@code max}, {@code countBetween}, ...) over the primitive arrays.
+ * 笔记：行不会被实例化为对象：get(int) 返回的 Row 是一个轻量的游标，读写它当前位置上的各列，
+ *      moveTo 可以重新定位，一个循环只需要一个 Row；intColumn/longColumn/doubleColumn 返回列视图，
+ *      直接在基本类型数组上做扫描和聚合
+ *
+ * <p>All columns share one capacity, which grows with the
+ * {@link GrowthPolicy} of the list exactly like the backing array of
+ * {@link ArrayList} (1.5x by default).
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ *
+ * @see ColumnSchema
+ * @see ArrayList
+ */
+public class ColumnarList {
+
+    private static final int[][] EMPTY_INTS = {};
+    private static final long[][] EMPTY_LONGS = {};
+    private static final double[][] EMPTY_DOUBLES = {};
+
+    /**
+     * The maximum size of array to allocate, as in {@link ArrayList}.
+     */
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    private final ColumnSchema schema;
+    private final GrowthPolicy growthPolicy;
+
+    // non-private to simplify nested class access
+    int[][] ints;
+    long[][] longs;
+    double[][] doubles;
+
+    /** The capacity shared by all columns. */
+    private int capacity;
+
+    /** True until the first allocation of a list created without a capacity. */
+    private boolean defaultCapacity;
+
+    /** The number of rows. */
+    int size;
+
+    /** Structural modification count, see {@link AbstractList#modCount}. */
+    transient int modCount;
+
+    /**
+     * Constructs an empty list of the given schema that allocates its
+     * columns when the first row is added.
+     *
+     * @param schema the columns
+     */
+    public ColumnarList(ColumnSchema schema) {
+        this(schema, 0, GrowthPolicy.ONE_AND_HALF);
+        this.defaultCapacity = true;
+    }
+
+    /**
+     * Constructs an empty list of the given schema with the specified
+     * initial capacity.
+     *
+     * @param schema the columns
+     * @param initialCapacity the initial capacity of every column
+     * @throws IllegalArgumentException if the initial capacity is negative
+     */
+    public ColumnarList(ColumnSchema schema, int initialCapacity) {
+        this(schema, initialCapacity, GrowthPolicy.ONE_AND_HALF);
+    }
+
+    /**
+     * Constructs an empty list of the given schema with the specified
+     * initial capacity and growth policy.
+     *
+     * @param schema the columns
+     * @param initialCapacity the initial capacity of every column
+     * @param growthPolicy decides how the columns grow
+     * @throws IllegalArgumentException if the initial capacity is negative
+     */
+    public ColumnarList(ColumnSchema schema, int initialCapacity, GrowthPolicy growthPolicy) {
+        if (initialCapacity < 0)
+            throw new IllegalArgumentException("Illegal Capacity: " + initialCapacity);
+        this.schema = Objects.requireNonNull(schema);
+        this.growthPolicy = Objects.requireNonNull(growthPolicy);
+        this.ints = schema.intColumns == 0 ? EMPTY_INTS : new int[schema.intColumns][initialCapacity];
+        this.longs = schema.longColumns == 0 ? EMPTY_LONGS : new long[schema.longColumns][initialCapacity];
+        this.doubles = schema.doubleColumns == 0 ? EMPTY_DOUBLES : new double[schema.doubleColumns][initialCapacity];
+        this.capacity = initialCapacity;
+    }
+
+    /**
+     * Returns the schema of this list.
+     *
+     * @return the schema
+     */
+    public ColumnSchema schema() {
+        return schema;
+    }
+
+    /**
+     * Returns the number of rows in this list.
+     *
+     * @return the number of rows
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // ------------------------------------------------------------------
+    // capacity
+
+    /**
+     * Increases the capacity of every column, if necessary, to hold at
+     * least {@code minCapacity} rows.
+     *
+     * @param minCapacity the desired minimum capacity
+     */
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity > capacity)
+            grow(minCapacity);
+    }
+
+    /**
+     * Trims the capacity of every column to the current size.
+     */
+    public void trimToSize() {
+        if (size < capacity)
+            resize(size);
+    }
+
+    /**
+     * Grows all columns to hold at least {@code minCapacity} rows; the same
+     * computation as {@code ArrayList.grow}.
+     */
+    private void grow(int minCapacity) {
+        if (minCapacity < 0) // overflow
+            throw new OutOfMemoryError();
+        int newCapacity;
+        if (defaultCapacity) {
+            newCapacity = Math.max(growthPolicy.initialCapacity(minCapacity), minCapacity);
+            defaultCapacity = false;
+        } else {
+            newCapacity = growthPolicy.newCapacity(capacity, minCapacity);
+        }
+        if (newCapacity - minCapacity < 0)
+            newCapacity = minCapacity;
+        if (newCapacity - MAX_ARRAY_SIZE > 0)
+            newCapacity = (minCapacity > MAX_ARRAY_SIZE) ? Integer.MAX_VALUE : MAX_ARRAY_SIZE;
+        resize(newCapacity);
+    }
+
+    private void resize(int newCapacity) {
+        for (int k = 0; k < ints.length; k++)
+            ints[k] = Arrays.copyOf(ints[k], newCapacity);
+        for (int k = 0; k < longs.length; k++)
+            longs[k] = Arrays.copyOf(longs[k], newCapacity);
+        for (int k = 0; k < doubles.length; k++)
+            doubles[k] = Arrays.copyOf(doubles[k], newCapacity);
+        capacity = newCapacity;
+    }
+
+    // ------------------------------------------------------------------
+    // rows
+
+    /**
+     * Appends a row whose fields are all zero and returns its index.
+     * 追加一行(所有字段都为 0)，返回它的下标
+     *
+     * @return the index of the new row
+     */
+    public int addRow() {
+        int s = size;
+        if (s == capacity)
+            grow(s + 1);
+        modCount++;
+        size = s + 1;
+        return s;
+    }
+
+    /**
+     * Appends a row whose fields are all zero and returns a {@link Row}
+     * positioned on it, for setting its fields.
+     *
+     * @return a row cursor on the new row
+     */
+    public Row add() {
+        return new Row(addRow());
+    }
+
+    /**
+     * Returns a {@link Row} cursor positioned on the specified row.  The
+     * cursor reads the columns directly; no field is copied.
+     *
+     * @param index index of the row
+     * @return a row cursor on that row
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public Row get(int index) {
+        rangeCheck(index);
+        return new Row(index);
+    }
+
+    /**
+     * Removes the specified row, shifting the following rows of every
+     * column to the left.
+     *
+     * @param index the index of the row to be removed
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public void remove(int index) {
+        rangeCheck(index);
+        modCount++;
+        int numMoved = size - index - 1;
+        if (numMoved > 0) {
+            for (int[] c : ints)
+                System.arraycopy(c, index + 1, c, index, numMoved);
+            for (long[] c : longs)
+                System.arraycopy(c, index + 1, c, index, numMoved);
+            for (double[] c : doubles)
+                System.arraycopy(c, index + 1, c, index, numMoved);
+        }
+        size--;
+        clearRow(size);
+    }
+
+    /**
+     * Removes all of the rows; the capacity is kept.
+     */
+    public void clear() {
+        modCount++;
+        for (int[] c : ints)
+            Arrays.fill(c, 0, size, 0);
+        for (long[] c : longs)
+            Arrays.fill(c, 0, size, 0L);
+        for (double[] c : doubles)
+            Arrays.fill(c, 0, size, 0.0);
+        size = 0;
+    }
+
+    /** Zeroes a free slot so that {@link #addRow()} can hand it out as is. */
+    private void clearRow(int index) {
+        for (int[] c : ints)
+            c[index] = 0;
+        for (long[] c : longs)
+            c[index] = 0L;
+        for (double[] c : doubles)
+            c[index] = 0.0;
+    }
+
+    /**
+     * Performs the given action for every row, passing one {@link Row}
+     * cursor that is moved from row to row: the action must not keep it.
+     * 对每一行执行 action，传入的是同一个在各行之间移动的 Row，action 不能保存它
+     *
+     * @param action the action to be performed for each row
+     * @throws ConcurrentModificationException if rows are added or removed
+     *         by the action
+     */
+    public void forEachRow(Consumer<? super Row> action) {
+        Objects.requireNonNull(action);
+        final int expectedModCount = modCount;
+        final int size = this.size;
+        Row row = new Row(0);
+        for (int i = 0; modCount == expectedModCount && i < size; i++) {
+            row.index = i;
+            action.accept(row);
+        }
+        if (modCount != expectedModCount)
+            throw new ConcurrentModificationException();
+    }
+
+    // ------------------------------------------------------------------
+    // fields
+
+    private int[] ints(int column) {
+        return ints[slot(column, ColumnSchema.Type.INT)];
+    }
+
+    private long[] longs(int column) {
+        return longs[slot(column, ColumnSchema.Type.LONG)];
+    }
+
+    private double[] doubles(int column) {
+        return doubles[slot(column, ColumnSchema.Type.DOUBLE)];
+    }
+
+    private int slot(int column, ColumnSchema.Type type) {
+        if (schema.type(column) != type)
+            throw new IllegalArgumentException("Column " + schema.name(column) +
+                    " is " + schema.type(column) + ", not " + type);
+        return schema.slots[column];
+    }
+
+    public int getInt(int index, int column) {
+        rangeCheck(index);
+        return ints(column)[index];
+    }
+
+    public long getLong(int index, int column) {
+        rangeCheck(index);
+        return longs(column)[index];
+    }
+
+    public double getDouble(int index, int column) {
+        rangeCheck(index);
+        return doubles(column)[index];
+    }
+
+    public void setInt(int index, int column, int value) {
+        rangeCheck(index);
+        ints(column)[index] = value;
+    }
+
+    public void setLong(int index, int column, long value) {
+        rangeCheck(index);
+        longs(column)[index] = value;
+    }
+
+    public void setDouble(int index, int column, double value) {
+        rangeCheck(index);
+        doubles(column)[index] = value;
+    }
+
+    private void rangeCheck(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: "+index+", Size: "+size);
+    }
+
+    // ------------------------------------------------------------------
+    // columns
+
+    /**
+     * Returns a view of an {@code int} column.
+     *
+     * @param column the position of the column
+     * @return a view of the column
+     * @throws IllegalArgumentException if the column is not of type
+     *         {@code INT}
+     */
+    public IntColumn intColumn(int column) {
+        return new IntColumn(slot(column, ColumnSchema.Type.INT));
+    }
+
+    /**
+     * Returns a view of a {@code long} column.
+     *
+     * @param column the position of the column
+     * @return a view of the column
+     * @throws IllegalArgumentException if the column is not of type
+     *         {@code LONG}
+     */
+    public LongColumn longColumn(int column) {
+        return new LongColumn(slot(column, ColumnSchema.Type.LONG));
+    }
+
+    /**
+     * Returns a view of a {@code double} column.
+     *
+     * @param column the position of the column
+     * @return a view of the column
+     * @throws IllegalArgumentException if the column is not of type
+     *         {@code DOUBLE}
+     */
+    public DoubleColumn doubleColumn(int column) {
+        return new DoubleColumn(slot(column, ColumnSchema.Type.DOUBLE));
+    }
+
+    public String toString() {
+        return "ColumnarList" + schema + " size=" + size;
+    }
+
+    /**
+     * A flyweight cursor on one row of the list.  It holds only the row
+     * index and reads and writes the columns of the list in place; it stays
+     * valid when the list grows.  The typed accessors throw
+     * {@link IllegalArgumentException} for a column of another type, and
+     * {@link IndexOutOfBoundsException} if rows were removed so that the
+     * index is no longer in range.
+     * 某一行上的轻量游标：只保存行下标，直接读写列表的各列；列表扩容之后依然有效
+     */
+    public final class Row {
+        int index;
+
+        Row(int index) {
+            this.index = index;
+        }
+
+        /**
+         * Returns the index of the row this cursor is positioned on.
+         *
+         * @return the row index
+         */
+        public int index() {
+            return index;
+        }
+
+        /**
+         * Positions this cursor on another row.
+         *
+         * @param index the row index
+         * @return this cursor
+         * @throws IndexOutOfBoundsException if the index is out of range
+         */
+        public Row moveTo(int index) {
+            rangeCheck(index);
+            this.index = index;
+            return this;
+        }
+
+        public int getInt(int column) {
+            rangeCheck(index);
+            return ints(column)[index];
+        }
+
+        public long getLong(int column) {
+            rangeCheck(index);
+            return longs(column)[index];
+        }
+
+        public double getDouble(int column) {
+            rangeCheck(index);
+            return doubles(column)[index];
+        }
+
+        public Row setInt(int column, int value) {
+            rangeCheck(index);
+            ints(column)[index] = value;
+            return this;
+        }
+
+        public Row setLong(int column, long value) {
+            rangeCheck(index);
+            longs(column)[index] = value;
+            return this;
+        }
+
+        public Row setDouble(int column, double value) {
+            rangeCheck(index);
+            doubles(column)[index] = value;
+            return this;
+        }
+
+        public String toString() {
+            StringBuilder sb = new StringBuilder("{");
+            for (int c = 0; c < schema.columnCount(); c++) {
+                if (c > 0)
+                    sb.append(", ");
+                sb.append(schema.name(c)).append('=');
+                switch (schema.type(c)) {
+                    case INT:  sb.append(getInt(c)); break;
+                    case LONG: sb.append(getLong(c)); break;
+                    default:   sb.append(getDouble(c)); break;
+                }
+            }
+            return sb.append('}').toString();
+        }
+    }
+
+    /**
+     * A view of an {@code int} column.  The scans and aggregates run over
+     * the first {@code size()} slots of the column array.
+     */
+    public final class IntColumn {
+        private final int slot;
+
+        IntColumn(int slot) {
+            this.slot = slot;
+        }
+
+        public int get(int index) {
+            rangeCheck(index);
+            return ints[slot][index];
+        }
+
+        public void set(int index, int value) {
+            rangeCheck(index);
+            ints[slot][index] = value;
+        }
+
+        /** Returns the sum of the column as a {@code long}, 0 if the list is empty. */
+        public long sum() {
+            return PrimitiveKernels.sum(ints[slot], 0, size);
+        }
+
+        /**
+         * Returns the smallest value of the column.
+         *
+         * @throws java.util.NoSuchElementException if the list is empty
+         */
+        public int min() {
+            return PrimitiveKernels.min(ints[slot], 0, size);
+        }
+
+        /**
+         * Returns the largest value of the column.
+         *
+         * @throws java.util.NoSuchElementException if the list is empty
+         */
+        public int max() {
+            return PrimitiveKernels.max(ints[slot], 0, size);
+        }
+
+        /** Returns the number of rows with {@code lo <= value <= hi}. */
+        public int countBetween(int lo, int hi) {
+            return PrimitiveKernels.countBetween(ints[slot], 0, size, lo, hi);
+        }
+
+        /** Returns the first row holding {@code value}, or -1. */
+        public int indexOf(int value) {
+            return PrimitiveKernels.indexOf(ints[slot], 0, size, value);
+        }
+
+        /**
+         * Returns the indices, in ascending order, of the rows with
+         * {@code lo <= value <= hi}, for reading other columns of just
+         * those rows.
+         * 返回该列取值在 [lo, hi] 内的行下标(升序)，用于之后只读取这些行的其他列
+         */
+        public IntArrayList rowsBetween(int lo, int hi) {
+            int[] a = ints[slot];
+            IntArrayList rows = new IntArrayList();
+            for (int i = 0, n = size; i < n; i++) {
+                if (a[i] >= lo && a[i] <= hi)
+                    rows.addInt(i);
+            }
+            return rows;
+        }
+
+        public void forEach(IntConsumer action) {
+            Objects.requireNonNull(action);
+            int[] a = ints[slot];
+            for (int i = 0, n = size; i < n; i++)
+                action.accept(a[i]);
+        }
+
+        /** Returns a copy of the column. */
+        public int[] toArray() {
+            return Arrays.copyOf(ints[slot], size);
+        }
+    }
+
+    /**
+     * A view of a {@code long} column.  The scans and aggregates run over
+     * the first {@code size()} slots of the column array.
+     */
+    public final class LongColumn {
+        private final int slot;
+
+        LongColumn(int slot) {
+            this.slot = slot;
+        }
+
+        public long get(int index) {
+            rangeCheck(index);
+            return longs[slot][index];
+        }
+
+        public void set(int index, long value) {
+            rangeCheck(index);
+            longs[slot][index] = value;
+        }
+
+        /** Returns the sum of the column, 0 if the list is empty. */
+        public long sum() {
+            return PrimitiveKernels.sum(longs[slot], 0, size);
+        }
+
+        /**
+         * Returns the smallest value of the column.
+         *
+         * @throws java.util.NoSuchElementException if the list is empty
+         */
+        public long min() {
+            return PrimitiveKernels.min(longs[slot], 0, size);
+        }
+
+        /**
+         * Returns the largest value of the column.
+         *
+         * @throws java.util.NoSuchElementException if the list is empty
+         */
+        public long max() {
+            return PrimitiveKernels.max(longs[slot], 0, size);
+        }
+
+        /** Returns the number of rows with {@code lo <= value <= hi}. */
+        public int countBetween(long lo, long hi) {
+            return PrimitiveKernels.countBetween(longs[slot], 0, size, lo, hi);
+        }
+
+        /** Returns the first row holding {@code value}, or -1. */
+        public int indexOf(long value) {
+            return PrimitiveKernels.indexOf(longs[slot], 0, size, value);
+        }
+
+        /**
+         * Returns the indices, in ascending order, of the rows with
+         * {@code lo <= value <= hi}.
+         */
+        public IntArrayList rowsBetween(long lo, long hi) {
+            long[] a = longs[slot];
+            IntArrayList rows = new IntArrayList();
+            for (int i = 0, n = size; i < n; i++) {
+                if (a[i] >= lo && a[i] <= hi)
+                    rows.addInt(i);
+            }
+            return rows;
+        }
+
+        public void forEach(LongConsumer action) {
+            Objects.requireNonNull(action);
+            long[] a = longs[slot];
+            for (int i = 0, n = size; i < n; i++)
+                action.accept(a[i]);
+        }
+
+        /** Returns a copy of the column. */
+        public long[] toArray() {
+            return Arrays.copyOf(longs[slot], size);
+        }
+    }
+
+    /**
+     * A view of a {@code double} column.  The scans and aggregates run over
+     * the first {@code size()} slots of the column array.
+     */
+    public final class DoubleColumn {
+        private final int slot;
+
+        DoubleColumn(int slot) {
+            this.slot = slot;
+        }
+
+        private ColumnarList list() {
+            return ColumnarList.this;
+        }
+
+        public double get(int index) {
+            rangeCheck(index);
+            return doubles[slot][index];
+        }
+
+        public void set(int index, double value) {
+            rangeCheck(index);
+            doubles[slot][index] = value;
+        }
+
+        /**
+         * Returns the sum of the column, 0 if the list is empty.  Four
+         * partial sums are used, see {@link DoubleArrayList#sum()}.
+         */
+        public double sum() {
+            return PrimitiveKernels.sum(doubles[slot], 0, size);
+        }
+
+        /**
+         * Returns the smallest value of the column.
+         *
+         * @throws java.util.NoSuchElementException if the list is empty
+         */
+        public double min() {
+            return PrimitiveKernels.min(doubles[slot], 0, size);
+        }
+
+        /**
+         * Returns the largest value of the column.
+         *
+         * @throws java.util.NoSuchElementException if the list is empty
+         */
+        public double max() {
+            return PrimitiveKernels.max(doubles[slot], 0, size);
+        }
+
+        /** Returns the number of rows with {@code lo <= value <= hi}. */
+        public int countBetween(double lo, double hi) {
+            return PrimitiveKernels.countBetween(doubles[slot], 0, size, lo, hi);
+        }
+
+        /**
+         * Returns the indices, in ascending order, of the rows with
+         * {@code lo <= value <= hi}.
+         */
+        public IntArrayList rowsBetween(double lo, double hi) {
+            double[] a = doubles[slot];
+            IntArrayList rows = new IntArrayList();
+            for (int i = 0, n = size; i < n; i++) {
+                if (a[i] >= lo && a[i] <= hi)
+                    rows.addInt(i);
+            }
+            return rows;
+        }
+
+        /**
+         * Returns the sum of the products of this column and another
+         * {@code double} column, row by row, without materializing either.
+         * 逐行计算本列与另一列的乘积之和(例如 价格 x 数量)
+         *
+         * @param other the other column, of the same list
+         * @return the sum of {@code this[i] * other[i]}
+         * @throws IllegalArgumentException if {@code other} is a column of
+         *         another list
+         */
+        public double dot(DoubleColumn other) {
+            if (other.list() != ColumnarList.this)
+                throw new IllegalArgumentException("Column of another list");
+            double[] a = doubles[slot], b = doubles[other.slot];
+            double s0 = 0, s1 = 0;
+            int i = 0, n = size;
+            for (; i < n - 1; i += 2) {
+                s0 += a[i] * b[i];
+                s1 += a[i + 1] * b[i + 1];
+            }
+            if (i < n)
+                s0 += a[i] * b[i];
+            return s0 + s1;
+        }
+
+        public void forEach(DoubleConsumer action) {
+            Objects.requireNonNull(action);
+            double[] a = doubles[slot];
+            for (int i = 0, n = size; i < n; i++)
+                action.accept(a[i]);
+        }
+
+        /** Returns a copy of the column. */
+        public double[] toArray() {
+            return Arrays.copyOf(doubles[slot], size);
+        }
+    }
+}
@@ -0,0 +1,394 @@
+package com.mee.source.c1;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Lock-free, append-only implementation of the <tt>List</tt> interface for
+ * many producer threads appending into one shared buffer.  A producer
+ * reserves a slot by CAS on a shared index and then writes the element into
+ * that slot; producers never wait for each other, unlike
+ * {@code synchronized} around {@link ArrayList#add}.
+ * 无锁的只追加列表，适用于多个生产者线程同时向一个共享缓冲区追加元素：
+ * 生产者通过 CAS 共享下标预留一个槽位，再把元素写入该槽位，生产者之间不需要互相等待
+ *
+ * <p>The slots live in chunks of doubling size (32, 64, 128, ...) that are
+ * referenced from a fixed directory, so growing the list only allocates the
+ * next chunk: existing elements are never copied (compare
+ * {@link BigArrayList}).  The producer that first needs a chunk installs it
+ * by CAS; the constructor taking a capacity pre-allocates all chunks
+ * needed for it.
+ * 笔记：槽位分布在大小依次翻倍的块中(32, 64, 128 ...)，块由一个固定大小的目录引用，
+ *      扩容只需要分配下一个块，已有元素不会被拷贝；第一个用到某个块的生产者通过 CAS 安装它
+ *
+ * <p>Reserved slots are filled in any order, so readers only see the
+ * <i>published</i> prefix: the longest prefix of slots that have all been
+ * written.  The producer whose slot the published count stops at
+ * advances it, after writing, over its slot and every written slot that
+ * follows, so the prefix only ever waits for a producer that has not yet
+ * written its slot.  {@link #size()},
+ * {@link #get}, {@link #forEach}, {@link #iterator()} and
+ * {@link #spliterator()} only look at the published prefix, and
+ * {@link #snapshot()} returns a fixed-size view of it; none of them locks.
+ * 笔记：预留的槽位可能乱序写入，所以读者只能看到“已发布”的前缀(所有槽位都已写入的最长前缀)。
+ *      计数停在哪个槽位，就由写入该槽位的生产者负责推进(连同后面已写入的槽位)；size/get/forEach/iterator/spliterator
+ *      都只访问已发布的前缀，snapshot 返回其固定大小的视图，全部无锁
+ *
+ * <p>A producer reserves its slots only after the chunks holding them are
+ * installed and its elements checked, so a failure such as an
+ * {@code OutOfMemoryError} while allocating a chunk is thrown to that
+ * producer before anything is reserved, and the list is unchanged.  Once
+ * reserved, a slot is always written; only an asynchronous error in the
+ * producer between its reservation and its write (such as
+ * {@code Thread.stop}) would leave it empty and stop publication there.
+ * 笔记：生产者先安装需要的块、检查元素，之后才预留槽位，所以分配块时的 OutOfMemoryError 等失败会在预留之前抛给该生产者，
+ *      列表保持不变；预留之后槽位一定会被写入，只有预留与写入之间的异步错误(例如 Thread.stop)才会让发布永远停在该槽位
+ *
+ * <p>Null elements are not permitted: an empty slot marks an element that
+ * has been reserved but not yet written.  Elements can neither be replaced
+ * nor removed; those operations throw
+ * {@link UnsupportedOperationException}.
+ *
+ * @param <E> the type of elements in this list
+ * @see ArrayList
+ * @see BigArrayList
+ */
+public class ConcurrentAppendList<E> extends AbstractList<E>
+        implements RandomAccess
+{
+    /**
+     * log2 of the size of the first chunk.
+     */
+    private static final int FIRST_CHUNK_SHIFT = 5;
+
+    /**
+     * Number of chunks: chunk {@code k} holds {@code 32 << k} slots, and
+     * 26 chunks cover the maximum array size.
+     */
+    private static final int MAX_CHUNKS = 26;
+
+    /**
+     * The maximum number of elements, chosen so that {@code index + 32} in
+     * {@link #chunkIndex} cannot overflow.
+     */
+    private static final int MAX_SIZE = Integer.MAX_VALUE - (1 << FIRST_CHUNK_SHIFT);
+
+    private final AtomicReferenceArray<AtomicReferenceArray<E>> chunks =
+            new AtomicReferenceArray<>(MAX_CHUNKS);
+
+    /** Number of reserved slots; advanced by CAS. */
+    private final AtomicInteger reserved = new AtomicInteger();
+
+    /** Length of the published prefix: slots {@code [0, published)} are all written. */
+    private final AtomicInteger published = new AtomicInteger();
+
+    /**
+     * Constructs an empty list.
+     */
+    public ConcurrentAppendList() {
+        chunk(0);
+    }
+
+    /**
+     * Constructs an empty list with all chunks needed for the specified
+     * number of elements pre-allocated.
+     *
+     * @param  initialCapacity  the number of elements to pre-allocate
+     * @throws IllegalArgumentException if the specified initial capacity
+     *         is negative
+     */
+    public ConcurrentAppendList(int initialCapacity) {
+        if (initialCapacity < 0)
+            throw new IllegalArgumentException("Illegal Capacity: "+
+                    initialCapacity);
+        int last = (initialCapacity == 0) ? 0 : chunkIndex(Math.min(initialCapacity, MAX_SIZE) - 1);
+        for (int k = 0; k <= last; k++)
+            chunk(k);
+    }
+
+    /**
+     * Returns the chunk holding slot {@code index}.
+     */
+    private static int chunkIndex(int index) {
+        return 31 - Integer.numberOfLeadingZeros(index + (1 << FIRST_CHUNK_SHIFT)) - FIRST_CHUNK_SHIFT;
+    }
+
+    /**
+     * Returns the offset of slot {@code index} within chunk {@code k}.
+     */
+    private static int chunkOffset(int index, int k) {
+        return index + (1 << FIRST_CHUNK_SHIFT) - (1 << (k + FIRST_CHUNK_SHIFT));
+    }
+
+    /**
+     * Returns chunk {@code k}, installing it first if needed.  Concurrent
+     * callers race with CAS; the losers drop their chunk.
+     */
+    private AtomicReferenceArray<E> chunk(int k) {
+        AtomicReferenceArray<E> c = chunks.get(k);
+        if (c == null) {
+            c = new AtomicReferenceArray<>(1 << (k + FIRST_CHUNK_SHIFT));
+            if (!chunks.compareAndSet(k, null, c))
+                c = chunks.get(k);
+        }
+        return c;
+    }
+
+    /**
+     * Reserves {@code n} consecutive slots and returns the first one.  The
+     * chunks holding them are installed first: once reserved, a slot must
+     * be written, or the published prefix would stop in front of it for
+     * good, so everything that can fail (allocating a chunk, too large a
+     * list) happens before the reservation.
+     * 先安装需要的块再预留：预留之后槽位必须被写入，否则已发布的前缀会永远停在它前面，
+     * 所以可能失败的步骤(分配块 OOM、列表过大)都放在预留之前
+     */
+    private int reserve(int n) {
+        for (;;) {
+            int r = reserved.get();
+            if (n > MAX_SIZE - r)
+                throw new OutOfMemoryError("List too large: " + r + " + " + n);
+            for (int k = chunkIndex(r), last = chunkIndex(r + n - 1); k <= last; k++)
+                chunk(k);
+            if (reserved.compareAndSet(r, r + n))
+                return r;
+        }
+    }
+
+    /**
+     * Returns whether slot {@code index} has been written.
+     */
+    private boolean isWritten(int index) {
+        int k = chunkIndex(index);
+        AtomicReferenceArray<E> c = chunks.get(k);
+        return c != null && c.get(chunkOffset(index, k)) != null;
+    }
+
+    /**
+     * Advances the published count over the run of written slots starting
+     * at {@code from}, a slot that the caller has just written.  Nothing is
+     * done unless the count stands exactly at {@code from}: if it is lower,
+     * the producer of the earlier unwritten slot will carry it over
+     * {@code from} once it writes.  After each advance the slot the count
+     * stopped at is checked again, since its producer may have written it
+     * and looked at the count just before the advance.
+     * 笔记：只有已发布的计数正好停在 from 时才推进；停在更前面时，由写入那个槽位的生产者负责推进。
+     *      每次推进之后还要重新检查停下的槽位：它的生产者可能恰好在推进之前写入并读取了计数。
+     *      这样每个元素只会被扫描常数次，生产者被挂起时其他生产者也不会反复扫描
+     */
+    private void publish(int from) {
+        int p = from;
+        while (published.get() == p) {
+            int q = p, r = reserved.get();
+            while (q < r && isWritten(q))
+                q++;
+            // CAS 失败说明其他生产者已经推进过，由它继续检查
+            if (q == p || !published.compareAndSet(p, q))
+                return;
+            p = q;
+        }
+    }
+
+    /**
+     * Appends the specified element to the end of this list.  The element
+     * becomes visible to readers once every element reserved before it has
+     * been written as well.
+     *
+     * @param e element to be appended to this list
+     * @return <tt>true</tt> (as specified by {@link Collection#add})
+     * @throws NullPointerException if the specified element is null
+     */
+    public boolean add(E e) {
+        Objects.requireNonNull(e);
+        int index = reserve(1);
+        int k = chunkIndex(index);
+        chunks.get(k).set(chunkOffset(index, k), e);
+        publish(index);
+        return true;
+    }
+
+    /**
+     * Appends all of the elements in the specified collection to the end
+     * of this list, in the order that they are returned by the collection's
+     * iterator.  The slots for all of them are reserved with a single CAS,
+     * so they end up contiguous even with concurrent producers.
+     * 一次 CAS 预留所有槽位，所以即使有其他生产者并发追加，这些元素也是连续的
+     *
+     * @param c collection containing elements to be added to this list
+     * @return <tt>true</tt> if this list changed as a result of the call
+     * @throws NullPointerException if the specified collection or any of
+     *         its elements is null
+     */
+    public boolean addAll(Collection<? extends E> c) {
+        Object[] a = c.toArray();
+        for (Object o : a)
+            Objects.requireNonNull(o);
+        if (a.length == 0)
+            return false;
+        int index = reserve(a.length);
+        for (int i = 0; i < a.length; ) {
+            int k = chunkIndex(index + i);
+            AtomicReferenceArray<E> chunk = chunks.get(k);
+            int off = chunkOffset(index + i, k);
+            int n = Math.min(a.length - i, chunk.length() - off);
+            for (int j = 0; j < n; j++) {
+                @SuppressWarnings("unchecked") E e = (E) a[i + j];
+                chunk.set(off + j, e);
+            }
+            i += n;
+        }
+        publish(index);
+        return true;
+    }
+
+    /**
+     * Returns the number of published elements.
+     *
+     * @return the number of published elements in this list
+     */
+    public int size() {
+        return published.get();
+    }
+
+    /**
+     * Returns the element at the specified position, which must be within
+     * the published prefix.
+     *
+     * @param  index index of the element to return
+     * @return the element at the specified position in this list
+     * @throws IndexOutOfBoundsException {@inheritDoc}
+     */
+    public E get(int index) {
+        int size = published.get();
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException(outOfBoundsMsg(index, size));
+        return elementAt(index);
+    }
+
+    private E elementAt(int index) {
+        int k = chunkIndex(index);
+        return chunks.get(k).get(chunkOffset(index, k));
+    }
+
+    /**
+     * Returns a fixed-size, read-only view of the elements published at the
+     * time of the call.  Elements appended later are not part of it.
+     * 返回调用时已发布元素的固定大小的只读视图
+     *
+     * @return a snapshot view of this list
+     */
+    public List<E> snapshot() {
+        return new Snapshot(published.get());
+    }
+
+    public Iterator<E> iterator() {
+        return snapshot().iterator();
+    }
+
+    public void forEach(Consumer<? super E> action) {
+        forEachInRange(0, published.get(), action);
+    }
+
+    public Spliterator<E> spliterator() {
+        return new ChunkSpliterator(0, published.get());
+    }
+
+    /**
+     * Performs the action on the elements of {@code [from, to)}, one chunk
+     * at a time.
+     */
+    private void forEachInRange(int from, int to, Consumer<? super E> action) {
+        Objects.requireNonNull(action);
+        int i = from;
+        while (i < to) {
+            int k = chunkIndex(i);
+            AtomicReferenceArray<E> chunk = chunks.get(k);
+            int off = chunkOffset(i, k);
+            int n = Math.min(to - i, chunk.length() - off);
+            for (int j = 0; j < n; j++)
+                action.accept(chunk.get(off + j));
+            i += n;
+        }
+    }
+
+    /**
+     * Read-only view of the first {@code size} elements.
+     */
+    private final class Snapshot extends AbstractList<E> implements RandomAccess {
+        private final int size;
+
+        Snapshot(int size) {
+            this.size = size;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public E get(int index) {
+            if (index < 0 || index >= size)
+                throw new IndexOutOfBoundsException(outOfBoundsMsg(index, size));
+            return elementAt(index);
+        }
+
+        public void forEach(Consumer<? super E> action) {
+            forEachInRange(0, size, action);
+        }
+
+        public Spliterator<E> spliterator() {
+            return new ChunkSpliterator(0, size);
+        }
+    }
+
+    /**
+     * Spliterator over a published range.  The elements of the range never
+     * change, so it is {@code IMMUTABLE} and never fails.
+     */
+    final class ChunkSpliterator implements Spliterator<E> {
+        private int index; // current index, modified on advance/split
+        private final int fence; // one past last index
+
+        ChunkSpliterator(int origin, int fence) {
+            this.index = origin;
+            this.fence = fence;
+        }
+
+        public ChunkSpliterator trySplit() {
+            int lo = index, mid = (lo + fence) >>> 1;
+            return (lo >= mid) ? null : new ChunkSpliterator(lo, index = mid);
+        }
+
+        public boolean tryAdvance(Consumer<? super E> action) {
+            if (action == null)
+                throw new NullPointerException();
+            int i = index;
+            if (i < fence) {
+                index = i + 1;
+                action.accept(elementAt(i));
+                return true;
+            }
+            return false;
+        }
+
+        public void forEachRemaining(Consumer<? super E> action) {
+            int i = index;
+            index = fence;
+            forEachInRange(i, fence, action);
+        }
+
+        public long estimateSize() {
+            return (long) (fence - index);
+        }
+
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED |
+                    Spliterator.NONNULL | Spliterator.IMMUTABLE;
+        }
+    }
+
+    private static String outOfBoundsMsg(int index, int size) {
+        return "Index: "+index+", Size: "+size;
+    }
+}
@@ -0,0 +1,445 @@
+package com.mee.source.c1;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * The compact immutable lists returned by {@link ArrayList#freeze()}.  A
+ * list that is never modified after it was built needs neither the slack
+ * of a growable {@code elementData}, nor {@code modCount}, nor any of the
+ * fail-fast machinery: {@link Empty}, {@link One} and {@link Two} keep
+ * their elements in fields, {@link N} in an exact-size array, and every
+ * class is final with small, monomorphic {@code get}, {@code forEach} and
+ * {@code hashCode} methods that the JIT inlines readily.
+ * ArrayList.freeze() 返回的紧凑不可变列表：构建之后不再修改的列表不需要可增长数组的空闲空间，
+ * 也不需要 modCount 和快速失败机制；0/1/2 个元素的列表直接用字段保存元素，N 个元素的用长度恰好的数组，
+ * 所有类都是 final 的，get/forEach/hashCode 简短且单态，便于 JIT 内联
+ *
+ * <p>All mutators throw {@link UnsupportedOperationException}.  Unlike
+ * {@code List.of} of later JDKs, {@code null} elements are allowed, since
+ * an {@code ArrayList} may contain them.  Spliterators report
+ * {@code ORDERED}, {@code IMMUTABLE}, {@code SIZED} and {@code SUBSIZED}.
+ * 笔记：所有修改方法都抛出 UnsupportedOperationException；与 List.of 不同允许 null 元素(ArrayList 允许 null)；
+ *      spliterator 的特征值为 ORDERED | IMMUTABLE | SIZED | SUBSIZED
+ *
+ * @param <E> the type of elements in this list
+ * @see ArrayList#freeze()
+ */
+abstract class FrozenList<E> extends AbstractCollection<E>
+        implements List<E>, RandomAccess, java.io.Serializable
+{
+    private static final long serialVersionUID = -6413540311806187521L;
+
+    static final Object[] EMPTY_ARRAY = {};
+
+    /** Characteristics of the spliterators, besides SIZED and SUBSIZED. */
+    static final int CHARACTERISTICS = Spliterator.ORDERED | Spliterator.IMMUTABLE;
+
+    FrozenList() {
+    }
+
+    /**
+     * Returns a frozen list holding {@code a[from, to)}, in the most
+     * compact form; {@code a} is shared, not copied, when {@code N} or a
+     * slice of it is returned.
+     */
+    @SuppressWarnings("unchecked")
+    static <E> List<E> of(Object[] a, int from, int to, boolean exact) {
+        switch (to - from) {
+            case 0:
+                return (List<E>) Empty.INSTANCE;
+            case 1:
+                return new One<>((E) a[from]);
+            case 2:
+                return new Two<>((E) a[from], (E) a[from + 1]);
+            default:
+                return exact ? new N<>(a) : new Slice<>(a, from, to);
+        }
+    }
+
+    static UnsupportedOperationException uoe() {
+        return new UnsupportedOperationException("Frozen list");
+    }
+
+    // all mutators throw UnsupportedOperationException
+
+    public boolean add(E e) { throw uoe(); }
+    public boolean remove(Object o) { throw uoe(); }
+    public boolean addAll(Collection<? extends E> c) { throw uoe(); }
+    public boolean addAll(int index, Collection<? extends E> c) { throw uoe(); }
+    public boolean removeAll(Collection<?> c) { throw uoe(); }
+    public boolean retainAll(Collection<?> c) { throw uoe(); }
+    public boolean removeIf(Predicate<? super E> filter) { throw uoe(); }
+    public void replaceAll(UnaryOperator<E> operator) { throw uoe(); }
+    public void sort(Comparator<? super E> c) { throw uoe(); }
+    public void clear() { throw uoe(); }
+    public E set(int index, E element) { throw uoe(); }
+    public void add(int index, E element) { throw uoe(); }
+    public E remove(int index) { throw uoe(); }
+
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    public int indexOf(Object o) {
+        for (int i = 0, n = size(); i < n; i++) {
+            if (Objects.equals(o, get(i)))
+                return i;
+        }
+        return -1;
+    }
+
+    public int lastIndexOf(Object o) {
+        for (int i = size() - 1; i >= 0; i--) {
+            if (Objects.equals(o, get(i)))
+                return i;
+        }
+        return -1;
+    }
+
+    public Iterator<E> iterator() {
+        return new ListItr<>(this, 0);
+    }
+
+    public ListIterator<E> listIterator() {
+        return new ListItr<>(this, 0);
+    }
+
+    public ListIterator<E> listIterator(int index) {
+        if (index < 0 || index > size())
+            throw new IndexOutOfBoundsException("Index: " + index);
+        return new ListItr<>(this, index);
+    }
+
+    public List<E> subList(int fromIndex, int toIndex) {
+        ArrayList.subListRangeCheck(fromIndex, toIndex, size());
+        return of(toArray(), fromIndex, toIndex, false);
+    }
+
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof List))
+            return false;
+        int n = size();
+        if (((List<?>) o).size() != n)
+            return false;
+        Iterator<?> it = ((List<?>) o).iterator();
+        for (int i = 0; i < n; i++) {
+            if (!it.hasNext() || !Objects.equals(get(i), it.next()))
+                return false;
+        }
+        return !it.hasNext();
+    }
+
+    static IndexOutOfBoundsException outOfBounds(int index, int size) {
+        return new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+
+    /**
+     * Iterator over any frozen list; no fail-fast checks are needed.
+     */
+    static final class ListItr<E> implements ListIterator<E> {
+        private final List<E> list;
+        private final int size;
+        private int cursor;
+
+        ListItr(List<E> list, int cursor) {
+            this.list = list;
+            this.size = list.size();
+            this.cursor = cursor;
+        }
+
+        public boolean hasNext() {
+            return cursor != size;
+        }
+
+        public E next() {
+            int i = cursor;
+            if (i >= size)
+                throw new NoSuchElementException();
+            cursor = i + 1;
+            return list.get(i);
+        }
+
+        public boolean hasPrevious() {
+            return cursor != 0;
+        }
+
+        public E previous() {
+            int i = cursor - 1;
+            if (i < 0)
+                throw new NoSuchElementException();
+            cursor = i;
+            return list.get(i);
+        }
+
+        public int nextIndex() {
+            return cursor;
+        }
+
+        public int previousIndex() {
+            return cursor - 1;
+        }
+
+        public void remove() { throw uoe(); }
+        public void set(E e) { throw uoe(); }
+        public void add(E e) { throw uoe(); }
+    }
+
+    /**
+     * The empty frozen list, a singleton.
+     */
+    static final class Empty<E> extends FrozenList<E> {
+        private static final long serialVersionUID = 7196305931425011962L;
+
+        static final Empty<?> INSTANCE = new Empty<>();
+
+        public int size() {
+            return 0;
+        }
+
+        public E get(int index) {
+            throw outOfBounds(index, 0);
+        }
+
+        public void forEach(Consumer<? super E> action) {
+            Objects.requireNonNull(action);
+        }
+
+        public Spliterator<E> spliterator() {
+            return Spliterators.spliterator(EMPTY_ARRAY, CHARACTERISTICS);
+        }
+
+        public int hashCode() {
+            return 1;
+        }
+
+        public Object[] toArray() {
+            return EMPTY_ARRAY;
+        }
+
+        private Object readResolve() {
+            return INSTANCE;
+        }
+    }
+
+    /**
+     * A frozen list of one element.
+     */
+    static final class One<E> extends FrozenList<E> {
+        private static final long serialVersionUID = -3405129373409470781L;
+
+        final E e0;
+
+        One(E e0) {
+            this.e0 = e0;
+        }
+
+        public int size() {
+            return 1;
+        }
+
+        public E get(int index) {
+            if (index != 0)
+                throw outOfBounds(index, 1);
+            return e0;
+        }
+
+        public int indexOf(Object o) {
+            return Objects.equals(o, e0) ? 0 : -1;
+        }
+
+        public int lastIndexOf(Object o) {
+            return indexOf(o);
+        }
+
+        public void forEach(Consumer<? super E> action) {
+            action.accept(e0);
+        }
+
+        public Spliterator<E> spliterator() {
+            return Spliterators.spliterator(new Object[] { e0 }, CHARACTERISTICS);
+        }
+
+        public int hashCode() {
+            return 31 + Objects.hashCode(e0);
+        }
+
+        public Object[] toArray() {
+            return new Object[] { e0 };
+        }
+    }
+
+    /**
+     * A frozen list of two elements.
+     */
+    static final class Two<E> extends FrozenList<E> {
+        private static final long serialVersionUID = 5327441632358165914L;
+
+        final E e0, e1;
+
+        Two(E e0, E e1) {
+            this.e0 = e0;
+            this.e1 = e1;
+        }
+
+        public int size() {
+            return 2;
+        }
+
+        public E get(int index) {
+            if (index == 0)
+                return e0;
+            if (index == 1)
+                return e1;
+            throw outOfBounds(index, 2);
+        }
+
+        public int indexOf(Object o) {
+            return Objects.equals(o, e0) ? 0 : Objects.equals(o, e1) ? 1 : -1;
+        }
+
+        public int lastIndexOf(Object o) {
+            return Objects.equals(o, e1) ? 1 : Objects.equals(o, e0) ? 0 : -1;
+        }
+
+        public void forEach(Consumer<? super E> action) {
+            action.accept(e0);
+            action.accept(e1);
+        }
+
+        public Spliterator<E> spliterator() {
+            return Spliterators.spliterator(new Object[] { e0, e1 }, CHARACTERISTICS);
+        }
+
+        public int hashCode() {
+            return 31 * (31 + Objects.hashCode(e0)) + Objects.hashCode(e1);
+        }
+
+        public Object[] toArray() {
+            return new Object[] { e0, e1 };
+        }
+    }
+
+    /**
+     * A frozen list of three or more elements, in an array of exactly that
+     * length.
+     */
+    static final class N<E> extends FrozenList<E> {
+        private static final long serialVersionUID = 1432957081472360893L;
+
+        final Object[] elements;
+
+        N(Object[] elements) {
+            this.elements = elements;
+        }
+
+        public int size() {
+            return elements.length;
+        }
+
+        @SuppressWarnings("unchecked")
+        public E get(int index) {
+            // the array bounds check is the range check
+            return (E) elements[index];
+        }
+
+        public int indexOf(Object o) {
+            Object[] es = elements;
+            for (int i = 0; i < es.length; i++) {
+                if (Objects.equals(o, es[i]))
+                    return i;
+            }
+            return -1;
+        }
+
+        public int lastIndexOf(Object o) {
+            Object[] es = elements;
+            for (int i = es.length - 1; i >= 0; i--) {
+                if (Objects.equals(o, es[i]))
+                    return i;
+            }
+            return -1;
+        }
+
+        @SuppressWarnings("unchecked")
+        public void forEach(Consumer<? super E> action) {
+            Objects.requireNonNull(action);
+            for (Object e : elements)
+                action.accept((E) e);
+        }
+
+        public Spliterator<E> spliterator() {
+            return Spliterators.spliterator(elements, CHARACTERISTICS);
+        }
+
+        public int hashCode() {
+            return ArrayList.hashRange(elements, 0, elements.length, 1);
+        }
+
+        public Object[] toArray() {
+            return Arrays.copyOf(elements, elements.length, Object[].class);
+        }
+
+        public List<E> subList(int fromIndex, int toIndex) {
+            ArrayList.subListRangeCheck(fromIndex, toIndex, elements.length);
+            return of(elements, fromIndex, toIndex, fromIndex == 0 && toIndex == elements.length);
+        }
+    }
+
+    /**
+     * A subList of an {@code N}: {@code elements[offset, offset + size)},
+     * sharing its array.
+     */
+    static final class Slice<E> extends FrozenList<E> {
+        private static final long serialVersionUID = -1207652240396284155L;
+
+        final Object[] elements;
+        final int offset, size;
+
+        Slice(Object[] elements, int from, int to) {
+            this.elements = elements;
+            this.offset = from;
+            this.size = to - from;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        @SuppressWarnings("unchecked")
+        public E get(int index) {
+            if (index < 0 || index >= size)
+                throw outOfBounds(index, size);
+            return (E) elements[offset + index];
+        }
+
+        @SuppressWarnings("unchecked")
+        public void forEach(Consumer<? super E> action) {
+            Objects.requireNonNull(action);
+            Object[] es = elements;
+            for (int i = offset, end = offset + size; i < end; i++)
+                action.accept((E) es[i]);
+        }
+
+        public Spliterator<E> spliterator() {
+            return Spliterators.spliterator(elements, offset, offset + size, CHARACTERISTICS);
+        }
+
+        public int hashCode() {
+            return ArrayList.hashRange(elements, offset, offset + size, 1);
+        }
+
+        public Object[] toArray() {
+            return Arrays.copyOfRange(elements, offset, offset + size, Object[].class);
+        }
+
+        public List<E> subList(int fromIndex, int toIndex) {
+            ArrayList.subListRangeCheck(fromIndex, toIndex, size);
+            return of(elements, offset + fromIndex, offset + toIndex, false);
+        }
+    }
+}
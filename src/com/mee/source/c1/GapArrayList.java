@@ -0,0 +1,405 @@
+package com.mee.source.c1;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Gap-buffer implementation of the <tt>List</tt> interface, for workloads
+ * that insert and remove around a moving position (text editors, order
+ * books).  The backing array keeps a movable <i>gap</i> of free slots at the
+ * position of the last edit:
+ * <pre>
+ *   [ e0 e1 e2 | . . . . . | e3 e4 e5 ]
+ *              gapStart    gapEnd
+ * </pre>
+ * An insert or remove at the gap only moves the gap boundary, so a run of
+ * edits clustered around the same position costs O(1) amortized each,
+ * instead of the {@code System.arraycopy} of the whole tail done by
+ * {@link ArrayList#add(int, Object)} and {@link ArrayList#remove(int)}.
+ * Moving to a new edit position copies only the elements between the old
+ * and the new position.
+ * 间隙缓冲(gap buffer)列表：底层数组在最近一次编辑的位置保留一段空闲的“间隙”，
+ * 在间隙处插入/删除只需要移动间隙的边界(摊销 O(1))，而不是像 ArrayList 那样每次都拷贝整个尾部；
+ * 编辑位置变化时也只需要拷贝新旧位置之间的元素。
+ *
+ * <p>{@code get(i)} and {@code set(i)} still run in constant time: an index
+ * before the gap maps to itself, an index after it is shifted by the gap
+ * length.  {@code listIterator} and {@code subList} are the index-based
+ * ones of {@link AbstractList}, so {@code ListIterator.add}/{@code remove}
+ * and edits through a sub list also land on the gap.
+ * 笔记：get/set 依然是 O(1)，间隙之前的索引不变，之后的索引加上间隙长度即可
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ *
+ * @param <E> the type of elements in this list
+ * @see ArrayList
+ */
+public class GapArrayList<E> extends AbstractList<E>
+        implements RandomAccess, java.io.Serializable
+{
+    private static final long serialVersionUID = -6502816420893381574L;
+
+    /**
+     * Default initial capacity.
+     */
+    private static final int DEFAULT_CAPACITY = 10;
+
+    /**
+     * The maximum size of array to allocate.
+     */
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    /**
+     * The array buffer; {@code [gapStart, gapEnd)} is the gap, all other
+     * slots hold elements.
+     */
+    transient Object[] buffer;
+
+    /** Index of the first free slot (equals the index of the gap in list terms). */
+    private transient int gapStart;
+
+    /** Index of the first element after the gap. */
+    private transient int gapEnd;
+
+    /**
+     * Constructs an empty list with the specified initial capacity.
+     *
+     * @param  initialCapacity  the initial capacity of the list
+     * @throws IllegalArgumentException if the specified initial capacity
+     *         is negative
+     */
+    public GapArrayList(int initialCapacity) {
+        if (initialCapacity < 0)
+            throw new IllegalArgumentException("Illegal Capacity: "+
+                    initialCapacity);
+        this.buffer = new Object[initialCapacity];
+        this.gapStart = 0;
+        this.gapEnd = initialCapacity;
+    }
+
+    /**
+     * Constructs an empty list with an initial capacity of ten.
+     */
+    public GapArrayList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a list containing the elements of the specified
+     * collection, in the order they are returned by the collection's
+     * iterator.  The gap starts out empty, at the end of the list.
+     *
+     * @param c the collection whose elements are to be placed into this list
+     * @throws NullPointerException if the specified collection is null
+     */
+    public GapArrayList(Collection<? extends E> c) {
+        Object[] a = c.toArray();
+        buffer = Arrays.copyOf(a, a.length, Object[].class);
+        gapStart = gapEnd = a.length;
+    }
+
+    /**
+     * Returns the number of elements in this list.
+     *
+     * @return the number of elements in this list
+     */
+    public int size() {
+        return buffer.length - (gapEnd - gapStart);
+    }
+
+    public boolean isEmpty() {
+        return gapStart == 0 && gapEnd == buffer.length;
+    }
+
+    /**
+     * Returns the list index at which the gap currently sits, i.e. the
+     * position of the last edit.
+     * 返回间隙当前所在的位置(即上一次编辑的位置)
+     *
+     * @return the list index of the gap
+     */
+    public int gapPosition() {
+        return gapStart;
+    }
+
+    /**
+     * Translates a list index into a buffer index.
+     */
+    private int physical(int index) {
+        return (index < gapStart) ? index : index + (gapEnd - gapStart);
+    }
+
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        rangeCheck(index);
+        return (E) buffer[physical(index)];
+    }
+
+    public E set(int index, E element) {
+        rangeCheck(index);
+        int p = physical(index);
+        @SuppressWarnings("unchecked") E oldValue = (E) buffer[p];
+        buffer[p] = element;
+        return oldValue;
+    }
+
+    public boolean add(E e) {
+        add(size(), e);
+        return true;
+    }
+
+    /**
+     * Inserts the specified element at the specified position in this
+     * list.  The gap is first moved to {@code index}, then the element is
+     * written into the first free slot of the gap.
+     * 先把间隙移动到 index，再把元素写入间隙的第一个空位
+     *
+     * @param index index at which the specified element is to be inserted
+     * @param element element to be inserted
+     * @throws IndexOutOfBoundsException {@inheritDoc}
+     */
+    public void add(int index, E element) {
+        rangeCheckForAdd(index);
+        modCount++;
+        ensureGap(1);
+        moveGap(index);
+        buffer[gapStart++] = element;
+    }
+
+    /**
+     * Removes the element at the specified position in this list.  A
+     * remove right before the gap (backspace) or right after it (delete)
+     * only widens the gap; otherwise the gap is moved to {@code index}
+     * first.
+     * 删除间隙前一个(退格)或后一个(删除)元素时只需要扩大间隙
+     *
+     * @param index the index of the element to be removed
+     * @return the element that was removed from the list
+     * @throws IndexOutOfBoundsException {@inheritDoc}
+     */
+    public E remove(int index) {
+        rangeCheck(index);
+        modCount++;
+        final Object[] buffer = this.buffer;
+        Object oldValue;
+        if (index + 1 == gapStart) {
+            oldValue = buffer[--gapStart];
+            buffer[gapStart] = null; // clear to let GC do its work
+        } else {
+            moveGap(index);
+            oldValue = buffer[gapEnd];
+            buffer[gapEnd++] = null; // clear to let GC do its work
+        }
+        @SuppressWarnings("unchecked") E e = (E) oldValue;
+        return e;
+    }
+
+    public boolean addAll(Collection<? extends E> c) {
+        return addAll(size(), c);
+    }
+
+    public boolean addAll(int index, Collection<? extends E> c) {
+        rangeCheckForAdd(index);
+        Object[] a = c.toArray();
+        int numNew = a.length;
+        modCount++;
+        ensureGap(numNew);
+        moveGap(index);
+        System.arraycopy(a, 0, buffer, gapStart, numNew);
+        gapStart += numNew;
+        return numNew != 0;
+    }
+
+    /**
+     * Removes the elements in {@code [fromIndex, toIndex)} by moving the gap
+     * to {@code fromIndex} and widening it.
+     */
+    protected void removeRange(int fromIndex, int toIndex) {
+        modCount++;
+        moveGap(fromIndex);
+        int n = toIndex - fromIndex;
+        Arrays.fill(buffer, gapEnd, gapEnd + n, null);
+        gapEnd += n;
+    }
+
+    public void clear() {
+        modCount++;
+        Arrays.fill(buffer, null);
+        gapStart = 0;
+        gapEnd = buffer.length;
+    }
+
+    /**
+     * Moves the gap so that it starts at list index {@code pos}, copying
+     * only the elements between the old and the new position.
+     * 移动间隙到 pos，只拷贝新旧位置之间的元素
+     */
+    private void moveGap(int pos) {
+        final Object[] buffer = this.buffer;
+        int gs = gapStart, ge = gapEnd;
+        if (pos == gs)
+            return;
+        if (pos < gs) {
+            // [pos, gs) moves to the right of the gap
+            int d = gs - pos;
+            System.arraycopy(buffer, pos, buffer, ge - d, d);
+            Arrays.fill(buffer, pos, Math.min(gs, ge - d), null);
+            gapStart = pos;
+            gapEnd = ge - d;
+        } else {
+            // [ge, ge + d) moves to the left of the gap
+            int d = pos - gs;
+            System.arraycopy(buffer, ge, buffer, gs, d);
+            Arrays.fill(buffer, Math.max(ge, pos), ge + d, null);
+            gapStart = pos;
+            gapEnd = ge + d;
+        }
+    }
+
+    /**
+     * Makes sure the gap holds at least {@code n} free slots, growing the
+     * buffer by 1.5x (like {@code ArrayList.grow}) if it does not.  The
+     * elements after the gap are moved to the end of the new buffer.
+     */
+    private void ensureGap(int n) {
+        int gapLength = gapEnd - gapStart;
+        if (gapLength >= n)
+            return;
+        int oldCapacity = buffer.length;
+        int minCapacity = oldCapacity - gapLength + n;
+        if (minCapacity < 0) // overflow
+            throw new OutOfMemoryError();
+        int newCapacity = Math.max(oldCapacity + (oldCapacity >> 1), DEFAULT_CAPACITY);
+        if (newCapacity - minCapacity < 0)
+            newCapacity = minCapacity;
+        if (newCapacity - MAX_ARRAY_SIZE > 0)
+            newCapacity = (minCapacity > MAX_ARRAY_SIZE) ? Integer.MAX_VALUE : MAX_ARRAY_SIZE;
+        Object[] newBuffer = new Object[newCapacity];
+        int tail = oldCapacity - gapEnd;
+        System.arraycopy(buffer, 0, newBuffer, 0, gapStart);
+        System.arraycopy(buffer, gapEnd, newBuffer, newCapacity - tail, tail);
+        buffer = newBuffer;
+        gapEnd = newCapacity - tail;
+    }
+
+    /**
+     * Trims the capacity of this list to be the list's current size,
+     * which also closes the gap.
+     */
+    public void trimToSize() {
+        modCount++;
+        if (gapEnd != gapStart) {
+            buffer = toArray();
+            gapStart = gapEnd = buffer.length;
+        }
+    }
+
+    public int indexOf(Object o) {
+        final Object[] buffer = this.buffer;
+        final int gs = gapStart, ge = gapEnd, gapLength = ge - gs;
+        if (o == null) {
+            for (int i = 0; i < gs; i++)
+                if (buffer[i] == null)
+                    return i;
+            for (int i = ge; i < buffer.length; i++)
+                if (buffer[i] == null)
+                    return i - gapLength;
+        } else {
+            for (int i = 0; i < gs; i++)
+                if (o.equals(buffer[i]))
+                    return i;
+            for (int i = ge; i < buffer.length; i++)
+                if (o.equals(buffer[i]))
+                    return i - gapLength;
+        }
+        return -1;
+    }
+
+    public int lastIndexOf(Object o) {
+        final Object[] buffer = this.buffer;
+        for (int i = size() - 1; i >= 0; i--) {
+            Object e = buffer[physical(i)];
+            if (o == null ? e == null : o.equals(e))
+                return i;
+        }
+        return -1;
+    }
+
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    public Object[] toArray() {
+        Object[] a = new Object[size()];
+        System.arraycopy(buffer, 0, a, 0, gapStart);
+        System.arraycopy(buffer, gapEnd, a, gapStart, buffer.length - gapEnd);
+        return a;
+    }
+
+    @Override
+    public void forEach(Consumer<? super E> action) {
+        Objects.requireNonNull(action);
+        final int expectedModCount = modCount;
+        final Object[] buffer = this.buffer;
+        final int gs = gapStart, ge = gapEnd;
+        for (int i = 0; modCount == expectedModCount && i < gs; i++) {
+            @SuppressWarnings("unchecked") E e = (E) buffer[i];
+            action.accept(e);
+        }
+        for (int i = ge; modCount == expectedModCount && i < buffer.length; i++) {
+            @SuppressWarnings("unchecked") E e = (E) buffer[i];
+            action.accept(e);
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    private void rangeCheck(int index) {
+        if (index < 0 || index >= size())
+            throw new IndexOutOfBoundsException(outOfBoundsMsg(index));
+    }
+
+    private void rangeCheckForAdd(int index) {
+        if (index > size() || index < 0)
+            throw new IndexOutOfBoundsException(outOfBoundsMsg(index));
+    }
+
+    private String outOfBoundsMsg(int index) {
+        return "Index: "+index+", Size: "+size();
+    }
+
+    /**
+     * Save the state of the <tt>GapArrayList</tt> instance to a stream.
+     *
+     * @serialData The size of the list (int), followed by all of its
+     *             elements (each an <tt>Object</tt>) in the proper order.
+     */
+    private void writeObject(java.io.ObjectOutputStream s) throws java.io.IOException {
+        int expectedModCount = modCount;
+        s.defaultWriteObject();
+        s.writeInt(size());
+        for (int i = 0; i < gapStart; i++)
+            s.writeObject(buffer[i]);
+        for (int i = gapEnd; i < buffer.length; i++)
+            s.writeObject(buffer[i]);
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * Reconstitute the <tt>GapArrayList</tt> instance from a stream.
+     */
+    private void readObject(java.io.ObjectInputStream s) throws java.io.IOException, ClassNotFoundException {
+        s.defaultReadObject();
+        int size = s.readInt();
+        if (size < 0)
+            throw new java.io.InvalidObjectException("Illegal size: " + size);
+        Object[] a = new Object[size];
+        for (int i = 0; i < size; i++)
+            a[i] = s.readObject();
+        buffer = a;
+        gapStart = gapEnd = size;
+    }
+}
@@ -0,0 +1,153 @@
+package com.mee.source.c1;
+
+/**
+ * Strategy deciding how the backing array of an {@link ArrayList} grows.
+ * 扩容策略：决定 ArrayList 的底层数组(elementData)如何增长
+ *
+ * <p>{@link ArrayList} consults the policy in two places: when the first
+ * element is added to a list created with the no-arg constructor
+ * ({@link #initialCapacity}, formerly the fixed {@code DEFAULT_CAPACITY}
+ * of 10) and in {@code grow} ({@link #newCapacity}, formerly the fixed
+ * {@code oldCapacity + (oldCapacity >> 1)}).  The list itself still raises
+ * a proposal that is smaller than the required minimum to that minimum and
+ * clamps it to the maximum array size, so a policy only has to express its
+ * preferred shape.
+ * 笔记：ArrayList 只在两个地方使用它：
+ *      1. 默认构造的空列表第一次添加元素时的初始容量(原来固定为 DEFAULT_CAPACITY=10)
+ *      2. grow 时的新容量(原来固定为 oldCapacity + (oldCapacity >> 1))
+ *      小于所需最小容量、超出最大数组大小的情况仍然由 ArrayList 自己兜底
+ *
+ * <p>Use {@link ArrayList#growCount()} and
+ * {@link ArrayList#copiedElementCount()} to compare policies on a real
+ * workload.
+ *
+ * @see ArrayList#ArrayList(GrowthPolicy)
+ */
+public interface GrowthPolicy {
+
+    /**
+     * Returns the capacity to allocate when the first element(s) are added
+     * to a list that was created without an explicit initial capacity.
+     *
+     * @param minCapacity the number of elements that must fit
+     * @return the initial capacity, at least {@code minCapacity}
+     */
+    int initialCapacity(int minCapacity);
+
+    /**
+     * Returns the proposed capacity for a backing array that has to grow
+     * from {@code oldCapacity} to hold at least {@code minCapacity}
+     * elements.  A result below {@code minCapacity} (including an
+     * overflowed, negative one) is replaced by {@code minCapacity}.
+     *
+     * @param oldCapacity the current length of the backing array
+     * @param minCapacity the required minimum capacity
+     * @return the proposed new capacity
+     */
+    int newCapacity(int oldCapacity, int minCapacity);
+
+    /**
+     * The historical {@code ArrayList} policy: first allocation of 10,
+     * then grow by half of the old capacity (1.5x).  This is the default.
+     * 原有的策略：初始 10，每次增长为原来的 1.5 倍（默认）
+     */
+    GrowthPolicy ONE_AND_HALF = new GrowthPolicy() {
+        public int initialCapacity(int minCapacity) {
+            return Math.max(ArrayList.DEFAULT_CAPACITY, minCapacity);
+        }
+        public int newCapacity(int oldCapacity, int minCapacity) {
+            return oldCapacity + (oldCapacity >> 1);
+        }
+        public String toString() {
+            return "GrowthPolicy.ONE_AND_HALF";
+        }
+    };
+
+    /**
+     * First allocation of 10, then double the capacity on every growth.
+     * Fewer grow calls and copies than 1.5x at the price of more slack.
+     * 翻倍增长：grow 次数和拷贝量更少，但空闲空间更多
+     */
+    GrowthPolicy DOUBLING = new GrowthPolicy() {
+        public int initialCapacity(int minCapacity) {
+            return Math.max(ArrayList.DEFAULT_CAPACITY, minCapacity);
+        }
+        public int newCapacity(int oldCapacity, int minCapacity) {
+            return oldCapacity << 1;
+        }
+        public String toString() {
+            return "GrowthPolicy.DOUBLING";
+        }
+    };
+
+    /**
+     * Size-class policy modelled on jemalloc's small size classes: every
+     * capacity is rounded up to a class, with classes spaced by 4 up to 16
+     * and then four classes per power of two (20, 24, 28, 32, 40, 48, 56,
+     * 64, 80, ...).  The first allocation is the smallest class that fits,
+     * which suits many tiny lists, and growth moves to the next class
+     * (about 1.25x), which keeps {@code add} amortized constant time.
+     * 仿照 jemalloc 的规格(size class)：16 以内按 4 对齐，之后每个 2 的幂区间内 4 个规格，
+     * 第一次分配取能容纳的最小规格(适合大量的小列表)，扩容取下一个规格(约 1.25 倍)
+     */
+    GrowthPolicy SIZE_CLASSES = new GrowthPolicy() {
+        public int initialCapacity(int minCapacity) {
+            return sizeClassFor(minCapacity);
+        }
+        public int newCapacity(int oldCapacity, int minCapacity) {
+            return sizeClassFor(Math.max(minCapacity, oldCapacity + 1));
+        }
+        public String toString() {
+            return "GrowthPolicy.SIZE_CLASSES";
+        }
+    };
+
+    /**
+     * Returns a policy that grows the capacity by a fixed number of
+     * elements.  Growth is linear, so {@code add} is no longer amortized
+     * constant time: use it only for lists whose final size is known to
+     * be small, or built in bursts of roughly {@code increment} elements.
+     * 固定增量的策略，线性增长(不再是摊销常数时间)，只适合已知规模或按批次(增量)构建的列表
+     *
+     * @param initialCapacity the first allocation
+     * @param increment the number of elements added on every growth
+     * @return a fixed-increment policy
+     * @throws IllegalArgumentException if either argument is not positive
+     */
+    static GrowthPolicy fixedIncrement(final int initialCapacity, final int increment) {
+        if (initialCapacity <= 0)
+            throw new IllegalArgumentException("Illegal initial capacity: " + initialCapacity);
+        if (increment <= 0)
+            throw new IllegalArgumentException("Illegal increment: " + increment);
+        return new GrowthPolicy() {
+            public int initialCapacity(int minCapacity) {
+                return Math.max(initialCapacity, minCapacity);
+            }
+            public int newCapacity(int oldCapacity, int minCapacity) {
+                return oldCapacity + increment;
+            }
+            public String toString() {
+                return "GrowthPolicy.fixedIncrement(" + initialCapacity + ", " + increment + ")";
+            }
+        };
+    }
+
+    /**
+     * Rounds {@code n} up to the size class used by {@link #SIZE_CLASSES}.
+     * Values too large for a class are returned unchanged.
+     * 计算 n 所在的规格(向上取整)
+     *
+     * @param n the requested capacity
+     * @return the smallest size class that is at least {@code n}
+     */
+    static int sizeClassFor(int n) {
+        if (n <= 4)
+            return 4;
+        if (n <= 16)
+            return (n + 3) & ~3;
+        // four classes between two consecutive powers of two
+        int step = Integer.highestOneBit(n - 1) >>> 2;
+        int rounded = (n + step - 1) & -step;
+        return (rounded < 0) ? n : rounded;
+    }
+}
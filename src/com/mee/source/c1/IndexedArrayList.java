@@ -0,0 +1,469 @@
+package com.mee.source.c1;
+
+import com.mee.source.c2.HashMap;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * {@link ArrayList} with a side hash index from each value to the sorted
+ * positions it occupies, so that {@link #indexOf}, {@link #lastIndexOf},
+ * {@link #contains} and {@link #remove(Object)} take expected constant time
+ * instead of a linear {@code equals} scan.  It is an opt-in replacement for
+ * {@code ArrayList} with the same {@code List} contract.
+ * 带有哈希索引(值 -> 所在位置)的 ArrayList：indexOf/lastIndexOf/contains/remove(Object)
+ * 从线性的 equals 扫描变为期望 O(1)，List 的契约保持不变
+ *
+ * <p>The index is a {@link com.mee.source.c2.HashMap}, so lookups rely on
+ * {@code hashCode} being consistent with {@code equals}, as for any hash
+ * based collection.  It is built lazily by the first lookup and then kept
+ * up to date incrementally by {@code add(E)}, the appending
+ * {@code addAll} methods, {@code set}, {@code remove(int)} and
+ * {@code remove(Object)}.  A removal does not rewrite the positions of the
+ * elements it shifts: the index keeps the <i>slots</i> the elements had
+ * when it was built (or appended), together with the sorted slots removed
+ * since, and converts between slot and position by a binary search over
+ * those, so a removal costs {@code O(log n)} on top of the
+ * {@code arraycopy}.  Once the removed slots reach a sixteenth of the
+ * size, the index is dropped and rebuilt by the next lookup.  Any other
+ * modification (inserting in the middle, {@code removeIf}, {@code sort},
+ * bulk removals, ...) simply drops the index, which the next lookup
+ * rebuilds in linear time.  Sub lists and iterators go
+ * through the methods of this class, so they keep the index consistent
+ * too.
+ * 笔记：索引在第一次查找时才构建，之后 add(E)/追加到末尾的 addAll/set/remove 会增量维护它；
+ *      删除时不改写被左移元素的位置：索引保存的是元素在构建(或追加)时的槽位，另外记录之后被删除的槽位(有序)，
+ *      槽位与下标之间通过二分查找换算，所以删除只额外花费 O(log n)；被删除的槽位达到 size 的 1/16 时丢弃索引，下一次查找时重建；
+ *      其他修改(中间插入、removeIf、sort、批量删除等)直接丢弃索引，
+ *      下一次查找时再以线性时间重建。子列表和迭代器都通过本类的方法修改，所以索引同样保持一致
+ *
+ * <p>The index costs one map entry per distinct value, plus a small
+ * {@code int} list for values that occur more than once.
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ *
+ * @param <E> the type of elements in this list
+ * @see ArrayList
+ */
+public class IndexedArrayList<E> extends ArrayList<E> {
+    private static final long serialVersionUID = 4512062209875151302L;
+
+    /**
+     * Value -> slots: an {@code Integer} for a value occurring once,
+     * otherwise an {@link IntArrayList} of its slots in ascending order
+     * (see {@link #removed}).  {@code null} while the index has not been
+     * built (or was dropped).
+     * 值 -> 槽位：只出现一次的值对应一个 Integer，否则对应一个升序的 IntArrayList；
+     * 为 null 表示索引还没有构建(或者已经被丢弃)
+     */
+    private transient HashMap<Object,Object> index;
+
+    /**
+     * The slots removed since the index was built, in ascending order.  The
+     * element in slot {@code s} is at position {@code s} minus the number
+     * of removed slots below {@code s}.
+     * 构建索引之后被删除的槽位(升序)：槽位 s 上的元素的下标 = s - 小于 s 的已删除槽位个数
+     */
+    private transient IntArrayList removed;
+
+    /**
+     * Constructs an empty list with an initial capacity of ten.
+     */
+    public IndexedArrayList() {
+        super();
+    }
+
+    /**
+     * Constructs an empty list with the specified initial capacity.
+     *
+     * @param  initialCapacity  the initial capacity of the list
+     * @throws IllegalArgumentException if the specified initial capacity
+     *         is negative
+     */
+    public IndexedArrayList(int initialCapacity) {
+        super(initialCapacity);
+    }
+
+    /**
+     * Constructs a list containing the elements of the specified
+     * collection, in the order they are returned by the collection's
+     * iterator.
+     *
+     * @param c the collection whose elements are to be placed into this list
+     * @throws NullPointerException if the specified collection is null
+     */
+    public IndexedArrayList(Collection<? extends E> c) {
+        super(c);
+    }
+
+    // ------------------------------------------------------------------
+    // index maintenance
+
+    private HashMap<Object,Object> index() {
+        HashMap<Object,Object> idx = index;
+        if (idx == null) {
+            int size = size();
+            idx = new HashMap<>((int) (size / 0.75f) + 1);
+            index = idx;
+            removed = new IntArrayList();
+            for (int i = 0; i < size; i++)
+                addPosition(elementData[i], i);
+        }
+        return idx;
+    }
+
+    private void dropIndex() {
+        index = null;
+        removed = null;
+    }
+
+    /**
+     * Returns the slot of the element at {@code pos}: {@code pos} plus the
+     * number {@code m} of removed slots below it.  The values
+     * {@code removed[i] - i} (the position of the first element after each
+     * removed slot) are ascending, and {@code m} is the number of them that
+     * are {@code <= pos}.
+     */
+    private int slot(int pos) {
+        IntArrayList r = removed;
+        int low = 0, high = r.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (r.getInt(mid) - mid <= pos)
+                low = mid + 1;
+            else
+                high = mid - 1;
+        }
+        return pos + low;
+    }
+
+    /**
+     * Returns the position of the element in (live) {@code slot}.
+     */
+    private int position(int slot) {
+        return slot + search(removed, slot) + 1; // slot - insertion point
+    }
+
+    private void addPosition(Object value, int pos) {
+        Object p = index.get(value);
+        if (p == null) {
+            index.put(value, pos);
+        } else if (p instanceof Integer) {
+            int first = (Integer) p;
+            IntArrayList positions = new IntArrayList(4);
+            positions.addInt(Math.min(first, pos));
+            positions.addInt(Math.max(first, pos));
+            index.put(value, positions);
+        } else {
+            IntArrayList positions = (IntArrayList) p;
+            // 通常是追加到末尾，直接 add
+            int n = positions.size();
+            if (positions.getInt(n - 1) < pos)
+                positions.addInt(pos);
+            else
+                positions.addInt(-(search(positions, pos) + 1), pos);
+        }
+    }
+
+    private void removePosition(Object value, int pos) {
+        Object p = index.get(value);
+        if (p instanceof Integer) {
+            index.remove(value);
+        } else {
+            IntArrayList positions = (IntArrayList) p;
+            positions.removeIntAt(search(positions, pos));
+            if (positions.size() == 1)
+                index.put(value, positions.getInt(0));
+        }
+    }
+
+    /**
+     * Binary search of {@code pos} in the ascending positions; returns the
+     * index or {@code -(insertion point) - 1} like
+     * {@link java.util.Arrays#binarySearch(int[], int)}.
+     */
+    private static int search(IntArrayList positions, int pos) {
+        int low = 0, high = positions.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int v = positions.getInt(mid);
+            if (v < pos)
+                low = mid + 1;
+            else if (v > pos)
+                high = mid - 1;
+            else
+                return mid;
+        }
+        return -(low + 1);
+    }
+
+    // ------------------------------------------------------------------
+    // indexed lookups
+
+    /**
+     * Returns the index of the first occurrence of the specified element
+     * in this list, or -1 if this list does not contain the element.  Runs
+     * in expected constant time once the index is built.
+     */
+    public int indexOf(Object o) {
+        Object p = index().get(o);
+        if (p == null)
+            return -1;
+        return position((p instanceof Integer) ? (Integer) p : ((IntArrayList) p).getInt(0));
+    }
+
+    /**
+     * Returns the index of the last occurrence of the specified element
+     * in this list, or -1 if this list does not contain the element.  Runs
+     * in expected constant time once the index is built.
+     */
+    public int lastIndexOf(Object o) {
+        Object p = index().get(o);
+        if (p == null)
+            return -1;
+        if (p instanceof Integer)
+            return position((Integer) p);
+        IntArrayList positions = (IntArrayList) p;
+        return position(positions.getInt(positions.size() - 1));
+    }
+
+    /**
+     * Returns the number of occurrences of the specified element in this
+     * list.
+     * 返回元素出现的次数
+     *
+     * @param o element whose occurrences are to be counted
+     * @return the number of elements equal to {@code o}
+     */
+    public int count(Object o) {
+        Object p = index().get(o);
+        if (p == null)
+            return 0;
+        return (p instanceof Integer) ? 1 : ((IntArrayList) p).size();
+    }
+
+    // ------------------------------------------------------------------
+    // incrementally maintained modifications
+
+    public boolean add(E e) {
+        super.add(e);
+        if (index != null)
+            addPosition(e, size() - 1 + removed.size());
+        return true;
+    }
+
+    public void add(int index, E element) {
+        if (index == size()) {
+            add(element);
+            return;
+        }
+        super.add(index, element);
+        dropIndex();
+    }
+
+    public E set(int index, E element) {
+        E oldValue = super.set(index, element);
+        if (this.index != null) {
+            int slot = slot(index);
+            removePosition(oldValue, slot);
+            addPosition(element, slot);
+        }
+        return oldValue;
+    }
+
+    public E remove(int index) {
+        E oldValue = super.remove(index);
+        if (this.index != null) {
+            // 被左移的元素的槽位不变，只记录被删除的槽位
+            int slot = slot(index);
+            removePosition(oldValue, slot);
+            removed.addInt(slot - index, slot);
+            if (removed.size() > Math.max(64, size() >>> 4))
+                dropIndex();
+        }
+        return oldValue;
+    }
+
+    public boolean remove(Object o) {
+        int i = indexOf(o);
+        if (i < 0)
+            return false;
+        remove(i);
+        return true;
+    }
+
+    public boolean addAll(Collection<? extends E> c) {
+        int from = size();
+        boolean modified = super.addAll(c);
+        indexAppended(from);
+        return modified;
+    }
+
+    public boolean addAll(Spliterator<? extends E> s) {
+        int from = size();
+        boolean modified = super.addAll(s);
+        indexAppended(from);
+        return modified;
+    }
+
+    public boolean addAll(Iterator<? extends E> it, int sizeHint) {
+        int from = size();
+        boolean modified = super.addAll(it, sizeHint);
+        indexAppended(from);
+        return modified;
+    }
+
+    /**
+     * Adds the elements appended from position {@code from} on to the index.
+     */
+    private void indexAppended(int from) {
+        if (index != null) {
+            // 追加的元素在所有已删除槽位之后
+            for (int i = from, size = size(), gap = removed.size(); i < size; i++)
+                addPosition(elementData[i], i + gap);
+        }
+    }
+
+    public void clear() {
+        super.clear();
+        if (index != null) {
+            index.clear();
+            removed.clear();
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // modifications that drop the index
+
+    public boolean addAll(int index, Collection<? extends E> c) {
+        if (index == size())
+            return addAll(c);
+        try {
+            return super.addAll(index, c);
+        } finally {
+            dropIndex();
+        }
+    }
+
+    protected void removeRange(int fromIndex, int toIndex) {
+        try {
+            super.removeRange(fromIndex, toIndex);
+        } finally {
+            dropIndex();
+        }
+    }
+
+    public boolean removeAll(Collection<?> c) {
+        try {
+            return super.removeAll(c);
+        } finally {
+            dropIndex();
+        }
+    }
+
+    public boolean retainAll(Collection<?> c) {
+        try {
+            return super.retainAll(c);
+        } finally {
+            dropIndex();
+        }
+    }
+
+    public boolean parallelRemoveAll(Collection<?> c) {
+        try {
+            return super.parallelRemoveAll(c);
+        } finally {
+            dropIndex();
+        }
+    }
+
+    public boolean parallelRetainAll(Collection<?> c) {
+        try {
+            return super.parallelRetainAll(c);
+        } finally {
+            dropIndex();
+        }
+    }
+
+    public boolean removeIf(Predicate<? super E> filter) {
+        try {
+            return super.removeIf(filter);
+        } finally {
+            dropIndex();
+        }
+    }
+
+    public boolean parallelRemoveIf(Predicate<? super E> filter) {
+        try {
+            return super.parallelRemoveIf(filter);
+        } finally {
+            dropIndex();
+        }
+    }
+
+    public void replaceAll(UnaryOperator<E> operator) {
+        try {
+            super.replaceAll(operator);
+        } finally {
+            dropIndex();
+        }
+    }
+
+    public void parallelReplaceAll(UnaryOperator<E> operator) {
+        try {
+            super.parallelReplaceAll(operator);
+        } finally {
+            dropIndex();
+        }
+    }
+
+    public void sort(Comparator<? super E> c) {
+        try {
+            super.sort(c);
+        } finally {
+            dropIndex();
+        }
+    }
+
+    public void parallelSort(Comparator<? super E> c) {
+        try {
+            super.parallelSort(c);
+        } finally {
+            dropIndex();
+        }
+    }
+
+    /**
+     * Returns a view of the portion of this list between the specified
+     * {@code fromIndex}, inclusive, and {@code toIndex}, exclusive.  Unlike
+     * the sub list of {@link ArrayList}, which writes {@code elementData}
+     * directly, every access of this view goes through the methods of this
+     * list, so the index stays consistent.
+     * 子列表的所有操作都通过本类的方法完成(而不是直接修改 elementData)，所以索引保持一致
+     *
+     * @throws IndexOutOfBoundsException {@inheritDoc}
+     * @throws IllegalArgumentException {@inheritDoc}
+     */
+    public List<E> subList(int fromIndex, int toIndex) {
+        subListRangeCheck(fromIndex, toIndex, size());
+        return randomAccessSubList(this, fromIndex, toIndex);
+    }
+
+    /**
+     * Returns a shallow copy of this <tt>IndexedArrayList</tt> instance.
+     * The copy builds its own index on first use.
+     *
+     * @return a clone of this <tt>IndexedArrayList</tt> instance
+     */
+    public Object clone() {
+        @SuppressWarnings("unchecked")
+        IndexedArrayList<E> v = (IndexedArrayList<E>) super.clone();
+        v.index = null;
+        return v;
+    }
+}
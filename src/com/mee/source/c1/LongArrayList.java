@@ -0,0 +1,1198 @@
+package com.mee.source.c1;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.LongPredicate;
+import java.util.function.LongUnaryOperator;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Resizable-array implementation of the <tt>List&lt;Long&gt;</tt> interface
+ * that stores its elements in an <tt>long[]</tt>.  The capacity management
+ * ({@link #ensureCapacity}, {@link #trimToSize}, the 1.5x growth in
+ * <tt>grow</tt>) and the fail-fast behaviour mirror {@link ArrayList}.
+ * 以 long[] 存储元素的 List&lt;Long&gt; 实现，扩容策略(grow 1.5倍)、ensureCapacity、trimToSize 以及快速失败行为均与 ArrayList 一致。
+ *
+ * <p>The primitive accessors ({@link #getLong}, {@link #setLong},
+ * {@link #addLong(long)}, {@link #removeLongAt}, {@link #indexOfLong},
+ * {@link #removeIfLong(LongPredicate)}, {@link #spliterator()} as a
+ * {@link Spliterator.OfLong}, ...) never box.  The <tt>List</tt> methods are
+ * still available and box/unbox at the boundary; <tt>null</tt> elements are
+ * not permitted.
+ * 笔记：基本类型的方法(getLong/setLong/addLong...)全程不装箱，每个元素只占8个字节；
+ *      List 接口上的方法仍然可用，只是会在边界处装箱/拆箱，且不允许 null 元素
+ *
+ * @see ArrayList
+ * @see LongArrayList
+ * @see DoubleArrayList
+ */
+public class LongArrayList extends AbstractList<Long>
+        implements RandomAccess, Cloneable, java.io.Serializable
+{
+    private static final long serialVersionUID = 6213847065311205761L;
+
+    /**
+     * Default initial capacity.
+     * 默认的初始化容量大小
+     */
+    private static final int DEFAULT_CAPACITY = 10;
+
+    /**
+     * Shared empty array instance used for empty instances.
+     */
+    private static final long[] EMPTY_ELEMENTDATA = {};
+
+    /**
+     * Shared empty array instance used for default sized empty instances.
+     * 与 ArrayList 一样，用于区分第一次添加元素时要膨胀到多大
+     */
+    private static final long[] DEFAULTCAPACITY_EMPTY_ELEMENTDATA = {};
+
+    /**
+     * The array buffer into which the elements are stored.
+     */
+    transient long[] elementData; // non-private to simplify nested class access
+
+    /**
+     * The size of the list (the number of elements it contains).
+     *
+     * @serial
+     */
+    private int size;
+
+    /**
+     * Constructs an empty list with the specified initial capacity.
+     *
+     * @param  initialCapacity  the initial capacity of the list
+     * @throws IllegalArgumentException if the specified initial capacity
+     *         is negative
+     */
+    public LongArrayList(int initialCapacity) {
+        if (initialCapacity > 0) {
+            this.elementData = new long[initialCapacity];
+        } else if (initialCapacity == 0) {
+            this.elementData = EMPTY_ELEMENTDATA;
+        } else {
+            throw new IllegalArgumentException("Illegal Capacity: "+
+                    initialCapacity);
+        }
+    }
+
+    /**
+     * Constructs an empty list with an initial capacity of ten.
+     */
+    public LongArrayList() {
+        this.elementData = DEFAULTCAPACITY_EMPTY_ELEMENTDATA;
+    }
+
+    /**
+     * Constructs a list containing a copy of the specified values.
+     * 构造一个包含给定数组副本的列表
+     *
+     * @param values the values to be placed into this list
+     * @throws NullPointerException if the specified array is null
+     */
+    public LongArrayList(long[] values) {
+        if ((size = values.length) != 0) {
+            elementData = Arrays.copyOf(values, size);
+        } else {
+            elementData = EMPTY_ELEMENTDATA;
+        }
+    }
+
+    /**
+     * Constructs a list containing the elements of the specified
+     * collection, in the order they are returned by the collection's
+     * iterator.
+     *
+     * @param c the collection whose elements are to be placed into this list
+     * @throws NullPointerException if the specified collection is null or
+     *         contains a null element
+     */
+    public LongArrayList(Collection<? extends Long> c) {
+        this.elementData = EMPTY_ELEMENTDATA;
+        addAll(c);
+    }
+
+    /**
+     * Trims the capacity of this list to be the list's current size.
+     * 将容量修剪为当前元素个数
+     */
+    public void trimToSize() {
+        modCount++;
+        if (size < elementData.length) {
+            elementData = (size == 0)
+                    ? EMPTY_ELEMENTDATA
+                    : Arrays.copyOf(elementData, size);
+        }
+    }
+
+    /**
+     * Increases the capacity of this list, if necessary, to ensure that it
+     * can hold at least the number of elements specified by the minimum
+     * capacity argument.
+     *
+     * @param   minCapacity   the desired minimum capacity
+     */
+    public void ensureCapacity(int minCapacity) {
+        int minExpand = (elementData != DEFAULTCAPACITY_EMPTY_ELEMENTDATA)
+                ? 0
+                : DEFAULT_CAPACITY;
+        if (minCapacity > minExpand) {
+            ensureExplicitCapacity(minCapacity);
+        }
+    }
+
+    private static int calculateCapacity(long[] elementData, int minCapacity) {
+        if (elementData == DEFAULTCAPACITY_EMPTY_ELEMENTDATA) {
+            return Math.max(DEFAULT_CAPACITY, minCapacity);
+        }
+        return minCapacity;
+    }
+
+    private void ensureCapacityInternal(int minCapacity) {
+        ensureExplicitCapacity(calculateCapacity(elementData, minCapacity));
+    }
+
+    private void ensureExplicitCapacity(int minCapacity) {
+        modCount++;
+        // overflow-conscious code
+        if (minCapacity - elementData.length > 0)
+            grow(minCapacity);
+    }
+
+    /**
+     * The maximum size of array to allocate.
+     */
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    /**
+     * Increases the capacity to ensure that it can hold at least the
+     * number of elements specified by the minimum capacity argument.
+     * 与 ArrayList.grow 相同的 1.5 倍扩容
+     *
+     * @param minCapacity the desired minimum capacity
+     */
+    private void grow(int minCapacity) {
+        // overflow-conscious code
+        int oldCapacity = elementData.length;
+        int newCapacity = oldCapacity + (oldCapacity >> 1);
+        if (newCapacity - minCapacity < 0)
+            newCapacity = minCapacity;
+        if (newCapacity - MAX_ARRAY_SIZE > 0)
+            newCapacity = hugeCapacity(minCapacity);
+        elementData = Arrays.copyOf(elementData, newCapacity);
+    }
+
+    private static int hugeCapacity(int minCapacity) {
+        if (minCapacity < 0) // overflow
+            throw new OutOfMemoryError();
+        return (minCapacity > MAX_ARRAY_SIZE) ?
+                Integer.MAX_VALUE :
+                MAX_ARRAY_SIZE;
+    }
+
+    /**
+     * Returns the number of elements in this list.
+     *
+     * @return the number of elements in this list
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns <tt>true</tt> if this list contains no elements.
+     *
+     * @return <tt>true</tt> if this list contains no elements
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns <tt>true</tt> if this list contains the specified value.
+     *
+     * @param v value whose presence in this list is to be tested
+     * @return <tt>true</tt> if this list contains the specified value
+     */
+    public boolean containsLong(long v) {
+        return indexOfLong(v) >= 0;
+    }
+
+    public boolean contains(Object o) {
+        return (o instanceof Long) && indexOfLong((Long) o) >= 0;
+    }
+
+    /**
+     * Returns the index of the first occurrence of the specified value
+     * in this list, or -1 if this list does not contain the value.
+     *
+     * @param v value to search for
+     * @return the index of the first occurrence, or -1
+     */
+    public int indexOfLong(long v) {
+        return PrimitiveKernels.indexOf(elementData, 0, size, v);
+    }
+
+    public int indexOf(Object o) {
+        return (o instanceof Long) ? indexOfLong((Long) o) : -1;
+    }
+
+    /**
+     * Returns the index of the last occurrence of the specified value
+     * in this list, or -1 if this list does not contain the value.
+     *
+     * @param v value to search for
+     * @return the index of the last occurrence, or -1
+     */
+    public int lastIndexOfLong(long v) {
+        return PrimitiveKernels.lastIndexOf(elementData, 0, size, v);
+    }
+
+    public int lastIndexOf(Object o) {
+        return (o instanceof Long) ? lastIndexOfLong((Long) o) : -1;
+    }
+
+    /**
+     * Returns the sum of the elements; like {@link java.util.stream.LongStream#sum()}
+     * it wraps around on overflow.
+     * 返回所有元素之和(溢出时回绕)
+     *
+     * @return the sum of the elements, 0 if this list is empty
+     */
+    public long sum() {
+        return PrimitiveKernels.sum(elementData, 0, size);
+    }
+
+    /**
+     * Returns the smallest element.
+     * 返回最小的元素
+     *
+     * @return the smallest element
+     * @throws NoSuchElementException if this list is empty
+     */
+    public long min() {
+        return PrimitiveKernels.min(elementData, 0, size);
+    }
+
+    /**
+     * Returns the largest element.
+     * 返回最大的元素
+     *
+     * @return the largest element
+     * @throws NoSuchElementException if this list is empty
+     */
+    public long max() {
+        return PrimitiveKernels.max(elementData, 0, size);
+    }
+
+    /**
+     * Returns the number of elements {@code x} with
+     * {@code lo <= x && x <= hi}.
+     * 返回在 [lo, hi] 范围内的元素个数
+     *
+     * @param lo the lower bound, inclusive
+     * @param hi the upper bound, inclusive
+     * @return the number of elements within the range
+     */
+    public int countBetween(long lo, long hi) {
+        return PrimitiveKernels.countBetween(elementData, 0, size, lo, hi);
+    }
+
+    /**
+     * Returns a new list holding, in order, the elements {@code x} with
+     * {@code lo <= x && x <= hi}.
+     * 返回在 [lo, hi] 范围内的元素组成的新列表(保持原来的顺序)
+     *
+     * @param lo the lower bound, inclusive
+     * @param hi the upper bound, inclusive
+     * @return a new list of the elements within the range
+     */
+    public LongArrayList filterBetween(long lo, long hi) {
+        long[] dest = new long[size];
+        int n = PrimitiveKernels.filterBetween(elementData, 0, size, lo, hi, dest);
+        LongArrayList result = new LongArrayList(0);
+        result.elementData = (n == dest.length) ? dest : Arrays.copyOf(dest, n);
+        result.size = n;
+        return result;
+    }
+
+    /**
+     * Returns a copy of this <tt>LongArrayList</tt> instance.
+     *
+     * @return a clone of this <tt>LongArrayList</tt> instance
+     */
+    public Object clone() {
+        try {
+            LongArrayList v = (LongArrayList) super.clone();
+            v.elementData = Arrays.copyOf(elementData, size);
+            v.modCount = 0;
+            return v;
+        } catch (CloneNotSupportedException e) {
+            // this shouldn't happen, since we are Cloneable
+            throw new InternalError(e);
+        }
+    }
+
+    /**
+     * Returns an array containing all of the values in this list in proper
+     * sequence.  The returned array is always a fresh copy.
+     * 返回包含所有元素的 long[] 副本
+     *
+     * @return an array containing all of the values in this list
+     */
+    public long[] toLongArray() {
+        return Arrays.copyOf(elementData, size);
+    }
+
+    public Object[] toArray() {
+        final long[] es = elementData;
+        Object[] a = new Object[size];
+        for (int i = 0; i < a.length; i++)
+            a[i] = es[i];
+        return a;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T[] toArray(T[] a) {
+        final int size = this.size;
+        if (a.length < size)
+            a = (T[]) java.lang.reflect.Array.newInstance(a.getClass().getComponentType(), size);
+        final long[] es = elementData;
+        for (int i = 0; i < size; i++)
+            a[i] = (T) Long.valueOf(es[i]);
+        if (a.length > size)
+            a[size] = null;
+        return a;
+    }
+
+    /**
+     * Returns the value at the specified position in this list.
+     * 按索引获取元素，不装箱
+     *
+     * @param  index index of the value to return
+     * @return the value at the specified position in this list
+     * @throws IndexOutOfBoundsException {@inheritDoc}
+     */
+    public long getLong(int index) {
+        rangeCheck(index);
+        return elementData[index];
+    }
+
+    public Long get(int index) {
+        return getLong(index);
+    }
+
+    /**
+     * Replaces the value at the specified position in this list with
+     * the specified value.
+     *
+     * @param index index of the value to replace
+     * @param v value to be stored at the specified position
+     * @return the value previously at the specified position
+     * @throws IndexOutOfBoundsException {@inheritDoc}
+     */
+    public long setLong(int index, long v) {
+        rangeCheck(index);
+        long oldValue = elementData[index];
+        elementData[index] = v;
+        return oldValue;
+    }
+
+    public Long set(int index, Long element) {
+        return setLong(index, element);
+    }
+
+    /**
+     * Appends the specified value to the end of this list.
+     *
+     * @param v value to be appended to this list
+     * @return <tt>true</tt> (as specified by {@link Collection#add})
+     */
+    public boolean addLong(long v) {
+        ensureCapacityInternal(size + 1);  // Increments modCount!!
+        elementData[size++] = v;
+        return true;
+    }
+
+    public boolean add(Long e) {
+        return addLong(e);
+    }
+
+    /**
+     * Inserts the specified value at the specified position in this
+     * list. Shifts the value currently at that position (if any) and
+     * any subsequent values to the right.
+     *
+     * @param index index at which the specified value is to be inserted
+     * @param v value to be inserted
+     * @throws IndexOutOfBoundsException {@inheritDoc}
+     */
+    public void addLong(int index, long v) {
+        rangeCheckForAdd(index);
+
+        ensureCapacityInternal(size + 1);  // Increments modCount!!
+        System.arraycopy(elementData, index, elementData, index + 1,
+                size - index);
+        elementData[index] = v;
+        size++;
+    }
+
+    public void add(int index, Long element) {
+        addLong(index, element);
+    }
+
+    /**
+     * Removes the value at the specified position in this list.
+     * Shifts any subsequent values to the left.
+     * 按索引删除，返回被删除的值（不装箱）
+     *
+     * @param index the index of the value to be removed
+     * @return the value that was removed from the list
+     * @throws IndexOutOfBoundsException {@inheritDoc}
+     */
+    public long removeLongAt(int index) {
+        rangeCheck(index);
+
+        modCount++;
+        long oldValue = elementData[index];
+
+        int numMoved = size - index - 1;
+        if (numMoved > 0)
+            System.arraycopy(elementData, index+1, elementData, index,
+                    numMoved);
+        --size;
+        return oldValue;
+    }
+
+    public Long remove(int index) {
+        return removeLongAt(index);
+    }
+
+    /**
+     * Removes the first occurrence of the specified value from this list,
+     * if it is present.
+     * 按值删除第一个匹配的元素
+     *
+     * @param v value to be removed from this list, if present
+     * @return <tt>true</tt> if this list contained the specified value
+     */
+    public boolean removeLong(long v) {
+        int index = indexOfLong(v);
+        if (index < 0)
+            return false;
+        fastRemove(index);
+        return true;
+    }
+
+    public boolean remove(Object o) {
+        return (o instanceof Long) && removeLong((Long) o);
+    }
+
+    /*
+     * Private remove method that skips bounds checking and does not
+     * return the value removed.
+     */
+    private void fastRemove(int index) {
+        modCount++;
+        int numMoved = size - index - 1;
+        if (numMoved > 0)
+            System.arraycopy(elementData, index+1, elementData, index,
+                    numMoved);
+        --size;
+    }
+
+    /**
+     * Removes all of the elements from this list.  The list will
+     * be empty after this call returns.
+     * 基本类型数组不持有引用，不需要像 ArrayList 那样逐个置 null
+     */
+    public void clear() {
+        modCount++;
+        size = 0;
+    }
+
+    /**
+     * Appends all of the values in the specified list to the end of this
+     * list, with a single array copy.
+     *
+     * @param c list containing values to be added to this list
+     * @return <tt>true</tt> if this list changed as a result of the call
+     * @throws NullPointerException if the specified list is null
+     */
+    public boolean addAll(LongArrayList c) {
+        int numNew = c.size;
+        ensureCapacityInternal(size + numNew);  // Increments modCount
+        System.arraycopy(c.elementData, 0, elementData, size, numNew);
+        size += numNew;
+        return numNew != 0;
+    }
+
+    public boolean addAll(Collection<? extends Long> c) {
+        if (c instanceof LongArrayList)
+            return addAll((LongArrayList) c);
+        return addAll(size, c);
+    }
+
+    public boolean addAll(int index, Collection<? extends Long> c) {
+        rangeCheckForAdd(index);
+
+        long[] a;
+        int numNew;
+        if (c instanceof LongArrayList) {
+            LongArrayList l = (LongArrayList) c;
+            a = l.elementData;
+            numNew = l.size;
+        } else {
+            Object[] o = c.toArray();
+            numNew = o.length;
+            a = new long[numNew];
+            for (int i = 0; i < numNew; i++)
+                a[i] = (Long) o[i];
+        }
+        ensureCapacityInternal(size + numNew);  // Increments modCount
+
+        int numMoved = size - index;
+        if (numMoved > 0)
+            System.arraycopy(elementData, index, elementData, index + numNew,
+                    numMoved);
+
+        System.arraycopy(a, 0, elementData, index, numNew);
+        size += numNew;
+        return numNew != 0;
+    }
+
+    /**
+     * Removes from this list all of the elements whose index is between
+     * {@code fromIndex}, inclusive, and {@code toIndex}, exclusive.
+     *
+     * @throws IndexOutOfBoundsException if {@code fromIndex} or
+     *         {@code toIndex} is out of range
+     *         ({@code fromIndex < 0 ||
+     *          fromIndex >= size() ||
+     *          toIndex > size() ||
+     *          toIndex < fromIndex})
+     */
+    protected void removeRange(int fromIndex, int toIndex) {
+        modCount++;
+        int numMoved = size - toIndex;
+        System.arraycopy(elementData, toIndex, elementData, fromIndex,
+                numMoved);
+        size = size - (toIndex-fromIndex);
+    }
+
+    /**
+     * Checks if the given index is in range.
+     */
+    private void rangeCheck(int index) {
+        if (index >= size)
+            throw new IndexOutOfBoundsException(outOfBoundsMsg(index));
+    }
+
+    /**
+     * A version of rangeCheck used by add and addAll.
+     */
+    private void rangeCheckForAdd(int index) {
+        if (index > size || index < 0)
+            throw new IndexOutOfBoundsException(outOfBoundsMsg(index));
+    }
+
+    private String outOfBoundsMsg(int index) {
+        return "Index: "+index+", Size: "+size;
+    }
+
+    public boolean removeAll(Collection<?> c) {
+        Objects.requireNonNull(c);
+        return batchRemove(c, false);
+    }
+
+    public boolean retainAll(Collection<?> c) {
+        Objects.requireNonNull(c);
+        return batchRemove(c, true);
+    }
+
+    // 如果 c 本身也是 LongArrayList 则直接用 containsLong 判断，避免装箱
+    private boolean batchRemove(Collection<?> c, boolean complement) {
+        final long[] elementData = this.elementData;
+        final LongArrayList ic = (c instanceof LongArrayList) ? (LongArrayList) c : null;
+        int r = 0, w = 0;
+        boolean modified = false;
+        try {
+            for (; r < size; r++) {
+                long v = elementData[r];
+                boolean found = (ic != null) ? ic.containsLong(v) : c.contains(v);
+                if (found == complement)
+                    elementData[w++] = v;
+            }
+        } finally {
+            // Preserve behavioral compatibility with AbstractCollection,
+            // even if c.contains() throws.
+            if (r != size) {
+                System.arraycopy(elementData, r,
+                        elementData, w,
+                        size - r);
+                w += size - r;
+            }
+            if (w != size) {
+                modCount += size - w;
+                size = w;
+                modified = true;
+            }
+        }
+        return modified;
+    }
+
+    /**
+     * Save the state of the <tt>LongArrayList</tt> instance to a stream (that
+     * is, serialize it).
+     *
+     * @serialData The length of the array backing the <tt>LongArrayList</tt>
+     *             instance is emitted (int), followed by all of its values
+     *             (each a <tt>long</tt>) in the proper order.
+     */
+    private void writeObject(java.io.ObjectOutputStream s) throws java.io.IOException{
+        // Write out element count, and any hidden stuff
+        int expectedModCount = modCount;
+        s.defaultWriteObject();
+
+        // Write out size as capacity for behavioural compatibility with clone()
+        s.writeInt(size);
+
+        // Write out all elements in the proper order.
+        for (int i=0; i<size; i++) {
+            s.writeLong(elementData[i]);
+        }
+
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * Reconstitute the <tt>LongArrayList</tt> instance from a stream (that is,
+     * deserialize it).
+     */
+    private void readObject(java.io.ObjectInputStream s) throws java.io.IOException, ClassNotFoundException {
+        elementData = EMPTY_ELEMENTDATA;
+
+        // Read in size, and any hidden stuff
+        s.defaultReadObject();
+
+        // Read in capacity
+        s.readInt(); // ignored
+
+        if (size > 0) {
+            long[] a = elementData = new long[size];
+            for (int i=0; i<size; i++) {
+                a[i] = s.readLong();
+            }
+        }
+    }
+
+    /**
+     * Returns an iterator over the elements in this list in proper sequence.
+     * The returned iterator is a {@link PrimitiveIterator.OfLong}, so
+     * {@code nextLong()} can be used to avoid boxing.
+     *
+     * <p>The returned iterator is <a href="#fail-fast"><i>fail-fast</i></a>.
+     *
+     * @return an iterator over the elements in this list in proper sequence
+     */
+    public PrimitiveIterator.OfLong iterator() {
+        return new Itr();
+    }
+
+    /**
+     * An optimized version of AbstractList.Itr
+     */
+    private class Itr implements PrimitiveIterator.OfLong {
+        int cursor;       // index of next element to return
+        int lastRet = -1; // index of last element returned; -1 if no such
+        int expectedModCount = modCount;
+
+        Itr() {}
+
+        public boolean hasNext() {
+            return cursor != size;
+        }
+
+        public long nextLong() {
+            checkForComodification();
+            int i = cursor;
+            if (i >= size)
+                throw new NoSuchElementException();
+            long[] elementData = LongArrayList.this.elementData;
+            if (i >= elementData.length)
+                throw new ConcurrentModificationException();
+            cursor = i + 1;
+            return elementData[lastRet = i];
+        }
+
+        public void remove() {
+            if (lastRet < 0)
+                throw new IllegalStateException();
+            checkForComodification();
+
+            try {
+                LongArrayList.this.removeLongAt(lastRet);
+                cursor = lastRet;
+                lastRet = -1;
+                expectedModCount = modCount;
+            } catch (IndexOutOfBoundsException ex) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer consumer) {
+            Objects.requireNonNull(consumer);
+            final int size = LongArrayList.this.size;
+            int i = cursor;
+            if (i >= size) {
+                return;
+            }
+            final long[] elementData = LongArrayList.this.elementData;
+            if (i >= elementData.length) {
+                throw new ConcurrentModificationException();
+            }
+            while (i != size && modCount == expectedModCount) {
+                consumer.accept(elementData[i++]);
+            }
+            // update once at end of iteration to reduce heap write traffic
+            cursor = i;
+            lastRet = i - 1;
+            checkForComodification();
+        }
+
+        final void checkForComodification() {
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * Returns a view of the portion of this list between the specified
+     * {@code fromIndex}, inclusive, and {@code toIndex}, exclusive.  The
+     * returned list is backed by this list and supports the primitive
+     * accessors {@code getLong}/{@code setLong} as well.
+     *
+     * @throws IndexOutOfBoundsException {@inheritDoc}
+     * @throws IllegalArgumentException {@inheritDoc}
+     */
+    public LongSubList subList(int fromIndex, int toIndex) {
+        ArrayList.subListRangeCheck(fromIndex, toIndex, size);
+        return new LongSubList(this, 0, fromIndex, toIndex);
+    }
+
+    /**
+     * A sub-range view of an {@code LongArrayList}.  Element access goes
+     * straight to the backing {@code long[]}; structural changes are
+     * delegated to the parent, exactly as in {@code ArrayList.SubList}.
+     * 子列表视图，读写直接访问 long[]，结构修改委托给父列表(与 ArrayList.SubList 一致)
+     */
+    public class LongSubList extends AbstractList<Long> implements RandomAccess {
+        private final AbstractList<Long> parent;
+        private final int parentOffset;
+        private final int offset;
+        int size;
+
+        LongSubList(AbstractList<Long> parent,
+                   int offset, int fromIndex, int toIndex) {
+            this.parent = parent;
+            this.parentOffset = fromIndex;
+            this.offset = offset + fromIndex;
+            this.size = toIndex - fromIndex;
+            this.modCount = LongArrayList.this.modCount;
+        }
+
+        public long getLong(int index) {
+            rangeCheck(index);
+            checkForComodification();
+            return LongArrayList.this.elementData[offset + index];
+        }
+
+        public Long get(int index) {
+            return getLong(index);
+        }
+
+        public long setLong(int index, long v) {
+            rangeCheck(index);
+            checkForComodification();
+            long oldValue = LongArrayList.this.elementData[offset + index];
+            LongArrayList.this.elementData[offset + index] = v;
+            return oldValue;
+        }
+
+        public Long set(int index, Long e) {
+            return setLong(index, e);
+        }
+
+        public int size() {
+            checkForComodification();
+            return this.size;
+        }
+
+        public void add(int index, Long e) {
+            rangeCheckForAdd(index);
+            checkForComodification();
+            parent.add(parentOffset + index, e);
+            this.modCount = parent.modCount;
+            this.size++;
+        }
+
+        public Long remove(int index) {
+            rangeCheck(index);
+            checkForComodification();
+            Long result = parent.remove(parentOffset + index);
+            this.modCount = parent.modCount;
+            this.size--;
+            return result;
+        }
+
+        protected void removeRange(int fromIndex, int toIndex) {
+            checkForComodification();
+            parent.removeRange(parentOffset + fromIndex,
+                    parentOffset + toIndex);
+            this.modCount = parent.modCount;
+            this.size -= toIndex - fromIndex;
+        }
+
+        public boolean addAll(Collection<? extends Long> c) {
+            return addAll(this.size, c);
+        }
+
+        public boolean addAll(int index, Collection<? extends Long> c) {
+            rangeCheckForAdd(index);
+            int cSize = c.size();
+            if (cSize==0)
+                return false;
+
+            checkForComodification();
+            parent.addAll(parentOffset + index, c);
+            this.modCount = parent.modCount;
+            this.size += cSize;
+            return true;
+        }
+
+        public LongSubList subList(int fromIndex, int toIndex) {
+            ArrayList.subListRangeCheck(fromIndex, toIndex, size);
+            return new LongSubList(this, offset, fromIndex, toIndex);
+        }
+
+        public Spliterator.OfLong spliterator() {
+            checkForComodification();
+            return new LongArrayListSpliterator(LongArrayList.this, offset,
+                    offset + this.size, this.modCount);
+        }
+
+        private void rangeCheck(int index) {
+            if (index < 0 || index >= this.size)
+                throw new IndexOutOfBoundsException(outOfBoundsMsg(index));
+        }
+
+        private void rangeCheckForAdd(int index) {
+            if (index < 0 || index > this.size)
+                throw new IndexOutOfBoundsException(outOfBoundsMsg(index));
+        }
+
+        private String outOfBoundsMsg(int index) {
+            return "Index: "+index+", Size: "+this.size;
+        }
+
+        private void checkForComodification() {
+            if (LongArrayList.this.modCount != this.modCount)
+                throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * Performs the given action for each value of this list, without boxing.
+     *
+     * @param action the action to be performed for each value
+     * @throws NullPointerException if the specified action is null
+     */
+    public void forEachLong(LongConsumer action) {
+        Objects.requireNonNull(action);
+        final int expectedModCount = modCount;
+        final long[] elementData = this.elementData;
+        final int size = this.size;
+        for (int i=0; modCount == expectedModCount && i < size; i++) {
+            action.accept(elementData[i]);
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<? super Long> action) {
+        Objects.requireNonNull(action);
+        if (action instanceof LongConsumer) {
+            forEachLong((LongConsumer) action);
+        } else {
+            forEachLong(action::accept);
+        }
+    }
+
+    /**
+     * Creates a <em>late-binding</em> and <em>fail-fast</em>
+     * {@link Spliterator.OfLong} over the values in this list.
+     *
+     * <p>The {@code Spliterator} reports {@link Spliterator#SIZED},
+     * {@link Spliterator#SUBSIZED}, and {@link Spliterator#ORDERED}.
+     *
+     * @return a {@code Spliterator.OfLong} over the values in this list
+     */
+    @Override
+    public Spliterator.OfLong spliterator() {
+        return new LongArrayListSpliterator(this, 0, -1, 0);
+    }
+
+    /**
+     * Returns a sequential {@code LongStream} over the values in this list.
+     *
+     * @return a sequential {@code LongStream} over the values in this list
+     */
+    public LongStream longStream() {
+        return StreamSupport.longStream(spliterator(), false);
+    }
+
+    /** Index-based split-by-two, lazily initialized Spliterator */
+    static final class LongArrayListSpliterator implements Spliterator.OfLong {
+
+        private final LongArrayList list;
+        private int index; // current index, modified on advance/split
+        private int fence; // -1 until used; then one past last index
+        private int expectedModCount; // initialized when fence set
+
+        /** Create new spliterator covering the given  range */
+        LongArrayListSpliterator(LongArrayList list, int origin, int fence,
+                                int expectedModCount) {
+            this.list = list; // OK if null unless traversed
+            this.index = origin;
+            this.fence = fence;
+            this.expectedModCount = expectedModCount;
+        }
+
+        private int getFence() { // initialize fence to size on first use
+            int hi;
+            LongArrayList lst;
+            if ((hi = fence) < 0) {
+                if ((lst = list) == null)
+                    hi = fence = 0;
+                else {
+                    expectedModCount = lst.modCount;
+                    hi = fence = lst.size;
+                }
+            }
+            return hi;
+        }
+
+        public LongArrayListSpliterator trySplit() {
+            int hi = getFence(), lo = index, mid = (lo + hi) >>> 1;
+            return (lo >= mid) ? null : // divide range in half unless too small
+                    new LongArrayListSpliterator(list, lo, index = mid,
+                            expectedModCount);
+        }
+
+        public boolean tryAdvance(LongConsumer action) {
+            if (action == null)
+                throw new NullPointerException();
+            int hi = getFence(), i = index;
+            if (i < hi) {
+                index = i + 1;
+                action.accept(list.elementData[i]);
+                if (list.modCount != expectedModCount)
+                    throw new ConcurrentModificationException();
+                return true;
+            }
+            return false;
+        }
+
+        public void forEachRemaining(LongConsumer action) {
+            int i, hi, mc; // hoist accesses and checks from loop
+            LongArrayList lst; long[] a;
+            if (action == null)
+                throw new NullPointerException();
+            if ((lst = list) != null && (a = lst.elementData) != null) {
+                if ((hi = fence) < 0) {
+                    mc = lst.modCount;
+                    hi = lst.size;
+                }
+                else
+                    mc = expectedModCount;
+                if ((i = index) >= 0 && (index = hi) <= a.length) {
+                    for (; i < hi; ++i) {
+                        action.accept(a[i]);
+                    }
+                    if (lst.modCount == mc)
+                        return;
+                }
+            }
+            throw new ConcurrentModificationException();
+        }
+
+        public long estimateSize() {
+            return (long) (getFence() - index);
+        }
+
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+    }
+
+    /**
+     * Removes all of the values of this list that satisfy the given
+     * predicate, without boxing.
+     *
+     * @param filter a predicate which returns {@code true} for values to be
+     *        removed
+     * @return {@code true} if any values were removed
+     * @throws NullPointerException if the specified filter is null
+     */
+    public boolean removeIfLong(LongPredicate filter) {
+        Objects.requireNonNull(filter);
+        // figure out which elements are to be removed
+        // any exception thrown from the filter predicate at this stage
+        // will leave the collection unmodified
+        int removeCount = 0;
+        final BitSet removeSet = new BitSet(size);
+        final int expectedModCount = modCount;
+        final int size = this.size;
+        final long[] elementData = this.elementData;
+        for (int i=0; modCount == expectedModCount && i < size; i++) {
+            if (filter.test(elementData[i])) {
+                removeSet.set(i);
+                removeCount++;
+            }
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+
+        // shift surviving elements left over the spaces left by removed elements
+        final boolean anyToRemove = removeCount > 0;
+        if (anyToRemove) {
+            final int newSize = size - removeCount;
+            for (int i=0, j=0; (i < size) && (j < newSize); i++, j++) {
+                i = removeSet.nextClearBit(i);
+                elementData[j] = elementData[i];
+            }
+            this.size = newSize;
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            modCount++;
+        }
+
+        return anyToRemove;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super Long> filter) {
+        Objects.requireNonNull(filter);
+        if (filter instanceof LongPredicate)
+            return removeIfLong((LongPredicate) filter);
+        return removeIfLong(filter::test);
+    }
+
+    /**
+     * Replaces each value of this list with the result of applying the
+     * operator to that value, without boxing.
+     *
+     * @param operator the operator to apply to each value
+     * @throws NullPointerException if the specified operator is null
+     */
+    public void replaceAllLong(LongUnaryOperator operator) {
+        Objects.requireNonNull(operator);
+        final int expectedModCount = modCount;
+        final int size = this.size;
+        final long[] elementData = this.elementData;
+        for (int i=0; modCount == expectedModCount && i < size; i++) {
+            elementData[i] = operator.applyAsLong(elementData[i]);
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+        modCount++;
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<Long> operator) {
+        Objects.requireNonNull(operator);
+        replaceAllLong(operator::apply);
+    }
+
+    /**
+     * Sorts this list into ascending numerical order, in place and without
+     * boxing.
+     * 升序排序，底层为 Arrays.sort(long[]) 的双轴快排
+     */
+    public void sort() {
+        final int expectedModCount = modCount;
+        Arrays.sort(elementData, 0, size);
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+        modCount++;
+    }
+
+    /**
+     * Sorts this list according to the order induced by the specified
+     * {@link Comparator}.  A {@code null} comparator (natural ordering)
+     * takes the primitive path of {@link #sort()}; any other comparator
+     * has to box the values into a temporary array.
+     *
+     * @param c the {@code Comparator} used to compare list elements
+     */
+    @Override
+    public void sort(Comparator<? super Long> c) {
+        if (c == null) {
+            sort();
+            return;
+        }
+        final int expectedModCount = modCount;
+        final int size = this.size;
+        final long[] elementData = this.elementData;
+        Long[] boxed = new Long[size];
+        for (int i = 0; i < size; i++)
+            boxed[i] = elementData[i];
+        Arrays.sort(boxed, c);
+        for (int i = 0; i < size; i++)
+            elementData[i] = boxed[i];
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+        modCount++;
+    }
+
+    public int hashCode() {
+        final long[] es = elementData;
+        int hashCode = 1;
+        for (int i = 0, n = size; i < n; i++)
+            hashCode = 31*hashCode + Long.hashCode(es[i]);
+        return hashCode;
+    }
+
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        if (o instanceof LongArrayList) {
+            LongArrayList other = (LongArrayList) o;
+            final int size = this.size;
+            if (size != other.size)
+                return false;
+            final long[] a = elementData, b = other.elementData;
+            for (int i = 0; i < size; i++)
+                if (a[i] != b[i])
+                    return false;
+            return true;
+        }
+        return super.equals(o);
+    }
+}
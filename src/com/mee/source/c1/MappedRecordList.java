@@ -0,0 +1,463 @@
+package com.mee.source.c1;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * File-backed implementation of the <tt>List</tt> interface for large
+ * numbers of fixed-size records.  The elements are not held on the heap:
+ * each one is stored as a record of {@link RecordCodec#recordSize()} bytes
+ * in a memory-mapped file and decoded by the {@link RecordCodec} when it
+ * is read.
+ * 基于文件的定长记录列表：元素不保存在堆上，而是以定长记录的形式存放在内存映射文件中，读取时由 RecordCodec 解码
+ *
+ * <p>The file is a 64-byte header followed by the records in index order.
+ * It is mapped in segments of {@code 1 << segmentShift} records (about
+ * 64 MiB each by default), and a new segment is mapped when the list grows
+ * past the last one, so existing records are never moved or copied
+ * (compare {@link BigArrayList}).  Reopening a file maps its segments and
+ * reads the size from the header; nothing is deserialized, so opening
+ * takes the same time for any number of records.
+ * 笔记：文件由 64 字节的头部和按下标顺序排列的记录组成，按段(默认每段约 64M)映射，
+ *      列表超出最后一段时再映射下一段，已有的记录不会被移动或拷贝；
+ *      重新打开文件时只需要映射各段并从头部读取大小，不做任何反序列化，所以耗时与记录数无关
+ *
+ * <p>Durability: the size stored in the header only changes in
+ * {@link #force()} (and {@link #close()}, which calls it), after the
+ * records themselves have been forced to the storage device.  After a
+ * crash the list therefore reopens with the size of the last
+ * {@code force()}, and all of those records are intact; records added
+ * later are lost, and records {@link #set} later may or may not have
+ * reached the file.
+ * 笔记：头部中的大小只在 force()(以及调用它的 close())中、记录本身已经刷到存储设备之后才更新。
+ *      因此崩溃之后重新打开，大小就是最后一次 force() 时的大小，这些记录都是完整的；
+ *      之后追加的记录会丢失，之后 set 的记录则不确定是否已经写入文件
+ *
+ * <p>Elements are added at the end with {@link #add(Object)}, replaced
+ * with {@link #set}, and removed from the end only (the list can be
+ * cleared or truncated through {@link #clear()} or
+ * {@code subList(from, size()).clear()}); inserting or removing in the
+ * middle throws {@link UnsupportedOperationException}.  Iteration and the
+ * {@link #spliterator()} walk and split the list segment by segment.
+ *
+ * <p>The mappings are only released when the buffers are garbage
+ * collected, as the JDK offers no way to unmap a file; a closed list
+ * throws {@link IllegalStateException}.
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ *
+ * @param <E> the type of elements in this list
+ * @see RecordCodec
+ * @see BigArrayList
+ */
+public class MappedRecordList<E> extends AbstractList<E>
+        implements RandomAccess, Closeable
+{
+    /** "MRL1" */
+    private static final int MAGIC = 0x4D524C31;
+    private static final int VERSION = 1;
+
+    /**
+     * Size of the file header; the records start right after it.
+     * Layout: magic, version, record size and committed size, each an
+     * {@code int}, followed by reserved bytes.
+     */
+    static final int HEADER_SIZE = 64;
+    private static final int RECORD_SIZE_OFFSET = 8;
+    private static final int SIZE_OFFSET = 12;
+
+    /**
+     * Default upper bound of the size of a segment: 64 MiB.
+     */
+    private static final int DEFAULT_SEGMENT_BYTES = 1 << 26;
+
+    /**
+     * Largest size of a segment; a single mapping may not exceed 2 GiB.
+     */
+    private static final long MAX_SEGMENT_BYTES = 1L << 30;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final RecordCodec<E> codec;
+    private final int recordSize;
+
+    /** log2 of the number of records per segment. */
+    private final int segmentShift;
+
+    /** {@code (1 << segmentShift) - 1} */
+    private final int segmentMask;
+
+    private MappedByteBuffer header;
+
+    /**
+     * The mapped segments.  Only the first {@code segmentCount} entries are
+     * mapped; {@code null} once the list is closed.
+     */
+    MappedByteBuffer[] segments; // non-private to simplify nested class access
+
+    /** Number of mapped segments. */
+    private int segmentCount;
+
+    /** The number of records in this list. */
+    private int size;
+
+    /**
+     * Opens the record list stored in {@code file}, creating the file if it
+     * does not exist, with segments of about 64 MiB.
+     *
+     * @param file the file holding the records
+     * @param codec the codec of the records
+     * @throws IOException if the file cannot be opened or mapped, or is not
+     *         a record list with records of {@code codec.recordSize()} bytes
+     */
+    public MappedRecordList(Path file, RecordCodec<E> codec) throws IOException {
+        this(file, codec, defaultSegmentShift(codec.recordSize()));
+    }
+
+    /**
+     * Opens the record list stored in {@code file}, creating the file if it
+     * does not exist, with segments of {@code 1 << segmentShift} records.
+     * The segment size only affects the mapping, not the file format.
+     *
+     * @param file the file holding the records
+     * @param codec the codec of the records
+     * @param segmentShift log2 of the number of records per segment
+     * @throws IllegalArgumentException if the record size is not positive,
+     *         or a segment would be larger than 1 GiB
+     * @throws IOException if the file cannot be opened or mapped, or is not
+     *         a record list with records of {@code codec.recordSize()} bytes
+     */
+    public MappedRecordList(Path file, RecordCodec<E> codec, int segmentShift) throws IOException {
+        int recordSize = codec.recordSize();
+        if (recordSize <= 0)
+            throw new IllegalArgumentException("Illegal record size: " + recordSize);
+        if (segmentShift < 0 || segmentShift > 30 || ((long) recordSize << segmentShift) > MAX_SEGMENT_BYTES)
+            throw new IllegalArgumentException("Illegal segment shift: " + segmentShift);
+        this.file = file;
+        this.codec = codec;
+        this.recordSize = recordSize;
+        this.segmentShift = segmentShift;
+        this.segmentMask = (1 << segmentShift) - 1;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            open();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the largest segment shift whose segments fit in 64 MiB.
+     */
+    private static int defaultSegmentShift(int recordSize) {
+        int records = Math.max(1, DEFAULT_SEGMENT_BYTES / Math.max(1, recordSize));
+        return 31 - Integer.numberOfLeadingZeros(records);
+    }
+
+    /**
+     * Reads (or writes, for a new file) the header and maps the segments
+     * holding the committed records.
+     */
+    private void open() throws IOException {
+        long length = channel.size();
+        // mapping would silently extend a truncated file
+        if (length != 0 && length < HEADER_SIZE)
+            throw new IOException("Not a record list: " + file);
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        if (length == 0) {
+            header.putInt(0, MAGIC);
+            header.putInt(4, VERSION);
+            header.putInt(RECORD_SIZE_OFFSET, recordSize);
+            header.putInt(SIZE_OFFSET, 0);
+            header.force();
+            length = HEADER_SIZE;
+        } else if (header.getInt(0) != MAGIC) {
+            throw new IOException("Not a record list: " + file);
+        } else if (header.getInt(4) != VERSION) {
+            throw new IOException("Unsupported version " + header.getInt(4) + ": " + file);
+        } else if (header.getInt(RECORD_SIZE_OFFSET) != recordSize) {
+            throw new IOException("Record size " + header.getInt(RECORD_SIZE_OFFSET) +
+                    " does not match the codec's " + recordSize + ": " + file);
+        }
+        int committed = header.getInt(SIZE_OFFSET);
+        if (committed < 0 || HEADER_SIZE + (long) committed * recordSize > length)
+            throw new IOException("Corrupt size " + committed + ": " + file);
+        int needed = (int) (((long) committed + segmentMask) >>> segmentShift);
+        segments = new MappedByteBuffer[Math.max(needed, 8)];
+        while (segmentCount < needed)
+            mapSegment();
+        size = committed;
+    }
+
+    /**
+     * Maps the next segment, extending the file if necessary.
+     */
+    private void mapSegment() throws IOException {
+        if (segmentCount == segments.length)
+            segments = Arrays.copyOf(segments, segmentCount << 1);
+        long segmentBytes = (long) recordSize << segmentShift;
+        long position = HEADER_SIZE + segmentCount * segmentBytes;
+        segments[segmentCount++] = channel.map(FileChannel.MapMode.READ_WRITE, position, segmentBytes);
+    }
+
+    private MappedByteBuffer[] segments() {
+        MappedByteBuffer[] segs = segments;
+        if (segs == null)
+            throw new IllegalStateException("Closed: " + file);
+        return segs;
+    }
+
+    /**
+     * Returns the number of records in this list.
+     *
+     * @return the number of records in this list
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the record at the specified position in this list, decoded
+     * by the codec.
+     *
+     * @param  index index of the element to return
+     * @return the element at the specified position in this list
+     * @throws IndexOutOfBoundsException {@inheritDoc}
+     * @throws IllegalStateException if this list has been closed
+     */
+    public E get(int index) {
+        rangeCheck(index);
+        return codec.read(segments()[index >>> segmentShift], (index & segmentMask) * recordSize);
+    }
+
+    /**
+     * Overwrites the record at the specified position in this list with
+     * the specified element.
+     *
+     * @param index index of the element to replace
+     * @param element element to be stored at the specified position
+     * @return the element previously at the specified position
+     * @throws IndexOutOfBoundsException {@inheritDoc}
+     * @throws IllegalStateException if this list has been closed
+     */
+    public E set(int index, E element) {
+        rangeCheck(index);
+        MappedByteBuffer seg = segments()[index >>> segmentShift];
+        int offset = (index & segmentMask) * recordSize;
+        E oldValue = codec.read(seg, offset);
+        codec.write(seg, offset, element);
+        return oldValue;
+    }
+
+    /**
+     * Appends the specified element to the end of this list, mapping a new
+     * segment when the last one is full.  The new record is not durable
+     * before the next {@link #force()}.
+     *
+     * @param e element to be appended to this list
+     * @return <tt>true</tt> (as specified by {@link Collection#add})
+     * @throws UncheckedIOException if the file cannot be extended
+     * @throws IllegalStateException if this list has been closed or is full
+     */
+    public boolean add(E e) {
+        MappedByteBuffer[] segs = segments();
+        int s = size;
+        if (s == Integer.MAX_VALUE)
+            throw new IllegalStateException("List is full");
+        int k = s >>> segmentShift;
+        if (k == segmentCount) {
+            try {
+                mapSegment();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            segs = segments;
+        }
+        modCount++;
+        codec.write(segs[k], (s & segmentMask) * recordSize, e);
+        size = s + 1;
+        return true;
+    }
+
+    /**
+     * Removes the records in {@code [fromIndex, toIndex)}, which must end
+     * at the end of this list: records are never shifted, so only the tail
+     * can be removed.  {@link #clear()} and
+     * {@code subList(from, size()).clear()} truncate the list this way.
+     * 只能删除末尾的记录(记录不会被移动)，clear() 和 subList(from, size()).clear() 通过它截断列表
+     *
+     * @throws UnsupportedOperationException if {@code toIndex != size()}
+     *         and the range is not empty
+     */
+    protected void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex == toIndex)
+            return;
+        if (toIndex != size)
+            throw new UnsupportedOperationException("Only the tail of a MappedRecordList can be removed");
+        modCount++;
+        size = fromIndex;
+    }
+
+    /**
+     * Makes the records and the size durable: forces every mapped segment
+     * to the storage device, then stores the size in the header and forces
+     * the header.  If the system crashes later, the file reopens with at
+     * least this content.
+     * 持久化：先把所有映射段刷到存储设备，再把大小写入头部并刷新头部
+     *
+     * @throws IllegalStateException if this list has been closed
+     */
+    public void force() {
+        MappedByteBuffer[] segs = segments();
+        for (int k = 0; k < segmentCount; k++)
+            segs[k].force();
+        header.putInt(SIZE_OFFSET, size);
+        header.force();
+    }
+
+    /**
+     * Forces the content to the file (see {@link #force()}) and closes it.
+     * Closing a closed list has no effect.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void close() throws IOException {
+        if (segments == null)
+            return;
+        try {
+            force();
+        } finally {
+            segments = null;
+            header = null;
+            channel.close();
+        }
+    }
+
+    private void rangeCheck(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException(outOfBoundsMsg(index));
+    }
+
+    private String outOfBoundsMsg(int index) {
+        return "Index: "+index+", Size: "+size;
+    }
+
+    @Override
+    public void forEach(Consumer<? super E> action) {
+        spliterator().forEachRemaining(action);
+    }
+
+    /**
+     * Creates a <em>late-binding</em> and <em>fail-fast</em>
+     * {@link Spliterator} over the elements in this list.  Splits are made
+     * on segment boundaries, so every half covers whole segments (only a
+     * range inside a single segment is split by halving).
+     * 按段的边界拆分的拆分器，每一份都覆盖完整的段
+     *
+     * <p>The {@code Spliterator} reports {@link Spliterator#SIZED},
+     * {@link Spliterator#SUBSIZED}, and {@link Spliterator#ORDERED}.
+     *
+     * @return a {@code Spliterator} over the elements in this list
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return new SegmentSpliterator<>(this, 0, -1, 0);
+    }
+
+    static final class SegmentSpliterator<E> implements Spliterator<E> {
+        private final MappedRecordList<E> list;
+        private int index; // current index, modified on advance/split
+        private int fence; // -1 until used; then one past last index
+        private int expectedModCount; // initialized when fence set
+
+        SegmentSpliterator(MappedRecordList<E> list, int origin, int fence,
+                           int expectedModCount) {
+            this.list = list;
+            this.index = origin;
+            this.fence = fence;
+            this.expectedModCount = expectedModCount;
+        }
+
+        private int getFence() { // initialize fence to size on first use
+            int hi;
+            if ((hi = fence) < 0) {
+                expectedModCount = list.modCount;
+                hi = fence = list.size;
+            }
+            return hi;
+        }
+
+        public SegmentSpliterator<E> trySplit() {
+            int hi = getFence(), lo = index;
+            int shift = list.segmentShift;
+            int mid;
+            if (lo < hi && (lo >>> shift) != ((hi - 1) >>> shift)) {
+                // spans more than one segment: cut at the segment boundary
+                // closest to the middle, but never at lo itself
+                long loSeg = (lo >>> shift) + 1, hiSeg = (hi - 1) >>> shift;
+                mid = (int) (((loSeg + hiSeg + 1) >>> 1) << shift);
+                if (mid <= lo || mid >= hi)
+                    mid = (int) (loSeg << shift);
+            } else {
+                mid = (lo + hi) >>> 1;
+            }
+            return (lo >= mid || mid >= hi) ? null :
+                    new SegmentSpliterator<>(list, lo, index = mid, expectedModCount);
+        }
+
+        public boolean tryAdvance(Consumer<? super E> action) {
+            if (action == null)
+                throw new NullPointerException();
+            int hi = getFence(), i = index;
+            if (i < hi) {
+                index = i + 1;
+                action.accept(list.get(i));
+                if (list.modCount != expectedModCount)
+                    throw new ConcurrentModificationException();
+                return true;
+            }
+            return false;
+        }
+
+        public void forEachRemaining(Consumer<? super E> action) {
+            if (action == null)
+                throw new NullPointerException();
+            int hi = getFence(), i = index;
+            index = hi;
+            final MappedRecordList<E> lst = list;
+            final MappedByteBuffer[] segs = lst.segments();
+            final RecordCodec<E> codec = lst.codec;
+            final int shift = lst.segmentShift, mask = lst.segmentMask, recordSize = lst.recordSize;
+            if (hi > lst.size)
+                throw new ConcurrentModificationException();
+            // walk one segment at a time, hoisting the segment lookup out of the inner loop
+            while (i < hi) {
+                MappedByteBuffer seg = segs[i >>> shift];
+                int from = i & mask;
+                int to = (int) Math.min(mask + 1L, from + (long) (hi - i));
+                for (int k = from; k < to; k++)
+                    action.accept(codec.read(seg, k * recordSize));
+                i += to - from;
+            }
+            if (lst.modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+        }
+
+        public long estimateSize() {
+            return (long) (getFence() - index);
+        }
+
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+    }
+}
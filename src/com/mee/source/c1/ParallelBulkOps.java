@@ -0,0 +1,315 @@
+package com.mee.source.c1;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Fork-join helpers behind the parallel bulk operations of
+ * {@link ArrayList}.  The array prefix {@code [0, size)} is split into
+ * fixed leaf chunks {@code [k * CHUNK, (k + 1) * CHUNK)}; since
+ * {@link #CHUNK} is a multiple of 64, every chunk owns whole words of the
+ * {@code long[]} match bitmap (its own per-chunk bitmap) and tasks never
+ * write to the same word.
+ * ArrayList 并行批量操作使用的 fork-join 工具类：把 [0, size) 拆成固定的 CHUNK 大小的块，
+ * CHUNK 是 64 的倍数，所以每个块独占位图(long[])中的若干个字，任务之间不会写同一个字
+ */
+final class ParallelBulkOps {
+
+    private ParallelBulkOps() {
+    }
+
+    /**
+     * Smallest list size for which the parallel bulk operations fork at all;
+     * below it they fall back to the sequential versions.
+     * 小于这个大小时并行版本直接退化为顺序版本
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    /**
+     * Number of elements handled by one leaf task (a multiple of 64).
+     */
+    static final int CHUNK = 1 << 12;
+
+    /**
+     * Returns whether a bulk operation over {@code size} elements should run
+     * in parallel.
+     */
+    static boolean worthParallel(int size) {
+        return size >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1;
+    }
+
+    /**
+     * Evaluates {@code filter} on {@code a[0, size)} in parallel and returns
+     * a bitmap with bit {@code i} set iff {@code filter.test(a[i])}.  Any
+     * exception thrown by the filter propagates before anything is modified.
+     * 并行地对每个元素执行 filter，返回匹配位图(第 i 位为 1 表示 a[i] 匹配)
+     */
+    static <E> long[] mark(Object[] a, int size, Predicate<? super E> filter) {
+        long[] bits = new long[(size + 63) >>> 6];
+        ForkJoinPool.commonPool().invoke(new MarkTask<E>(a, bits, filter, 0, size));
+        return bits;
+    }
+
+    /**
+     * Replaces every element of {@code a[0, size)} with the result of
+     * applying {@code operator} to it, in parallel.
+     * 并行地对每个元素执行 operator 并写回原位置
+     */
+    static <E> void replace(Object[] a, int size, UnaryOperator<E> operator) {
+        ForkJoinPool.commonPool().invoke(new ReplaceTask<E>(a, operator, 0, size));
+    }
+
+    /**
+     * Returns the {@link java.util.List#hashCode()} of {@code a[0, size)},
+     * computed in parallel.
+     * 并行计算 a[0, size) 的 List.hashCode()
+     */
+    static int hash(Object[] a, int size) {
+        // hash = 31^size * 1 + sum(a[i] * 31^(size-1-i))
+        return pow31(size) + ForkJoinPool.commonPool().invoke(new HashTask(a, 0, size));
+    }
+
+    /**
+     * Returns {@code 31^n}, modulo {@code 2^32} like the hash recurrence.
+     */
+    static int pow31(int n) {
+        int result = 1, base = 31;
+        for (; n > 0; n >>>= 1) {
+            if ((n & 1) != 0)
+                result *= base;
+            base *= base;
+        }
+        return result;
+    }
+
+    /**
+     * Returns whether {@code a[0, size)} and {@code b[0, size)} hold equal
+     * elements, comparing chunks in parallel.
+     * 并行比较 a[0, size) 和 b[0, size) 的元素是否相等
+     */
+    static boolean equal(Object[] a, Object[] b, int size) {
+        EqualTask root = new EqualTask(a, b, null, 0, size);
+        ForkJoinPool.commonPool().invoke(root);
+        return !root.mismatch;
+    }
+
+    /**
+     * Copies the elements of {@code src[0, size)} whose bit is clear, in
+     * order, to the front of {@code dest} and returns their number.
+     * {@code dest} must be a different array at least as long as the
+     * result; the slots after the result are not touched.
+     *
+     * <p>An exclusive prefix sum over the per-chunk survivor counts gives
+     * every chunk its first destination index, after which the chunks are
+     * copied independently.  Compacting in place is not possible in
+     * parallel, since a chunk would overwrite source slots that an earlier
+     * chunk may not have read yet.
+     * 笔记：先按块统计保留的元素个数并求前缀和，得到每个块在 dest 中的起始下标，然后各个块并行拷贝。
+     *      原地压缩没法并行：后面的块可能覆盖前面的块还没读取的元素，所以拷贝到一个新数组
+     */
+    static int compact(Object[] src, int size, long[] bits, Object[] dest) {
+        int chunks = (size + CHUNK - 1) / CHUNK;
+        int[] offsets = new int[chunks];
+        int kept = 0;
+        for (int k = 0; k < chunks; k++) {
+            offsets[k] = kept;
+            int from = k * CHUNK, to = Math.min(size, from + CHUNK);
+            int removed = 0;
+            for (int w = from >>> 6, end = (to + 63) >>> 6; w < end; w++)
+                removed += Long.bitCount(bits[w]);
+            kept += (to - from) - removed;
+        }
+        if (kept < size)
+            ForkJoinPool.commonPool().invoke(new CompactTask(src, dest, bits, offsets, 0, size));
+        return kept;
+    }
+
+    /**
+     * Returns the split point of {@code [lo, hi)}, which spans more than one
+     * chunk, on a chunk boundary.
+     */
+    static int split(int lo, int hi) {
+        int chunks = (hi - lo + CHUNK - 1) / CHUNK;
+        return lo + (chunks >>> 1) * CHUNK;
+    }
+
+    /**
+     * Sets the bits of the matching elements of {@code a[lo, hi)}.
+     */
+    static final class MarkTask<E> extends RecursiveAction {
+        private static final long serialVersionUID = -3419126730418290214L;
+
+        final Object[] a;
+        final long[] bits;
+        final Predicate<? super E> filter;
+        final int lo, hi;
+
+        MarkTask(Object[] a, long[] bits, Predicate<? super E> filter, int lo, int hi) {
+            this.a = a;
+            this.bits = bits;
+            this.filter = filter;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @SuppressWarnings("unchecked")
+        protected void compute() {
+            int lo = this.lo, hi = this.hi;
+            if (hi - lo > CHUNK) {
+                // split on a chunk boundary so that the halves never share a word
+                int mid = split(lo, hi);
+                invokeAll(new MarkTask<E>(a, bits, filter, lo, mid),
+                        new MarkTask<E>(a, bits, filter, mid, hi));
+                return;
+            }
+            final Object[] a = this.a;
+            final long[] bits = this.bits;
+            final Predicate<? super E> filter = this.filter;
+            for (int i = lo; i < hi; i++) {
+                if (filter.test((E) a[i]))
+                    bits[i >>> 6] |= 1L << i;
+            }
+        }
+    }
+
+    /**
+     * Applies the operator to the elements of {@code a[lo, hi)}.
+     */
+    static final class ReplaceTask<E> extends RecursiveAction {
+        private static final long serialVersionUID = 6248790528763183374L;
+
+        final Object[] a;
+        final UnaryOperator<E> operator;
+        final int lo, hi;
+
+        ReplaceTask(Object[] a, UnaryOperator<E> operator, int lo, int hi) {
+            this.a = a;
+            this.operator = operator;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @SuppressWarnings("unchecked")
+        protected void compute() {
+            int lo = this.lo, hi = this.hi;
+            if (hi - lo > CHUNK) {
+                int mid = split(lo, hi);
+                invokeAll(new ReplaceTask<E>(a, operator, lo, mid),
+                        new ReplaceTask<E>(a, operator, mid, hi));
+                return;
+            }
+            final Object[] a = this.a;
+            final UnaryOperator<E> operator = this.operator;
+            for (int i = lo; i < hi; i++)
+                a[i] = operator.apply((E) a[i]);
+        }
+    }
+
+    /**
+     * Copies the unmarked elements of the chunks in {@code src[lo, hi)} to
+     * {@code dest}, starting each chunk at its precomputed offset.
+     */
+    static final class CompactTask extends RecursiveAction {
+        private static final long serialVersionUID = -1859410713375625408L;
+
+        final Object[] src, dest;
+        final long[] bits;
+        final int[] offsets;
+        final int lo, hi;
+
+        CompactTask(Object[] src, Object[] dest, long[] bits, int[] offsets, int lo, int hi) {
+            this.src = src;
+            this.dest = dest;
+            this.bits = bits;
+            this.offsets = offsets;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        protected void compute() {
+            int lo = this.lo, hi = this.hi;
+            if (hi - lo > CHUNK) {
+                int mid = split(lo, hi);
+                invokeAll(new CompactTask(src, dest, bits, offsets, lo, mid),
+                        new CompactTask(src, dest, bits, offsets, mid, hi));
+                return;
+            }
+            final Object[] src = this.src, dest = this.dest;
+            final long[] bits = this.bits;
+            int w = offsets[lo / CHUNK];
+            for (int r = lo; r < hi; r++) {
+                if ((bits[r >>> 6] & (1L << r)) == 0)
+                    dest[w++] = src[r];
+            }
+        }
+    }
+
+    /**
+     * Returns the hash of {@code a[lo, hi)} as if the recurrence started
+     * from {@code 0}: {@code sum(a[i] * 31^(hi-1-i))}.
+     */
+    static final class HashTask extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 2870815378651226441L;
+
+        final Object[] a;
+        final int lo, hi;
+
+        HashTask(Object[] a, int lo, int hi) {
+            this.a = a;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        protected Integer compute() {
+            int lo = this.lo, hi = this.hi;
+            if (hi - lo > CHUNK) {
+                int mid = split(lo, hi);
+                HashTask right = new HashTask(a, mid, hi);
+                right.fork();
+                int left = new HashTask(a, lo, mid).compute();
+                // hash(left + right) = hash(left) * 31^|right| + hash(right)
+                return left * pow31(hi - mid) + right.join();
+            }
+            return ArrayList.hashRange(a, lo, hi, 0);
+        }
+    }
+
+    /**
+     * Compares {@code a[lo, hi)} with {@code b[lo, hi)}, setting the
+     * {@code mismatch} flag of the root task on the first difference so that
+     * the chunks not started yet are skipped.
+     */
+    static final class EqualTask extends RecursiveAction {
+        private static final long serialVersionUID = -7012447166470853361L;
+
+        final Object[] a, b;
+        final EqualTask root;
+        final int lo, hi;
+        volatile boolean mismatch; // only used on the root
+
+        EqualTask(Object[] a, Object[] b, EqualTask root, int lo, int hi) {
+            this.a = a;
+            this.b = b;
+            this.root = (root == null) ? this : root;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        protected void compute() {
+            int lo = this.lo, hi = this.hi;
+            if (root.mismatch)
+                return;
+            if (hi - lo > CHUNK) {
+                int mid = split(lo, hi);
+                invokeAll(new EqualTask(a, b, root, lo, mid),
+                        new EqualTask(a, b, root, mid, hi));
+                return;
+            }
+            if (!ArrayList.equalRange(a, b, lo, hi))
+                root.mismatch = true;
+        }
+    }
+}
@@ -0,0 +1,795 @@
+package com.mee.source.c1;
+
+import java.util.*;
+
+/**
+ * Immutable, persistent implementation of the <tt>List</tt> interface
+ * based on a relaxed radix-balanced (RRB) tree with a branching factor of
+ * 32.  Every "modifying" operation ({@link #append}, {@link #with},
+ * {@link #subList}, {@link #concat}) returns a new vector that shares all
+ * untouched nodes with the old one, so publishing a snapshot costs
+ * O(log<sub>32</sub> n) instead of the full copy of
+ * {@code new ArrayList<>(list)} or {@code clone()}.
+ * 不可变的持久化列表：基于 32 叉的 RRB 树(relaxed radix-balanced tree)，
+ * append/with/subList/concat 都返回一个新版本，新旧版本共享没有改动的节点，
+ * 发布一份快照只需要 O(log32 n)，而不是像 new ArrayList<>(list) 或 clone() 那样拷贝整个数组
+ *
+ * <p>Leaves are {@code Object[]} of up to 32 elements; an internal node
+ * holds up to 32 children.  A node built purely by appends is <i>strict</i>:
+ * all children but the last are full, and the child holding index
+ * {@code i} is simply {@code (i >>> shift) & 31}.  Slicing and
+ * concatenation produce <i>relaxed</i> nodes, which carry a table of
+ * cumulative child sizes and are searched starting from the radix guess.
+ * Concatenation rebalances the nodes along the seam so that a node has at
+ * most {@code 2} more children than the optimum, which keeps that search
+ * short and the tree shallow.
+ * 笔记：叶子是最多 32 个元素的 Object[]，内部节点最多 32 个子节点。
+ *      只通过 append 构建的节点是“严格”的(除最后一个子节点外都是满的)，直接用 (i >>> shift) & 31 定位；
+ *      subList/concat 会产生“宽松”节点，它带有子节点的累计大小表 sizes，从基数位置开始向后查找；
+ *      concat 时会重新平衡接缝处的节点，保证子节点个数不超过最优值 + 2
+ *
+ * <p>All {@code List} mutators ({@code add}, {@code set}, {@code remove},
+ * ...) throw {@link UnsupportedOperationException}.  For batched
+ * construction use a {@link Builder}, and use {@link #toArrayList()} to get
+ * back a mutable {@link ArrayList}.
+ * 所有 List 的修改方法都会抛出 UnsupportedOperationException，批量构建请使用 Builder
+ *
+ * @param <E> the type of elements in this list
+ * @see ArrayList
+ */
+public final class PersistentVector<E> extends AbstractList<E>
+        implements RandomAccess, java.io.Serializable
+{
+    private static final long serialVersionUID = 2981440539627113290L;
+
+    /** log2 of the branching factor. */
+    private static final int BITS = 5;
+
+    /** Branching factor: the maximum number of children or leaf elements of a node. */
+    private static final int WIDTH = 1 << BITS;
+
+    /**
+     * Number of children a rebalanced node may have beyond the optimum.
+     */
+    private static final int EXTRAS = 2;
+
+    private static final Object[] EMPTY_LEAF = {};
+
+    private static final PersistentVector<?> EMPTY = new PersistentVector<>(EMPTY_LEAF, 0, 0);
+
+    /**
+     * An internal node.  {@code sizes} is {@code null} for a strict node,
+     * otherwise {@code sizes[k]} is the number of elements in children
+     * {@code 0..k}.
+     */
+    static final class Node {
+        final Object[] children;
+        final int[] sizes;
+
+        Node(Object[] children, int[] sizes) {
+            this.children = children;
+            this.sizes = sizes;
+        }
+    }
+
+    /** The root: a leaf ({@code Object[]}) when {@code shift == 0}, otherwise a {@link Node}. */
+    private transient Object root;
+
+    /**
+     * Shift of the root: the children of a node at shift {@code s} hold up
+     * to {@code 1 << s} elements each.  Leaves are at shift 0.
+     */
+    private transient int shift;
+
+    private transient int size;
+
+    private PersistentVector(Object root, int shift, int size) {
+        this.root = root;
+        this.shift = shift;
+        this.size = size;
+    }
+
+    /**
+     * Returns the empty vector.
+     *
+     * @param <E> the type of elements
+     * @return the empty vector
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentVector<E> empty() {
+        return (PersistentVector<E>) EMPTY;
+    }
+
+    /**
+     * Returns a vector containing the given elements, in order.
+     *
+     * @param <E> the type of elements
+     * @param elements the elements of the vector
+     * @return a vector containing the given elements
+     */
+    @SafeVarargs
+    public static <E> PersistentVector<E> of(E... elements) {
+        Builder<E> builder = builder();
+        for (E e : elements)
+            builder.add(e);
+        return builder.build();
+    }
+
+    /**
+     * Returns a vector containing the elements of the specified collection,
+     * in the order they are returned by its iterator.  A
+     * {@code PersistentVector} is returned as is.
+     *
+     * @param <E> the type of elements
+     * @param c the collection whose elements are to be placed into the vector
+     * @return a vector containing the elements of {@code c}
+     * @throws NullPointerException if the specified collection is null
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentVector<E> copyOf(Collection<? extends E> c) {
+        if (c instanceof PersistentVector)
+            return (PersistentVector<E>) c;
+        return PersistentVector.<E>builder().addAll(c).build();
+    }
+
+    /**
+     * Returns a new, empty builder.
+     *
+     * @param <E> the type of elements
+     * @return a new builder
+     */
+    public static <E> Builder<E> builder() {
+        return new Builder<>(PersistentVector.<E>empty());
+    }
+
+    /**
+     * Returns a builder initialised with the elements of this vector.  The
+     * vector itself is not affected by the builder.
+     *
+     * @return a new builder starting from this vector
+     */
+    public Builder<E> toBuilder() {
+        return new Builder<>(this);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        rangeCheck(index);
+        Object node = root;
+        for (int s = shift; s > 0; s -= BITS) {
+            Node n = (Node) node;
+            int slot = slot(n, s, index);
+            index -= offset(n, s, slot);
+            node = n.children[slot];
+        }
+        return (E) ((Object[]) node)[index];
+    }
+
+    /**
+     * Returns a vector with the specified element appended.
+     * 返回在末尾追加 e 之后的新版本
+     *
+     * @param e element to be appended
+     * @return the new vector
+     */
+    public PersistentVector<E> append(E e) {
+        if (size == 0)
+            return new PersistentVector<>(new Object[] {e}, 0, 1);
+        if (lastLeaf().length < WIDTH)
+            return new PersistentVector<>(appendToLastLeaf(root, shift, e), shift, size + 1);
+        return appendLeaf(new Object[] {e});
+    }
+
+    /**
+     * Returns a vector in which the element at the specified position is
+     * replaced with the specified element; this is the persistent
+     * counterpart of {@link #set}.  Only the path from the root to the leaf
+     * is copied.
+     * 返回把 index 位置的元素替换为 e 之后的新版本(只拷贝从根到叶子的一条路径)
+     *
+     * @param index index of the element to replace
+     * @param e element to be stored at the specified position
+     * @return the new vector
+     * @throws IndexOutOfBoundsException if the index is out of range
+     *         ({@code index < 0 || index >= size()})
+     */
+    public PersistentVector<E> with(int index, E e) {
+        rangeCheck(index);
+        return new PersistentVector<>(setIn(root, shift, index, e), shift, size);
+    }
+
+    /**
+     * Returns the vector holding the elements of this vector between
+     * {@code fromIndex}, inclusive, and {@code toIndex}, exclusive.  As the
+     * vector is immutable, the result is an independent vector rather than
+     * a view; it is produced by slicing the two edges of the tree and
+     * shares every other node.
+     * 返回 [fromIndex, toIndex) 的新版本：只切分树的左右两条边，其他节点共享
+     *
+     * @throws IndexOutOfBoundsException {@inheritDoc}
+     * @throws IllegalArgumentException {@inheritDoc}
+     */
+    public PersistentVector<E> subList(int fromIndex, int toIndex) {
+        ArrayList.subListRangeCheck(fromIndex, toIndex, size);
+        if (fromIndex == toIndex)
+            return empty();
+        if (fromIndex == 0 && toIndex == size)
+            return this;
+        Object r = root;
+        if (toIndex < size)
+            r = sliceRight(r, shift, toIndex);
+        if (fromIndex > 0)
+            r = sliceLeft(r, shift, fromIndex);
+        // 切分后根节点可能只剩一个子节点，降低树的高度
+        int s = shift;
+        while (s > 0 && ((Node) r).children.length == 1) {
+            r = ((Node) r).children[0];
+            s -= BITS;
+        }
+        return new PersistentVector<>(r, s, toIndex - fromIndex);
+    }
+
+    /**
+     * Returns the concatenation of this vector and {@code other}.  The two
+     * trees are joined along the seam between the right edge of this one
+     * and the left edge of the other; only the nodes on that seam are
+     * rebuilt (and rebalanced), everything else is shared.
+     * 返回两个向量拼接后的新版本：只重建(并重新平衡)两棵树接缝处的节点
+     *
+     * @param other the vector to append
+     * @return the concatenation
+     * @throws NullPointerException if {@code other} is null
+     */
+    @SuppressWarnings("unchecked")
+    public PersistentVector<E> concat(PersistentVector<? extends E> other) {
+        if (other.size == 0)
+            return this;
+        if (size == 0)
+            return (PersistentVector<E>) other;
+        Node merged = concat(root, shift, other.root, other.shift);
+        int s = Math.max(shift, other.shift) + BITS;
+        if (merged.children.length == 1)
+            return new PersistentVector<>(merged.children[0], s - BITS, size + other.size);
+        return new PersistentVector<>(merged, s, size + other.size);
+    }
+
+    /**
+     * Returns a new {@link ArrayList} containing the elements of this vector.
+     *
+     * @return a mutable copy of this vector
+     */
+    public ArrayList<E> toArrayList() {
+        return new ArrayList<>(this);
+    }
+
+    public Object[] toArray() {
+        Object[] a = new Object[size];
+        copyTo(root, shift, a, 0);
+        return a;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T[] toArray(T[] a) {
+        if (a.length < size)
+            a = (T[]) java.lang.reflect.Array.newInstance(a.getClass().getComponentType(), size);
+        copyTo(root, shift, a, 0);
+        if (a.length > size)
+            a[size] = null;
+        return a;
+    }
+
+    public Iterator<E> iterator() {
+        return new Itr();
+    }
+
+    /**
+     * Iterator walking the leaves, so that {@code next} is O(1) except when
+     * it crosses into the next leaf.
+     * 按叶子遍历的迭代器，只有进入下一个叶子时才需要从根节点向下查找
+     */
+    private final class Itr implements Iterator<E> {
+        int cursor;
+        Object[] leaf = EMPTY_LEAF;
+        int leafStart;
+
+        public boolean hasNext() {
+            return cursor < size;
+        }
+
+        @SuppressWarnings("unchecked")
+        public E next() {
+            int i = cursor;
+            if (i >= size)
+                throw new NoSuchElementException();
+            if (i - leafStart >= leaf.length) {
+                int index = i;
+                Object node = root;
+                for (int s = shift; s > 0; s -= BITS) {
+                    Node n = (Node) node;
+                    int slot = slot(n, s, index);
+                    index -= offset(n, s, slot);
+                    node = n.children[slot];
+                }
+                leaf = (Object[]) node;
+                leafStart = i - index;
+            }
+            cursor = i + 1;
+            return (E) leaf[i - leafStart];
+        }
+    }
+
+    /**
+     * Builder (transient mode) for batched construction.  Appended elements
+     * are collected in a mutable tail leaf that is pushed into the tree
+     * once it is full, so the path copying of {@code append} happens once
+     * per 32 elements instead of once per element.  {@link #build()} may be
+     * called any number of times; the builder can keep being used after it.
+     * 构建器(批量修改模式)：追加的元素先放进一个可变的尾部叶子，满了才放进树中，
+     * 路径拷贝每 32 个元素才发生一次。build() 之后构建器可以继续使用
+     *
+     * <p><strong>Note that a builder is not synchronized.</strong>
+     *
+     * @param <E> the type of elements
+     */
+    public static final class Builder<E> {
+        /** The elements before the tail. */
+        private PersistentVector<E> tree;
+        private Object[] tail;
+        private int tailSize;
+
+        Builder(PersistentVector<E> v) {
+            // 最后一个不满的叶子作为尾部，之后只会往树中追加满的叶子，严格的树保持严格
+            Object[] last = v.lastLeaf();
+            if (last.length == 0 || last.length == WIDTH) {
+                tree = v;
+                tail = new Object[WIDTH];
+            } else {
+                tree = v.subList(0, v.size - last.length);
+                tail = Arrays.copyOf(last, WIDTH);
+                tailSize = last.length;
+            }
+        }
+
+        /**
+         * Appends the specified element.
+         *
+         * @param e element to be appended
+         * @return this builder
+         */
+        public Builder<E> add(E e) {
+            if (tailSize == WIDTH) {
+                tree = tree.appendLeaf(tail);
+                tail = new Object[WIDTH];
+                tailSize = 0;
+            }
+            tail[tailSize++] = e;
+            return this;
+        }
+
+        /**
+         * Appends all of the elements of the specified iterable.
+         *
+         * @param elements elements to be appended
+         * @return this builder
+         * @throws NullPointerException if {@code elements} is null
+         */
+        public Builder<E> addAll(Iterable<? extends E> elements) {
+            for (E e : elements)
+                add(e);
+            return this;
+        }
+
+        /**
+         * Replaces the element at the specified position.
+         *
+         * @param index index of the element to replace
+         * @param e element to be stored at the specified position
+         * @return this builder
+         * @throws IndexOutOfBoundsException if the index is out of range
+         */
+        public Builder<E> set(int index, E e) {
+            int treeSize = tree.size;
+            if (index >= treeSize && index < treeSize + tailSize)
+                tail[index - treeSize] = e;
+            else
+                tree = tree.with(index, e);
+            return this;
+        }
+
+        /**
+         * Returns the element at the specified position.
+         *
+         * @param index index of the element to return
+         * @return the element at the specified position
+         * @throws IndexOutOfBoundsException if the index is out of range
+         */
+        @SuppressWarnings("unchecked")
+        public E get(int index) {
+            int treeSize = tree.size;
+            if (index >= treeSize && index < treeSize + tailSize)
+                return (E) tail[index - treeSize];
+            return tree.get(index);
+        }
+
+        /**
+         * Returns the number of elements added so far.
+         *
+         * @return the number of elements
+         */
+        public int size() {
+            return tree.size + tailSize;
+        }
+
+        /**
+         * Returns a vector holding the current elements of this builder.
+         *
+         * @return the vector
+         */
+        public PersistentVector<E> build() {
+            if (tailSize == 0)
+                return tree;
+            return tree.appendLeaf(Arrays.copyOf(tail, tailSize));
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // tree internals
+
+    /**
+     * Returns the slot of the child holding local index {@code index} in a
+     * node at shift {@code s}.  A child holds at most {@code 1 << s}
+     * elements, so the radix guess is never past the right slot.
+     */
+    private static int slot(Node n, int s, int index) {
+        int slot = index >>> s;
+        int[] sizes = n.sizes;
+        if (sizes != null) {
+            while (sizes[slot] <= index)
+                slot++;
+        }
+        return slot;
+    }
+
+    /**
+     * Returns the number of elements before child {@code slot}.
+     */
+    private static int offset(Node n, int s, int slot) {
+        if (slot == 0)
+            return 0;
+        return (n.sizes == null) ? slot << s : n.sizes[slot - 1];
+    }
+
+    /**
+     * Returns the number of elements under {@code node}, which is at shift
+     * {@code s}.
+     */
+    private static int treeSize(Object node, int s) {
+        if (s == 0)
+            return ((Object[]) node).length;
+        Node n = (Node) node;
+        int last = n.children.length - 1;
+        if (n.sizes != null)
+            return n.sizes[last];
+        return (last << s) + treeSize(n.children[last], s - BITS);
+    }
+
+    /**
+     * Returns the children of a node at shift {@code s}, or the elements if
+     * it is a leaf.
+     */
+    private static Object[] slots(Object node, int s) {
+        return (s == 0) ? (Object[]) node : ((Node) node).children;
+    }
+
+    /**
+     * Creates a node at shift {@code s}, computing the size table unless
+     * the node turns out to be strict.
+     */
+    private static Node node(Object[] children, int s) {
+        int n = children.length;
+        int[] sizes = new int[n];
+        int total = 0;
+        boolean strict = true;
+        for (int k = 0; k < n; k++) {
+            int childSize = treeSize(children[k], s - BITS);
+            total += childSize;
+            sizes[k] = total;
+            if (k < n - 1 && childSize != 1 << s)
+                strict = false;
+        }
+        return new Node(children, strict ? null : sizes);
+    }
+
+    private Object[] lastLeaf() {
+        Object node = root;
+        for (int s = shift; s > 0; s -= BITS) {
+            Object[] children = ((Node) node).children;
+            node = children[children.length - 1];
+        }
+        return (Object[]) node;
+    }
+
+    private static Object appendToLastLeaf(Object node, int s, Object e) {
+        if (s == 0) {
+            Object[] leaf = (Object[]) node;
+            Object[] copy = Arrays.copyOf(leaf, leaf.length + 1);
+            copy[leaf.length] = e;
+            return copy;
+        }
+        Node n = (Node) node;
+        Object[] children = n.children.clone();
+        int last = children.length - 1;
+        children[last] = appendToLastLeaf(children[last], s - BITS, e);
+        return new Node(children, grownSizes(n.sizes, 1));
+    }
+
+    private static int[] grownSizes(int[] sizes, int delta) {
+        if (sizes == null)
+            return null;
+        int[] copy = sizes.clone();
+        copy[copy.length - 1] += delta;
+        return copy;
+    }
+
+    /**
+     * Returns a vector with {@code leaf} appended as a new rightmost leaf.
+     */
+    private PersistentVector<E> appendLeaf(Object[] leaf) {
+        int newSize = size + leaf.length;
+        if (size == 0)
+            return new PersistentVector<>(leaf, 0, newSize);
+        if (shift > 0) {
+            Node n = pushLeaf((Node) root, shift, leaf);
+            if (n != null)
+                return new PersistentVector<>(n, shift, newSize);
+        }
+        // 根节点已满，树长高一层
+        int s = shift + BITS;
+        return new PersistentVector<>(node(new Object[] {root, newPath(shift, leaf)}, s), s, newSize);
+    }
+
+    /**
+     * Appends {@code leaf} under the node {@code n} at shift {@code s}, or
+     * returns {@code null} if the subtree has no free slot on its right edge.
+     */
+    private static Node pushLeaf(Node n, int s, Object[] leaf) {
+        Object[] children = n.children;
+        int last = children.length - 1;
+        if (s > BITS) {
+            Node sub = pushLeaf((Node) children[last], s - BITS, leaf);
+            if (sub != null) {
+                Object[] copy = children.clone();
+                copy[last] = sub;
+                return new Node(copy, grownSizes(n.sizes, leaf.length));
+            }
+        }
+        if (children.length == WIDTH)
+            return null;
+        Object[] copy = Arrays.copyOf(children, children.length + 1);
+        copy[children.length] = newPath(s - BITS, leaf);
+        return node(copy, s);
+    }
+
+    /**
+     * Returns a chain of single-child nodes from shift {@code s} down to
+     * {@code leaf}.
+     */
+    private static Object newPath(int s, Object[] leaf) {
+        Object node = leaf;
+        for (int level = BITS; level <= s; level += BITS)
+            node = new Node(new Object[] {node}, null);
+        return node;
+    }
+
+    private static Object setIn(Object node, int s, int index, Object e) {
+        if (s == 0) {
+            Object[] copy = ((Object[]) node).clone();
+            copy[index] = e;
+            return copy;
+        }
+        Node n = (Node) node;
+        int slot = slot(n, s, index);
+        Object[] children = n.children.clone();
+        children[slot] = setIn(children[slot], s - BITS, index - offset(n, s, slot), e);
+        return new Node(children, n.sizes);
+    }
+
+    /**
+     * Keeps the first {@code end} elements (0 &lt; end &lt; size) of the
+     * subtree.
+     */
+    private static Object sliceRight(Object node, int s, int end) {
+        if (s == 0)
+            return Arrays.copyOf((Object[]) node, end);
+        Node n = (Node) node;
+        int slot = slot(n, s, end - 1);
+        Object[] children = Arrays.copyOf(n.children, slot + 1);
+        children[slot] = sliceRight(children[slot], s - BITS, end - offset(n, s, slot));
+        return node(children, s);
+    }
+
+    /**
+     * Drops the first {@code from} elements (0 &lt; from &lt; size) of the
+     * subtree.
+     */
+    private static Object sliceLeft(Object node, int s, int from) {
+        if (s == 0) {
+            Object[] leaf = (Object[]) node;
+            return Arrays.copyOfRange(leaf, from, leaf.length);
+        }
+        Node n = (Node) node;
+        int slot = slot(n, s, from);
+        Object[] children = Arrays.copyOfRange(n.children, slot, n.children.length);
+        children[0] = sliceLeft(children[0], s - BITS, from - offset(n, s, slot));
+        return node(children, s);
+    }
+
+    /**
+     * Concatenates the subtrees {@code left} (at shift {@code ls}) and
+     * {@code right} (at shift {@code rs}).  Returns a node at shift
+     * {@code max(ls, rs) + BITS} with one or two children.
+     */
+    private static Node concat(Object left, int ls, Object right, int rs) {
+        if (ls > rs) {
+            Node l = (Node) left;
+            Node mid = concat(l.children[l.children.length - 1], ls - BITS, right, rs);
+            return rebalance(l, mid, null, ls);
+        }
+        if (ls < rs) {
+            Node r = (Node) right;
+            Node mid = concat(left, ls, r.children[0], rs - BITS);
+            return rebalance(null, mid, r, rs);
+        }
+        if (ls == 0) {
+            // 两个叶子：能放下就合并为一个叶子，否则左边填满 32 个，剩下的放到右边
+            Object[] l = (Object[]) left, r = (Object[]) right;
+            int total = l.length + r.length;
+            if (l.length == WIDTH)
+                return new Node(new Object[] {l, r}, null);
+            Object[] merged = Arrays.copyOf(l, Math.min(total, WIDTH));
+            int moved = merged.length - l.length;
+            System.arraycopy(r, 0, merged, l.length, moved);
+            if (moved == r.length)
+                return new Node(new Object[] {merged}, null);
+            return new Node(new Object[] {merged, Arrays.copyOfRange(r, moved, r.length)}, null);
+        }
+        Node l = (Node) left, r = (Node) right;
+        Node mid = concat(l.children[l.children.length - 1], ls - BITS, r.children[0], rs - BITS);
+        return rebalance(l, mid, r, ls);
+    }
+
+    /**
+     * Merges all children of {@code left} but its last, the children of
+     * {@code mid} and all children of {@code right} but its first (all at
+     * shift {@code s - BITS}), redistributes their slots so that there are
+     * at most {@link #EXTRAS} more children than the optimum, and returns a
+     * node at shift {@code s + BITS} holding one or two nodes at shift
+     * {@code s}.
+     * 笔记：合并接缝处的子节点，按“最优个数 + EXTRAS”的规则重新分配它们的槽位：
+     *      从左往右找到一个不够满的节点，把它的内容依次挤进后面的节点，直到节点个数满足要求，
+     *      没有变化的子节点原样复用
+     */
+    private static Node rebalance(Node left, Node mid, Node right, int s) {
+        int childShift = s - BITS;
+        int nl = (left == null) ? 0 : left.children.length - 1;
+        int nm = mid.children.length;
+        int nr = (right == null) ? 0 : right.children.length - 1;
+        Object[] all = new Object[nl + nm + nr];
+        if (nl > 0)
+            System.arraycopy(left.children, 0, all, 0, nl);
+        System.arraycopy(mid.children, 0, all, nl, nm);
+        if (nr > 0)
+            System.arraycopy(right.children, 1, all, nl + nm, nr);
+
+        // concat plan
+        int n = all.length;
+        int[] counts = new int[n];
+        int total = 0;
+        for (int k = 0; k < n; k++)
+            total += counts[k] = slots(all[k], childShift).length;
+        int optimal = (total - 1) / WIDTH + 1;
+        int len = n, i = 0;
+        while (len > optimal + EXTRAS) {
+            while (counts[i] > WIDTH - EXTRAS / 2)
+                i++;
+            int remaining = counts[i];
+            do {
+                int min = Math.min(remaining + counts[i + 1], WIDTH);
+                counts[i] = min;
+                remaining = remaining + counts[i + 1] - min;
+                i++;
+            } while (remaining > 0);
+            for (int j = i; j < len - 1; j++)
+                counts[j] = counts[j + 1];
+            len--;
+            i--;
+        }
+
+        // execute the plan
+        Object[] children = all;
+        if (len < n) {
+            children = new Object[len];
+            int src = 0, srcOff = 0;
+            for (int k = 0; k < len; k++) {
+                int want = counts[k];
+                if (srcOff == 0 && slots(all[src], childShift).length == want) {
+                    children[k] = all[src++];
+                    continue;
+                }
+                Object[] items = new Object[want];
+                int filled = 0;
+                while (filled < want) {
+                    Object[] from = slots(all[src], childShift);
+                    int take = Math.min(want - filled, from.length - srcOff);
+                    System.arraycopy(from, srcOff, items, filled, take);
+                    filled += take;
+                    srcOff += take;
+                    if (srcOff == from.length) {
+                        src++;
+                        srcOff = 0;
+                    }
+                }
+                children[k] = (childShift == 0) ? items : node(items, childShift);
+            }
+        }
+
+        if (len <= WIDTH)
+            return new Node(new Object[] {node(children, s)}, null);
+        Node l = node(Arrays.copyOf(children, WIDTH), s);
+        Node r = node(Arrays.copyOfRange(children, WIDTH, len), s);
+        return node(new Object[] {l, r}, s + BITS);
+    }
+
+    private static int copyTo(Object node, int s, Object[] dest, int off) {
+        if (s == 0) {
+            Object[] leaf = (Object[]) node;
+            System.arraycopy(leaf, 0, dest, off, leaf.length);
+            return off + leaf.length;
+        }
+        for (Object child : ((Node) node).children)
+            off = copyTo(child, s - BITS, dest, off);
+        return off;
+    }
+
+    private void rangeCheck(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException(outOfBoundsMsg(index));
+    }
+
+    private String outOfBoundsMsg(int index) {
+        return "Index: "+index+", Size: "+size;
+    }
+
+    /**
+     * Save the state of the <tt>PersistentVector</tt> instance to a stream:
+     * the size followed by the elements in order.
+     */
+    private void writeObject(java.io.ObjectOutputStream s) throws java.io.IOException {
+        s.defaultWriteObject();
+        s.writeInt(size);
+        for (E e : this)
+            s.writeObject(e);
+    }
+
+    /**
+     * Reconstitute the <tt>PersistentVector</tt> instance from a stream.
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(java.io.ObjectInputStream s) throws java.io.IOException, ClassNotFoundException {
+        s.defaultReadObject();
+        int size = s.readInt();
+        if (size < 0)
+            throw new java.io.InvalidObjectException("Illegal size: " + size);
+        Builder<E> builder = builder();
+        for (int i = 0; i < size; i++)
+            builder.add((E) s.readObject());
+        PersistentVector<E> v = builder.build();
+        this.root = v.root;
+        this.shift = v.shift;
+        this.size = v.size;
+    }
+}
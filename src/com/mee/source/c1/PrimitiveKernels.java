@@ -0,0 +1,445 @@
+package com.mee.source.c1;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Scan and reduction kernels over a range {@code [from, to)} of a primitive
+ * array, shared by {@link IntArrayList}, {@link LongArrayList} and
+ * {@link DoubleArrayList}.  The loops are unrolled by 8 for searches and by
+ * 4 with independent accumulators for reductions, which removes most of the
+ * per-element branches and the loop-carried dependency of a plain
+ * {@code for} loop; a scalar loop handles the remainder.
+ * 基本类型数组区间 [from, to) 上的查找与归约内核，供 IntArrayList/LongArrayList/DoubleArrayList 使用：
+ * 查找按 8 个元素展开，每块只做一次分支判断；归约按 4 路展开并使用互相独立的累加器，去掉了循环携带的依赖，
+ * 剩余的元素由普通的标量循环处理
+ * 笔记：这里没有使用 jdk.incubator.vector(需要 JDK 16+)，源码要保持 Java 8 可编译；
+ *      展开后的循环同样是向量 API 版本在模块不可用时的标量回退实现
+ */
+final class PrimitiveKernels {
+
+    private PrimitiveKernels() {
+    }
+
+    // ------------------------------------------------------------------
+    // int
+
+    /**
+     * Returns the index of the first element of {@code a[from, to)} equal
+     * to {@code v}, or -1.
+     */
+    static int indexOf(int[] a, int from, int to, int v) {
+        int i = from;
+        // 每 8 个元素只判断一次，命中后再在块内逐个查找
+        for (; i < to - 7; i += 8) {
+            if ((a[i] == v) |
+                    (a[i + 1] == v) |
+                    (a[i + 2] == v) |
+                    (a[i + 3] == v) |
+                    (a[i + 4] == v) |
+                    (a[i + 5] == v) |
+                    (a[i + 6] == v) |
+                    (a[i + 7] == v))
+                break;
+        }
+        for (; i < to; i++)
+            if (a[i] == v)
+                return i;
+        return -1;
+    }
+
+    /**
+     * Returns the index of the last element of {@code a[from, to)} equal
+     * to {@code v}, or -1.
+     */
+    static int lastIndexOf(int[] a, int from, int to, int v) {
+        int i = to - 1;
+        for (; i >= from + 7; i -= 8) {
+            if ((a[i] == v) |
+                    (a[i - 1] == v) |
+                    (a[i - 2] == v) |
+                    (a[i - 3] == v) |
+                    (a[i - 4] == v) |
+                    (a[i - 5] == v) |
+                    (a[i - 6] == v) |
+                    (a[i - 7] == v))
+                break;
+        }
+        for (; i >= from; i--)
+            if (a[i] == v)
+                return i;
+        return -1;
+    }
+
+    /**
+     * Returns the sum of {@code a[from, to)} as a {@code long}.
+     */
+    static long sum(int[] a, int from, int to) {
+        long s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = from;
+        for (; i < to - 3; i += 4) {
+            s0 += a[i];
+            s1 += a[i + 1];
+            s2 += a[i + 2];
+            s3 += a[i + 3];
+        }
+        for (; i < to; i++)
+            s0 += a[i];
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * Returns the smallest element of the non-empty range {@code a[from, to)}.
+     */
+    static int min(int[] a, int from, int to) {
+        if (from >= to)
+            throw new NoSuchElementException();
+        int m0 = a[from], m1 = m0, m2 = m0, m3 = m0;
+        int i = from + 1;
+        for (; i < to - 3; i += 4) {
+            m0 = Math.min(m0, a[i]);
+            m1 = Math.min(m1, a[i + 1]);
+            m2 = Math.min(m2, a[i + 2]);
+            m3 = Math.min(m3, a[i + 3]);
+        }
+        for (; i < to; i++)
+            m0 = Math.min(m0, a[i]);
+        return Math.min(Math.min(m0, m1), Math.min(m2, m3));
+    }
+
+    /**
+     * Returns the largest element of the non-empty range {@code a[from, to)}.
+     */
+    static int max(int[] a, int from, int to) {
+        if (from >= to)
+            throw new NoSuchElementException();
+        int m0 = a[from], m1 = m0, m2 = m0, m3 = m0;
+        int i = from + 1;
+        for (; i < to - 3; i += 4) {
+            m0 = Math.max(m0, a[i]);
+            m1 = Math.max(m1, a[i + 1]);
+            m2 = Math.max(m2, a[i + 2]);
+            m3 = Math.max(m3, a[i + 3]);
+        }
+        for (; i < to; i++)
+            m0 = Math.max(m0, a[i]);
+        return Math.max(Math.max(m0, m1), Math.max(m2, m3));
+    }
+
+    /**
+     * Returns the number of elements {@code x} of {@code a[from, to)} with
+     * {@code lo <= x <= hi}.
+     */
+    static int countBetween(int[] a, int from, int to, int lo, int hi) {
+        int c0 = 0, c1 = 0, c2 = 0, c3 = 0;
+        int i = from;
+        // 用条件表达式代替 if，方便 JIT 生成无分支的代码
+        for (; i < to - 3; i += 4) {
+            c0 += (a[i] >= lo & a[i] <= hi) ? 1 : 0;
+            c1 += (a[i + 1] >= lo & a[i + 1] <= hi) ? 1 : 0;
+            c2 += (a[i + 2] >= lo & a[i + 2] <= hi) ? 1 : 0;
+            c3 += (a[i + 3] >= lo & a[i + 3] <= hi) ? 1 : 0;
+        }
+        for (; i < to; i++)
+            c0 += (a[i] >= lo & a[i] <= hi) ? 1 : 0;
+        return (c0 + c1) + (c2 + c3);
+    }
+
+    /**
+     * Copies the elements {@code x} of {@code a[from, to)} with
+     * {@code lo <= x <= hi}, in order, to the front of {@code dest}
+     * (at least {@code to - from} long) and returns their number.
+     */
+    static int filterBetween(int[] a, int from, int to, int lo, int hi, int[] dest) {
+        int n = 0;
+        // 无条件写入，只根据是否命中推进写指针，避免难以预测的分支
+        for (int i = from; i < to; i++) {
+            int x = a[i];
+            dest[n] = x;
+            n += (x >= lo & x <= hi) ? 1 : 0;
+        }
+        return n;
+    }
+
+    // ------------------------------------------------------------------
+    // long
+
+    /**
+     * Returns the index of the first element of {@code a[from, to)} equal
+     * to {@code v}, or -1.
+     */
+    static int indexOf(long[] a, int from, int to, long v) {
+        int i = from;
+        // 每 8 个元素只判断一次，命中后再在块内逐个查找
+        for (; i < to - 7; i += 8) {
+            if ((a[i] == v) |
+                    (a[i + 1] == v) |
+                    (a[i + 2] == v) |
+                    (a[i + 3] == v) |
+                    (a[i + 4] == v) |
+                    (a[i + 5] == v) |
+                    (a[i + 6] == v) |
+                    (a[i + 7] == v))
+                break;
+        }
+        for (; i < to; i++)
+            if (a[i] == v)
+                return i;
+        return -1;
+    }
+
+    /**
+     * Returns the index of the last element of {@code a[from, to)} equal
+     * to {@code v}, or -1.
+     */
+    static int lastIndexOf(long[] a, int from, int to, long v) {
+        int i = to - 1;
+        for (; i >= from + 7; i -= 8) {
+            if ((a[i] == v) |
+                    (a[i - 1] == v) |
+                    (a[i - 2] == v) |
+                    (a[i - 3] == v) |
+                    (a[i - 4] == v) |
+                    (a[i - 5] == v) |
+                    (a[i - 6] == v) |
+                    (a[i - 7] == v))
+                break;
+        }
+        for (; i >= from; i--)
+            if (a[i] == v)
+                return i;
+        return -1;
+    }
+
+    /**
+     * Returns the sum of {@code a[from, to)}, wrapping on overflow.
+     */
+    static long sum(long[] a, int from, int to) {
+        long s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = from;
+        for (; i < to - 3; i += 4) {
+            s0 += a[i];
+            s1 += a[i + 1];
+            s2 += a[i + 2];
+            s3 += a[i + 3];
+        }
+        for (; i < to; i++)
+            s0 += a[i];
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * Returns the smallest element of the non-empty range {@code a[from, to)}.
+     */
+    static long min(long[] a, int from, int to) {
+        if (from >= to)
+            throw new NoSuchElementException();
+        long m0 = a[from], m1 = m0, m2 = m0, m3 = m0;
+        int i = from + 1;
+        for (; i < to - 3; i += 4) {
+            m0 = Math.min(m0, a[i]);
+            m1 = Math.min(m1, a[i + 1]);
+            m2 = Math.min(m2, a[i + 2]);
+            m3 = Math.min(m3, a[i + 3]);
+        }
+        for (; i < to; i++)
+            m0 = Math.min(m0, a[i]);
+        return Math.min(Math.min(m0, m1), Math.min(m2, m3));
+    }
+
+    /**
+     * Returns the largest element of the non-empty range {@code a[from, to)}.
+     */
+    static long max(long[] a, int from, int to) {
+        if (from >= to)
+            throw new NoSuchElementException();
+        long m0 = a[from], m1 = m0, m2 = m0, m3 = m0;
+        int i = from + 1;
+        for (; i < to - 3; i += 4) {
+            m0 = Math.max(m0, a[i]);
+            m1 = Math.max(m1, a[i + 1]);
+            m2 = Math.max(m2, a[i + 2]);
+            m3 = Math.max(m3, a[i + 3]);
+        }
+        for (; i < to; i++)
+            m0 = Math.max(m0, a[i]);
+        return Math.max(Math.max(m0, m1), Math.max(m2, m3));
+    }
+
+    /**
+     * Returns the number of elements {@code x} of {@code a[from, to)} with
+     * {@code lo <= x <= hi}.
+     */
+    static int countBetween(long[] a, int from, int to, long lo, long hi) {
+        int c0 = 0, c1 = 0, c2 = 0, c3 = 0;
+        int i = from;
+        // 用条件表达式代替 if，方便 JIT 生成无分支的代码
+        for (; i < to - 3; i += 4) {
+            c0 += (a[i] >= lo & a[i] <= hi) ? 1 : 0;
+            c1 += (a[i + 1] >= lo & a[i + 1] <= hi) ? 1 : 0;
+            c2 += (a[i + 2] >= lo & a[i + 2] <= hi) ? 1 : 0;
+            c3 += (a[i + 3] >= lo & a[i + 3] <= hi) ? 1 : 0;
+        }
+        for (; i < to; i++)
+            c0 += (a[i] >= lo & a[i] <= hi) ? 1 : 0;
+        return (c0 + c1) + (c2 + c3);
+    }
+
+    /**
+     * Copies the elements {@code x} of {@code a[from, to)} with
+     * {@code lo <= x <= hi}, in order, to the front of {@code dest}
+     * (at least {@code to - from} long) and returns their number.
+     */
+    static int filterBetween(long[] a, int from, int to, long lo, long hi, long[] dest) {
+        int n = 0;
+        // 无条件写入，只根据是否命中推进写指针，避免难以预测的分支
+        for (int i = from; i < to; i++) {
+            long x = a[i];
+            dest[n] = x;
+            n += (x >= lo & x <= hi) ? 1 : 0;
+        }
+        return n;
+    }
+
+    // ------------------------------------------------------------------
+    // double
+
+    /**
+     * Returns the index of the first element of {@code a[from, to)} equal
+     * to {@code v} as compared by {@link Double#doubleToLongBits}, or -1.
+     */
+    static int indexOf(double[] a, int from, int to, double v) {
+        final long bits = Double.doubleToLongBits(v);
+        int i = from;
+        for (; i < to - 7; i += 8) {
+            if ((Double.doubleToLongBits(a[i]) == bits) |
+                    (Double.doubleToLongBits(a[i + 1]) == bits) |
+                    (Double.doubleToLongBits(a[i + 2]) == bits) |
+                    (Double.doubleToLongBits(a[i + 3]) == bits) |
+                    (Double.doubleToLongBits(a[i + 4]) == bits) |
+                    (Double.doubleToLongBits(a[i + 5]) == bits) |
+                    (Double.doubleToLongBits(a[i + 6]) == bits) |
+                    (Double.doubleToLongBits(a[i + 7]) == bits))
+                break;
+        }
+        for (; i < to; i++)
+            if (Double.doubleToLongBits(a[i]) == bits)
+                return i;
+        return -1;
+    }
+
+    /**
+     * Returns the index of the last element of {@code a[from, to)} equal
+     * to {@code v} as compared by {@link Double#doubleToLongBits}, or -1.
+     */
+    static int lastIndexOf(double[] a, int from, int to, double v) {
+        final long bits = Double.doubleToLongBits(v);
+        int i = to - 1;
+        for (; i >= from + 7; i -= 8) {
+            if ((Double.doubleToLongBits(a[i]) == bits) |
+                    (Double.doubleToLongBits(a[i - 1]) == bits) |
+                    (Double.doubleToLongBits(a[i - 2]) == bits) |
+                    (Double.doubleToLongBits(a[i - 3]) == bits) |
+                    (Double.doubleToLongBits(a[i - 4]) == bits) |
+                    (Double.doubleToLongBits(a[i - 5]) == bits) |
+                    (Double.doubleToLongBits(a[i - 6]) == bits) |
+                    (Double.doubleToLongBits(a[i - 7]) == bits))
+                break;
+        }
+        for (; i >= from; i--)
+            if (Double.doubleToLongBits(a[i]) == bits)
+                return i;
+        return -1;
+    }
+
+    /**
+     * Returns the sum of {@code a[from, to)}.  The four partial sums
+     * are added in a different order than a sequential loop, so the result
+     * may differ from it in the last bits.
+     */
+    static double sum(double[] a, int from, int to) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = from;
+        for (; i < to - 3; i += 4) {
+            s0 += a[i];
+            s1 += a[i + 1];
+            s2 += a[i + 2];
+            s3 += a[i + 3];
+        }
+        for (; i < to; i++)
+            s0 += a[i];
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * Returns the smallest element of the non-empty range {@code a[from, to)} (as {@link Math#min(double, double)}: NaN if any element is NaN).
+     */
+    static double min(double[] a, int from, int to) {
+        if (from >= to)
+            throw new NoSuchElementException();
+        double m0 = a[from], m1 = m0, m2 = m0, m3 = m0;
+        int i = from + 1;
+        for (; i < to - 3; i += 4) {
+            m0 = Math.min(m0, a[i]);
+            m1 = Math.min(m1, a[i + 1]);
+            m2 = Math.min(m2, a[i + 2]);
+            m3 = Math.min(m3, a[i + 3]);
+        }
+        for (; i < to; i++)
+            m0 = Math.min(m0, a[i]);
+        return Math.min(Math.min(m0, m1), Math.min(m2, m3));
+    }
+
+    /**
+     * Returns the largest element of the non-empty range {@code a[from, to)} (as {@link Math#max(double, double)}: NaN if any element is NaN).
+     */
+    static double max(double[] a, int from, int to) {
+        if (from >= to)
+            throw new NoSuchElementException();
+        double m0 = a[from], m1 = m0, m2 = m0, m3 = m0;
+        int i = from + 1;
+        for (; i < to - 3; i += 4) {
+            m0 = Math.max(m0, a[i]);
+            m1 = Math.max(m1, a[i + 1]);
+            m2 = Math.max(m2, a[i + 2]);
+            m3 = Math.max(m3, a[i + 3]);
+        }
+        for (; i < to; i++)
+            m0 = Math.max(m0, a[i]);
+        return Math.max(Math.max(m0, m1), Math.max(m2, m3));
+    }
+
+    /**
+     * Returns the number of elements {@code x} of {@code a[from, to)} with
+     * {@code lo <= x <= hi}.
+     */
+    static int countBetween(double[] a, int from, int to, double lo, double hi) {
+        int c0 = 0, c1 = 0, c2 = 0, c3 = 0;
+        int i = from;
+        // 用条件表达式代替 if，方便 JIT 生成无分支的代码
+        for (; i < to - 3; i += 4) {
+            c0 += (a[i] >= lo & a[i] <= hi) ? 1 : 0;
+            c1 += (a[i + 1] >= lo & a[i + 1] <= hi) ? 1 : 0;
+            c2 += (a[i + 2] >= lo & a[i + 2] <= hi) ? 1 : 0;
+            c3 += (a[i + 3] >= lo & a[i + 3] <= hi) ? 1 : 0;
+        }
+        for (; i < to; i++)
+            c0 += (a[i] >= lo & a[i] <= hi) ? 1 : 0;
+        return (c0 + c1) + (c2 + c3);
+    }
+
+    /**
+     * Copies the elements {@code x} of {@code a[from, to)} with
+     * {@code lo <= x <= hi}, in order, to the front of {@code dest}
+     * (at least {@code to - from} long) and returns their number.
+     */
+    static int filterBetween(double[] a, int from, int to, double lo, double hi, double[] dest) {
+        int n = 0;
+        // 无条件写入，只根据是否命中推进写指针，避免难以预测的分支
+        for (int i = from; i < to; i++) {
+            double x = a[i];
+            dest[n] = x;
+            n += (x >= lo & x <= hi) ? 1 : 0;
+        }
+        return n;
+    }
+}
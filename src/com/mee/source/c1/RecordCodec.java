@@ -0,0 +1,49 @@
+package com.mee.source.c1;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converts the elements of a {@link MappedRecordList} to and from
+ * fixed-size binary records.
+ * MappedRecordList 的记录编解码器：把元素转换为定长的二进制记录，以及从记录读回元素
+ *
+ * <p>{@link #read} and {@link #write} receive the mapped segment that holds
+ * the record and the offset of its first byte.  They must only use the
+ * <i>absolute</i> {@code get}/{@code put} methods of the buffer (the ones
+ * taking an index), so the position and limit of the shared buffer are
+ * never changed, and must only touch the bytes
+ * {@code [offset, offset + recordSize())}.
+ * 笔记：read/write 拿到的是记录所在的映射段以及记录首字节的偏移量；只能使用带下标的绝对 get/put 方法，
+ *      不能修改共享 buffer 的 position/limit，也只能访问 [offset, offset + recordSize()) 范围内的字节
+ *
+ * @param <E> the type of the records
+ * @see MappedRecordList
+ */
+public interface RecordCodec<E> {
+
+    /**
+     * Returns the size of a record in bytes.  It must never change, since
+     * it determines the position of every record in the file.
+     *
+     * @return the record size, at least 1
+     */
+    int recordSize();
+
+    /**
+     * Decodes the record starting at {@code offset}.
+     *
+     * @param buf the segment holding the record
+     * @param offset the offset of the record in {@code buf}
+     * @return the element
+     */
+    E read(ByteBuffer buf, int offset);
+
+    /**
+     * Encodes {@code value} into the record starting at {@code offset}.
+     *
+     * @param buf the segment holding the record
+     * @param offset the offset of the record in {@code buf}
+     * @param value the element to encode
+     */
+    void write(ByteBuffer buf, int offset, E value);
+}
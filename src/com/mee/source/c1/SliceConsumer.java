@@ -0,0 +1,30 @@
+package com.mee.source.c1;
+
+/**
+ * Receives a read-only slice {@code array[from, to)} of the backing array
+ * of a list, see {@link ArrayList#readSlice} and
+ * {@link ArrayList#forEachChunk}.
+ * 接收列表底层数组的一个只读片段 array[from, to)
+ *
+ * <p>The array is the live storage of the list, not a copy: an
+ * implementation must not write to it, and must not keep a reference to it
+ * after {@code accept} returns.  Slots outside {@code [from, to)} are not
+ * part of the slice.
+ * 笔记：array 是列表正在使用的底层数组而不是拷贝，实现中不能修改它，
+ *      accept 返回之后也不能再持有它的引用；[from, to) 之外的槽位不属于这个片段
+ *
+ * @see ArrayList#readSlice(SliceConsumer)
+ * @see ArrayList#forEachChunk(int, SliceConsumer)
+ */
+@FunctionalInterface
+public interface SliceConsumer {
+
+    /**
+     * Consumes the elements {@code array[from, to)}.
+     *
+     * @param array the backing array, read-only
+     * @param from the index of the first element of the slice, inclusive
+     * @param to the index after the last element of the slice, exclusive
+     */
+    void accept(Object[] array, int from, int to);
+}
@@ -0,0 +1,460 @@
+package com.mee.source.c1;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.UnaryOperator;
+
+/**
+ * {@link ArrayList} that keeps its elements sorted, by their natural
+ * ordering or by a {@link Comparator}, in the same {@code elementData}
+ * layout.  Lookups are binary searches, {@link #add(Object)} inserts into
+ * the searched slot with one {@code arraycopy}, and {@link #addAll} merges
+ * a sorted batch into the array in a single linear pass, instead of
+ * appending and calling {@code sort} again.
+ * 始终保持有序的 ArrayList(自然顺序或者 Comparator 指定的顺序)，底层仍然是 elementData 数组：
+ * 查找使用二分查找，add 通过二分查找定位插入位置后做一次 arraycopy，
+ * addAll 先对这一批元素排序，再线性地归并到数组中，而不是追加之后重新 sort
+ *
+ * <p>Elements that compare equal keep their insertion order: a new element
+ * is placed after the existing equal ones.  {@link #indexOf},
+ * {@link #lastIndexOf}, {@link #contains} and {@link #remove(Object)}
+ * search the run of elements comparing equal to the argument and then
+ * pick the one that {@code equals} it, so the ordering should be
+ * consistent with {@code equals} for them to find every element.
+ * 笔记：比较结果相等的元素保持插入顺序，新元素放在已有的相等元素之后；
+ *      indexOf/lastIndexOf/contains/remove(Object) 先二分查找比较相等的一段，再在其中用 equals 确认
+ *
+ * <p>Operations that would put an element at a chosen position
+ * ({@code add(int, E)}, {@code set}, {@code addAll(int, Collection)},
+ * {@code replaceAll}, {@code sort}, and the same operations through
+ * iterators and sub lists) throw {@link UnsupportedOperationException}.
+ * Removals keep the order and are supported.  {@link #headList},
+ * {@link #tailList} and {@link #subList(Object, boolean, Object, boolean)}
+ * locate their bounds by binary search and return an index range view,
+ * like {@link #subList(int, int)}.
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ *
+ * @param <E> the type of elements in this list
+ * @see ArrayList
+ * @see java.util.Collections#binarySearch(List, Object, Comparator)
+ */
+public class SortedArrayList<E> extends ArrayList<E> {
+    private static final long serialVersionUID = -2741608323716813528L;
+
+    /**
+     * The comparator, or {@code null} for the natural ordering.
+     *
+     * @serial
+     */
+    private final Comparator<? super E> comparator;
+
+    /**
+     * Constructs an empty list sorted by the natural ordering of its
+     * elements, which must implement {@link Comparable}.
+     */
+    public SortedArrayList() {
+        this.comparator = null;
+    }
+
+    /**
+     * Constructs an empty list sorted by the specified comparator.
+     *
+     * @param comparator the comparator, or {@code null} for the natural
+     *        ordering
+     */
+    public SortedArrayList(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+    }
+
+    /**
+     * Constructs a list containing the elements of the specified
+     * collection, sorted by their natural ordering.
+     *
+     * @param c the collection whose elements are to be placed into this list
+     * @throws ClassCastException if the elements are not mutually comparable
+     * @throws NullPointerException if the specified collection is null
+     */
+    public SortedArrayList(Collection<? extends E> c) {
+        super(c.size());
+        this.comparator = null;
+        addAll(c);
+    }
+
+    /**
+     * Returns the comparator that orders this list, or {@code null} if it
+     * uses the natural ordering of its elements.
+     *
+     * @return the comparator, or {@code null}
+     */
+    public Comparator<? super E> comparator() {
+        return comparator;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(Object a, Object b) {
+        return (comparator == null) ? ((Comparable<Object>) a).compareTo(b)
+                : comparator.compare((E) a, (E) b);
+    }
+
+    /**
+     * Returns the index of the first element not less than {@code key}
+     * ({@code size()} if there is none).
+     * 第一个 >= key 的元素的下标
+     */
+    private int lowerBound(Object key) {
+        Object[] es = elementData;
+        int low = 0, high = size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(es[mid], key) < 0)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Returns the index of the first element greater than {@code key}
+     * ({@code size()} if there is none).
+     * 第一个 > key 的元素的下标
+     */
+    private int upperBound(Object key) {
+        return upperBound(key, size());
+    }
+
+    /**
+     * Returns the index of the first element of {@code [0, end)} greater
+     * than {@code key} ({@code end} if there is none).
+     */
+    private int upperBound(Object key, int end) {
+        Object[] es = elementData;
+        int low = 0, high = end;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(es[mid], key) <= 0)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    // ------------------------------------------------------------------
+    // lookups
+
+    /**
+     * Returns the index of the first occurrence of the specified element
+     * in this list, or -1 if this list does not contain the element.  Runs
+     * in {@code O(log n)} plus the number of elements comparing equal to
+     * {@code o}.
+     *
+     * @throws ClassCastException if {@code o} cannot be compared with the
+     *         elements of this list
+     */
+    public int indexOf(Object o) {
+        if (o == null && comparator == null)
+            return -1;
+        Object[] es = elementData;
+        for (int i = lowerBound(o), size = size(); i < size && compare(es[i], o) == 0; i++) {
+            if (o == null ? es[i] == null : o.equals(es[i]))
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the last occurrence of the specified element
+     * in this list, or -1 if this list does not contain the element.  Runs
+     * in {@code O(log n)} plus the number of elements comparing equal to
+     * {@code o}.
+     *
+     * @throws ClassCastException if {@code o} cannot be compared with the
+     *         elements of this list
+     */
+    public int lastIndexOf(Object o) {
+        if (o == null && comparator == null)
+            return -1;
+        Object[] es = elementData;
+        for (int i = upperBound(o) - 1; i >= 0 && compare(es[i], o) == 0; i--) {
+            if (o == null ? es[i] == null : o.equals(es[i]))
+                return i;
+        }
+        return -1;
+    }
+
+    public boolean remove(Object o) {
+        int i = indexOf(o);
+        if (i < 0)
+            return false;
+        remove(i);
+        return true;
+    }
+
+    // ------------------------------------------------------------------
+    // insertion
+
+    /**
+     * Inserts the specified element at its sorted position, after any
+     * elements comparing equal to it.
+     * 插入到有序的位置(相等元素之后)
+     *
+     * @param e element to be inserted
+     * @return <tt>true</tt> (as specified by {@link Collection#add})
+     * @throws ClassCastException if {@code e} cannot be compared with the
+     *         elements of this list
+     * @throws NullPointerException if {@code e} is null and this list uses
+     *         the natural ordering
+     */
+    public boolean add(E e) {
+        if (e == null && comparator == null)
+            throw new NullPointerException();
+        int size = size();
+        // 追加到末尾是最常见的情况，不需要二分查找
+        if (size == 0 || compare(elementData[size - 1], e) <= 0)
+            super.add(e);
+        else
+            super.add(upperBound(e), e);
+        return true;
+    }
+
+    /**
+     * Adds all of the elements in the specified collection: they are
+     * sorted on their own, then merged into this list from the back in a
+     * single pass, like the merge step of merge sort.  The merge costs
+     * {@code O(n + m)} for {@code m} new elements instead of the
+     * {@code O((n + m) log (n + m))} of appending and sorting again; a
+     * batch that is small compared with the list binary-searches the slot
+     * of each new element and moves the old elements in between with one
+     * {@code arraycopy}, needing only {@code O(m log n)} comparisons.
+     * 先单独对新元素排序，再从后往前归并到数组中(归并排序的合并步骤)；
+     * 新元素比较少时，对每个新元素二分查找它的位置，中间的旧元素用一次 arraycopy 整体移动
+     *
+     * @param c collection containing elements to be added to this list
+     * @return <tt>true</tt> if this list changed as a result of the call
+     * @throws ClassCastException if the elements cannot be compared with
+     *         each other or with the elements of this list
+     * @throws NullPointerException if the specified collection is null, or
+     *         contains a null element and this list uses the natural ordering
+     */
+    @SuppressWarnings("unchecked")
+    public boolean addAll(Collection<? extends E> c) {
+        Object[] a = c.toArray();
+        int numNew = a.length;
+        if (numNew == 0)
+            return false;
+        if (comparator == null) {
+            for (Object o : a)
+                if (o == null)
+                    throw new NullPointerException();
+        }
+        Arrays.sort(a, this::compare);
+        int oldSize = size();
+        // append the batch (growing once), then merge the two sorted runs
+        // from the back: the new run is read from a, so no slot is
+        // overwritten before it has been read
+        super.addAll((List<E>) Arrays.asList(a));
+        Object[] es = elementData;
+        int j = numNew - 1;
+        if ((long) numNew * (32 - Integer.numberOfLeadingZeros(oldSize)) < oldSize) {
+            // small batch: old elements [i, end) greater than a[j] move up as one block
+            int i = oldSize, k = oldSize + numNew;
+            for (; j >= 0 && i > 0; j--) {
+                Object x = a[j];
+                int p = upperBound(x, i);
+                int n = i - p;
+                if (n > 0) {
+                    System.arraycopy(es, p, es, k - n, n);
+                    k -= n;
+                    i = p;
+                }
+                es[--k] = x;
+            }
+        } else {
+            int i = oldSize - 1, k = oldSize + numNew - 1;
+            while (j >= 0 && i >= 0) {
+                // strictly greater: equal elements of the batch stay after the old ones
+                if (compare(es[i], a[j]) > 0)
+                    es[k--] = es[i--];
+                else
+                    es[k--] = a[j--];
+            }
+        }
+        if (j >= 0)
+            System.arraycopy(a, 0, es, 0, j + 1);
+        return true;
+    }
+
+    public boolean addAll(Spliterator<? extends E> s) {
+        ArrayList<E> batch = new ArrayList<>();
+        batch.addAll(s);
+        return addAll(batch);
+    }
+
+    public boolean addAll(Iterator<? extends E> it, int sizeHint) {
+        ArrayList<E> batch = new ArrayList<>();
+        batch.addAll(it, sizeHint);
+        return addAll(batch);
+    }
+
+    // ------------------------------------------------------------------
+    // positional operations, which would break the order
+
+    /**
+     * Not supported: the position of an element is given by its order.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    public void add(int index, E element) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Not supported: the position of an element is given by its order.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    public E set(int index, E element) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Not supported: the position of an element is given by its order.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    public boolean addAll(int index, Collection<? extends E> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Not supported: replacing elements could break the order.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    public void replaceAll(UnaryOperator<E> operator) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Not supported: replacing elements could break the order.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    public void parallelReplaceAll(UnaryOperator<E> operator) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Not supported: the list is always sorted by its own comparator.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    public void sort(Comparator<? super E> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Not supported: the list is always sorted by its own comparator.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    public void parallelSort(Comparator<? super E> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    // ------------------------------------------------------------------
+    // range views
+
+    /**
+     * Returns a view of the portion of this list between the specified
+     * {@code fromIndex}, inclusive, and {@code toIndex}, exclusive.  Every
+     * access of the view goes through the methods of this list, so the
+     * view cannot break the order either.
+     * 子列表的所有操作都通过本类的方法完成，所以同样不会破坏顺序
+     *
+     * @throws IndexOutOfBoundsException {@inheritDoc}
+     * @throws IllegalArgumentException {@inheritDoc}
+     */
+    public List<E> subList(int fromIndex, int toIndex) {
+        subListRangeCheck(fromIndex, toIndex, size());
+        return randomAccessSubList(this, fromIndex, toIndex);
+    }
+
+    /**
+     * Returns a view of the elements ranging from {@code fromElement} to
+     * {@code toElement}.  The bounds are located by binary search in
+     * {@code O(log n)}; the result is an index range view like
+     * {@link #subList(int, int)}, so it does not follow later insertions.
+     * 按值取范围视图，边界通过二分查找在 O(log n) 内确定，得到的是按下标的视图
+     *
+     * @param fromElement low endpoint of the returned list
+     * @param fromInclusive whether elements equal to {@code fromElement}
+     *        are included
+     * @param toElement high endpoint of the returned list
+     * @param toInclusive whether elements equal to {@code toElement} are
+     *        included
+     * @return a view of the elements in the range
+     * @throws IllegalArgumentException if {@code fromElement} is greater
+     *         than {@code toElement}
+     */
+    public List<E> subList(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+        if (compare(fromElement, toElement) > 0)
+            throw new IllegalArgumentException("fromElement > toElement");
+        int from = fromInclusive ? lowerBound(fromElement) : upperBound(fromElement);
+        int to = toInclusive ? upperBound(toElement) : lowerBound(toElement);
+        return subList(from, Math.max(from, to));
+    }
+
+    /**
+     * Returns a view of the elements less than {@code toElement}.
+     *
+     * @param toElement high endpoint (exclusive) of the returned list
+     * @return a view of the elements less than {@code toElement}
+     */
+    public List<E> headList(E toElement) {
+        return headList(toElement, false);
+    }
+
+    /**
+     * Returns a view of the elements less than (or equal to, if
+     * {@code inclusive} is true) {@code toElement}.
+     *
+     * @param toElement high endpoint of the returned list
+     * @param inclusive whether elements equal to {@code toElement} are
+     *        included
+     * @return a view of the elements up to {@code toElement}
+     */
+    public List<E> headList(E toElement, boolean inclusive) {
+        return subList(0, inclusive ? upperBound(toElement) : lowerBound(toElement));
+    }
+
+    /**
+     * Returns a view of the elements greater than or equal to
+     * {@code fromElement}.
+     *
+     * @param fromElement low endpoint (inclusive) of the returned list
+     * @return a view of the elements from {@code fromElement} on
+     */
+    public List<E> tailList(E fromElement) {
+        return tailList(fromElement, true);
+    }
+
+    /**
+     * Returns a view of the elements greater than (or equal to, if
+     * {@code inclusive} is true) {@code fromElement}.
+     *
+     * @param fromElement low endpoint of the returned list
+     * @param inclusive whether elements equal to {@code fromElement} are
+     *        included
+     * @return a view of the elements from {@code fromElement} on
+     */
+    public List<E> tailList(E fromElement, boolean inclusive) {
+        return subList(inclusive ? lowerBound(fromElement) : upperBound(fromElement), size());
+    }
+}
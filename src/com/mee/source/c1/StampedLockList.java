@@ -0,0 +1,671 @@
+package com.mee.source.c1;
+
+import java.util.*;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Thread-safe <tt>List</tt> wrapper around an {@link ArrayList} for
+ * read-mostly data such as lookup tables, guarded by a
+ * {@link StampedLock}.  Writers take the exclusive write lock.  The hot
+ * point reads ({@link #get}, {@link #size}, {@link #isEmpty},
+ * {@link #indexOf}, {@link #lastIndexOf}, {@link #contains}) first run
+ * without any lock as an <i>optimistic read</i> and only use the result if
+ * the stamp still validates afterwards, so concurrent readers never block
+ * each other nor write to shared memory, unlike
+ * {@code Collections.synchronizedList}.  A read that fails validation (or
+ * trips over the half-written state of a concurrent write) is retried under
+ * the read lock.
+ * 使用 StampedLock 保护的线程安全的 ArrayList 包装类，适合读多写少的场景(例如查找表)：
+ * 写操作获取独占的写锁；get/size/isEmpty/indexOf/lastIndexOf/contains 先不加锁地“乐观读”，
+ * 读完之后校验 stamp，校验通过才使用结果，所以读者之间既不会互相阻塞，也不会写共享内存；
+ * 校验失败(或者读到了并发写入的中间状态)时再获取读锁重新读取
+ * 笔记：Collections.synchronizedList 的每次读取都要获取同一把锁，读者之间也是串行的
+ *
+ * <p>Note that during an optimistic {@code indexOf}/{@code lastIndexOf}/
+ * {@code contains} the {@code equals} method of the argument may be
+ * called on elements that a concurrent writer is about to replace; the
+ * result of such a call is discarded.
+ *
+ * <p>A {@code StampedLock} is not reentrant, so no caller code (an
+ * action, a predicate, an operator, a comparator, an element's
+ * {@code equals}, {@code hashCode} or {@code toString}, or the methods of
+ * a collection argument) ever runs while the lock is held; such code may
+ * read this list without deadlocking.
+ * 笔记：StampedLock 不可重入，所以调用方的代码(action/predicate/operator/comparator、元素的 equals/hashCode/toString
+ *      以及集合参数的方法)都不会在持锁期间执行，回调中读取本列表不会死锁
+ *
+ * <p>Bulk reads ({@link #forEach}, {@code toArray}, {@code containsAll},
+ * {@code equals}, {@code hashCode}, {@code toString} and the traversal of
+ * a {@link #spliterator()}) copy the elements under a single read lock
+ * instead of locking per element, and then work on the copy with the lock
+ * released; a {@code forEach} action may even write to this list.
+ * {@code forEach} thus visits a snapshot; the spliterator is
+ * <i>fail-fast</i> like the one of {@link ArrayList}.
+ * {@link #iterator()} and {@link #listIterator()} iterate over a snapshot
+ * copied under one read lock and do not support modification.
+ * {@link #subList} returns a view guarded by the same lock.
+ * 笔记：批量读取只在一次读锁下拷贝元素，之后释放锁再处理拷贝，forEach 遍历的是快照(action 中可以写入本列表)，
+ *      spliterator 仍然是快速失败的；iterator/listIterator 遍历的是在读锁下拷贝的快照，subList 返回使用同一把锁保护的视图
+ *
+ * <p>{@code addAll} copies its argument before taking the write lock, so
+ * {@code list.addAll(list)} works.  The writes that depend on caller code
+ * ({@code remove(Object)}, {@code removeAll}, {@code retainAll},
+ * {@code removeIf}, {@code replaceAll}, {@code sort}) run it on a snapshot
+ * without any lock, and then apply the result under the write lock if no
+ * other write happened in between, or start over.  Writing to this list
+ * from such code throws {@code ConcurrentModificationException}.
+ * 笔记：addAll 在获取写锁之前先拷贝参数，所以 list.addAll(list) 可以正常执行；
+ *      依赖调用方代码的写操作先在快照上不加锁地计算，期间没有其他写操作时再在写锁下写入结果，否则重新计算；
+ *      这些回调中写入本列表会抛出 ConcurrentModificationException
+ *
+ * @param <E> the type of elements in this list
+ * @see ArrayList
+ */
+public class StampedLockList<E> implements List<E>, RandomAccess {
+
+    /** The guarded list: the wrapped {@code ArrayList} or a sub list of it. */
+    final AbstractList<E> list;
+
+    final StampedLock lock;
+
+    /**
+     * Constructs a thread-safe list backed by the specified list.  All
+     * accesses to {@code list} must go through the returned wrapper.
+     *
+     * @param list the list to guard
+     * @throws NullPointerException if the specified list is null
+     */
+    public StampedLockList(ArrayList<E> list) {
+        this(Objects.requireNonNull(list), new StampedLock());
+    }
+
+    /**
+     * Constructs an empty thread-safe list.
+     */
+    public StampedLockList() {
+        this(new ArrayList<>(), new StampedLock());
+    }
+
+    private StampedLockList(AbstractList<E> list, StampedLock lock) {
+        this.list = list;
+        this.lock = lock;
+    }
+
+    // ------------------------------------------------------------------
+    // optimistic point reads
+
+    public int size() {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            try {
+                int size = list.size();
+                if (lock.validate(stamp))
+                    return size;
+            } catch (RuntimeException ex) {
+                // 子列表的 size 会检查 modCount
+                if (lock.validate(stamp))
+                    throw ex;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return list.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public E get(int index) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            try {
+                E e = list.get(index);
+                if (lock.validate(stamp))
+                    return e;
+            } catch (RuntimeException ex) {
+                // 乐观读期间列表被修改，可能读到不一致的状态(例如下标越界)，校验通过才说明异常是真实的
+                if (lock.validate(stamp))
+                    throw ex;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return list.get(index);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int indexOf(Object o) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            try {
+                int index = list.indexOf(o);
+                if (lock.validate(stamp))
+                    return index;
+            } catch (RuntimeException ex) {
+                if (lock.validate(stamp))
+                    throw ex;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return list.indexOf(o);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int lastIndexOf(Object o) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            try {
+                int index = list.lastIndexOf(o);
+                if (lock.validate(stamp))
+                    return index;
+            } catch (RuntimeException ex) {
+                if (lock.validate(stamp))
+                    throw ex;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return list.lastIndexOf(o);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    // ------------------------------------------------------------------
+    // bulk reads under one read lock
+
+    public boolean containsAll(Collection<?> c) {
+        return Arrays.asList(toArray()).containsAll(c);
+    }
+
+    public Object[] toArray() {
+        long stamp = lock.readLock();
+        try {
+            return list.toArray();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public <T> T[] toArray(T[] a) {
+        long stamp = lock.readLock();
+        try {
+            return list.toArray(a);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Performs the given action for each element of a snapshot of this
+     * list, copied under a single read lock.  The action runs without the
+     * lock held, so it may modify this list; such modifications are not
+     * seen by the remaining iteration.
+     * action 在释放读锁之后执行，可以修改本列表(修改对本次遍历不可见)
+     *
+     * @param action the action to be performed for each element
+     * @throws NullPointerException if the specified action is null
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super E> action) {
+        Objects.requireNonNull(action);
+        for (Object e : toArray())
+            action.accept((E) e);
+    }
+
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        return Arrays.asList(toArray()).equals(o);
+    }
+
+    public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    /**
+     * Returns an iterator over a snapshot of this list, copied under a
+     * single read lock.  The iterator does not support {@code remove}.
+     *
+     * @return an iterator over a snapshot of the elements in this list
+     */
+    public Iterator<E> iterator() {
+        return listIterator(0);
+    }
+
+    /**
+     * Returns a list iterator over a snapshot of this list, copied under a
+     * single read lock.  The iterator does not support modification.
+     *
+     * @return a list iterator over a snapshot of the elements in this list
+     */
+    public ListIterator<E> listIterator() {
+        return listIterator(0);
+    }
+
+    /**
+     * Returns a list iterator over a snapshot of this list, starting at the
+     * specified position.  The iterator does not support modification.
+     *
+     * @param index index of the first element to be returned
+     * @return a list iterator over a snapshot of the elements in this list
+     * @throws IndexOutOfBoundsException {@inheritDoc}
+     */
+    @SuppressWarnings("unchecked")
+    public ListIterator<E> listIterator(int index) {
+        List<E> snapshot = (List<E>) Collections.unmodifiableList(Arrays.asList(toArray()));
+        return snapshot.listIterator(index);
+    }
+
+    /**
+     * Returns a view of the portion of this list between the specified
+     * indices, guarded by the same lock as this list.
+     *
+     * @throws IndexOutOfBoundsException {@inheritDoc}
+     * @throws IllegalArgumentException {@inheritDoc}
+     */
+    public List<E> subList(int fromIndex, int toIndex) {
+        long stamp = lock.readLock();
+        try {
+            return new StampedLockList<>((AbstractList<E>) list.subList(fromIndex, toIndex), lock);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Creates a late-binding and fail-fast {@link Spliterator} over the
+     * elements in this list.  {@code forEachRemaining} traverses the
+     * remaining elements under a single read lock; {@code tryAdvance} reads
+     * one element optimistically.
+     * 遍历剩余元素时只获取一次读锁
+     *
+     * @return a {@code Spliterator} over the elements in this list
+     */
+    public Spliterator<E> spliterator() {
+        return new StampedSpliterator<>(this, 0, -1, 0);
+    }
+
+    static final class StampedSpliterator<E> implements Spliterator<E> {
+        private final StampedLockList<E> owner;
+        private int index; // current index, modified on advance/split
+        private int fence; // -1 until used; then one past last index
+        private int expectedModCount; // initialized when fence set
+
+        StampedSpliterator(StampedLockList<E> owner, int origin, int fence,
+                           int expectedModCount) {
+            this.owner = owner;
+            this.index = origin;
+            this.fence = fence;
+            this.expectedModCount = expectedModCount;
+        }
+
+        private int getFence() { // initialize fence to size on first use
+            int hi;
+            if ((hi = fence) < 0) {
+                StampedLock lock = owner.lock;
+                long stamp = lock.readLock();
+                try {
+                    expectedModCount = owner.list.modCount;
+                    hi = fence = owner.list.size();
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            return hi;
+        }
+
+        public StampedSpliterator<E> trySplit() {
+            int hi = getFence(), lo = index, mid = (lo + hi) >>> 1;
+            return (lo >= mid) ? null : // divide range in half unless too small
+                    new StampedSpliterator<>(owner, lo, index = mid, expectedModCount);
+        }
+
+        public boolean tryAdvance(Consumer<? super E> action) {
+            if (action == null)
+                throw new NullPointerException();
+            int hi = getFence(), i = index;
+            if (i < hi) {
+                StampedLock lock = owner.lock;
+                AbstractList<E> list = owner.list;
+                E e = null;
+                boolean read = false;
+                long stamp = lock.tryOptimisticRead();
+                if (stamp != 0L && list.modCount == expectedModCount) {
+                    try {
+                        e = list.get(i);
+                        read = lock.validate(stamp);
+                    } catch (RuntimeException ignored) {
+                        // 乐观读期间被修改，下面在读锁下重新读取
+                    }
+                }
+                if (!read) {
+                    stamp = lock.readLock();
+                    try {
+                        if (list.modCount != expectedModCount)
+                            throw new ConcurrentModificationException();
+                        e = list.get(i);
+                    } finally {
+                        lock.unlockRead(stamp);
+                    }
+                }
+                index = i + 1;
+                action.accept(e);
+                return true;
+            }
+            return false;
+        }
+
+        @SuppressWarnings("unchecked")
+        public void forEachRemaining(Consumer<? super E> action) {
+            if (action == null)
+                throw new NullPointerException();
+            int hi = getFence(), i = index;
+            index = hi;
+            StampedLock lock = owner.lock;
+            AbstractList<E> list = owner.list;
+            // 在读锁下拷贝剩余元素，释放锁之后再执行 action，action 中写入列表不会死锁
+            Object[] a = new Object[hi - i];
+            long stamp = lock.readLock();
+            try {
+                if (list.modCount != expectedModCount)
+                    throw new ConcurrentModificationException();
+                for (int j = 0; j < a.length; j++)
+                    a[j] = list.get(i + j);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+            for (Object e : a)
+                action.accept((E) e);
+            stamp = lock.readLock();
+            try {
+                if (list.modCount != expectedModCount)
+                    throw new ConcurrentModificationException();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        public long estimateSize() {
+            return (long) (getFence() - index);
+        }
+
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // writes under the write lock
+
+    /**
+     * The lock whose caller code (see {@link #writeFromSnapshot}) the
+     * current thread is running, if any.  A write to a list guarded by that
+     * lock from inside the callback would invalidate the snapshot on every
+     * retry, so it throws {@code ConcurrentModificationException} instead,
+     * as {@code ArrayList} does when its {@code removeIf} predicate modifies
+     * the list.
+     * 当前线程正在执行回调的锁：回调中写入同一把锁保护的列表会让快照每次都失效，所以直接抛出并发修改异常
+     */
+    private static final ThreadLocal<StampedLock> CALLBACK_LOCK = new ThreadLocal<>();
+
+    private long writeLock() {
+        if (CALLBACK_LOCK.get() == lock)
+            throw new ConcurrentModificationException();
+        return lock.writeLock();
+    }
+
+    /**
+     * Performs a write that depends on caller code.  {@code compute} runs on
+     * a snapshot copied under the read lock, with no lock held; then, if no
+     * other write happened meanwhile, {@code apply} writes its result under
+     * the write lock.  Otherwise the snapshot is taken and {@code compute}
+     * run again.
+     * 依赖调用方代码的写操作：先在读锁下拷贝快照，释放锁之后在快照上执行 compute；
+     * 期间没有其他写操作时，再在写锁下用 apply 写入结果，否则重新拷贝快照并计算
+     *
+     * @return the result of {@code compute} that was applied
+     */
+    private <T> T writeFromSnapshot(Function<Object[], T> compute, Consumer<? super T> apply) {
+        for (;;) {
+            Object[] snapshot;
+            long stamp = lock.readLock();
+            try {
+                snapshot = list.toArray();
+            } finally {
+                // 释放读锁，得到一个乐观读的 stamp，之后用它判断期间是否有写操作
+                stamp = lock.tryConvertToOptimisticRead(stamp);
+            }
+            T result;
+            StampedLock outer = CALLBACK_LOCK.get();
+            CALLBACK_LOCK.set(lock);
+            try {
+                result = compute.apply(snapshot);
+            } finally {
+                CALLBACK_LOCK.set(outer);
+            }
+            long ws;
+            while ((ws = lock.tryConvertToWriteLock(stamp)) == 0L) {
+                if (!lock.validate(stamp))
+                    break; // 期间有写操作，快照已过期
+                Thread.yield(); // 只是还有读者持有读锁
+            }
+            if (ws == 0L)
+                continue;
+            try {
+                apply.accept(result);
+                return result;
+            } finally {
+                lock.unlockWrite(ws);
+            }
+        }
+    }
+
+    /**
+     * Copies the specified collection, without any lock held.
+     */
+    @SuppressWarnings("unchecked")
+    private static <E> List<E> copyOf(Collection<? extends E> c) {
+        return (List<E>) Arrays.asList(c.toArray());
+    }
+
+    /**
+     * Sets the elements of the list to those of {@code a}, which has the
+     * same length.  Called under the write lock.
+     */
+    @SuppressWarnings("unchecked")
+    private void setAll(Object[] a) {
+        ListIterator<E> it = list.listIterator();
+        for (Object e : a) {
+            it.next();
+            it.set((E) e);
+        }
+    }
+
+    public boolean add(E e) {
+        long stamp = writeLock();
+        try {
+            return list.add(e);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void add(int index, E element) {
+        long stamp = writeLock();
+        try {
+            list.add(index, element);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public E set(int index, E element) {
+        long stamp = writeLock();
+        try {
+            return list.set(index, element);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public E remove(int index) {
+        long stamp = writeLock();
+        try {
+            return list.remove(index);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes the first occurrence of the specified element.  The element's
+     * {@code equals} runs on a snapshot without the lock held; see the
+     * class comment.
+     */
+    public boolean remove(Object o) {
+        int index = writeFromSnapshot(a -> {
+            for (int i = 0; i < a.length; i++) {
+                if (o == null ? a[i] == null : o.equals(a[i]))
+                    return i;
+            }
+            return -1;
+        }, i -> {
+            if (i >= 0)
+                list.remove((int) i);
+        });
+        return index >= 0;
+    }
+
+    /**
+     * Appends all of the elements in the specified collection.  The
+     * collection is copied before the write lock is taken, so it may be
+     * this list or a view of it.
+     */
+    public boolean addAll(Collection<? extends E> c) {
+        List<E> elements = copyOf(c);
+        long stamp = writeLock();
+        try {
+            return list.addAll(elements);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Inserts all of the elements in the specified collection at the
+     * specified position.  The collection is copied before the write lock
+     * is taken, so it may be this list or a view of it.
+     */
+    public boolean addAll(int index, Collection<? extends E> c) {
+        List<E> elements = copyOf(c);
+        long stamp = writeLock();
+        try {
+            return list.addAll(index, elements);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes the elements contained in the specified collection.
+     * {@code c.contains} runs on a snapshot without the lock held; see the
+     * class comment.
+     */
+    public boolean removeAll(Collection<?> c) {
+        Objects.requireNonNull(c);
+        return removeIf(c::contains);
+    }
+
+    /**
+     * Retains only the elements contained in the specified collection.
+     * {@code c.contains} runs on a snapshot without the lock held; see the
+     * class comment.
+     */
+    public boolean retainAll(Collection<?> c) {
+        Objects.requireNonNull(c);
+        return removeIf(e -> !c.contains(e));
+    }
+
+    /**
+     * Removes the elements that satisfy the given predicate.  The predicate
+     * runs on a snapshot without the lock held; see the class comment.
+     */
+    @SuppressWarnings("unchecked")
+    public boolean removeIf(Predicate<? super E> filter) {
+        Objects.requireNonNull(filter);
+        Object[] kept = writeFromSnapshot(a -> {
+            Object[] k = new Object[a.length];
+            int n = 0;
+            for (Object e : a) {
+                if (!filter.test((E) e))
+                    k[n++] = e;
+            }
+            return n == a.length ? null : Arrays.copyOf(k, n);
+        }, k -> {
+            if (k != null) {
+                list.clear();
+                list.addAll((List<E>) Arrays.asList(k));
+            }
+        });
+        return kept != null;
+    }
+
+    /**
+     * Replaces each element with the result of applying the operator to
+     * it.  The operator runs on a snapshot without the lock held; see the
+     * class comment.
+     */
+    @SuppressWarnings("unchecked")
+    public void replaceAll(UnaryOperator<E> operator) {
+        Objects.requireNonNull(operator);
+        writeFromSnapshot(a -> {
+            Object[] b = new Object[a.length];
+            for (int i = 0; i < a.length; i++)
+                b[i] = operator.apply((E) a[i]);
+            return b;
+        }, this::setAll);
+    }
+
+    /**
+     * Sorts this list, stably.  The comparator runs on a snapshot without
+     * the lock held; see the class comment.
+     */
+    @SuppressWarnings("unchecked")
+    public void sort(Comparator<? super E> c) {
+        writeFromSnapshot(a -> {
+            Arrays.sort(a, (Comparator<Object>) c);
+            return a;
+        }, this::setAll);
+    }
+
+    public void clear() {
+        long stamp = writeLock();
+        try {
+            list.clear();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+}
@@ -0,0 +1,452 @@
+package com.mee.source.c1;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Resizable-array implementation of the <tt>List</tt> interface for
+ * workloads that remove many scattered elements one at a time.  Where
+ * {@link ArrayList#remove(int)} shifts the whole tail with
+ * {@code System.arraycopy} on every call, so that a pass of {@code k}
+ * removals costs {@code O(k * n)}, this list only marks the slot with a
+ * <i>tombstone</i> bit and compacts the array later, in one pass.
+ * 面向“零散地逐个删除大量元素”的列表：ArrayList.remove(int) 每次都要用 arraycopy 移动整个尾部，
+ * k 次删除就是 O(k * n)；这里删除只是在位图中打上墓碑标记，之后再一次性压缩数组
+ *
+ * <p>While tombstones are outstanding, a logical index is mapped to its
+ * slot by a rank/select structure over the tombstone bitmap: a Fenwick
+ * (binary indexed) tree of the live counts of the 64-slot words, searched
+ * in {@code O(log(n / 64))}, then a select within the word.  With no
+ * tombstones the structure is dropped and {@link #get} reads the slot
+ * directly, exactly like {@code ArrayList}.
+ * 笔记：存在墓碑时，逻辑下标通过位图上的 rank/select 结构映射到数组槽位：
+ *      以 64 个槽位(位图中的一个 long)为一组，用树状数组(Fenwick tree)维护每组的存活元素个数，
+ *      O(log(n / 64)) 找到所在的组，再在组内定位；没有墓碑时不维护这个结构，get 直接读取槽位
+ *
+ * <p>The array is compacted by {@link #compact()}, and automatically by a
+ * removal that leaves more than {@code compactionRatio} of the used slots
+ * dead (half of them by default), which keeps the amortized cost of a
+ * removal at {@code O(log n)}.  {@link Iterator#remove()} of
+ * {@link #iterator()} never compacts, so removing while iterating costs
+ * {@code O(1)} per element and the pass ends with at most one
+ * compaction, on the next removal by index or explicit {@code compact()}.
+ * Inserting in the middle compacts first and then shifts as usual.
+ * 笔记：compact() 显式压缩；按下标删除后墓碑超过已用槽位的 compactionRatio(默认一半)时自动压缩，
+ *      删除的均摊代价为 O(log n)；iterator() 的 remove 从不触发压缩，边迭代边删除每个元素 O(1)；
+ *      中间插入会先压缩再按常规方式移动元素
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ *
+ * @param <E> the type of elements in this list
+ * @see ArrayList
+ */
+public class TombstoneArrayList<E> extends AbstractList<E>
+        implements RandomAccess
+{
+    private static final Object[] EMPTY_ELEMENTDATA = {};
+
+    /** The default fraction of dead slots that triggers a compaction. */
+    static final double DEFAULT_COMPACTION_RATIO = 0.5;
+
+    /** No automatic compaction below this many tombstones. */
+    private static final int MIN_COMPACTION = 64;
+
+    /**
+     * The maximum size of array to allocate, as in {@link ArrayList}.
+     */
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    private final double compactionRatio;
+
+    /**
+     * The slots; {@code [0, used)} hold the live elements, in order, and
+     * the tombstoned (nulled) slots.
+     */
+    transient Object[] elementData; // non-private to simplify nested class access
+
+    /** Number of used slots, live or dead. */
+    transient int used;
+
+    /** Number of live elements. */
+    private int size;
+
+    /** Bit {@code p} is set iff slot {@code p} is a tombstone; {@code null} if there are none. */
+    transient long[] tombstones;
+
+    /**
+     * Fenwick tree (1-based) of the live counts of the 64-slot words of
+     * {@code [0, used)}; {@code null} if there are no tombstones.
+     */
+    private transient int[] tree;
+
+    /** Number of tombstones. */
+    transient int dead;
+
+    /**
+     * Constructs an empty list that compacts itself when half of its used
+     * slots are tombstones.
+     */
+    public TombstoneArrayList() {
+        this(DEFAULT_COMPACTION_RATIO);
+    }
+
+    /**
+     * Constructs an empty list that compacts itself when more than
+     * {@code compactionRatio} of its used slots are tombstones; {@code 1}
+     * disables automatic compaction.
+     *
+     * @param compactionRatio the fraction of dead slots that triggers a
+     *        compaction, in {@code (0, 1]}
+     * @throws IllegalArgumentException if the ratio is out of range
+     */
+    public TombstoneArrayList(double compactionRatio) {
+        if (!(compactionRatio > 0 && compactionRatio <= 1))
+            throw new IllegalArgumentException("Illegal compaction ratio: " + compactionRatio);
+        this.compactionRatio = compactionRatio;
+        this.elementData = EMPTY_ELEMENTDATA;
+    }
+
+    /**
+     * Constructs a list containing the elements of the specified
+     * collection, in the order they are returned by the collection's
+     * iterator.
+     *
+     * @param c the collection whose elements are to be placed into this list
+     * @throws NullPointerException if the specified collection is null
+     */
+    public TombstoneArrayList(Collection<? extends E> c) {
+        this(DEFAULT_COMPACTION_RATIO);
+        elementData = c.toArray();
+        if (elementData.getClass() != Object[].class)
+            elementData = Arrays.copyOf(elementData, elementData.length, Object[].class);
+        used = size = elementData.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of tombstones waiting for the next compaction.
+     *
+     * @return the number of dead slots
+     */
+    public int tombstoneCount() {
+        return dead;
+    }
+
+    // ------------------------------------------------------------------
+    // rank / select
+
+    /**
+     * Returns the slot of the element at logical {@code index}, which must
+     * be in range.
+     * 逻辑下标 -> 数组槽位
+     */
+    int slot(int index) {
+        if (dead == 0)
+            return index;
+        // Fenwick descent: the word holding the (index + 1)-th live slot
+        int[] t = tree;
+        int n = t.length - 1, pos = 0, rem = index;
+        for (int step = Integer.highestOneBit(n); step > 0; step >>>= 1) {
+            int next = pos + step;
+            if (next <= n && t[next] <= rem) {
+                pos = next;
+                rem -= t[next];
+            }
+        }
+        // pos is now the 0-based word; select the rem-th live bit in it
+        long live = ~tombstones[pos];
+        for (; rem > 0; rem--)
+            live &= live - 1;
+        return (pos << 6) + Long.numberOfTrailingZeros(live);
+    }
+
+    private void treeAdd(int word, int delta) {
+        int[] t = tree;
+        for (int i = word + 1; i < t.length; i += i & -i)
+            t[i] += delta;
+    }
+
+    /**
+     * Builds the Fenwick tree for the current bitmap, sized for the whole
+     * array so that appends only update it.
+     */
+    private void buildTree() {
+        int words = (elementData.length + 63) >>> 6;
+        int[] t = new int[words + 1];
+        long[] tomb = tombstones;
+        for (int w = 0; w < words; w++) {
+            int base = w << 6;
+            int inUse = Math.max(0, Math.min(64, used - base));
+            t[w + 1] += inUse - Long.bitCount(tomb[w]);
+            int parent = (w + 1) + ((w + 1) & -(w + 1));
+            if (parent <= words)
+                t[parent] += t[w + 1];
+        }
+        tree = t;
+    }
+
+    // ------------------------------------------------------------------
+    // access
+
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        rangeCheck(index);
+        return (E) elementData[slot(index)];
+    }
+
+    public E set(int index, E element) {
+        rangeCheck(index);
+        int p = slot(index);
+        @SuppressWarnings("unchecked") E oldValue = (E) elementData[p];
+        elementData[p] = element;
+        return oldValue;
+    }
+
+    public boolean add(E e) {
+        modCount++;
+        if (used == elementData.length)
+            grow(used + 1);
+        elementData[used] = e;
+        if (tree != null)
+            treeAdd(used >>> 6, 1);
+        used++;
+        size++;
+        return true;
+    }
+
+    /**
+     * Inserts the specified element at the specified position.  Any
+     * tombstones are compacted away first, then the tail is shifted as in
+     * {@link ArrayList#add(int, Object)}.
+     *
+     * @throws IndexOutOfBoundsException {@inheritDoc}
+     */
+    public void add(int index, E element) {
+        if (index > size || index < 0)
+            throw new IndexOutOfBoundsException(outOfBoundsMsg(index));
+        if (index == size) {
+            add(element);
+            return;
+        }
+        compact();
+        modCount++;
+        if (used == elementData.length)
+            grow(used + 1);
+        System.arraycopy(elementData, index, elementData, index + 1, size - index);
+        elementData[index] = element;
+        used++;
+        size++;
+    }
+
+    /**
+     * Removes the element at the specified position by turning its slot
+     * into a tombstone: nothing is shifted.  If this leaves more than
+     * {@code compactionRatio} of the used slots dead, the array is
+     * compacted.
+     * 删除指定位置的元素：只把槽位标记为墓碑，不移动元素；墓碑过多时自动压缩
+     *
+     * @throws IndexOutOfBoundsException {@inheritDoc}
+     */
+    public E remove(int index) {
+        rangeCheck(index);
+        E oldValue = removeSlot(slot(index));
+        if (dead >= MIN_COMPACTION && dead > compactionRatio * used)
+            compact();
+        return oldValue;
+    }
+
+    /**
+     * Tombstones slot {@code p}, which must be live; never compacts.
+     */
+    E removeSlot(int p) {
+        modCount++;
+        @SuppressWarnings("unchecked") E oldValue = (E) elementData[p];
+        elementData[p] = null; // clear to let GC do its work
+        size--;
+        if (p == used - 1 && dead == 0) {
+            // removing the last element needs no tombstone
+            used--;
+            return oldValue;
+        }
+        if (tombstones == null) {
+            tombstones = new long[(elementData.length + 63) >>> 6];
+            tombstones[p >>> 6] |= 1L << p;
+            dead = 1;
+            buildTree();
+        } else {
+            tombstones[p >>> 6] |= 1L << p;
+            dead++;
+            treeAdd(p >>> 6, -1);
+        }
+        return oldValue;
+    }
+
+    /**
+     * Removes all tombstones in a single pass: the live elements are moved
+     * to the front of the array, whole tombstone-free words at a time with
+     * {@code System.arraycopy}, and the freed tail is cleared.  Logical
+     * indices are unchanged, but open iterators fail.
+     * 一次性压缩所有墓碑：存活元素移动到数组前部(没有墓碑的整组用 arraycopy 移动)，并清空尾部
+     */
+    public void compact() {
+        if (dead == 0)
+            return;
+        modCount++;
+        final Object[] es = elementData;
+        final long[] tomb = tombstones;
+        final int used = this.used;
+        int w = 0;
+        for (int base = 0; base < used; base += 64) {
+            int end = Math.min(used, base + 64);
+            long bits = tomb[base >>> 6];
+            if (bits == 0) {
+                if (w != base)
+                    System.arraycopy(es, base, es, w, end - base);
+                w += end - base;
+            } else {
+                for (int r = base; r < end; r++) {
+                    if ((bits & (1L << r)) == 0)
+                        es[w++] = es[r];
+                }
+            }
+        }
+        Arrays.fill(es, w, used, null);
+        this.used = w;
+        tombstones = null;
+        tree = null;
+        dead = 0;
+    }
+
+    public void clear() {
+        modCount++;
+        Arrays.fill(elementData, 0, used, null);
+        used = size = 0;
+        tombstones = null;
+        tree = null;
+        dead = 0;
+    }
+
+    /**
+     * Compacts and then trims the capacity to the size.
+     */
+    public void trimToSize() {
+        compact();
+        if (used < elementData.length) {
+            modCount++;
+            elementData = (used == 0) ? EMPTY_ELEMENTDATA : Arrays.copyOf(elementData, used);
+        }
+    }
+
+    private void grow(int minCapacity) {
+        int oldCapacity = elementData.length;
+        int newCapacity = (oldCapacity == 0) ? GrowthPolicy.ONE_AND_HALF.initialCapacity(minCapacity)
+                : GrowthPolicy.ONE_AND_HALF.newCapacity(oldCapacity, minCapacity);
+        if (newCapacity - minCapacity < 0)
+            newCapacity = minCapacity;
+        if (newCapacity - MAX_ARRAY_SIZE > 0) {
+            if (minCapacity < 0) // overflow
+                throw new OutOfMemoryError();
+            newCapacity = (minCapacity > MAX_ARRAY_SIZE) ? Integer.MAX_VALUE : MAX_ARRAY_SIZE;
+        }
+        elementData = Arrays.copyOf(elementData, newCapacity);
+        if (tombstones != null) {
+            tombstones = Arrays.copyOf(tombstones, (newCapacity + 63) >>> 6);
+            buildTree();
+        }
+    }
+
+    private void rangeCheck(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException(outOfBoundsMsg(index));
+    }
+
+    private String outOfBoundsMsg(int index) {
+        return "Index: "+index+", Size: "+size;
+    }
+
+    // ------------------------------------------------------------------
+    // traversal
+
+    /**
+     * Returns the first live slot at or after {@code p}, or {@code used}.
+     */
+    int nextLive(int p) {
+        long[] tomb = tombstones;
+        if (tomb == null || p >= used)
+            return Math.min(p, used);
+        int w = p >>> 6;
+        long live = ~tomb[w] & (-1L << p);
+        while (live == 0) {
+            if (++w << 6 >= used)
+                return used;
+            live = ~tomb[w];
+        }
+        return Math.min((w << 6) + Long.numberOfTrailingZeros(live), used);
+    }
+
+    @Override
+    public void forEach(Consumer<? super E> action) {
+        Objects.requireNonNull(action);
+        final int expectedModCount = modCount;
+        final Object[] es = elementData;
+        final int used = this.used;
+        for (int p = nextLive(0); modCount == expectedModCount && p < used; p = nextLive(p + 1)) {
+            @SuppressWarnings("unchecked") E e = (E) es[p];
+            action.accept(e);
+        }
+        if (modCount != expectedModCount)
+            throw new ConcurrentModificationException();
+    }
+
+    /**
+     * Returns an iterator over the elements in this list in proper
+     * sequence.  It walks the slots and skips tombstones a word at a time;
+     * its {@code remove} only sets a tombstone, never compacts, and costs
+     * {@code O(1)}.
+     * 迭代器按槽位遍历并跳过墓碑；它的 remove 只打墓碑、不触发压缩，代价为 O(1)
+     *
+     * @return an iterator over the elements in this list in proper sequence
+     */
+    public Iterator<E> iterator() {
+        return new Itr();
+    }
+
+    private class Itr implements Iterator<E> {
+        int cursor = nextLive(0); // slot of next element to return
+        int lastRet = -1;         // slot of last element returned; -1 if no such
+        int expectedModCount = modCount;
+
+        public boolean hasNext() {
+            return cursor < used;
+        }
+
+        @SuppressWarnings("unchecked")
+        public E next() {
+            checkForComodification();
+            int p = cursor;
+            if (p >= used)
+                throw new NoSuchElementException();
+            cursor = nextLive(p + 1);
+            return (E) elementData[lastRet = p];
+        }
+
+        public void remove() {
+            if (lastRet < 0)
+                throw new IllegalStateException();
+            checkForComodification();
+            removeSlot(lastRet);
+            lastRet = -1;
+            // removing the last slot lowers used; the cursor stays past it
+            cursor = nextLive(cursor);
+            expectedModCount = modCount;
+        }
+
+        final void checkForComodification() {
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+        }
+    }
+}
@@ -541,6 +541,18 @@ public class HashMap<K,V> extends AbstractMap<K,V>
      */
     transient int modCount;
 
+    /**
+     * Set by {@link #makeImmutable()}.  Not serialized: a deserialized or
+     * cloned map is mutable.
+     * 是否已经变为不可变(不参与序列化，反序列化或 clone 得到的 map 是可变的)
+     */
+    transient boolean immutable;
+
+    /**
+     * Cached hash code of an immutable map, {@code 0} if not computed yet.
+     */
+    transient int cachedHash;
+
     /**
      * The next size value at which to resize (capacity * load factor).
      * 要调整大小的下一个大小值（容量负载因子）。
@@ -803,6 +815,7 @@ public class HashMap<K,V> extends AbstractMap<K,V>
      * @return previous value, or null if none  前一个值，如果没有，则为 null
      */
     final V putVal(int hash, K key, V value, boolean onlyIfAbsent, boolean evict) {
+        checkMutable();
         Node<K,V>[] tab; Node<K,V> p; int n, i;
         // 如果table为null则先建一个
         if ((tab = table) == null || (n = tab.length) == 0)
@@ -987,6 +1000,7 @@ public class HashMap<K,V> extends AbstractMap<K,V>
      * @throws NullPointerException if the specified map is null 如果指定的地图为空
      */
     public void putAll(Map<? extends K, ? extends V> m) {
+        checkMutable();
         // 当前功能很明显：将传入的m里面所有的kv放入到当前map内，相同的的映射将被替换
         // example:
         //  HashMap<String,String> m1 = new HashMap<String,String>();
@@ -1039,6 +1053,7 @@ public class HashMap<K,V> extends AbstractMap<K,V>
      * @return the node, or null if none    节点，如果没有则为 null: 节点不存在返回null
      */
     final Node<K,V> removeNode(int hash, Object key, Object value, boolean matchValue, boolean movable) {
+        checkMutable();
         // tab=table,n=table.length     index=n-1,p=table[index & hash]
         // n是table的长度，p是当前活跃的Node，index为当前活跃的Node的索引
         Node<K,V>[] tab; Node<K,V> p; int n, index;
@@ -1088,6 +1103,7 @@ public class HashMap<K,V> extends AbstractMap<K,V>
      * The map will be empty after this call returns.   此调用返回后，map将为空。
      */
     public void clear() {
+        checkMutable();
         Node<K,V>[] tab;
         modCount++; // 版本
         if ((tab = table) != null && size > 0) {
@@ -1312,7 +1328,7 @@ public class HashMap<K,V> extends AbstractMap<K,V>
                 for (int i = 0; i < tab.length; ++i) {
                     for (Node<K,V> e = tab[i]; e != null; e = e.next){
                         // 这个
-                        action.accept(e);
+                        action.accept(exposed(e));
                     }
                 }
                 if (modCount != mc)
@@ -1345,6 +1361,7 @@ public class HashMap<K,V> extends AbstractMap<K,V>
 
     @Override
     public boolean replace(K key, V oldValue, V newValue) {
+        checkMutable();
         // 匹配key以及老value后执行替换value的替换，只返回操作成功与否
         Node<K,V> e; V v;
         if ((e = getNode(hash(key), key)) != null &&
@@ -1359,6 +1376,7 @@ public class HashMap<K,V> extends AbstractMap<K,V>
 
     @Override
     public V replace(K key, V value) {
+        checkMutable();
         Node<K,V> e;
         if ((e = getNode(hash(key), key)) != null) {
             V oldValue = e.value;
@@ -1377,6 +1395,7 @@ public class HashMap<K,V> extends AbstractMap<K,V>
     // 返回的value总是function表达式中给的value
     @Override
     public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        checkMutable();
         if (mappingFunction == null){
             throw new NullPointerException();
         }
@@ -1443,6 +1462,7 @@ public class HashMap<K,V> extends AbstractMap<K,V>
     // 根据key查找这个key所在的Node，如果function表达式给的value是null则直接删除node
     // 如果给的value不是null则替换node中的value
     public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        checkMutable();
         if (remappingFunction == null){
             throw new NullPointerException();
         }
@@ -1464,6 +1484,7 @@ public class HashMap<K,V> extends AbstractMap<K,V>
 
     @Override
     public V compute(K key,BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        checkMutable();
         if (remappingFunction == null){
             throw new NullPointerException();
         }
@@ -1529,6 +1550,7 @@ public class HashMap<K,V> extends AbstractMap<K,V>
     // 如果没找到所在node，则用这个key&value组成一个新的node新增到map
     @Override
     public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        checkMutable();
         if (value == null)
             throw new NullPointerException();
         if (remappingFunction == null)
@@ -1619,6 +1641,7 @@ public class HashMap<K,V> extends AbstractMap<K,V>
     // example: map.replaceAll((k,v)->99);
     @Override
     public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        checkMutable();
         Node<K,V>[] tab;
         if (function == null){
             throw new NullPointerException();
@@ -1670,9 +1693,286 @@ public class HashMap<K,V> extends AbstractMap<K,V>
         return result;
     }
 
+    /**
+     * Shrinks the table of this map to the smallest power of two that
+     * holds its mappings below the load factor.  A {@code HashMap} only
+     * ever grows its table, so a map that was once large keeps a mostly
+     * empty table after its mappings are removed; this gives the space
+     * back.  The mappings of the merged bins are relinked, not copied,
+     * and bins that grow past the treeify threshold are treeified again.
+     * An empty map drops its table altogether.
+     * 缩小桶数组：HashMap 只会扩容，曾经很大的 map 删除映射后会留下一个大部分为空的 table；
+     * 这里把 table 缩小到能在负载因子以下容纳现有映射的最小 2 的幂，合并的桶中的节点直接重新链接而不是复制，
+     * 合并后超过树化阈值的桶重新树化；空 map 直接丢弃 table
+     *
+     * <p>Does nothing on an {@link #makeImmutable() immutable} map.  Such
+     * maps are typically shared for concurrent reads without locking, and
+     * the trim publishes the new table before relinking the nodes into it
+     * (and rewrites their {@code next} links in place), so a reader in
+     * another thread could miss a mapping that is present.  Unlike the
+     * modifying operations it does not throw, since the mappings would not
+     * change.
+     * 笔记：不可变的 map 不缩容(也不抛异常)：它们通常被多个线程不加锁地并发读取，而缩容先发布新的 table 再重新链接节点
+     *      (并且原地改写节点的 next)，其他线程可能读不到实际存在的映射
+     */
+    public void trimToSize() {
+        if (immutable)
+            return;
+        Node<K,V>[] oldTab = table;
+        if (oldTab == null)
+            return;
+        if (size == 0) {
+            modCount++;
+            table = null;
+            threshold = DEFAULT_INITIAL_CAPACITY; // initial capacity is placed in threshold
+            return;
+        }
+        float ft = ((float)size / loadFactor) + 1.0F;
+        int newCap = tableSizeFor((ft < (float)MAXIMUM_CAPACITY) ? (int)ft : MAXIMUM_CAPACITY);
+        int oldCap = oldTab.length;
+        if (newCap >= oldCap)
+            return;
+        modCount++;
+        @SuppressWarnings({"rawtypes","unchecked"})
+        Node<K,V>[] newTab = (Node<K,V>[])new Node[newCap];
+        table = newTab;
+        threshold = (int)(newCap * loadFactor);
+        for (int i = 0; i < newCap; i++) {
+            // old bins i, i + newCap, i + 2 * newCap ... all land in bin i
+            Node<K,V> hd = null, tl = null;
+            int binCount = 0;
+            for (int j = i; j < oldCap; j += newCap) {
+                Node<K,V> e = oldTab[j];
+                if (e == null)
+                    continue;
+                oldTab[j] = null;
+                if (e instanceof TreeNode)
+                    e = ((TreeNode<K,V>)e).untreeify(this);
+                for (; e != null; e = e.next) {
+                    if (tl == null)
+                        hd = e;
+                    else
+                        tl.next = e;
+                    tl = e;
+                    binCount++;
+                }
+            }
+            newTab[i] = hd;
+            if (binCount >= TREEIFY_THRESHOLD && newCap >= MIN_TREEIFY_CAPACITY)
+                treeifyBin(newTab, hd.hash);
+        }
+    }
+
+    /**
+     * Makes this map immutable, for maps that are used as cache keys or
+     * dedup keys and hashed or compared over and over.  From then on every
+     * modifying operation, through the map, its collection views, their
+     * iterators and cursors, throws {@code UnsupportedOperationException},
+     * and the entries handed out are immutable snapshots; the hash code is
+     * computed once (in parallel for large maps) and cached, and
+     * {@link #equals} returns {@code false} right away when the sizes
+     * differ or when two immutable maps have different cached hash codes.
+     * An access-ordered {@code LinkedHashMap} keeps its current order.
+     * There is no way back; {@link #clone()} returns a mutable copy.
+     * 把 map 变为不可变的：之后所有修改操作都抛出 UnsupportedOperationException，对外提供的 Entry 是不可变的快照；
+     * hashCode 只计算一次(大 map 并行计算)并缓存；equals 在 size 不同或两个不可变 map 缓存的 hashCode 不同时直接返回 false；
+     * 按访问顺序排列的 LinkedHashMap 不再调整顺序。无法恢复可变，clone() 返回可变的副本
+     *
+     * <p>The keys and values should not change their hash codes
+     * afterwards.
+     *
+     * @return this map
+     */
+    public HashMap<K,V> makeImmutable() {
+        immutable = true;
+        return this;
+    }
+
+    /**
+     * Returns whether {@link #makeImmutable()} was called on this map.
+     */
+    public boolean isImmutable() {
+        return immutable;
+    }
+
+    /**
+     * Throws {@code UnsupportedOperationException} if this map is
+     * immutable.  Called first by every modifying operation.
+     */
+    final void checkMutable() {
+        if (immutable)
+            throw new UnsupportedOperationException("Immutable map");
+    }
+
+    /**
+     * Returns the entry to hand out for a node: the node itself, or an
+     * immutable copy once the map is immutable, as {@code Node.setValue}
+     * knows nothing about its map.
+     */
+    final Entry<K,V> exposed(Node<K,V> e) {
+        return immutable ? new SimpleImmutableEntry<>(e) : e;
+    }
+
+    /**
+     * Returns the hash code value for this map, the sum of the hash codes of
+     * its entries.  Computed over the table, without an iterator; cached if
+     * the map is {@link #makeImmutable() immutable}.
+     * 直接遍历 table 计算 hashCode；不可变 map 会缓存结果(0 表示尚未计算)
+     *
+     * @return the hash code value for this map
+     */
+    public int hashCode() {
+        if (!immutable)
+            return hashBuckets(table, 0, (table == null) ? 0 : table.length);
+        int h = cachedHash;
+        if (h == 0)
+            cachedHash = h = parallelHashCode();
+        return h;
+    }
+
+    /**
+     * Returns the sum of the hash codes of the entries in the buckets
+     * {@code tab[from, to)}.
+     */
+    static int hashBuckets(Node<?,?>[] tab, int from, int to) {
+        int h = 0;
+        for (int i = from; i < to; i++) {
+            for (Node<?,?> e = tab[i]; e != null; e = e.next)
+                h += Objects.hashCode(e.key) ^ Objects.hashCode(e.value);
+        }
+        return h;
+    }
+
+    /**
+     * Computes the hash code of this map on the common
+     * {@link java.util.concurrent.ForkJoinPool}, for very large maps: the
+     * entry hash codes of ranges of buckets are summed independently.  Maps
+     * smaller than an internal threshold are hashed sequentially.
+     * 并行计算 hashCode：按桶的区间分别求和再相加
+     *
+     * @return the hash code value for this map
+     * @throws ConcurrentModificationException if this map is structurally
+     *         modified meanwhile
+     */
+    public int parallelHashCode() {
+        Node<K,V>[] tab = table;
+        if (tab == null)
+            return 0;
+        if (!ParallelMapOps.worthParallel(size))
+            return hashBuckets(tab, 0, tab.length);
+        int mc = modCount;
+        int h = ParallelMapOps.hash(tab);
+        if (modCount != mc)
+            throw new ConcurrentModificationException();
+        return h;
+    }
+
+    /**
+     * Compares the specified object with this map for equality, as defined
+     * by {@link Map#equals(Object)}.  Returns {@code false} without looking
+     * at the mappings if the other map has a different size, or if both
+     * maps are immutable and their cached hash codes differ.  The mappings
+     * of this map are read from the table, and looked up directly in
+     * another {@code HashMap}, which does not count as an access for an
+     * access-ordered {@code LinkedHashMap}.
+     * 比较是否相等：size 不同、或者两个不可变 map 缓存的 hashCode 不同时直接返回 false；
+     * 直接遍历 table，另一个也是 HashMap 时直接用 getNode 查找
+     *
+     * @param o object to be compared for equality with this map
+     * @return {@code true} if the specified object is equal to this map
+     */
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof Map))
+            return false;
+        Map<?,?> m = (Map<?,?>) o;
+        if (m.size() != size)
+            return false;
+        Node<K,V>[] tab = table;
+        if (tab == null || size == 0)
+            return true;
+        if (!(o instanceof HashMap))
+            return super.equals(o);
+        HashMap<?,?> other = (HashMap<?,?>) o;
+        if (immutable && other.immutable && cachedHash != 0 && other.cachedHash != 0 && cachedHash != other.cachedHash)
+            return false;
+        int mc = modCount;
+        boolean equal = containedIn(tab, 0, tab.length, other);
+        if (modCount != mc)
+            throw new ConcurrentModificationException();
+        return equal;
+    }
+
+    /**
+     * Returns whether every mapping in the buckets {@code tab[from, to)} is
+     * also in {@code other}.
+     */
+    static boolean containedIn(Node<?,?>[] tab, int from, int to, HashMap<?,?> other) {
+        for (int i = from; i < to; i++) {
+            for (Node<?,?> e = tab[i]; e != null; e = e.next) {
+                Object key = e.key;
+                Node<?,?> n = other.getNode(hash(key), key);
+                if (n == null || !Objects.equals(e.value, n.value))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parallel version of {@link #equals(Object)} for very large maps: when
+     * the other object is a {@code HashMap} of the same size, ranges of
+     * buckets are looked up in it on the common
+     * {@link java.util.concurrent.ForkJoinPool}, and the first mismatch
+     * found stops the ranges that have not started yet.  Otherwise, and for
+     * maps smaller than an internal threshold, this is {@code equals}.
+     * 并行版本的 equals：另一个对象是 size 相同的 HashMap 时，按桶的区间并行查找，发现不相等之后尚未开始的区间不再比较
+     *
+     * <p>The other map is only read, through lookups that never reorder an
+     * access-ordered {@code LinkedHashMap}; {@code equals} and
+     * {@code hashCode} of the keys and values may be called from several
+     * threads at once.
+     *
+     * @param o object to be compared for equality with this map
+     * @return {@code true} if the specified object is equal to this map
+     */
+    public boolean parallelEquals(Object o) {
+        Node<K,V>[] tab = table;
+        if (!(o instanceof HashMap) || o == this || ((HashMap<?,?>) o).size != size
+                || tab == null || !ParallelMapOps.worthParallel(size))
+            return equals(o);
+        HashMap<?,?> other = (HashMap<?,?>) o;
+        if (immutable && other.immutable && cachedHash != 0 && other.cachedHash != 0 && cachedHash != other.cachedHash)
+            return false;
+        int mc = modCount;
+        boolean equal = ParallelMapOps.containedIn(tab, other);
+        if (modCount != mc)
+            throw new ConcurrentModificationException();
+        return equal;
+    }
+
+    /**
+     * Returns the number of buckets of the table, {@code 0} if it has not
+     * been allocated yet.
+     * 返回桶数组的长度，尚未分配时为 0
+     *
+     * @return the length of the table
+     */
+    public int bucketCount() {
+        Node<K,V>[] tab = table;
+        return (tab != null) ? tab.length : 0;
+    }
+
+    /**
+     * Returns the load factor of this map.
+     * 返回负载因子
+     *
+     * @return the load factor
+     */
     // These methods are also used when serializing HashSets
     // 序列化为HashSets会使用这些方法，只返回负载系数
-    final float loadFactor() { return loadFactor; }
+    public final float loadFactor() { return loadFactor; }
 
     // 内部用的方法，返回桶的容量
     final int capacity() {
@@ -1838,7 +2138,161 @@ public class HashMap<K,V> extends AbstractMap<K,V>
 
     final class EntryIterator extends HashIterator implements Iterator<Entry<K,V>> {
         public final Entry<K,V> next() {
-            return nextNode();
+            return exposed(nextNode());
+        }
+    }
+
+    /**
+     * Returns a new cursor over the mappings of this map, positioned before
+     * the first one.  Unlike {@code entrySet().iterator()}, one cursor can
+     * be {@link MapCursor#reset() reset} and reused for any number of
+     * traversals, and it reads keys and values straight from the nodes
+     * rather than through {@code Map.Entry}, so a hot loop allocates
+     * nothing even where escape analysis cannot remove the iterator.
+     * 返回一个可复用的游标：与 entrySet().iterator() 不同，同一个游标可以 reset 后反复遍历，
+     * 并且直接从节点读取 key/value 而不经过 Map.Entry 接口，热点循环中不产生垃圾
+     *
+     * <pre>
+     *     HashMap&lt;String,Long&gt;.MapCursor c = counts.cursor(); // once
+     *     ...
+     *     for (c.reset(); c.advance(); ) {
+     *         c.setValue(c.value() + 1);
+     *     }
+     * </pre>
+     *
+     * @return a cursor over this map
+     */
+    public MapCursor cursor() {
+        return new MapCursor();
+    }
+
+    /**
+     * A resettable, fail-fast cursor over the mappings of a {@code HashMap},
+     * obtained from {@link HashMap#cursor()}, visiting them in the same
+     * order as the iterators.  {@link #advance()} moves to the next mapping
+     * and {@link #key()}, {@link #value()}, {@link #setValue},
+     * {@link #remove()} act on the current one.  {@link #reset()} starts a
+     * new traversal and re-reads the map's modification count, so a cursor
+     * may be kept across modifications of the map that happen between
+     * traversals.
+     * 可复用的游标：遍历顺序与迭代器相同；advance() 移动到下一个映射，key/value/setValue/remove 作用于当前映射；
+     * reset() 开始新一轮遍历并重新读取 modCount
+     */
+    public class MapCursor {
+        Node<K,V> next;        // next node
+        Node<K,V> current;     // current node
+        int expectedModCount;  // for fast-fail
+        int index;             // next slot to scan
+
+        MapCursor() {
+            reset();
+        }
+
+        /**
+         * Positions this cursor before the first mapping.
+         */
+        public final void reset() {
+            expectedModCount = modCount;
+            current = null;
+            index = 0;
+            next = first();
+        }
+
+        /** Returns the first node in iteration order, or null. */
+        Node<K,V> first() {
+            return size > 0 ? nextBucket() : null;
+        }
+
+        /** Returns the node after {@code e} in iteration order, or null. */
+        Node<K,V> successor(Node<K,V> e) {
+            Node<K,V> n = e.next;
+            return n != null ? n : nextBucket();
+        }
+
+        private Node<K,V> nextBucket() {
+            Node<K,V>[] t = table;
+            Node<K,V> n = null;
+            if (t != null) {
+                do {} while (index < t.length && (n = t[index++]) == null);
+            }
+            return n;
+        }
+
+        /**
+         * Moves to the next mapping.
+         *
+         * @return {@code true} if there was one, {@code false} when all
+         *         mappings were visited
+         * @throws ConcurrentModificationException if the map was
+         *         structurally modified other than through this cursor
+         */
+        public final boolean advance() {
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            Node<K,V> e = next;
+            if ((current = e) == null)
+                return false;
+            next = successor(e);
+            return true;
+        }
+
+        /**
+         * Returns the key of the current mapping.
+         *
+         * @throws IllegalStateException if there is no current mapping
+         */
+        public final K key() {
+            return node().key;
+        }
+
+        /**
+         * Returns the value of the current mapping.
+         *
+         * @throws IllegalStateException if there is no current mapping
+         */
+        public final V value() {
+            return node().value;
+        }
+
+        /**
+         * Replaces the value of the current mapping, like
+         * {@code Map.Entry.setValue}.
+         *
+         * @param value the new value
+         * @return the old value
+         * @throws IllegalStateException if there is no current mapping
+         */
+        public final V setValue(V value) {
+            checkMutable();
+            Node<K,V> e = node();
+            V oldValue = e.value;
+            e.value = value;
+            return oldValue;
+        }
+
+        /**
+         * Removes the current mapping; the next {@link #advance()} moves to
+         * the mapping that followed it.
+         *
+         * @throws IllegalStateException if there is no current mapping
+         * @throws ConcurrentModificationException if the map was
+         *         structurally modified other than through this cursor
+         */
+        public final void remove() {
+            Node<K,V> p = node();
+            current = null;
+            K key = p.key;
+            removeNode(hash(key), key, null, false, false);
+            expectedModCount = modCount;
+        }
+
+        private Node<K,V> node() {
+            Node<K,V> e = current;
+            if (e == null)
+                throw new IllegalStateException();
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            return e;
         }
     }
 
@@ -2067,7 +2521,7 @@ public class HashMap<K,V> extends AbstractMap<K,V>
                     if (p == null)
                         p = tab[i++];
                     else {
-                        action.accept(p);
+                        action.accept(m.exposed(p));
                         p = p.next;
                     }
                 } while (p != null || i < hi);
@@ -2088,7 +2542,7 @@ public class HashMap<K,V> extends AbstractMap<K,V>
                     else {
                         Node<K,V> e = current;
                         current = current.next;
-                        action.accept(e);
+                        action.accept(map.exposed(e));
                         if (map.modCount != expectedModCount)
                             throw new ConcurrentModificationException();
                         return true;
@@ -2152,6 +2606,8 @@ public class HashMap<K,V> extends AbstractMap<K,V>
         modCount = 0;
         threshold = 0;
         size = 0;
+        immutable = false;
+        cachedHash = 0;
     }
 
     // 以下三个方法均是空是实现，具体实现是在LinkedHashMap中
@@ -306,7 +306,7 @@ public class LinkedHashMap<K,V>
 
     void afterNodeAccess(Node<K,V> e) { // move node to last
         Entry<K,V> last;
-        if (accessOrder && (last = tail) != e) {
+        if (accessOrder && !immutable && (last = tail) != e) {
             Entry<K,V> p =
                     (Entry<K,V>)e, b = p.before, a = p.after;
             p.after = null;
@@ -670,7 +670,7 @@ public class LinkedHashMap<K,V>
                 throw new NullPointerException();
             int mc = modCount;
             for (Entry<K,V> e = head; e != null; e = e.after)
-                action.accept(e);
+                action.accept(exposed(e));
             if (modCount != mc)
                 throw new ConcurrentModificationException();
         }
@@ -689,6 +689,7 @@ public class LinkedHashMap<K,V>
     }
 
     public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        checkMutable();
         if (function == null)
             throw new NullPointerException();
         int mc = modCount;
@@ -751,7 +752,27 @@ public class LinkedHashMap<K,V>
 
     final class LinkedEntryIterator extends LinkedHashIterator
             implements Iterator<Map.Entry<K,V>> {
-        public final Map.Entry<K,V> next() { return nextNode(); }
+        public final Map.Entry<K,V> next() { return exposed(nextNode()); }
+    }
+
+    /**
+     * Returns a new cursor over the mappings of this map, visiting them in
+     * the order of the linked list (insertion or access order), like the
+     * iterators.  Reading through the cursor does not count as an access.
+     * 返回的游标按链表顺序遍历(插入顺序或访问顺序)，通过游标读取不算作一次访问
+     */
+    public MapCursor cursor() {
+        return new LinkedMapCursor();
+    }
+
+    final class LinkedMapCursor extends MapCursor {
+        Node<K,V> first() {
+            return head;
+        }
+
+        Node<K,V> successor(Node<K,V> e) {
+            return ((Entry<K,V>) e).after;
+        }
     }
 
 
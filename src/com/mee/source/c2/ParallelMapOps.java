@@ -0,0 +1,119 @@
+package com.mee.source.c2;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork-join helpers behind the parallel {@code hashCode}/{@code equals} of
+ * {@link HashMap}.  The table is split into fixed ranges of
+ * {@link #CHUNK} buckets, each handled by one leaf task.
+ * HashMap 并行 hashCode/equals 使用的 fork-join 工具类：把 table 拆成固定 CHUNK 个桶的区间，每个区间一个叶子任务
+ */
+final class ParallelMapOps {
+
+    private ParallelMapOps() {
+    }
+
+    /**
+     * Smallest map size for which the parallel operations fork at all;
+     * below it they fall back to the sequential versions.
+     * 小于这个大小时并行版本直接退化为顺序版本
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    /**
+     * Number of buckets handled by one leaf task.
+     */
+    static final int CHUNK = 1 << 12;
+
+    /**
+     * Returns whether an operation over {@code size} mappings should run in
+     * parallel.
+     */
+    static boolean worthParallel(int size) {
+        return size >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1;
+    }
+
+    /**
+     * Returns the sum of the entry hash codes of {@code tab}, computed in
+     * parallel.
+     */
+    static int hash(HashMap.Node<?,?>[] tab) {
+        return ForkJoinPool.commonPool().invoke(new HashTask(tab, 0, tab.length));
+    }
+
+    /**
+     * Returns whether every mapping of {@code tab} is also in
+     * {@code other}, looking ranges of buckets up in parallel.
+     */
+    static boolean containedIn(HashMap.Node<?,?>[] tab, HashMap<?,?> other) {
+        ContainedTask root = new ContainedTask(tab, other, null, 0, tab.length);
+        ForkJoinPool.commonPool().invoke(root);
+        return !root.mismatch;
+    }
+
+    /**
+     * Sums the entry hash codes of the buckets {@code tab[lo, hi)}.
+     */
+    static final class HashTask extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 4409132467516338113L;
+
+        final HashMap.Node<?,?>[] tab;
+        final int lo, hi;
+
+        HashTask(HashMap.Node<?,?>[] tab, int lo, int hi) {
+            this.tab = tab;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        protected Integer compute() {
+            int lo = this.lo, hi = this.hi;
+            if (hi - lo > CHUNK) {
+                int mid = (lo + hi) >>> 1;
+                HashTask right = new HashTask(tab, mid, hi);
+                right.fork();
+                return new HashTask(tab, lo, mid).compute() + right.join();
+            }
+            return HashMap.hashBuckets(tab, lo, hi);
+        }
+    }
+
+    /**
+     * Looks the mappings of the buckets {@code tab[lo, hi)} up in
+     * {@code other}, setting the {@code mismatch} flag of the root task on
+     * the first one missing so that the ranges not started yet are skipped.
+     */
+    static final class ContainedTask extends RecursiveAction {
+        private static final long serialVersionUID = -2246015512418744012L;
+
+        final HashMap.Node<?,?>[] tab;
+        final HashMap<?,?> other;
+        final ContainedTask root;
+        final int lo, hi;
+        volatile boolean mismatch; // only used on the root
+
+        ContainedTask(HashMap.Node<?,?>[] tab, HashMap<?,?> other, ContainedTask root, int lo, int hi) {
+            this.tab = tab;
+            this.other = other;
+            this.root = (root == null) ? this : root;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        protected void compute() {
+            int lo = this.lo, hi = this.hi;
+            if (root.mismatch)
+                return;
+            if (hi - lo > CHUNK) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new ContainedTask(tab, other, root, lo, mid),
+                        new ContainedTask(tab, other, root, mid, hi));
+                return;
+            }
+            if (!HashMap.containedIn(tab, lo, hi, other))
+                root.mismatch = true;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.mee.source.codec;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Buffered binary input from a {@link ReadableByteChannel}, the reading
+ * side of {@link BinaryOutput}.  The buffer is refilled with one large
+ * {@code read} at a time.
+ * 从 ReadableByteChannel 读取的带缓冲二进制输入，对应 BinaryOutput；每次用一个大的 read 填充缓冲区
+ *
+ * <p>The input may read ahead of the last value it returned, so when
+ * several structures are stored in one channel they must all be read
+ * through the same {@code BinaryInput}.
+ * 笔记：会预读，所以同一个 channel 中的多个结构必须通过同一个 BinaryInput 读取
+ *
+ * <p>This class is not thread safe and does not close the channel.
+ *
+ * @see BinaryOutput
+ */
+public final class BinaryInput {
+
+    private final ReadableByteChannel channel;
+    private final byte[] buf;
+    private int pos;
+    private int limit;
+
+    /**
+     * Creates an input from {@code channel} with the default buffer size.
+     *
+     * @param channel the channel to read from
+     */
+    public BinaryInput(ReadableByteChannel channel) {
+        this(channel, BinaryOutput.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates an input from {@code channel} with the given buffer size.
+     *
+     * @param channel the channel to read from
+     * @param bufferSize the size of the buffer in bytes
+     * @throws IllegalArgumentException if {@code bufferSize} is less than 64
+     */
+    public BinaryInput(ReadableByteChannel channel, int bufferSize) {
+        if (channel == null)
+            throw new NullPointerException();
+        if (bufferSize < BinaryOutput.MIN_BUFFER_SIZE)
+            throw new IllegalArgumentException("Illegal buffer size: " + bufferSize);
+        this.channel = channel;
+        this.buf = new byte[bufferSize];
+    }
+
+    /**
+     * Makes at least {@code n} bytes available, or as many as remain before
+     * the end of the channel, and returns the number available.
+     */
+    private int fill(int n) throws IOException {
+        int avail = limit - pos;
+        if (avail >= n)
+            return avail;
+        System.arraycopy(buf, pos, buf, 0, avail);
+        pos = 0;
+        limit = avail;
+        ByteBuffer bb = ByteBuffer.wrap(buf, limit, buf.length - limit);
+        while (limit < n) {
+            int r = channel.read(bb);
+            if (r < 0)
+                break;
+            limit += r;
+        }
+        return limit;
+    }
+
+    /**
+     * Makes {@code n} bytes available or throws {@link EOFException}.
+     */
+    private void require(int n) throws IOException {
+        if (limit - pos < n && fill(n) < n)
+            throw new EOFException();
+    }
+
+    public byte readByte() throws IOException {
+        require(1);
+        return buf[pos++];
+    }
+
+    public boolean readBoolean() throws IOException {
+        return readByte() != 0;
+    }
+
+    public short readShort() throws IOException {
+        require(2);
+        byte[] b = buf;
+        int p = pos;
+        pos = p + 2;
+        return (short) ((b[p] << 8) | (b[p + 1] & 0xFF));
+    }
+
+    public char readChar() throws IOException {
+        return (char) readShort();
+    }
+
+    public int readInt() throws IOException {
+        require(4);
+        byte[] b = buf;
+        int p = pos;
+        pos = p + 4;
+        return (b[p] << 24) | ((b[p + 1] & 0xFF) << 16) | ((b[p + 2] & 0xFF) << 8) | (b[p + 3] & 0xFF);
+    }
+
+    public long readLong() throws IOException {
+        require(8);
+        byte[] b = buf;
+        int p = pos;
+        long v = 0;
+        for (int end = p + 8; p < end; p++)
+            v = (v << 8) | (b[p] & 0xFF);
+        pos = p;
+        return v;
+    }
+
+    public float readFloat() throws IOException {
+        return Float.intBitsToFloat(readInt());
+    }
+
+    public double readDouble() throws IOException {
+        return Double.longBitsToDouble(readLong());
+    }
+
+    /**
+     * Reads an unsigned varint written by {@link BinaryOutput#writeVarInt}.
+     *
+     * @throws StreamCorruptedException if the varint is longer than 5 bytes
+     */
+    public int readVarInt() throws IOException {
+        int v = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = readByte();
+            v |= (b & 0x7F) << shift;
+            if (b >= 0)
+                return v;
+        }
+        throw new StreamCorruptedException("Malformed varint");
+    }
+
+    /**
+     * Reads an unsigned varint written by {@link BinaryOutput#writeVarLong}.
+     *
+     * @throws StreamCorruptedException if the varint is longer than 10 bytes
+     */
+    public long readVarLong() throws IOException {
+        long v = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = readByte();
+            v |= (long) (b & 0x7F) << shift;
+            if (b >= 0)
+                return v;
+        }
+        throw new StreamCorruptedException("Malformed varint");
+    }
+
+    public int readSignedVarInt() throws IOException {
+        int v = readVarInt();
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    public long readSignedVarLong() throws IOException {
+        long v = readVarLong();
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    /**
+     * Reads exactly {@code len} bytes into {@code b} starting at
+     * {@code off}.
+     *
+     * @throws EOFException if the channel ends first
+     */
+    public void readFully(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            if (pos == limit && fill(1) == 0)
+                throw new EOFException();
+            int n = Math.min(len, limit - pos);
+            System.arraycopy(buf, pos, b, off, n);
+            pos += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * Reads a string written by {@link BinaryOutput#writeString}.
+     *
+     * @throws StreamCorruptedException if the bytes are not valid UTF-8
+     */
+    public String readString() throws IOException {
+        int len = readVarInt();
+        if (len < 0)
+            throw new StreamCorruptedException("Illegal string length: " + len);
+        char[] chars = new char[len];
+        byte[] b = buf;
+        for (int i = 0; i < len; ) {
+            // a char takes at most 3 bytes; decode as many as the buffer surely holds
+            if (limit - pos < 3)
+                fill(3);
+            int p = pos, end = Math.min(len, i + (limit - p) / 3);
+            if (end == i) {
+                // fewer than 3 bytes left before the end of the channel
+                chars[i++] = (char) decodeTail();
+                continue;
+            }
+            for (; i < end; i++) {
+                int c = b[p++];
+                if (c >= 0) {
+                    chars[i] = (char) c;
+                } else if ((c & 0xE0) == 0xC0) {
+                    chars[i] = (char) (((c & 0x1F) << 6) | continuation(b[p++]));
+                } else if ((c & 0xF0) == 0xE0) {
+                    chars[i] = (char) (((c & 0x0F) << 12) | (continuation(b[p]) << 6) | continuation(b[p + 1]));
+                    p += 2;
+                } else {
+                    throw new StreamCorruptedException("Malformed UTF-8");
+                }
+            }
+            pos = p;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Decodes one char from the last few bytes of the channel.
+     */
+    private int decodeTail() throws IOException {
+        int c = readByte();
+        if (c >= 0)
+            return c;
+        if ((c & 0xE0) == 0xC0)
+            return ((c & 0x1F) << 6) | continuation(readByte());
+        if ((c & 0xF0) == 0xE0)
+            return ((c & 0x0F) << 12) | (continuation(readByte()) << 6) | continuation(readByte());
+        throw new StreamCorruptedException("Malformed UTF-8");
+    }
+
+    private static int continuation(byte b) throws StreamCorruptedException {
+        if ((b & 0xC0) != 0x80)
+            throw new StreamCorruptedException("Malformed UTF-8");
+        return b & 0x3F;
+    }
+}
@@ -0,0 +1,242 @@
+package com.mee.source.codec;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Buffered binary output to a {@link WritableByteChannel}.  Values are
+ * encoded into a large byte array that is handed to the channel in one
+ * {@code write} call when it is full (or on {@link #flush}), instead of one
+ * small write per value as with {@code ObjectOutputStream}.
+ * 写入 WritableByteChannel 的带缓冲二进制输出：值先编码到一个大的 byte 数组中，
+ * 缓冲区满了(或者 flush)才一次性交给 channel，而不是每个值写一次
+ *
+ * <p>Multi-byte numbers are big-endian.  {@link #writeVarInt} and
+ * {@link #writeVarLong} write unsigned LEB128 varints (7 bits per byte),
+ * and the signed variants zig-zag encode first so that small negative
+ * numbers stay short too.
+ * 笔记：多字节数字为大端序；writeVarInt/writeVarLong 写无符号的 varint(每字节 7 位)，
+ *      有符号版本先做 zig-zag 编码，让绝对值小的负数同样很短
+ *
+ * <p>This class is not thread safe and does not close the channel.
+ *
+ * @see BinaryInput
+ */
+public final class BinaryOutput {
+
+    /**
+     * The default buffer size, 256 KiB.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 18;
+
+    /**
+     * The smallest allowed buffer size.  It must hold a few encoded chars
+     * and the longest fixed-size value.
+     */
+    static final int MIN_BUFFER_SIZE = 64;
+
+    private final WritableByteChannel channel;
+    private final byte[] buf;
+    private int pos;
+
+    /**
+     * Creates an output to {@code channel} with the default buffer size.
+     *
+     * @param channel the channel to write to
+     */
+    public BinaryOutput(WritableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates an output to {@code channel} with the given buffer size.
+     *
+     * @param channel the channel to write to
+     * @param bufferSize the size of the buffer in bytes
+     * @throws IllegalArgumentException if {@code bufferSize} is less than 64
+     */
+    public BinaryOutput(WritableByteChannel channel, int bufferSize) {
+        if (channel == null)
+            throw new NullPointerException();
+        if (bufferSize < MIN_BUFFER_SIZE)
+            throw new IllegalArgumentException("Illegal buffer size: " + bufferSize);
+        this.channel = channel;
+        this.buf = new byte[bufferSize];
+    }
+
+    /**
+     * Makes room for {@code n} more bytes, flushing if necessary.
+     */
+    private void require(int n) throws IOException {
+        if (buf.length - pos < n)
+            drain();
+    }
+
+    /**
+     * Hands the buffered bytes to the channel.
+     */
+    private void drain() throws IOException {
+        ByteBuffer bb = ByteBuffer.wrap(buf, 0, pos);
+        while (bb.hasRemaining())
+            channel.write(bb);
+        pos = 0;
+    }
+
+    /**
+     * Writes all buffered bytes to the channel.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void flush() throws IOException {
+        if (pos > 0)
+            drain();
+    }
+
+    public void writeByte(int v) throws IOException {
+        require(1);
+        buf[pos++] = (byte) v;
+    }
+
+    public void writeBoolean(boolean v) throws IOException {
+        writeByte(v ? 1 : 0);
+    }
+
+    public void writeShort(int v) throws IOException {
+        require(2);
+        byte[] b = buf;
+        int p = pos;
+        b[p] = (byte) (v >>> 8);
+        b[p + 1] = (byte) v;
+        pos = p + 2;
+    }
+
+    public void writeChar(int v) throws IOException {
+        writeShort(v);
+    }
+
+    public void writeInt(int v) throws IOException {
+        require(4);
+        byte[] b = buf;
+        int p = pos;
+        b[p] = (byte) (v >>> 24);
+        b[p + 1] = (byte) (v >>> 16);
+        b[p + 2] = (byte) (v >>> 8);
+        b[p + 3] = (byte) v;
+        pos = p + 4;
+    }
+
+    public void writeLong(long v) throws IOException {
+        require(8);
+        byte[] b = buf;
+        int p = pos;
+        for (int shift = 56; shift >= 0; shift -= 8)
+            b[p++] = (byte) (v >>> shift);
+        pos = p;
+    }
+
+    public void writeFloat(float v) throws IOException {
+        writeInt(Float.floatToIntBits(v));
+    }
+
+    public void writeDouble(double v) throws IOException {
+        writeLong(Double.doubleToLongBits(v));
+    }
+
+    /**
+     * Writes {@code v} as an unsigned varint of 1 to 5 bytes.
+     */
+    public void writeVarInt(int v) throws IOException {
+        require(5);
+        byte[] b = buf;
+        int p = pos;
+        while ((v & ~0x7F) != 0) {
+            b[p++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        b[p++] = (byte) v;
+        pos = p;
+    }
+
+    /**
+     * Writes {@code v} as an unsigned varint of 1 to 10 bytes.
+     */
+    public void writeVarLong(long v) throws IOException {
+        require(10);
+        byte[] b = buf;
+        int p = pos;
+        while ((v & ~0x7FL) != 0) {
+            b[p++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        b[p++] = (byte) v;
+        pos = p;
+    }
+
+    /**
+     * Writes {@code v} zig-zag encoded as a varint, so that values close to
+     * zero on either side take one byte.
+     */
+    public void writeSignedVarInt(int v) throws IOException {
+        writeVarInt((v << 1) ^ (v >> 31));
+    }
+
+    public void writeSignedVarLong(long v) throws IOException {
+        writeVarLong((v << 1) ^ (v >> 63));
+    }
+
+    /**
+     * Writes {@code len} bytes of {@code b} starting at {@code off}.  Large
+     * arrays bypass the buffer.
+     */
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (len > buf.length - pos) {
+            flush();
+            if (len >= buf.length) {
+                ByteBuffer bb = ByteBuffer.wrap(b, off, len);
+                while (bb.hasRemaining())
+                    channel.write(bb);
+                return;
+            }
+        }
+        System.arraycopy(b, off, buf, pos, len);
+        pos += len;
+    }
+
+    /**
+     * Writes a string as its length in chars (a varint) followed by the
+     * chars in UTF-8.  Each char is encoded on its own, so a supplementary
+     * character takes two 3-byte sequences (as in the modified UTF-8 of
+     * {@code DataOutput.writeUTF}), but unlike {@code writeUTF} there is no
+     * 64 KiB limit.
+     * 笔记：先写 char 个数(varint)，再逐个 char 按 UTF-8 编码；代理对的两个 char 分别编码为 3 字节，
+     *      和 DataOutput.writeUTF 的 modified UTF-8 一样，但没有 64K 的长度限制。
+     *      先写 char 个数而不是字节数，所以不需要预先扫描一遍字符串计算编码后的长度
+     */
+    public void writeString(String s) throws IOException {
+        int len = s.length();
+        writeVarInt(len);
+        // at most 3 bytes per char: encode the string in chunks that fit
+        int chunk = buf.length / 3;
+        for (int i = 0; i < len; ) {
+            int end = Math.min(len, i + chunk);
+            require(3 * (end - i));
+            byte[] b = buf;
+            int p = pos;
+            for (; i < end; i++) {
+                char c = s.charAt(i);
+                if (c < 0x80) {
+                    b[p++] = (byte) c;
+                } else if (c < 0x800) {
+                    b[p++] = (byte) (0xC0 | (c >> 6));
+                    b[p++] = (byte) (0x80 | (c & 0x3F));
+                } else {
+                    b[p++] = (byte) (0xE0 | (c >> 12));
+                    b[p++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    b[p++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+            pos = p;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.mee.source.codec;
+
+import com.mee.source.c2.HashMap;
+
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.StreamCorruptedException;
+
+/**
+ * The element codecs known to a {@link CollectionCodec}, each under a
+ * one-byte type tag that is written in front of every element.
+ * CollectionCodec 使用的元素编解码器集合，每个编解码器对应一个单字节的类型标记，写在每个元素前面
+ *
+ * <p>Tags {@code 1} to {@code 15} are reserved for the built-in codecs:
+ * {@code String}, {@code Integer}, {@code Long}, {@code Double},
+ * {@code Float}, {@code Short}, {@code Byte}, {@code Character} and
+ * {@code Boolean}; tag {@code 0} stands for {@code null}.  User types are registered with an explicit tag from
+ * {@value #FIRST_USER_TAG} to {@value #MAX_TAG}, and the reading side must
+ * register the same type under the same tag.  Types are matched exactly,
+ * a subclass of a registered type needs a registration of its own.
+ * 笔记：0 表示 null，1 ~ 15 保留给内置的编解码器(String 和基本类型的包装类)；
+ *      用户类型用 16 ~ 127 之间显式指定的标记注册，读写两端必须用相同的标记注册相同的类型。
+ *      类型按 Class 精确匹配，注册类型的子类需要单独注册
+ *
+ * <p>A registry is meant to be set up once and then shared; registering
+ * while a codec is in use by another thread is not safe.
+ *
+ * @see ElementCodec
+ */
+public final class CodecRegistry {
+
+    /**
+     * The tag written for a {@code null} element.
+     */
+    static final int NULL_TAG = 0;
+
+    /**
+     * The smallest tag available to {@link #register}.
+     */
+    public static final int FIRST_USER_TAG = 16;
+
+    /**
+     * The largest tag.
+     */
+    public static final int MAX_TAG = 127;
+
+    /**
+     * The registered types and their codecs.
+     */
+    static final class Entry {
+        final int tag;
+        final Class<?> type;
+        final ElementCodec<Object> codec;
+
+        @SuppressWarnings("unchecked")
+        Entry(int tag, Class<?> type, ElementCodec<?> codec) {
+            this.tag = tag;
+            this.type = type;
+            this.codec = (ElementCodec<Object>) codec;
+        }
+    }
+
+    private final Entry[] byTag = new Entry[MAX_TAG + 1];
+    private final HashMap<Class<?>, Entry> byType = new HashMap<>();
+
+    /**
+     * Creates a registry holding only the built-in codecs.
+     */
+    public CodecRegistry() {
+        add(1, String.class, STRING);
+        add(2, Integer.class, INTEGER);
+        add(3, Long.class, LONG);
+        add(4, Double.class, DOUBLE);
+        add(5, Float.class, FLOAT);
+        add(6, Short.class, SHORT);
+        add(7, Byte.class, BYTE);
+        add(8, Character.class, CHARACTER);
+        add(9, Boolean.class, BOOLEAN);
+    }
+
+    /**
+     * Registers {@code codec} for the values of exactly {@code type}, under
+     * {@code tag}.
+     * 注册 type 类型的编解码器
+     *
+     * @param tag the type tag, from {@value #FIRST_USER_TAG} to {@value #MAX_TAG}
+     * @param type the type of the values
+     * @param codec the codec
+     * @param <T> the type of the values
+     * @return this registry
+     * @throws IllegalArgumentException if the tag is out of range, or the
+     *         tag or the type is already registered
+     */
+    public <T> CodecRegistry register(int tag, Class<T> type, ElementCodec<? super T> codec) {
+        if (tag < FIRST_USER_TAG || tag > MAX_TAG)
+            throw new IllegalArgumentException("Illegal tag: " + tag);
+        if (type == null || codec == null)
+            throw new NullPointerException();
+        if (byTag[tag] != null)
+            throw new IllegalArgumentException("Tag " + tag + " already registered for " + byTag[tag].type.getName());
+        if (byType.containsKey(type))
+            throw new IllegalArgumentException(type.getName() + " already registered");
+        add(tag, type, codec);
+        return this;
+    }
+
+    private void add(int tag, Class<?> type, ElementCodec<?> codec) {
+        Entry e = new Entry(tag, type, codec);
+        byTag[tag] = e;
+        byType.put(type, e);
+    }
+
+    /**
+     * Returns the entry for the class of {@code value}.
+     *
+     * @throws NotSerializableException if no codec is registered for it
+     */
+    Entry forValue(Object value) throws NotSerializableException {
+        Entry e = byType.get(value.getClass());
+        if (e == null)
+            throw new NotSerializableException(value.getClass().getName());
+        return e;
+    }
+
+    /**
+     * Returns the entry for a tag read from the input.
+     *
+     * @throws StreamCorruptedException if no codec is registered for it
+     */
+    Entry forTag(int tag) throws StreamCorruptedException {
+        Entry e = (tag > 0 && tag <= MAX_TAG) ? byTag[tag] : null;
+        if (e == null)
+            throw new StreamCorruptedException("Unknown type tag: " + tag);
+        return e;
+    }
+
+    // ------------------------------------------------------------------
+    // built-in codecs
+
+    static final ElementCodec<String> STRING = new ElementCodec<String>() {
+        public void write(BinaryOutput out, String value) throws IOException {
+            out.writeString(value);
+        }
+        public String read(BinaryInput in) throws IOException {
+            return in.readString();
+        }
+    };
+
+    // 整数使用 zig-zag varint，绝对值小的数只占 1~2 个字节
+    static final ElementCodec<Integer> INTEGER = new ElementCodec<Integer>() {
+        public void write(BinaryOutput out, Integer value) throws IOException {
+            out.writeSignedVarInt(value);
+        }
+        public Integer read(BinaryInput in) throws IOException {
+            return in.readSignedVarInt();
+        }
+    };
+
+    static final ElementCodec<Long> LONG = new ElementCodec<Long>() {
+        public void write(BinaryOutput out, Long value) throws IOException {
+            out.writeSignedVarLong(value);
+        }
+        public Long read(BinaryInput in) throws IOException {
+            return in.readSignedVarLong();
+        }
+    };
+
+    static final ElementCodec<Double> DOUBLE = new ElementCodec<Double>() {
+        public void write(BinaryOutput out, Double value) throws IOException {
+            out.writeDouble(value);
+        }
+        public Double read(BinaryInput in) throws IOException {
+            return in.readDouble();
+        }
+    };
+
+    static final ElementCodec<Float> FLOAT = new ElementCodec<Float>() {
+        public void write(BinaryOutput out, Float value) throws IOException {
+            out.writeFloat(value);
+        }
+        public Float read(BinaryInput in) throws IOException {
+            return in.readFloat();
+        }
+    };
+
+    static final ElementCodec<Short> SHORT = new ElementCodec<Short>() {
+        public void write(BinaryOutput out, Short value) throws IOException {
+            out.writeSignedVarInt(value);
+        }
+        public Short read(BinaryInput in) throws IOException {
+            return (short) in.readSignedVarInt();
+        }
+    };
+
+    static final ElementCodec<Byte> BYTE = new ElementCodec<Byte>() {
+        public void write(BinaryOutput out, Byte value) throws IOException {
+            out.writeByte(value);
+        }
+        public Byte read(BinaryInput in) throws IOException {
+            return in.readByte();
+        }
+    };
+
+    static final ElementCodec<Character> CHARACTER = new ElementCodec<Character>() {
+        public void write(BinaryOutput out, Character value) throws IOException {
+            out.writeChar(value);
+        }
+        public Character read(BinaryInput in) throws IOException {
+            return in.readChar();
+        }
+    };
+
+    static final ElementCodec<Boolean> BOOLEAN = new ElementCodec<Boolean>() {
+        public void write(BinaryOutput out, Boolean value) throws IOException {
+            out.writeBoolean(value);
+        }
+        public Boolean read(BinaryInput in) throws IOException {
+            return in.readBoolean();
+        }
+    };
+}
@@ -0,0 +1,296 @@
+package com.mee.source.codec;
+
+import com.mee.source.c1.ArrayList;
+import com.mee.source.c2.HashMap;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Map;
+
+/**
+ * Writes lists and maps in a compact, size-prefixed binary format and reads
+ * them back into presized {@link ArrayList} and {@link HashMap} instances.
+ * It is a much faster alternative to {@code writeObject}/{@code readObject}
+ * for large structures of strings, boxed primitives and types with a
+ * registered {@link ElementCodec}.
+ * 以紧凑的、带长度前缀的二进制格式写出 List 和 Map，并读回到预先设置好容量的 ArrayList/HashMap 中；
+ * 对于由字符串、包装类以及注册了编解码器的类型组成的大型结构，比 Java 序列化快得多
+ *
+ * <p>Format: a 4-byte magic number, a version byte, a kind byte
+ * ({@code 'L'} or {@code 'M'}) and the number of elements (or mappings)
+ * as a varint, followed by the elements (or keys and values, alternating).
+ * Every element is a one-byte type tag from the {@link CodecRegistry}
+ * ({@code 0} for {@code null}) followed by what its codec writes.
+ * 格式：4 字节魔数 + 1 字节版本 + 1 字节类型('L' 或 'M') + 元素(键值对)个数(varint)，
+ *      然后依次是各个元素(Map 为 key、value 交替)；每个元素是 1 字节的类型标记(null 为 0)加上编解码器写出的内容
+ *
+ * <p>Compared with Java serialization there are no class descriptors, no
+ * back references and no per-object block headers, the output reaches the
+ * channel in large batches (see {@link BinaryOutput}), and since the size
+ * comes first the reader allocates the list's array, or the map's table,
+ * once at its final size: the map never resizes or rehashes while it is
+ * read.  Shared references are not preserved; an object that occurs twice
+ * is read back as two equal objects.
+ * 笔记：和 Java 序列化相比：没有类描述信息、没有对象引用表、没有块头；输出以大批量的方式写入 channel；
+ *      由于大小写在最前面，读取时 ArrayList 的数组、HashMap 的 table 一次就分配到最终大小，
+ *      读取过程中不会扩容也不会 rehash。注意共享引用不会保留，同一个对象出现两次会读回两个相等的对象
+ *
+ * <p>A {@code CollectionCodec} holds no state besides its registry and can
+ * be shared by threads once the registry is set up.
+ *
+ * @see CodecRegistry
+ * @see ElementCodec
+ */
+public final class CollectionCodec {
+
+    /** "MEEC" */
+    static final int MAGIC = 0x4D454543;
+    static final int VERSION = 1;
+    static final int KIND_LIST = 'L';
+    static final int KIND_MAP = 'M';
+
+    private final CodecRegistry registry;
+
+    /**
+     * Creates a codec using only the built-in element codecs.
+     */
+    public CollectionCodec() {
+        this(new CodecRegistry());
+    }
+
+    /**
+     * Creates a codec using the element codecs of {@code registry}.
+     *
+     * @param registry the element codecs
+     */
+    public CollectionCodec(CodecRegistry registry) {
+        if (registry == null)
+            throw new NullPointerException();
+        this.registry = registry;
+    }
+
+    // ------------------------------------------------------------------
+    // lists
+
+    /**
+     * Writes the elements of {@code c}, in iteration order, to
+     * {@code channel} and flushes.
+     *
+     * @param c the collection to write
+     * @param channel the channel to write to
+     * @throws java.io.NotSerializableException if an element has no codec
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeList(Collection<?> c, WritableByteChannel channel) throws IOException {
+        BinaryOutput out = new BinaryOutput(channel);
+        writeList(c, out);
+        out.flush();
+    }
+
+    /**
+     * Writes the elements of {@code c}, in iteration order, to {@code out}.
+     * The output is not flushed, so more structures may follow.
+     *
+     * @param c the collection to write
+     * @param out the output
+     * @throws java.io.NotSerializableException if an element has no codec
+     * @throws ConcurrentModificationException if the size of {@code c}
+     *         changes while it is written
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeList(Collection<?> c, BinaryOutput out) throws IOException {
+        int size = c.size();
+        writeHeader(out, KIND_LIST, size);
+        Writer w = new Writer(registry, out);
+        int n = 0;
+        for (Object e : c) {
+            w.write(e);
+            n++;
+        }
+        if (n != size)
+            throw new ConcurrentModificationException();
+    }
+
+    /**
+     * Reads a list written by {@link #writeList} from {@code channel}.
+     *
+     * @param channel the channel to read from
+     * @param <E> the type of the elements
+     * @return the list, presized to exactly its elements
+     * @throws StreamCorruptedException if the input is not a list in this
+     *         format or uses an unknown type tag
+     * @throws IOException if an I/O error occurs
+     */
+    public <E> ArrayList<E> readList(ReadableByteChannel channel) throws IOException {
+        return readList(new BinaryInput(channel));
+    }
+
+    /**
+     * Reads a list written by {@link #writeList} from {@code in}.
+     *
+     * @param in the input
+     * @param <E> the type of the elements
+     * @return the list, presized to exactly its elements
+     * @throws StreamCorruptedException if the input is not a list in this
+     *         format or uses an unknown type tag
+     * @throws IOException if an I/O error occurs
+     */
+    @SuppressWarnings("unchecked")
+    public <E> ArrayList<E> readList(BinaryInput in) throws IOException {
+        int size = readHeader(in, KIND_LIST);
+        ArrayList<E> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+            list.add((E) read(in));
+        return list;
+    }
+
+    // ------------------------------------------------------------------
+    // maps
+
+    /**
+     * Writes the mappings of {@code m}, in iteration order, to
+     * {@code channel} and flushes.
+     *
+     * @param m the map to write
+     * @param channel the channel to write to
+     * @throws java.io.NotSerializableException if a key or value has no codec
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeMap(Map<?,?> m, WritableByteChannel channel) throws IOException {
+        BinaryOutput out = new BinaryOutput(channel);
+        writeMap(m, out);
+        out.flush();
+    }
+
+    /**
+     * Writes the mappings of {@code m}, in iteration order, to {@code out}.
+     * The output is not flushed, so more structures may follow.
+     *
+     * @param m the map to write
+     * @param out the output
+     * @throws java.io.NotSerializableException if a key or value has no codec
+     * @throws ConcurrentModificationException if the size of {@code m}
+     *         changes while it is written
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeMap(Map<?,?> m, BinaryOutput out) throws IOException {
+        int size = m.size();
+        writeHeader(out, KIND_MAP, size);
+        Writer w = new Writer(registry, out);
+        int n = 0;
+        for (Map.Entry<?,?> e : m.entrySet()) {
+            w.write(e.getKey());
+            w.write(e.getValue());
+            n++;
+        }
+        if (n != size)
+            throw new ConcurrentModificationException();
+    }
+
+    /**
+     * Reads a map written by {@link #writeMap} from {@code channel}.
+     *
+     * @param channel the channel to read from
+     * @param <K> the type of the keys
+     * @param <V> the type of the values
+     * @return the map, with a table large enough to never resize while it
+     *         was read
+     * @throws StreamCorruptedException if the input is not a map in this
+     *         format or uses an unknown type tag
+     * @throws IOException if an I/O error occurs
+     */
+    public <K,V> HashMap<K,V> readMap(ReadableByteChannel channel) throws IOException {
+        return readMap(new BinaryInput(channel));
+    }
+
+    /**
+     * Reads a map written by {@link #writeMap} from {@code in}.
+     *
+     * @param in the input
+     * @param <K> the type of the keys
+     * @param <V> the type of the values
+     * @return the map, with a table large enough to never resize while it
+     *         was read
+     * @throws StreamCorruptedException if the input is not a map in this
+     *         format or uses an unknown type tag
+     * @throws IOException if an I/O error occurs
+     */
+    @SuppressWarnings("unchecked")
+    public <K,V> HashMap<K,V> readMap(BinaryInput in) throws IOException {
+        int size = readHeader(in, KIND_MAP);
+        // 和 putMapEntries 一样按 size / loadFactor + 1 计算容量，读取过程中不会 resize
+        HashMap<K,V> map = new HashMap<>((int) Math.min(size / 0.75f + 1.0f, (float) (1 << 30)));
+        for (int i = 0; i < size; i++) {
+            K key = (K) read(in);
+            V value = (V) read(in);
+            map.put(key, value);
+        }
+        return map;
+    }
+
+    // ------------------------------------------------------------------
+    // elements
+
+    private static void writeHeader(BinaryOutput out, int kind, int size) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte(kind);
+        out.writeVarInt(size);
+    }
+
+    private static int readHeader(BinaryInput in, int kind) throws IOException {
+        if (in.readInt() != MAGIC)
+            throw new StreamCorruptedException("Bad magic number");
+        int version = in.readByte();
+        if (version != VERSION)
+            throw new StreamCorruptedException("Unsupported version: " + version);
+        int k = in.readByte();
+        if (k != kind)
+            throw new StreamCorruptedException("Expected kind '" + (char) kind + "' but was '" + (char) k + "'");
+        int size = in.readVarInt();
+        if (size < 0)
+            throw new StreamCorruptedException("Illegal size: " + size);
+        return size;
+    }
+
+    private Object read(BinaryInput in) throws IOException {
+        int tag = in.readByte();
+        if (tag == CodecRegistry.NULL_TAG)
+            return null;
+        return registry.forTag(tag).codec.read(in);
+    }
+
+    /**
+     * Writes tagged elements, remembering the codec of the last class seen:
+     * the elements of a large structure are nearly always of one or two
+     * classes, so the registry is rarely consulted.
+     * 写出带类型标记的元素；缓存上一个元素的类型对应的编解码器，
+     * 大型结构中元素的类型通常只有一两种，所以很少需要查询注册表
+     */
+    private static final class Writer {
+        private final CodecRegistry registry;
+        private final BinaryOutput out;
+        private CodecRegistry.Entry last;
+
+        Writer(CodecRegistry registry, BinaryOutput out) {
+            this.registry = registry;
+            this.out = out;
+        }
+
+        void write(Object value) throws IOException {
+            if (value == null) {
+                out.writeByte(CodecRegistry.NULL_TAG);
+                return;
+            }
+            CodecRegistry.Entry e = last;
+            if (e == null || e.type != value.getClass())
+                last = e = registry.forValue(value);
+            out.writeByte(e.tag);
+            e.codec.write(out, value);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.mee.source.codec;
+
+import java.io.IOException;
+
+/**
+ * Writes and reads the values of one type in the compact binary format of
+ * {@link CollectionCodec}.  Codecs for {@code String} and the boxed
+ * primitives are built in; codecs for other types are added with
+ * {@link CodecRegistry#register}.
+ * 元素编解码器：负责把一种类型的值写成紧凑的二进制格式，以及从中读回；
+ * String 和基本类型的包装类已经内置，其他类型通过 CodecRegistry#register 注册
+ *
+ * <p>A codec only handles non-null values of its own type; the type tag in
+ * front of every element and the encoding of {@code null} are taken care
+ * of by {@link CollectionCodec}.  {@link #read} must consume exactly the
+ * bytes that {@link #write} produced.
+ * 笔记：编解码器只处理本类型的非 null 值，元素前面的类型标记和 null 由 CollectionCodec 处理；
+ *      read 读取的字节必须和 write 写出的完全一致
+ *
+ * @param <T> the type of the values handled by this codec
+ * @see CodecRegistry
+ */
+public interface ElementCodec<T> {
+
+    /**
+     * Writes {@code value} to {@code out}.
+     *
+     * @param out the output
+     * @param value the value to write, never {@code null}
+     * @throws IOException if an I/O error occurs
+     */
+    void write(BinaryOutput out, T value) throws IOException;
+
+    /**
+     * Reads a value written by {@link #write} from {@code in}.
+     *
+     * @param in the input
+     * @return the value read
+     * @throws IOException if an I/O error occurs or the input is malformed
+     */
+    T read(BinaryInput in) throws IOException;
+}
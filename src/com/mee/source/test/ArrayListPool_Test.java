@@ -0,0 +1,55 @@
+package com.mee.source.test;
+
+import com.mee.source.c1.ArrayList;
+import com.mee.source.c1.ArrayListPool;
+
+public class ArrayListPool_Test {
+
+    private static final int REQUESTS = 200000;
+
+    public static void main(String[] args) throws InterruptedException {
+        // 每个请求都新建临时列表
+        long grows = 0;
+        long start = System.currentTimeMillis();
+        for (int r = 0; r < REQUESTS; r++) {
+            ArrayList<Integer> scratch = new ArrayList<>();
+            handle(r, scratch);
+            grows += scratch.growCount();
+        }
+        System.out.println("new ArrayList grow=" + grows + " " + (System.currentTimeMillis() - start) + "ms");
+
+        // 从池中获取，归还时保留容量
+        ArrayListPool pool = new ArrayListPool();
+        grows = 0;
+        start = System.currentTimeMillis();
+        for (int r = 0; r < REQUESTS; r++) {
+            ArrayList<Integer> scratch = pool.acquire();
+            scratch.resetGrowthStats();
+            handle(r, scratch);
+            grows += scratch.growCount();
+            pool.release(scratch);
+        }
+        System.out.println("pooled grow=" + grows + " " + (System.currentTimeMillis() - start) + "ms");
+        System.out.println("acquire=" + pool.acquireCount() + " reuse=" + pool.reuseCount()
+                + " release=" + pool.releaseCount() + " trim=" + pool.trimCount()); // 200000 199999 200000 2
+
+        // 泄漏检测：每次 acquire 都跟踪，从不归还
+        ArrayListPool leaky = new ArrayListPool(16, 1024, 4, 1,
+                site -> System.out.println("leak: " + site.getMessage()));
+        for (int i = 0; i < 3; i++) {
+            ArrayList<String> forgotten = leaky.acquire();
+            forgotten.add("x");
+        }
+        System.gc();
+        Thread.sleep(100);
+        System.out.println("leakCount=" + leaky.leakCount()); // 3
+    }
+
+    private static void handle(int request, ArrayList<Integer> scratch) {
+        // 偶尔出现的超大请求，归还时会被缩容
+        int n = (request % 100000 == 99999) ? 100000 : 200;
+        for (int i = 0; i < n; i++) {
+            scratch.add(i);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.mee.source.test;
+
+import com.mee.source.c1.ArrayList;
+
+import java.util.Iterator;
+import java.util.stream.IntStream;
+
+public class ArrayList_addAllSpliterator_Test {
+
+    public static void main(String[] args) {
+        // 逐个 add：会反复 grow
+        ArrayList<Integer> byAdd = new ArrayList<>();
+        Iterator<Integer> it = IntStream.range(0, 1000000).boxed().iterator();
+        while (it.hasNext()) {
+            byAdd.add(it.next());
+        }
+        System.out.println("add grow=" + byAdd.growCount()); // 30
+
+        // 根据 getExactSizeIfKnown 一次性扩容
+        ArrayList<Integer> bySpliterator = new ArrayList<>();
+        bySpliterator.addAll(IntStream.range(0, 1000000).boxed().spliterator());
+        System.out.println("addAll(Spliterator) grow=" + bySpliterator.growCount() + " size=" + bySpliterator.size()); // 1 1000000
+
+        // filter 之后只知道上限(estimateSize=1000000)，不按估计值预分配，容量跟随实际个数
+        ArrayList<Integer> filtered = new ArrayList<>();
+        filtered.addAll(IntStream.range(0, 1000000).boxed().filter(i -> i % 1000 == 0).spliterator());
+        System.out.println("filtered size=" + filtered.size() + " capacity=" + filtered.capacity()); // 1000 1234
+
+        // 根据 sizeHint 一次性扩容
+        ArrayList<Integer> byIterator = new ArrayList<>();
+        byIterator.addAll(IntStream.range(0, 1000000).boxed().iterator(), 1000000);
+        System.out.println("addAll(Iterator, int) grow=" + byIterator.growCount()); // 1
+
+        // 并行流收集，合并时直接从 elementData 拷贝
+        ArrayList<Integer> collected = IntStream.range(0, 1000000).boxed().parallel().collect(ArrayList.collector());
+        System.out.println(collected.equals(bySpliterator) + " " + byIterator.equals(byAdd)); // true true
+
+        // addAll(Collection) 的参数是 ArrayList 时不再调用 toArray
+        byAdd.addAll(byAdd);
+        System.out.println(byAdd.size() + " " + byAdd.get(1000001)); // 2000000 1
+    }
+}
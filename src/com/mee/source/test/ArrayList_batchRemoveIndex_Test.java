@@ -0,0 +1,81 @@
+package com.mee.source.test;
+
+import com.mee.source.c1.ArrayList;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+public class ArrayList_batchRemoveIndex_Test {
+
+    public static void main(String[] args) {
+        // 参数是 LinkedList(contains 线性扫描)，之前 removeAll 是 O(n*m)
+        List<Integer> toRemove = new LinkedList<>();
+        for (int i = 0; i < 20000; i += 2) {
+            toRemove.add(i);
+        }
+
+        ArrayList<Integer> list = newList(200000);
+        long start = System.currentTimeMillis();
+        list.removeAll(toRemove);
+        System.out.println("removeAll size=" + list.size() + " " + (System.currentTimeMillis() - start) + "ms"); // 190000
+
+        list = newList(200000);
+        start = System.currentTimeMillis();
+        list.parallelRemoveAll(toRemove);
+        System.out.println("parallelRemoveAll size=" + list.size() + " " + (System.currentTimeMillis() - start) + "ms"); // 190000
+
+        list = newList(200000);
+        list.parallelRetainAll(toRemove);
+        System.out.println("parallelRetainAll size=" + list.size() + " first=" + list.get(0) + " last=" + list.get(list.size() - 1)); // 10000 0 19998
+
+        // null 元素同样可以被索引
+        ArrayList<Integer> withNull = newList(100);
+        withNull.add(null);
+        List<Integer> nulls = new LinkedList<>(newList(50));
+        nulls.add(null);
+        withNull.removeAll(nulls);
+        System.out.println(withNull.size() + " " + withNull.contains(null)); // 50 false
+
+        // 只对 contains 基于 equals 的列表类型建立索引：IdentityHashMap.values() 仍然按引用比较
+        Map<String, String> identity = new IdentityHashMap<>();
+        ArrayList<String> strings = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            String s = "s" + i;
+            strings.add(s);
+            identity.put(s, new String(s)); // 值与元素 equals，但不是同一个对象
+        }
+        strings.removeAll(identity.values());
+        System.out.println(strings.size()); // 100
+
+        // 参数大小的交叉点：包一层 unmodifiableList 之后不会建立索引，走线性 contains
+        // 8~16 个元素时两者相当，32 个元素时建立索引已快约 3 倍
+        for (int m = 8; m <= 64; m <<= 1) {
+            List<Integer> arg = new LinkedList<>(newList(m));
+            long indexed = Long.MAX_VALUE, linear = Long.MAX_VALUE;
+            for (int round = 0; round < 30; round++) {
+                ArrayList<Integer> a = newList(20000);
+                long t0 = System.nanoTime();
+                a.removeAll(arg);
+                long t1 = System.nanoTime();
+                a = newList(20000);
+                long t2 = System.nanoTime();
+                a.removeAll(Collections.unmodifiableList(arg));
+                long t3 = System.nanoTime();
+                indexed = Math.min(indexed, t1 - t0);
+                linear = Math.min(linear, t3 - t2);
+            }
+            System.out.println("m=" + m + " removeAll " + (m >= 32 ? "indexed " : "linear ") + indexed / 1000 + "us, linear " + linear / 1000 + "us");
+        }
+    }
+
+    private static ArrayList<Integer> newList(int n) {
+        ArrayList<Integer> list = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            list.add(i);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,31 @@
+package com.mee.source.test;
+
+import com.mee.source.c1.ArrayList;
+
+public class ArrayList_forEachChunk_Test {
+
+    public static void main(String[] args) {
+        ArrayList<String> list = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            list.add("e" + i);
+        }
+
+        // 不拷贝 elementData，直接读取底层数组的片段
+        StringBuilder out = new StringBuilder();
+        list.readSlice((array, from, to) -> {
+            for (int i = from; i < to; i++) {
+                out.append(array[i]).append(' ');
+            }
+        });
+        System.out.println(out); // e0 e1 e2 e3 e4 e5 e6 e7 e8 e9
+
+        // 每 4 个元素调用一次
+        list.forEachChunk(4, (array, from, to) -> System.out.println(from + ".." + to)); // 0..4 4..8 8..10
+
+        try {
+            list.forEachChunk(4, (array, from, to) -> list.add("x"));
+        } catch (java.util.ConcurrentModificationException e) {
+            System.out.println("CME " + list.size()); // CME 11
+        }
+    }
+}
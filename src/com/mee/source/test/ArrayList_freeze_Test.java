@@ -0,0 +1,55 @@
+package com.mee.source.test;
+
+import com.mee.source.c1.ArrayList;
+
+import java.util.List;
+
+public class ArrayList_freeze_Test {
+
+    public static void main(String[] args) {
+        ArrayList<String> list = new ArrayList<>();
+        list.add("a");
+        list.add("b");
+        List<String> frozen = list.freeze();
+        System.out.println(frozen + " " + frozen.getClass().getSimpleName()); // [a, b] Two
+        try {
+            frozen.add("c");
+        } catch (UnsupportedOperationException e) {
+            System.out.println("add: " + e.getMessage()); // add: Frozen list
+        }
+
+        // 大量只有 1~3 个元素的列表：ArrayList(容量 10) 与 freeze() 之后的占用对比
+        int n = 1000000;
+        Object[] lists = new Object[n];
+        long before = used();
+        for (int i = 0; i < n; i++) {
+            lists[i] = small(i);
+        }
+        long mutable = used() - before;
+        for (int i = 0; i < n; i++) {
+            lists[i] = null;
+        }
+        before = used();
+        for (int i = 0; i < n; i++) {
+            lists[i] = small(i).freeze();
+        }
+        long compact = used() - before;
+        System.out.println("ArrayList " + mutable / n + " bytes/list, frozen " + compact / n + " bytes/list");
+    }
+
+    static ArrayList<Integer> small(int i) {
+        ArrayList<Integer> l = new ArrayList<>();
+        for (int k = 0; k <= i % 3; k++) {
+            l.add(k); // Integer 缓存，不计入占用
+        }
+        return l;
+    }
+
+    static long used() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime rt = Runtime.getRuntime();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
@@ -0,0 +1,30 @@
+package com.mee.source.test;
+
+import com.mee.source.c1.ArrayList;
+import com.mee.source.c1.GrowthPolicy;
+
+public class ArrayList_growthPolicy_Test {
+
+    public static void main(String[] args) {
+        GrowthPolicy[] policies = {
+                GrowthPolicy.ONE_AND_HALF,
+                GrowthPolicy.DOUBLING,
+                GrowthPolicy.SIZE_CLASSES,
+                GrowthPolicy.fixedIncrement(1000, 1000)
+        };
+        // 同样添加 10 万个元素，对比各策略的 grow 次数以及拷贝量
+        for (GrowthPolicy policy : policies) {
+            ArrayList<Integer> list = new ArrayList<>(policy);
+            for (int i = 0; i < 100000; i++) {
+                list.add(i);
+            }
+            System.out.println(policy + " grow=" + list.growCount() + " copied=" + list.copiedElementCount());
+        }
+
+        // 大量的小列表：size class 第一次只分配 4 个槽位
+        ArrayList<String> tiny = new ArrayList<>(GrowthPolicy.SIZE_CLASSES);
+        tiny.add("a");
+        tiny.add("b");
+        System.out.println(GrowthPolicy.sizeClassFor(2) + " " + GrowthPolicy.sizeClassFor(17) + " " + GrowthPolicy.sizeClassFor(33)); // 4 20 40
+    }
+}
@@ -0,0 +1,81 @@
+package com.mee.source.test;
+
+import com.mee.source.c1.ArrayList;
+import com.mee.source.c1.TombstoneArrayList;
+
+import java.util.List;
+
+public class ArrayList_nestedSubList_Test {
+
+    private static final int N = 4096;
+    private static final int GETS = 1 << 20;
+    private static final int ROUNDS = 7;
+
+    public static void main(String[] args) {
+        ArrayList<String> arr = new ArrayList<>();
+        for (String s : "a b c d e f g h".split(" ")) {
+            arr.add(s);
+        }
+        // 子列表的子列表直接指向 arr，结构修改会同步到每一层
+        List<String> outer = arr.subList(1, 7);
+        List<String> inner = outer.subList(1, 4);
+        inner.add(1, "X");
+        inner.remove("d");
+        System.out.println(arr + " " + outer + " " + inner); // [a, b, c, X, e, f, g, h] [b, c, X, e, f, g] [c, X, e]
+
+        // 每种嵌套深度先预热，再取多轮中最快的一轮：每次 get 的耗时与深度无关，各深度基本相同
+        // depth 1 / 10 / 100 / 1000 的输出相近，例如 ArrayList get 1~2ns，TombstoneArrayList get 2~3ns(具体数值取决于机器)
+        int[] depths = {1, 10, 100, 1000};
+        for (int depth : depths) {
+            System.out.printf("depth %-5d ArrayList get %5.1fns, TombstoneArrayList get %5.1fns%n", depth,
+                    bestGetNanos(nest(new ArrayList<>(), depth)),
+                    bestGetNanos(nest(new TombstoneArrayList<>(), depth)));
+        }
+    }
+
+    /**
+     * Fills {@code list} and returns a view nested {@code depth} levels deep.
+     */
+    private static List<Integer> nest(List<Integer> list, int depth) {
+        for (int i = 0; i < N; i++) {
+            list.add(i);
+        }
+        List<Integer> view = list;
+        for (int d = 0; d < depth; d++) {
+            view = view.subList(1, view.size() - 1);
+        }
+        return view;
+    }
+
+    /**
+     * Returns the lowest average cost of one {@code get}, in nanoseconds,
+     * over several rounds after a warm-up.
+     */
+    private static double bestGetNanos(List<Integer> view) {
+        for (int i = 0; i < ROUNDS; i++) {
+            sumGets(view); // 预热
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            long sum = sumGets(view);
+            best = Math.min(best, System.nanoTime() - start);
+            if (sum == 42) {
+                System.out.println(sum); // 防止被优化掉
+            }
+        }
+        return (double) best / GETS;
+    }
+
+    private static long sumGets(List<Integer> view) {
+        long sum = 0;
+        int size = view.size();
+        for (int i = 0, j = 0; i < GETS; i++) {
+            sum += view.get(j);
+            if (++j == size) {
+                j = 0;
+            }
+        }
+        return sum;
+    }
+}
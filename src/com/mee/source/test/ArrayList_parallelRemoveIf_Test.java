@@ -0,0 +1,41 @@
+package com.mee.source.test;
+
+import com.mee.source.c1.ArrayList;
+
+public class ArrayList_parallelRemoveIf_Test {
+
+    public static void main(String[] args) {
+        ArrayList<String> list = newList(300001);
+        ArrayList<String> copy = newList(300001);
+
+        // 比较耗 CPU 的 predicate(正则)，顺序版本只有一个核在工作
+        long start = System.currentTimeMillis();
+        copy.removeIf(s -> s.matches(".*[37]$"));
+        System.out.println("removeIf size=" + copy.size() + " " + (System.currentTimeMillis() - start) + "ms"); // 240001
+
+        start = System.currentTimeMillis();
+        list.parallelRemoveIf(s -> s.matches(".*[37]$"));
+        System.out.println("parallelRemoveIf size=" + list.size() + " " + (System.currentTimeMillis() - start) + "ms"); // 240001
+        System.out.println(list.equals(copy)); // true
+
+        start = System.currentTimeMillis();
+        copy.replaceAll(s -> s.replaceAll("([0-9])", "$1$1"));
+        System.out.println("replaceAll " + (System.currentTimeMillis() - start) + "ms");
+
+        start = System.currentTimeMillis();
+        list.parallelReplaceAll(s -> s.replaceAll("([0-9])", "$1$1"));
+        System.out.println("parallelReplaceAll " + (System.currentTimeMillis() - start) + "ms");
+        System.out.println(list.equals(copy) + " " + list.get(1)); // true 11
+
+        // 没有匹配的元素
+        System.out.println(list.parallelRemoveIf(s -> s.isEmpty())); // false
+    }
+
+    private static ArrayList<String> newList(int n) {
+        ArrayList<String> list = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            list.add(String.valueOf(i));
+        }
+        return list;
+    }
+}
@@ -0,0 +1,62 @@
+package com.mee.source.test;
+
+import com.mee.source.c1.ArrayList;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+public class ArrayList_parallelSort_Test {
+
+    public static void main(String[] args) {
+        System.out.println("cpus=" + Runtime.getRuntime().availableProcessors());
+        Comparator<Integer> cmp = Comparator.naturalOrder();
+        // 不同大小下对比顺序排序与并行排序的耗时，找到并行开始划算的大小(交叉点)
+        for (int n = 1 << 10; n <= 1 << 22; n <<= 1) {
+            Integer[] data = randomData(n);
+            // 先预热几轮
+            for (int i = 0; i < 3; i++) {
+                sequential(data, cmp);
+                parallel(data, cmp);
+            }
+            long seq = Long.MAX_VALUE, par = Long.MAX_VALUE;
+            for (int i = 0; i < 5; i++) {
+                seq = Math.min(seq, sequential(data, cmp));
+                par = Math.min(par, parallel(data, cmp));
+            }
+            System.out.printf("n=%-8d sort=%8dus parallelSort=%8dus %s%n",
+                    n, seq / 1000, par / 1000, par < seq ? "parallel" : "sequential");
+        }
+
+        // 稳定排序：只比较高位，相等元素保持原来的顺序
+        ArrayList<Integer> list = new ArrayList<>();
+        for (int i = 0; i < 200000; i++) {
+            list.add(i);
+        }
+        list.sort(Comparator.comparing(i -> (i % 1000) / 10));
+        System.out.println(list.get(0) + " " + list.get(1) + " " + list.get(2)); // 0 1 2
+    }
+
+    private static long sequential(Integer[] data, Comparator<Integer> cmp) {
+        Integer[] a = data.clone();
+        long start = System.nanoTime();
+        Arrays.sort(a, cmp);
+        return System.nanoTime() - start;
+    }
+
+    private static long parallel(Integer[] data, Comparator<Integer> cmp) {
+        ArrayList<Integer> list = new ArrayList<>(Arrays.asList(data));
+        long start = System.nanoTime();
+        list.parallelSort(cmp);
+        return System.nanoTime() - start;
+    }
+
+    private static Integer[] randomData(int n) {
+        Random random = new Random(n);
+        Integer[] data = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            data[i] = random.nextInt();
+        }
+        return data;
+    }
+}
@@ -0,0 +1,29 @@
+package com.mee.source.test;
+
+import com.mee.source.c1.BigArrayList;
+
+import java.util.Spliterator;
+
+public class BigArrayList_Test {
+
+    public static void main(String[] args) {
+        // 每段 16 个元素，方便观察分段
+        BigArrayList<String> list = new BigArrayList<>(4);
+        for (int i = 0; i < 100; i++) {
+            list.add("idx_" + i);
+        }
+        System.out.println(list.size64() + " / " + list.capacity()); // 100 / 112
+        list.add(3, "XX");
+        System.out.println(list.get(3L) + " " + list.get(4L)); // XX idx_3
+        list.remove(3L);
+
+        Spliterator<String> spliterator = list.spliterator();
+        Spliterator<String> prefix = spliterator.trySplit();
+        // 按段的边界拆分: [0,64) + [64,100)
+        System.out.println(prefix.estimateSize() + " + " + spliterator.estimateSize());
+
+        list.clear();
+        list.trimToSize();
+        System.out.println(list.isEmpty() + " " + list.capacity()); // true 0
+    }
+}
@@ -0,0 +1,109 @@
+package com.mee.source.test;
+
+import com.mee.source.c1.ArrayList;
+import com.mee.source.c2.HashMap;
+import com.mee.source.codec.BinaryInput;
+import com.mee.source.codec.BinaryOutput;
+import com.mee.source.codec.CodecRegistry;
+import com.mee.source.codec.CollectionCodec;
+import com.mee.source.codec.ElementCodec;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+public class CollectionCodec_Test {
+
+    private static final int SIZE = 2000000;
+
+    public static void main(String[] args) throws Exception {
+        ArrayList<String> list = new ArrayList<>(SIZE);
+        HashMap<Integer, String> map = new HashMap<>();
+        for (int i = 0; i < SIZE; i++) {
+            list.add("item-" + i);
+            map.put(i, "值-" + i);
+        }
+        list.set(7, null);
+
+        File file = File.createTempFile("codec", ".bin");
+        file.deleteOnExit();
+
+        // Java 序列化
+        long start = System.currentTimeMillis();
+        try (ObjectOutputStream oos = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            oos.writeObject(list);
+            oos.writeObject(map);
+        }
+        long written = System.currentTimeMillis() - start;
+        long length = file.length();
+        start = System.currentTimeMillis();
+        try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            ois.readObject();
+            ois.readObject();
+        }
+        System.out.println("ObjectOutputStream write=" + written + "ms read=" + (System.currentTimeMillis() - start) + "ms bytes=" + length);
+
+        // 二进制编解码：同一个 channel 中依次写入 list 和 map
+        CollectionCodec codec = new CollectionCodec();
+        start = System.currentTimeMillis();
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            BinaryOutput out = new BinaryOutput(ch);
+            codec.writeList(list, out);
+            codec.writeMap(map, out);
+            out.flush();
+        }
+        written = System.currentTimeMillis() - start;
+        length = file.length();
+        ArrayList<String> list2;
+        HashMap<Integer, String> map2;
+        start = System.currentTimeMillis();
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            BinaryInput in = new BinaryInput(ch);
+            list2 = codec.readList(in);
+            map2 = codec.readMap(in);
+        }
+        System.out.println("CollectionCodec    write=" + written + "ms read=" + (System.currentTimeMillis() - start) + "ms bytes=" + length);
+        System.out.println(list2.equals(list) + " " + map2.equals(map) + " " + list2.get(7)); // true true null
+
+        // 注册自定义类型
+        CodecRegistry registry = new CodecRegistry().register(16, Point.class, new ElementCodec<Point>() {
+            public void write(BinaryOutput out, Point p) throws IOException {
+                out.writeSignedVarInt(p.x);
+                out.writeSignedVarInt(p.y);
+            }
+            public Point read(BinaryInput in) throws IOException {
+                return new Point(in.readSignedVarInt(), in.readSignedVarInt());
+            }
+        });
+        ArrayList<Object> points = new ArrayList<>();
+        points.add(new Point(1, -2));
+        points.add("mixed");
+        points.add(3L);
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            new CollectionCodec(registry).writeList(points, ch);
+        }
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            System.out.println(new CollectionCodec(registry).readList(ch)); // [(1,-2), mixed, 3]
+        }
+    }
+
+    static final class Point {
+        final int x, y;
+
+        Point(int x, int y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        public String toString() {
+            return "(" + x + "," + y + ")";
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.mee.source.test;
+
+import com.mee.source.c1.ArrayList;
+import com.mee.source.c1.ColumnSchema;
+import com.mee.source.c1.ColumnarList;
+
+public class ColumnarList_Test {
+
+    private static final int SIZE = 5000000;
+
+    public static void main(String[] args) {
+        ColumnSchema schema = new ColumnSchema.Builder()
+                .longColumn("id")
+                .doubleColumn("price")
+                .doubleColumn("quantity")
+                .intColumn("venue")
+                .build();
+        int id = schema.column("id"), price = schema.column("price"),
+                quantity = schema.column("quantity"), venue = schema.column("venue");
+
+        // 对象列表
+        Runtime rt = Runtime.getRuntime();
+        System.gc();
+        long used = rt.totalMemory() - rt.freeMemory();
+        ArrayList<Trade> objects = new ArrayList<>();
+        for (int i = 0; i < SIZE; i++) {
+            objects.add(new Trade(i, 100 + (i % 100) / 100.0, i % 500, i % 8));
+        }
+        System.gc();
+        System.out.println("ArrayList<Trade> ~" + (rt.totalMemory() - rt.freeMemory() - used) / (1 << 20) + "MB");
+
+        // 列式存储
+        used = rt.totalMemory() - rt.freeMemory();
+        ColumnarList trades = new ColumnarList(schema);
+        for (int i = 0; i < SIZE; i++) {
+            trades.add()
+                    .setLong(id, i)
+                    .setDouble(price, 100 + (i % 100) / 100.0)
+                    .setDouble(quantity, i % 500)
+                    .setInt(venue, i % 8);
+        }
+        trades.trimToSize();
+        System.gc();
+        System.out.println("ColumnarList     ~" + (rt.totalMemory() - rt.freeMemory() - used) / (1 << 20) + "MB");
+
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            double notional = 0;
+            for (int i = 0; i < SIZE; i++) {
+                Trade t = objects.get(i);
+                notional += t.price * t.quantity;
+            }
+            long objectNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            double columnar = trades.doubleColumn(price).dot(trades.doubleColumn(quantity));
+            System.out.println("notional objects=" + objectNanos / 1000000 + "ms columnar="
+                    + (System.nanoTime() - start) / 1000000 + "ms " + (Math.abs(notional - columnar) < 1e-9 * notional));
+        }
+
+        // 列聚合与选择向量
+        System.out.println("max price=" + trades.doubleColumn(price).max()
+                + " venue 3 rows=" + trades.intColumn(venue).countBetween(3, 3)); // 100.99 625000
+        System.out.println(trades.get(7)); // {id=7, price=100.07, quantity=7.0, venue=7}
+    }
+
+    static final class Trade {
+        final long id;
+        final double price;
+        final double quantity;
+        final int venue;
+
+        Trade(long id, double price, double quantity, int venue) {
+            this.id = id;
+            this.price = price;
+            this.quantity = quantity;
+            this.venue = venue;
+        }
+    }
+}
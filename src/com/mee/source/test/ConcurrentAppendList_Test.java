@@ -0,0 +1,65 @@
+package com.mee.source.test;
+
+import com.mee.source.c1.ArrayList;
+import com.mee.source.c1.ConcurrentAppendList;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+public class ConcurrentAppendList_Test {
+
+    private static final int THREADS = 16;
+    private static final int PER_THREAD = 200000;
+
+    public static void main(String[] args) throws InterruptedException {
+        // 对比 synchronized 包装的 ArrayList 与无锁的 ConcurrentAppendList
+        final ArrayList<Long> locked = new ArrayList<>();
+        long start = System.currentTimeMillis();
+        run(v -> {
+            synchronized (locked) {
+                locked.add(v);
+            }
+        });
+        System.out.println("synchronized ArrayList size=" + locked.size() + " " + (System.currentTimeMillis() - start) + "ms");
+
+        final ConcurrentAppendList<Long> list = new ConcurrentAppendList<>();
+        start = System.currentTimeMillis();
+        run(list::add);
+        System.out.println("ConcurrentAppendList size=" + list.size() + " " + (System.currentTimeMillis() - start) + "ms"); // 3200000
+
+        // 每个生产者自己的元素保持追加的顺序
+        long[] last = new long[THREADS];
+        Arrays.fill(last, -1);
+        boolean ordered = true;
+        for (Long v : list) {
+            int t = (int) (v / PER_THREAD);
+            ordered &= v > last[t];
+            last[t] = v;
+        }
+        System.out.println("ordered=" + ordered + " sum=" + list.stream().mapToLong(Long::longValue).sum());
+
+        // 快照的大小固定，之后追加的元素不可见
+        List<Long> snapshot = list.snapshot();
+        list.addAll(Arrays.asList(-1L, -2L));
+        System.out.println(snapshot.size() + " " + list.size() + " " + list.get(list.size() - 1)); // 3200000 3200002 -2
+    }
+
+    interface Sink {
+        void put(long v);
+    }
+
+    private static void run(final Sink sink) throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            final long base = (long) t * PER_THREAD;
+            new Thread(() -> {
+                for (int i = 0; i < PER_THREAD; i++) {
+                    sink.put(base + i);
+                }
+                done.countDown();
+            }).start();
+        }
+        done.await();
+    }
+}
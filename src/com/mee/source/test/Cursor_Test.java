@@ -0,0 +1,74 @@
+package com.mee.source.test;
+
+import com.mee.source.c1.ArrayList;
+import com.mee.source.c2.HashMap;
+
+import java.lang.management.ManagementFactory;
+import java.util.Iterator;
+import java.util.Map;
+
+public class Cursor_Test {
+
+    public static void main(String[] args) {
+        ArrayList<Integer> list = new ArrayList<>();
+        HashMap<String, Integer> map = new HashMap<>();
+        for (int i = 0; i < 16; i++) {
+            list.add(i);
+            map.put("k" + i, i);
+        }
+
+        // 游标只创建一次，之后每轮遍历 reset 复用
+        ArrayList<Integer>.ListCursor lc = list.cursor();
+        HashMap<String, Integer>.MapCursor mc = map.cursor();
+        for (mc.reset(); mc.advance(); ) {
+            if (mc.value() % 4 == 0) {
+                mc.remove();
+            } else {
+                mc.setValue(mc.value() * 10);
+            }
+        }
+        System.out.println(map.size() + " " + map.get("k1")); // 12 10
+
+        int rounds = 2000000;
+        long sum = 0;
+        // 预热
+        for (int r = 0; r < rounds / 10; r++) {
+            sum += iteratorLoop(list, map) + cursorLoop(lc, mc);
+        }
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long tid = Thread.currentThread().getId();
+        long a0 = mx.getThreadAllocatedBytes(tid);
+        for (int r = 0; r < rounds; r++) {
+            sum += iteratorLoop(list, map);
+        }
+        long a1 = mx.getThreadAllocatedBytes(tid);
+        for (int r = 0; r < rounds; r++) {
+            sum += cursorLoop(lc, mc);
+        }
+        long a2 = mx.getThreadAllocatedBytes(tid);
+        System.out.println("iterator " + (a1 - a0) / rounds + " bytes/round, cursor " + (a2 - a1) / rounds + " bytes/round (" + sum + ")");
+    }
+
+    // 逃逸分析失败时(可用 -XX:-DoEscapeAnalysis 模拟)每轮分配两个迭代器对象
+    static long iteratorLoop(ArrayList<Integer> list, HashMap<String, Integer> map) {
+        long s = 0;
+        for (Iterator<Integer> it = list.iterator(); it.hasNext(); ) {
+            s += it.next();
+        }
+        for (Iterator<Map.Entry<String, Integer>> it = map.entrySet().iterator(); it.hasNext(); ) {
+            s += it.next().getValue();
+        }
+        return s;
+    }
+
+    static long cursorLoop(ArrayList<Integer>.ListCursor lc, HashMap<String, Integer>.MapCursor mc) {
+        long s = 0;
+        for (lc.reset(); lc.advance(); ) {
+            s += lc.get();
+        }
+        for (mc.reset(); mc.advance(); ) {
+            s += mc.value();
+        }
+        return s;
+    }
+}
@@ -0,0 +1,40 @@
+package com.mee.source.test;
+
+import com.mee.source.c1.ArrayList;
+import com.mee.source.c1.GapArrayList;
+
+import java.util.List;
+import java.util.ListIterator;
+
+public class GapArrayList_Test {
+
+    public static void main(String[] args) {
+        GapArrayList<Character> text = new GapArrayList<>();
+        for (char c : "hello world".toCharArray()) {
+            text.add(c);
+        }
+        // 光标移动到 5，连续插入：只有第一次需要移动间隙
+        ListIterator<Character> cursor = text.listIterator(5);
+        for (char c : ",,,".toCharArray()) {
+            cursor.add(c);
+        }
+        System.out.println(text + " gap@" + text.gapPosition()); // gap@8
+        text.remove(7); // 退格，只扩大间隙
+        System.out.println(text.size() + " gap@" + text.gapPosition()); // 13 gap@7
+
+        // 与 ArrayList 对比在中间位置的连续插入
+        int n = 200000;
+        List<Integer> gap = new GapArrayList<>();
+        List<Integer> arr = new ArrayList<>();
+        long t0 = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            gap.add(gap.size() / 2 + (i & 1), i);
+        }
+        long t1 = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            arr.add(arr.size() / 2 + (i & 1), i);
+        }
+        long t2 = System.nanoTime();
+        System.out.println("GapArrayList " + (t1 - t0) / 1000000 + "ms, ArrayList " + (t2 - t1) / 1000000 + "ms, equal=" + gap.equals(arr));
+    }
+}
@@ -0,0 +1,63 @@
+package com.mee.source.test;
+
+import com.mee.source.c1.ArrayList;
+import com.mee.source.c2.HashMap;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 并行版本需要多核：单核机器上可用 -Djava.util.concurrent.ForkJoinPool.common.parallelism=4 观察
+ */
+public class ImmutableHash_Test {
+
+    public static void main(String[] args) {
+        ArrayList<String> key = new ArrayList<>();
+        for (int i = 0; i < 200000; i++) {
+            key.add("item-" + i);
+        }
+        key.makeImmutable();
+        try {
+            key.add("x");
+        } catch (UnsupportedOperationException e) {
+            System.out.println("add: " + e.getMessage()); // add: Immutable list
+        }
+
+        // 大列表作为去重 key：hashCode 只计算一次
+        Set<ArrayList<String>> seen = new HashSet<>();
+        long t0 = System.nanoTime();
+        for (int i = 0; i < 1000; i++) {
+            seen.add(key);
+        }
+        long t1 = System.nanoTime();
+        ArrayList<String> mutable = new ArrayList<>(key);
+        Set<ArrayList<String>> seen2 = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            seen2.add(mutable);
+        }
+        long t2 = System.nanoTime();
+        System.out.println("immutable " + (t1 - t0) / 1000000 + "ms, mutable " + (t2 - t1) / 1000000 + "ms");
+
+        // 缓存的 hashCode 不同时 equals 直接返回 false
+        ArrayList<String> other = new ArrayList<>(key);
+        other.set(other.size() - 1, "changed");
+        other.makeImmutable().hashCode();
+        t0 = System.nanoTime();
+        boolean eq = key.equals(other);
+        t1 = System.nanoTime();
+        System.out.println("equals=" + eq + " in " + (t1 - t0) / 1000 + "us");
+
+        HashMap<Integer, String> map = new HashMap<>();
+        for (int i = 0; i < 200000; i++) {
+            map.put(i, "v" + i);
+        }
+        HashMap<Integer, String> copy = new HashMap<>(map);
+        t0 = System.nanoTime();
+        boolean e1 = map.equals(copy);
+        t1 = System.nanoTime();
+        boolean e2 = map.parallelEquals(copy);
+        t2 = System.nanoTime();
+        System.out.println("equals " + e1 + " " + (t1 - t0) / 1000 + "us, parallelEquals " + e2 + " " + (t2 - t1) / 1000 + "us");
+        System.out.println(map.hashCode() == map.parallelHashCode());
+    }
+}
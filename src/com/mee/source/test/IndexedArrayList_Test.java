@@ -0,0 +1,62 @@
+package com.mee.source.test;
+
+import com.mee.source.c1.ArrayList;
+import com.mee.source.c1.IndexedArrayList;
+
+import java.util.List;
+
+public class IndexedArrayList_Test {
+
+    public static void main(String[] args) {
+        ArrayList<String> plain = new ArrayList<>();
+        IndexedArrayList<String> indexed = new IndexedArrayList<>();
+        for (int i = 0; i < 100000; i++) {
+            plain.add("k" + i);
+            indexed.add("k" + i);
+        }
+
+        // 10 万个元素的列表上调用 contains 一万次
+        long start = System.currentTimeMillis();
+        int hits = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (plain.contains("k" + (i * 7))) hits++;
+        }
+        System.out.println("ArrayList.contains hits=" + hits + " " + (System.currentTimeMillis() - start) + "ms");
+
+        start = System.currentTimeMillis();
+        hits = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (indexed.contains("k" + (i * 7))) hits++;
+        }
+        System.out.println("IndexedArrayList.contains hits=" + hits + " " + (System.currentTimeMillis() - start) + "ms");
+
+        // 增量维护：add/set/删除最后一个元素
+        indexed.add("k5");
+        indexed.set(0, "k5");
+        System.out.println(indexed.indexOf("k5") + " " + indexed.lastIndexOf("k5") + " " + indexed.count("k5") + " " + indexed.contains("k0")); // 0 100000 3 false
+
+        // 中间删除增量维护索引：被左移元素的位置减一
+        indexed.remove(1);
+        System.out.println(indexed.indexOf("k2") + " " + indexed.lastIndexOf("k5")); // 1 99999
+        indexed.subList(0, 10).clear();
+        System.out.println(indexed.indexOf("k11") + " " + indexed.size()); // 0 99990
+
+        // contains 之后删除：删除不再丢弃索引，IndexedArrayList 应明显快于 ArrayList
+        System.out.println("ArrayList contains+remove " + containsThenRemove(new ArrayList<>()) + "ms");
+        System.out.println("IndexedArrayList contains+remove " + containsThenRemove(new IndexedArrayList<>()) + "ms");
+    }
+
+    private static long containsThenRemove(List<String> list) {
+        for (int i = 0; i < 100000; i++) {
+            list.add("k" + i);
+        }
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < 2000; i++) {
+            String x = "k" + (i * 37 % 100000);
+            if (list.contains(x)) {
+                list.remove(x);
+            }
+        }
+        return System.currentTimeMillis() - start;
+    }
+}
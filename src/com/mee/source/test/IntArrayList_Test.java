@@ -0,0 +1,44 @@
+package com.mee.source.test;
+
+import com.mee.source.c1.DoubleArrayList;
+import com.mee.source.c1.IntArrayList;
+import com.mee.source.c1.LongArrayList;
+
+import java.util.Spliterator;
+
+public class IntArrayList_Test {
+
+    public static void main(String[] args) {
+        IntArrayList ids = new IntArrayList();
+        for (int i = 0; i < 20; i++) {
+            ids.addInt(20 - i);
+        }
+        ids.removeIfInt(v -> v % 3 == 0);
+        ids.sort();
+        System.out.println(ids); // [1, 2, 4, 5, 7, 8, 10, 11, 13, 14, 16, 17, 19, 20]
+        System.out.println(ids.indexOfInt(13)); // 8
+        System.out.println(ids.subList(2, 5).getInt(0)); // 4
+
+        Spliterator.OfInt spliterator = ids.spliterator();
+        Spliterator.OfInt prefix = spliterator.trySplit();
+        System.out.println(prefix.estimateSize() + " + " + spliterator.estimateSize()); // 7 + 7
+        System.out.println(ids.intStream().sum()); // 147
+        // 隐式类型的 lambda 走 List 接口上的 forEach/removeIf，不会与基本类型版本产生歧义
+        int[] total = {0};
+        ids.forEach(v -> total[0] += v);
+        ids.removeIf(v -> v > 10);
+        System.out.println(total[0] + " " + ids); // 147 [1, 2, 4, 5, 7, 8, 10]
+
+        LongArrayList ts = new LongArrayList(new long[]{3L, 1L, 2L});
+        ts.sort();
+        System.out.println(ts + " " + ts.getLong(2)); // [1, 2, 3] 3
+        ts.replaceAllLong(v -> v * 10);
+        System.out.println(ts); // [10, 20, 30]
+
+        DoubleArrayList px = new DoubleArrayList();
+        px.addDouble(1.5);
+        px.addDouble(Double.NaN);
+        System.out.println(px.indexOfDouble(Double.NaN)); // 1
+        px.forEachDouble(v -> System.out.println(v)); // 1.5 和 NaN 各一行
+    }
+}
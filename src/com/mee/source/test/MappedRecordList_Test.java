@@ -0,0 +1,81 @@
+package com.mee.source.test;
+
+import com.mee.source.c1.MappedRecordList;
+import com.mee.source.c1.RecordCodec;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class MappedRecordList_Test {
+
+    private static final int SIZE = 5000000;
+
+    public static void main(String[] args) throws Exception {
+        Path file = File.createTempFile("trades", ".bin").toPath();
+        Files.delete(file);
+        file.toFile().deleteOnExit();
+
+        // 写入 500 万条 24 字节的成交记录
+        long start = System.currentTimeMillis();
+        try (MappedRecordList<Trade> trades = new MappedRecordList<>(file, Trade.CODEC)) {
+            for (int i = 0; i < SIZE; i++) {
+                trades.add(new Trade(i, 100.0 + (i % 100) / 100.0, i % 1000));
+            }
+            trades.set(0, new Trade(0, 1.5, 7));
+        }
+        System.out.println("write " + SIZE + " records " + (System.currentTimeMillis() - start) + "ms, file=" + Files.size(file));
+
+        // 重新打开：不做反序列化，耗时与记录数无关
+        start = System.currentTimeMillis();
+        try (MappedRecordList<Trade> trades = new MappedRecordList<>(file, Trade.CODEC)) {
+            System.out.println("reopen " + (System.currentTimeMillis() - start) + "ms size=" + trades.size()); // 5000000
+            System.out.println(trades.get(0) + " " + trades.get(SIZE - 1)); // Trade{0, 1.5, 7} Trade{4999999, 100.99, 999}
+
+            // 并行流按段拆分
+            double notional = trades.parallelStream().mapToDouble(t -> t.price * t.quantity).sum();
+            System.out.println("notional=" + notional);
+
+            // 只能从末尾删除
+            trades.subList(SIZE - 10, SIZE).clear();
+            trades.force();
+            System.out.println("size=" + trades.size()); // 4999990
+            try {
+                trades.remove(0);
+            } catch (UnsupportedOperationException e) {
+                System.out.println("remove(0): " + e.getClass().getSimpleName());
+            }
+        }
+    }
+
+    static final class Trade {
+        final long id;
+        final double price;
+        final long quantity;
+
+        Trade(long id, double price, long quantity) {
+            this.id = id;
+            this.price = price;
+            this.quantity = quantity;
+        }
+
+        public String toString() {
+            return "Trade{" + id + ", " + price + ", " + quantity + "}";
+        }
+
+        static final RecordCodec<Trade> CODEC = new RecordCodec<Trade>() {
+            public int recordSize() {
+                return 24;
+            }
+            public Trade read(ByteBuffer buf, int offset) {
+                return new Trade(buf.getLong(offset), buf.getDouble(offset + 8), buf.getLong(offset + 16));
+            }
+            public void write(ByteBuffer buf, int offset, Trade t) {
+                buf.putLong(offset, t.id);
+                buf.putDouble(offset + 8, t.price);
+                buf.putLong(offset + 16, t.quantity);
+            }
+        };
+    }
+}
@@ -0,0 +1,46 @@
+package com.mee.source.test;
+
+import com.mee.source.c1.ArrayList;
+import com.mee.source.c1.PersistentVector;
+
+public class PersistentVector_Test {
+
+    public static void main(String[] args) {
+        // 批量构建
+        PersistentVector.Builder<Integer> builder = PersistentVector.builder();
+        for (int i = 0; i < 1000000; i++) {
+            builder.add(i);
+        }
+        PersistentVector<Integer> v1 = builder.build();
+
+        // 发布快照：每次修改都得到一个新版本，旧版本不受影响
+        long start = System.currentTimeMillis();
+        PersistentVector<Integer> v2 = v1;
+        for (int i = 0; i < 10000; i++) {
+            v2 = v2.with(i, -i).append(i);
+        }
+        System.out.println("persistent snapshots " + (System.currentTimeMillis() - start) + "ms");
+        System.out.println(v1.get(1) + " " + v2.get(1) + " " + v1.size() + " " + v2.size()); // 1 -1 1000000 1010000
+
+        ArrayList<Integer> list = v1.toArrayList();
+        start = System.currentTimeMillis();
+        for (int i = 0; i < 100; i++) {
+            list.set(i, -i);
+            ArrayList<Integer> snapshot = new ArrayList<>(list);
+        }
+        System.out.println("ArrayList copies(100 only) " + (System.currentTimeMillis() - start) + "ms");
+
+        // subList / concat 共享结构
+        PersistentVector<Integer> head = v1.subList(0, 10);
+        PersistentVector<Integer> tail = v1.subList(999990, 1000000);
+        PersistentVector<Integer> joined = head.concat(tail).concat(PersistentVector.of(-1, -2));
+        System.out.println(joined); // [0, 1, ..., 9, 999990, ..., 999999, -1, -2]
+        System.out.println(v1.subList(17, 999983).concat(v1.subList(5, 70000)).get(999966)); // 5
+
+        try {
+            joined.add(1);
+        } catch (UnsupportedOperationException e) {
+            System.out.println("immutable");
+        }
+    }
+}
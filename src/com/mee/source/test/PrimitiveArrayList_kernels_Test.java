@@ -0,0 +1,51 @@
+package com.mee.source.test;
+
+import com.mee.source.c1.DoubleArrayList;
+import com.mee.source.c1.IntArrayList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class PrimitiveArrayList_kernels_Test {
+
+    public static void main(String[] args) {
+        Random random = new Random(1);
+        IntArrayList values = new IntArrayList(20000000);
+        List<Integer> boxed = new ArrayList<>(20000000);
+        for (int i = 0; i < 20000000; i++) {
+            int v = random.nextInt(1000000);
+            values.addInt(v);
+            boxed.add(v);
+        }
+
+        // 装箱的 List 逐个 equals 比较 vs 基本类型的展开循环
+        long start = System.currentTimeMillis();
+        int at = boxed.indexOf(-1);
+        System.out.println("boxed indexOf=" + at + " " + (System.currentTimeMillis() - start) + "ms");
+        start = System.currentTimeMillis();
+        at = values.indexOfInt(-1);
+        System.out.println("indexOfInt=" + at + " " + (System.currentTimeMillis() - start) + "ms");
+
+        start = System.currentTimeMillis();
+        long sum = 0;
+        for (Integer v : boxed) {
+            sum += v;
+        }
+        System.out.println("boxed sum=" + sum + " " + (System.currentTimeMillis() - start) + "ms");
+        start = System.currentTimeMillis();
+        System.out.println("sum=" + values.sum() + " " + (System.currentTimeMillis() - start) + "ms");
+
+        System.out.println(values.min() + " " + values.max()); // 0 999999
+        start = System.currentTimeMillis();
+        int count = values.countBetween(1000, 1999);
+        System.out.println("countBetween=" + count + " " + (System.currentTimeMillis() - start) + "ms");
+        System.out.println(values.filterBetween(1000, 1999).size() == count); // true
+
+        DoubleArrayList prices = new DoubleArrayList();
+        prices.addDouble(3.5);
+        prices.addDouble(-1.25);
+        prices.addDouble(8.0);
+        System.out.println(prices.sum() + " " + prices.min() + " " + prices.max() + " " + prices.filterBetween(0, 5)); // 10.25 -1.25 8.0 [3.5]
+    }
+}
@@ -0,0 +1,56 @@
+package com.mee.source.test;
+
+import com.mee.source.audit.SlackAuditor;
+import com.mee.source.c1.ArrayList;
+import com.mee.source.c2.HashMap;
+
+/**
+ * 运行时建议加上 -Xmx64m，以便看到内存监听器触发的自动缩容
+ */
+public class SlackAuditor_Test {
+
+    public static void main(String[] args) throws Exception {
+        // idleNanos = 0：任何实例都可以缩容
+        SlackAuditor auditor = new SlackAuditor(50000000L, 0);
+
+        ArrayList<ArrayList<Integer>> lists = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            // 每个列表扩容到 1000 以上，只保留 10 个元素
+            ArrayList<Integer> list = auditor.track(new ArrayList<>(), "buffers");
+            for (int j = 0; j < 1000; j++) {
+                list.add(j);
+            }
+            list.subList(10, list.size()).clear();
+            lists.add(list);
+        }
+        // 放入 100000 个映射后删除到只剩 100 个，table 不会自动缩小
+        HashMap<Integer, String> map = auditor.track(new HashMap<>());
+        for (int i = 0; i < 100000; i++) {
+            map.put(i, "v");
+        }
+        for (int i = 100; i < 100000; i++) {
+            map.remove(i);
+        }
+        System.out.println("buckets " + map.bucketCount() + " for " + map.size() + " mappings");
+        auditor.report().forEach(System.out::println);
+
+        long freed = auditor.trimIdle(Long.MAX_VALUE);
+        System.out.println("freed " + freed + " bytes, buckets now " + map.bucketCount() + ", slack " + auditor.totalSlackBytes());
+
+        // 内存监听器：GC 后老年代仍超过 50% 时自动缩容
+        auditor.startMemoryListener(0.5);
+        for (ArrayList<Integer> list : lists) {
+            list.ensureCapacity(4096);
+        }
+        System.out.println("slack before pressure " + auditor.totalSlackBytes());
+        ArrayList<long[]> ballast = new ArrayList<>();
+        long max = Runtime.getRuntime().maxMemory();
+        for (long held = 0; held < max * 0.6; held += 1 << 20) {
+            ballast.add(new long[1 << 17]);
+        }
+        System.gc();
+        Thread.sleep(200); // 通知是异步的
+        System.out.println("slack after pressure " + auditor.totalSlackBytes() + " (" + ballast.size() + " MiB held)");
+        auditor.stopMemoryListener();
+    }
+}
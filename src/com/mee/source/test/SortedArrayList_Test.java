@@ -0,0 +1,69 @@
+package com.mee.source.test;
+
+import com.mee.source.c1.ArrayList;
+import com.mee.source.c1.SortedArrayList;
+
+import java.util.Random;
+
+public class SortedArrayList_Test {
+
+    private static final int BATCHES = 200;
+    private static final int BATCH = 2000;
+
+    public static void main(String[] args) {
+        // 先各跑一遍预热 JIT
+        resort();
+        merge();
+        long start = System.currentTimeMillis();
+        ArrayList<Integer> resorted = resort();
+        System.out.println("add + sort + indexOf " + (System.currentTimeMillis() - start) + "ms");
+        start = System.currentTimeMillis();
+        SortedArrayList<Integer> sorted = merge();
+        System.out.println("merge addAll + binary indexOf " + (System.currentTimeMillis() - start) + "ms");
+        System.out.println(sorted.equals(resorted)); // true
+
+        // 单个插入与按值取范围
+        SortedArrayList<String> words = new SortedArrayList<>();
+        for (String w : "pear apple fig kiwi banana cherry grape".split(" ")) {
+            words.add(w);
+        }
+        System.out.println(words); // [apple, banana, cherry, fig, grape, kiwi, pear]
+        System.out.println(words.headList("fig") + " " + words.tailList("grape")); // [apple, banana, cherry] [grape, kiwi, pear]
+        System.out.println(words.subList("b", true, "g", false)); // [banana, cherry, fig]
+        System.out.println(words.indexOf("kiwi") + " " + words.contains("plum")); // 5 false
+        try {
+            words.set(0, "zzz");
+        } catch (UnsupportedOperationException e) {
+            System.out.println("set: UnsupportedOperationException");
+        }
+    }
+
+    // 每批 add 之后重新 sort，再线性 indexOf
+    private static ArrayList<Integer> resort() {
+        Random random = new Random(42);
+        ArrayList<Integer> list = new ArrayList<>();
+        for (int b = 0; b < BATCHES; b++) {
+            for (int i = 0; i < BATCH; i++) {
+                list.add(random.nextInt(1000000));
+            }
+            list.sort(null);
+            list.indexOf(500000);
+        }
+        return list;
+    }
+
+    // 批量归并 + 二分查找
+    private static SortedArrayList<Integer> merge() {
+        Random random = new Random(42);
+        SortedArrayList<Integer> list = new SortedArrayList<>();
+        for (int b = 0; b < BATCHES; b++) {
+            ArrayList<Integer> batch = new ArrayList<>(BATCH);
+            for (int i = 0; i < BATCH; i++) {
+                batch.add(random.nextInt(1000000));
+            }
+            list.addAll(batch);
+            list.indexOf(500000);
+        }
+        return list;
+    }
+}
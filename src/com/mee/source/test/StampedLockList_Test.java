@@ -0,0 +1,77 @@
+package com.mee.source.test;
+
+import com.mee.source.c1.ArrayList;
+import com.mee.source.c1.StampedLockList;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+public class StampedLockList_Test {
+
+    private static final int READERS = 32;
+    private static final int READS = 2000000;
+
+    public static void main(String[] args) throws InterruptedException {
+        ArrayList<Integer> table = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            table.add(i);
+        }
+        // 读多写少：大量读线程 + 一个偶尔整体替换内容的写线程
+        System.out.println("synchronizedList " + run(Collections.synchronizedList(new ArrayList<>(table))) + "ms");
+        System.out.println("StampedLockList " + run(new StampedLockList<>(new ArrayList<>(table))) + "ms");
+
+        StampedLockList<Integer> list = new StampedLockList<>(new ArrayList<>(table));
+        List<Integer> sub = list.subList(10, 20);
+        sub.set(0, -10);
+        System.out.println(list.get(10) + " " + list.indexOf(-10) + " " + sub.size()); // -10 10 10
+        System.out.println(list.stream().mapToInt(Integer::intValue).sum()); // 499480
+
+        // StampedLock 不可重入，回调都在释放锁之后执行：forEach 中写入列表不会死锁
+        StampedLockList<Integer> small = new StampedLockList<>();
+        small.add(1);
+        small.add(2);
+        small.forEach(e -> {
+            if (e == 1) {
+                small.add(3);
+            }
+        });
+        System.out.println(small); // [1, 2, 3]
+        // 写操作也不在持锁期间执行调用方的代码：addAll 自身、谓词中读取本列表都不会死锁
+        small.addAll(small);
+        System.out.println(small); // [1, 2, 3, 1, 2, 3]
+        small.removeIf(x -> x < small.size() / 2);
+        System.out.println(small); // [3, 3]
+    }
+
+    private static long run(final List<Integer> list) throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(READERS);
+        long start = System.currentTimeMillis();
+        for (int t = 0; t < READERS; t++) {
+            new Thread(() -> {
+                long sum = 0;
+                for (int i = 0; i < READS; i++) {
+                    sum += list.get(i % list.size());
+                }
+                if (sum < 0) {
+                    System.out.println(sum);
+                }
+                done.countDown();
+            }).start();
+        }
+        Thread writer = new Thread(() -> {
+            while (done.getCount() > 0) {
+                list.set(0, 0);
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        writer.start();
+        done.await();
+        writer.join();
+        return System.currentTimeMillis() - start;
+    }
+}
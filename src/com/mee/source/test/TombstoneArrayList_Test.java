@@ -0,0 +1,43 @@
+package com.mee.source.test;
+
+import com.mee.source.c1.ArrayList;
+import com.mee.source.c1.TombstoneArrayList;
+
+import java.util.List;
+import java.util.Random;
+
+public class TombstoneArrayList_Test {
+
+    public static void main(String[] args) {
+        TombstoneArrayList<String> list = new TombstoneArrayList<>();
+        for (String s : "a b c d e f".split(" ")) {
+            list.add(s);
+        }
+        // 删除只打墓碑，下标仍然正确
+        list.remove(1);
+        list.remove(2);
+        System.out.println(list + " get(2)=" + list.get(2) + " tombstones=" + list.tombstoneCount()); // [a, c, e, f] get(2)=e tombstones=2
+        list.compact();
+        System.out.println(list + " tombstones=" + list.tombstoneCount()); // [a, c, e, f] tombstones=0
+
+        // 与 ArrayList 对比随机位置的大量删除
+        int n = 200000;
+        List<Integer> tomb = new TombstoneArrayList<>();
+        List<Integer> arr = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            tomb.add(i);
+            arr.add(i);
+        }
+        Random r1 = new Random(42), r2 = new Random(42);
+        long t0 = System.nanoTime();
+        for (int i = 0; i < n / 2; i++) {
+            tomb.remove(r1.nextInt(tomb.size()));
+        }
+        long t1 = System.nanoTime();
+        for (int i = 0; i < n / 2; i++) {
+            arr.remove(r2.nextInt(arr.size()));
+        }
+        long t2 = System.nanoTime();
+        System.out.println("TombstoneArrayList " + (t1 - t0) / 1000000 + "ms, ArrayList " + (t2 - t1) / 1000000 + "ms, equal=" + tomb.equals(arr));
+    }
+}